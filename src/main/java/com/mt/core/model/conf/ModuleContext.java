@@ -1,10 +1,25 @@
 package com.mt.core.model.conf;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.mt.core.model.dao.support.QueryExecutors;
+import com.mt.core.model.service.support.ExportJobManager;
+import com.mt.core.model.service.support.MappingStrategy;
+import com.mt.core.model.service.support.MethodHandleMappingStrategy;
 
 @Configuration
 @EnableAspectJAutoProxy
@@ -19,4 +34,67 @@ public class ModuleContext {
 
         return mapper;
     }
+
+    /**
+     * Entity 與 DTO 對映: 以 MethodHandle 複製屬性, 無法原值複製的型別改以 ModelMapper 對映
+     */
+    @ConditionalOnMissingBean
+    @Bean
+    MappingStrategy mappingStrategy(ModelMapper modelMapper) {
+        return new MethodHandleMappingStrategy(modelMapper);
+    }
+
+    /**
+     * 大量資料列併行轉換為 DTO 所使用的 ForkJoinPool (不使用 common pool), parallelism 預設為 CPU 數 (最多 4)
+     */
+    @ConditionalOnMissingBean(name = "dtoMappingPool")
+    @Bean(destroyMethod = "shutdown")
+    ForkJoinPool dtoMappingPool(@Value("${core.model.dto-mapping.parallelism:0}") int parallelism) {
+        int size = parallelism > 0 ? parallelism : Math.min(4, Runtime.getRuntime().availableProcessors());
+
+        return new ForkJoinPool(size, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("dto-mapping-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * 背景匯出工作: 暫存檔目錄預設為系統暫存目錄下的 core-model-export, 各實體於其下使用專屬的子目錄
+     */
+    @ConditionalOnMissingBean
+    @Bean(destroyMethod = "shutdown")
+    ExportJobManager exportJobManager(@Value("${core.model.export-job.directory:}") String directory,
+            @Value("${core.model.export-job.pool-size:2}") int poolSize,
+            @Value("${core.model.export-job.queue-capacity:20}") int queueCapacity,
+            @Value("${core.model.export-job.max-jobs-per-user:2}") int maxJobsPerUser,
+            @Value("${core.model.export-job.retention-minutes:30}") long retentionMinutes,
+            @Value("${core.model.export-job.timeout-minutes:60}") long timeoutMinutes) throws IOException {
+        Path path = directory.isEmpty() ? Paths.get(System.getProperty("java.io.tmpdir"), "core-model-export")
+                : Paths.get(directory);
+
+        return new ExportJobManager(path, poolSize, queueCapacity, maxJobsPerUser,
+                TimeUnit.MINUTES.toMillis(retentionMinutes), TimeUnit.MINUTES.toMillis(timeoutMinutes));
+    }
+
+    /**
+     * count 與資料列併行查詢所使用的 executor, 大小應配合 DB connection pool 與 Tomcat 執行緒數設定
+     */
+    @ConditionalOnMissingBean(name = "pageQueryExecutor")
+    @Bean
+    ThreadPoolTaskExecutor pageQueryExecutor(@Value("${core.model.page-query.pool-size:8}") int poolSize,
+            @Value("${core.model.page-query.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("page-query-");
+        // 佇列已滿時由呼叫端執行緒執行, 即退回循序查詢
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+
+        QueryExecutors.setPageQueryExecutor(executor);
+
+        return executor;
+    }
 }
@@ -1,20 +1,13 @@
 package com.mt.core.model.dao;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-import javax.persistence.Column;
-import javax.persistence.Id;
-import javax.persistence.JoinColumn;
-import javax.persistence.Table;
-
-import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.query.NativeQuery;
@@ -24,13 +17,13 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.jdbc.core.JdbcTemplate;
 
-import com.mt.core.model.annotation.SearchKeyword;
+import com.mt.core.model.dao.support.FilterSQLCompiler;
 import com.mt.core.model.exception.DAOException;
 import com.mt.core.model.exception.InvalidColumnNameMappingException;
 import com.mt.core.model.exception.InvalidLogicalOperatorException;
+import com.mt.core.model.metadata.EntityMetadata;
 import com.mt.core.model.vo.PageRequestVO;
 import com.mt.core.model.vo.PageResponseVO;
-import com.mt.core.model.vo.PageRequestVO.Filter;
 import com.mt.core.model.vo.PageRequestVO.FilterDescriptor;
 import com.mt.core.model.vo.PageRequestVO.SortDescriptor;
 
@@ -52,16 +45,15 @@ public abstract class AbstractDAO<E, K> {
 	// Entity Class 屬性與 DB Table 欄位對照表
 	private final Map<String, String> columnsMap;
 
-	// 搜尋關鍵字的對象欄位
-	private String[] keywordColumns = new String[0];
+	// 過濾條件 SQL 組合 (含 SQL 快取)
+	private final FilterSQLCompiler filterSQLCompiler;
 
 	public AbstractDAO() {
-		// Entity table name
-		Table table = (Table) this.persistentClass.getAnnotation(Table.class);
-		this.persistentTable = StringUtils.isBlank(table.catalog()) ? table.name() : table.catalog().concat(".").concat(table.name());
-
-		// Entity Class 屬性與 DB Table 欄位對照表
-		this.columnsMap = this.createEntityColumnMapping();
+		// Entity table name 及 Entity Class 屬性與 DB Table 欄位對照表
+		EntityMetadata metadata = EntityMetadata.of(this.persistentClass);
+		this.persistentTable = metadata.getTable();
+		this.columnsMap = metadata.getColumns();
+		this.filterSQLCompiler = new FilterSQLCompiler(this.columnsMap, metadata.getColumnTypes(), metadata.getKeywordColumns());
 	}
 
 	protected Session getSession() {
@@ -76,6 +68,10 @@ public abstract class AbstractDAO<E, K> {
 		return this.persistentTable;
 	}
 
+	public FilterSQLCompiler getFilterSQLCompiler() {
+		return this.filterSQLCompiler;
+	}
+
 	public int deleteByKey(K key) throws DAOException {
 		try {
 			StringBuilder sql = (new StringBuilder("DELETE FROM ")).append(this.getPersistentTable()).append(" WHERE id=:id");
@@ -89,42 +85,21 @@ public abstract class AbstractDAO<E, K> {
 	public int deleteByKeys(K[] keys) throws DAOException {
 		try {
 			StringBuilder sql = (new StringBuilder("DELETE FROM ")).append(this.getPersistentTable()).append(" WHERE id IN :ids");
-			int count = this.getSession().createNativeQuery(sql.toString()).setParameterList("ids", keys).executeUpdate();
+			int chunkSize = this.filterSQLCompiler.getInListChunkSize();
+			int count = 0;
+
+			// 主鍵過多時分批刪除, 以免超過資料庫 IN 清單長度限制
+			for (int from = 0; from < keys.length; from += chunkSize) {
+				K[] chunk = Arrays.copyOfRange(keys, from, Math.min(from + chunkSize, keys.length));
+				count += this.getSession().createNativeQuery(sql.toString()).setParameterList("ids", chunk).executeUpdate();
+			}
+
 			return count;
 		} catch (Exception var4) {
 			throw new DAOException("多個主鍵刪除資料失敗", var4);
 		}
 	}
 
-	private Map<String, String> createEntityColumnMapping() {
-		Map<String, String> columnsMap = new HashMap();
-		Field[] var2 = this.persistentClass.getDeclaredFields();
-		int var3 = var2.length;
-
-		for (int var4 = 0; var4 < var3; ++var4) {
-			Field field = var2[var4];
-			if (field.isAnnotationPresent(Column.class) || field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(JoinColumn.class)) {
-				String fieldName = field.getName();
-				String columnName = fieldName;
-				if (field.isAnnotationPresent(Column.class)) {
-					Column column = (Column) field.getAnnotation(Column.class);
-					columnName = (String) StringUtils.defaultIfBlank(column.name(), fieldName);
-				} else if (field.isAnnotationPresent(JoinColumn.class)) {
-					JoinColumn column = (JoinColumn) field.getAnnotation(JoinColumn.class);
-					columnName = (String) StringUtils.defaultIfBlank(column.name(), fieldName);
-				}
-
-				if (field.isAnnotationPresent(SearchKeyword.class)) {
-					this.keywordColumns = (String[]) ArrayUtils.add(this.keywordColumns, columnName);
-				}
-
-				columnsMap.put(fieldName, columnName);
-			}
-		}
-
-		return columnsMap;
-	}
-
 	/**
 	 * 查詢 entity 屬性對映後端資料庫的欄位名稱
 	 * 
@@ -189,6 +164,7 @@ public abstract class AbstractDAO<E, K> {
 				whereSQL = this.getWhereSQL(req.getFilter(), params);
 			}
 
+			// 不支援 parallelCount: getCurrentSession 一律在交易中, 另一條連線的 count 看不到交易中未 commit 的異動
 			NativeQuery<Integer> countQuery = session.createNativeQuery(countSQL.append(whereSQL).toString()).addScalar("cnt", StandardBasicTypes.INTEGER);
 
 			for (String key : params.keySet()) {
@@ -207,49 +183,65 @@ public abstract class AbstractDAO<E, K> {
 
 			// 查詢結果列
 			if (count > 0) {
-				StringBuilder resultSQL = (new StringBuilder("SELECT * FROM ")).append(fromTableOrSubselect);
-				resultSQL.append(whereSQL);
+				result = this.queryRows(session, req, fromTableOrSubselect, whereSQL, params, subSelectParams);
+			}
 
-				// 處理排序
-				List<SortDescriptor> sortProps = req.getSortProps();
+			return new PageResponseVO(count, result);
+		} catch (Exception var16) {
+			throw new DAOException("查詢資料列失敗", var16);
+		}
+	}
 
-				if (sortProps != null) {
-					String orderBySQL = sortProps.stream().map(sort -> {
-						String columnName = this.getMappedColumnName(sort.getField());
-						return columnName + " " + Direction.fromString(sort.getDir());
-					}).collect(Collectors.joining(", ", " ORDER BY ", ""));
+	/**
+	 * 查詢資料列 (不含 count)
+	 * 
+	 * @param session
+	 * @param req
+	 * @param fromTableOrSubselect
+	 * @param whereSQL
+	 * @param params
+	 * @param subSelectParams
+	 * @return
+	 */
+	private List<E> queryRows(Session session, PageRequestVO req, String fromTableOrSubselect, String whereSQL, Map<String, Object> params,
+			Map<String, Object> subSelectParams) {
+		StringBuilder resultSQL = (new StringBuilder("SELECT * FROM ")).append(fromTableOrSubselect);
+		resultSQL.append(whereSQL);
 
-					resultSQL.append(orderBySQL);
-				}
+		// 處理排序
+		List<SortDescriptor> sortProps = req.getSortProps();
 
-				NativeQuery resultQuery = session.createNativeQuery(resultSQL.toString(), this.persistentClass);
+		if (sortProps != null) {
+			String orderBySQL = sortProps.stream().map(sort -> {
+				String columnName = this.getMappedColumnName(sort.getField());
+				return columnName + " " + Direction.fromString(sort.getDir());
+			}).collect(Collectors.joining(", ", " ORDER BY ", ""));
 
-				for (String key : params.keySet()) {
-					resultQuery.setParameter(key, params.get(key));
-				}
+			resultSQL.append(orderBySQL);
+		}
 
-				if (subSelectParams != null) {
-					for (String key : subSelectParams.keySet()) {
-						resultQuery.setParameter(key, subSelectParams.get(key));
-					}
-				}
+		NativeQuery resultQuery = session.createNativeQuery(resultSQL.toString(), this.persistentClass);
 
-				// size > 0 時, 做分頁處理
-				if (req.getSize() > 0) {
-					result = resultQuery.setMaxResults(req.getSize()).setFirstResult(req.getSize() * req.getPage()).list();
-				} else { // size 為 0 時, 不做分頁處理 (取全部資料)
-					result = resultQuery.list();
-				}
+		for (String key : params.keySet()) {
+			resultQuery.setParameter(key, params.get(key));
+		}
+
+		if (subSelectParams != null) {
+			for (String key : subSelectParams.keySet()) {
+				resultQuery.setParameter(key, subSelectParams.get(key));
 			}
+		}
 
-			return new PageResponseVO(count, result);
-		} catch (Exception var16) {
-			throw new DAOException("查詢資料列失敗", var16);
+		// size > 0 時, 做分頁處理
+		if (req.getSize() > 0) {
+			return resultQuery.setMaxResults(req.getSize()).setFirstResult(req.getSize() * req.getPage()).list();
+		} else { // size 為 0 時, 不做分頁處理 (取全部資料)
+			return resultQuery.list();
 		}
 	}
 
 	public String buildSqlConditions(FilterDescriptor filter, Map<String, Object> params) throws InvalidLogicalOperatorException, InvalidColumnNameMappingException {
-		return this.getCondSQL(filter, params, "");
+		return this.filterSQLCompiler.compile(filter, params);
 	}
 
 	/**
@@ -261,136 +253,8 @@ public abstract class AbstractDAO<E, K> {
 	 * @throws InvalidLogicalOperatorException
 	 */
 	private String getWhereSQL(FilterDescriptor filter, Map<String, Object> params) throws InvalidLogicalOperatorException, InvalidColumnNameMappingException {
-		String paramPrefix = "";
-		StringBuilder whereSQL = (new StringBuilder(" WHERE 1=1 AND (")).append(this.getCondSQL(filter, params, paramPrefix)).append(")");
-		return whereSQL.toString();
-	}
-
-	/**
-	 * 組合 SQL 查詢條件
-	 * 
-	 * @param filter
-	 * @param params
-	 * @param paramPrefix
-	 * @return
-	 * @throws InvalidLogicalOperatorException
-	 * @throws InvalidColumnNameMappingException
-	 */
-	private String getCondSQL(FilterDescriptor filter, Map<String, Object> params, String paramPrefix) throws InvalidLogicalOperatorException, InvalidColumnNameMappingException {
-		StringBuilder sql = new StringBuilder("");
-		Filter subFilter = filter.getFilter();
-
-		if (subFilter != null) {
-			List<FilterDescriptor> subFilters = subFilter.getSubFilters();
-
-			if (subFilters.size() == 1) {
-				return this.getCondSQL(subFilters.get(0), params, paramPrefix + "_0");
-			} else {
-				String logic = subFilter.getLogic();
-				String logicSQL = null;
-
-				if ("and".equals(logic)) {
-					sql.append("1=1");
-					logicSQL = " AND ";
-				} else {
-					sql.append("1=0");
-					logicSQL = " OR ";
-				}
-
-				for (int i = 0; i < subFilters.size(); i++) {
-					FilterDescriptor f = subFilters.get(i);
-
-					sql.append(logicSQL).append("(").append(this.getCondSQL(f, params, paramPrefix + "_" + i)).append(")");
-				}
-			}
-		} else {
-			String field = filter.getField();
-			Object value = filter.getValue();
-			String operator = filter.getOperator();
-			int paramIdx = 0;
-
-			if (value != null) {
-				String param = paramPrefix + "__" + (paramIdx++);
-
-				// 搜尋關鍵字
-				if ("keyword".equals(field)) {
-					params.put(param, "%" + value.toString() + "%");
-
-					if (this.keywordColumns == null || this.keywordColumns.length == 0) {
-
-					} else {
-						sql.append("1=0");
-
-						for (String column : this.keywordColumns) {
-							sql.append(" OR ").append(column).append(" LIKE :").append(param);
-						}
-					}
-				} else { // 其他過濾條件
-					String columnName = this.getMappedColumnName(field);
-					if (columnName == null) {
-						throw new InvalidColumnNameMappingException("找不到對映 " + field + " 的資料庫欄位名稱");
-					}
-
-					switch (operator) {
-
-					case "contains":
-						if (value instanceof List) {
-							params.put(param, value);
-							sql.append(columnName).append(" IN :").append(param);
-						} else {
-							params.put(param, "%" + value.toString() + "%");
-							sql.append(columnName).append(" LIKE :").append(param);
-						}
-						break;
-					case "between":
-						List<?> values = (List<?>) value;
-						Object from = values.get(0);
-						Object to = values.get(1);
-
-						if (from != null && to != null) {
-							String param2 = paramPrefix + "__" + (paramIdx++);
-							params.put(param, from);
-							params.put(param2, to);
-
-							sql.append(columnName).append(" BETWEEN :").append(param).append(" AND :").append(param2);
-						} else if (from != null) {
-							params.put(param, from);
-							sql.append(columnName).append(" >= :").append(param);
-						} else if (to != null) {
-							params.put(param, to);
-							sql.append(columnName).append(" <= :").append(param);
-						}
-						break;
-					case "gt":
-						params.put(param, value);
-						sql.append(columnName).append(" > :").append(param);
-						break;
-					case "ge":
-						params.put(param, value);
-						sql.append(columnName).append(" >= :").append(param);
-						break;
-					case "lt":
-						params.put(param, value);
-						sql.append(columnName).append(" < :").append(param);
-						break;
-					case "le":
-						params.put(param, value);
-						sql.append(columnName).append(" <= :").append(param);
-						break;
-					case "eq":
-						String sqlOperator = value instanceof List || value.getClass().isArray() ? "IN" : "=";
-						params.put(param, value);
-						sql.append(columnName).append(" ").append(sqlOperator).append(" :").append(param);
-						break;
-					default:
-						throw new InvalidLogicalOperatorException("無效的邏輯運算子 " + operator);
-					}
-
-				}
-			}
-		}
-
-		return sql.toString();
+		String condSQL = this.filterSQLCompiler.compile(filter, params);
+		return condSQL.isEmpty() ? "" : " WHERE (" + condSQL + ")";
 	}
 
 }
\ No newline at end of file
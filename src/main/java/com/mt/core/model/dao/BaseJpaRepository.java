@@ -1,11 +1,24 @@
 package com.mt.core.model.dao;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import com.mt.core.model.dao.support.FilterSQLCompiler;
 import com.mt.core.model.exception.DAOException;
+import com.mt.core.model.search.KeywordSearchEngine;
+import com.mt.core.model.vo.AggregateRequestVO;
+import com.mt.core.model.vo.AggregateResponseVO;
+import com.mt.core.model.vo.FacetOptionVO;
+import com.mt.core.model.vo.FacetRequestVO;
 import com.mt.core.model.vo.PageRequestVO;
 import com.mt.core.model.vo.PageResponseVO;
+import com.mt.core.model.vo.PageRequestVO.FilterDescriptor;
+import com.mt.core.model.vo.UpsertResultVO;
 
 /**
  * Base JPA class
@@ -21,6 +34,204 @@ public interface BaseJpaRepository<E, K> extends JpaRepository<E, K> {
 	public PageResponseVO<E> getRows(PageRequestVO req) throws DAOException;
 
 	public PageResponseVO<E> getRows(PageRequestVO req, String fromTableOrSubselect) throws DAOException;
+
+	/**
+	 * 查詢資料; readOnly 為 true 時, 查詢結果為唯讀 entity (不保留 dirty checking 快照, 異動不會寫回資料庫), 且查詢前不
+	 * flush persistence context
+	 * 
+	 * @param req
+	 * @param readOnly
+	 * @return
+	 * @throws DAOException
+	 */
+	public PageResponseVO<E> getRows(PageRequestVO req, boolean readOnly) throws DAOException;
+
+	/**
+	 * 查詢資料並直接對映為 DTO: 僅查詢 req.fields 對映的欄位, 以 JDBC 讀取, 不經 persistence context
+	 * 
+	 * @param <T>
+	 * @param req
+	 * @param dtoClass
+	 * @return
+	 * @throws DAOException
+	 */
+	public <T> PageResponseVO<T> getRows(PageRequestVO req, Class<T> dtoClass) throws DAOException;
+
+	/**
+	 * 自指定的資料表或 subselect 查詢資料並直接對映為 DTO
+	 * 
+	 * @param <T>
+	 * @param req
+	 * @param fromTableOrSubselect
+	 * @param dtoClass
+	 * @return
+	 * @throws DAOException
+	 */
+	public <T> PageResponseVO<T> getRows(PageRequestVO req, String fromTableOrSubselect, Class<T> dtoClass)
+			throws DAOException;
+
+	/**
+	 * 查詢符合過濾條件的資料列數 (req.size 大於 0 時, 為該頁的資料列數)
+	 * 
+	 * @param req
+	 * @return
+	 * @throws DAOException
+	 */
+	public long countRows(PageRequestVO req) throws DAOException;
+
+	/**
+	 * 以資料庫游標逐筆讀取查詢結果, 適用於匯出/批次作業等大量資料讀取. 每 fetch size 筆, 讀取期間載入的 entity (含 EAGER 關聯及
+	 * lazy loading 載入者) 會自 persistence context 分離, 記憶體用量不隨資料量增加; 讀取前已載入的 entity 不受影響, 讀取期間對分離
+	 * entity 的異動不會寫回. 須於交易內使用, 並於使用後關閉 Stream (try-with-resources)
+	 * 
+	 * @param req
+	 * @return
+	 * @throws DAOException
+	 */
+	public Stream<E> streamRows(PageRequestVO req) throws DAOException;
+
+	/**
+	 * 以資料庫游標逐筆讀取查詢結果
+	 * 
+	 * @param req
+	 * @param fetchSize JDBC fetch size
+	 * @return
+	 * @throws DAOException
+	 */
+	public Stream<E> streamRows(PageRequestVO req, int fetchSize) throws DAOException;
 	
+	/**
+	 * 彙總查詢: 依過濾條件及分組屬性計算 COUNT/SUM/AVG/MIN/MAX (單一 SQL 敍述)
+	 * 
+	 * @param req
+	 * @return
+	 * @throws DAOException
+	 */
+	public AggregateResponseVO aggregate(AggregateRequestVO req) throws DAOException;
+
+	/**
+	 * 多屬性 facet 查詢: 依過濾條件統計各 facet 屬性的值及筆數 (各屬性同時查詢)
+	 * 
+	 * @param req
+	 * @return facet 屬性 與 選項對映
+	 * @throws DAOException
+	 */
+	public Map<String, List<FacetOptionVO>> getFacets(FacetRequestVO req) throws DAOException;
+
+	/**
+	 * 以 JDBC batch 新增資料列 (每批 1000 筆)
+	 * 
+	 * @param entities
+	 * @return 新增筆數
+	 * @throws DAOException
+	 */
+	public int insertAll(List<E> entities) throws DAOException;
+
+	/**
+	 * 以 JDBC batch 新增資料列: 不經 persistence context, 於用戶端產生 id
+	 * 
+	 * @param entities
+	 * @param batchSize 每批筆數
+	 * @return 新增筆數
+	 * @throws DAOException
+	 */
+	public int insertAll(List<E> entities, int batchSize) throws DAOException;
+
+	/**
+	 * 以 JDBC batch 新增或更新資料列 (每批 1000 筆)
+	 * 
+	 * @param entities
+	 * @param keyFields 判斷資料是否存在的屬性, 未指定時為 id
+	 * @return 新增與更新筆數
+	 * @throws DAOException 同一批中有 key 相同的資料時為 DuplicateRecordsException
+	 */
+	public UpsertResultVO upsertAll(List<E> entities, String... keyFields) throws DAOException;
+
+	/**
+	 * 以 JDBC batch 新增或更新資料列: 依資料庫種類產生 MERGE / INSERT ... ON CONFLICT 敍述
+	 * 
+	 * @param entities
+	 * @param batchSize 每批筆數
+	 * @param keyFields 判斷資料是否存在的屬性, 未指定時為 id
+	 * @return 新增與更新筆數
+	 * @throws DAOException 同一批中有 key 相同的資料時為 DuplicateRecordsException
+	 */
+	public UpsertResultVO upsertAll(List<E> entities, int batchSize, String... keyFields) throws DAOException;
+
+	/**
+	 * 依過濾條件刪除資料列 (單一 DELETE 敍述); 無過濾條件時不執行
+	 * 
+	 * @param filter
+	 * @return 刪除筆數
+	 * @throws DAOException
+	 */
+	public int deleteByFilter(FilterDescriptor filter) throws DAOException;
+
+	/**
+	 * 依過濾條件分批刪除資料列, 每批個別 commit
+	 * 
+	 * @param filter
+	 * @param chunkSize 每批筆數
+	 * @return 刪除筆數
+	 * @throws DAOException
+	 */
+	public int deleteByFilter(FilterDescriptor filter, int chunkSize) throws DAOException;
+
+	/**
+	 * 依過濾條件更新資料列 (單一 UPDATE 敍述), 並更新 @LastModifiedDate 欄位; 無過濾條件時不執行
+	 * 
+	 * @param filter
+	 * @param assignments 屬性 與 更新值
+	 * @return 更新筆數
+	 * @throws DAOException
+	 */
+	public int updateByFilter(FilterDescriptor filter, Map<String, Object> assignments) throws DAOException;
+
 	public String getPersistentTable();
+
+	/**
+	 * 過濾條件 SQL 組合元件 (可取得 SQL 快取命中/未命中次數)
+	 * 
+	 * @return
+	 */
+	public FilterSQLCompiler getFilterSQLCompiler();
+
+	/**
+	 * 設定關鍵字搜尋引擎; 索引就緒時, 關鍵字條件先以索引取得候選 id 再以 LIKE 比對, 否則以 LIKE 查詢
+	 * 
+	 * @param keywordSearchEngine null 時取消
+	 * @throws DAOException 複合主鍵的實體
+	 */
+	public void setKeywordSearchEngine(KeywordSearchEngine keywordSearchEngine) throws DAOException;
+
+	public KeywordSearchEngine getKeywordSearchEngine();
+
+	/**
+	 * 設定目前使用者, 供 updateByFilter 更新 @LastModifiedBy 屬性 (由 service 設定)
+	 * 
+	 * @param auditorAware
+	 */
+	public void setAuditorAware(AuditorAware<?> auditorAware);
+
+	/**
+	 * 目前執行緒是否綁定 persistence context (交易中或 open-in-view); 綁定時查詢結果的 lazy 關聯 (含關聯物件的關聯) 可經由該
+	 * session 載入, 不可於其他執行緒存取
+	 * 
+	 * @return
+	 */
+	public boolean isPersistenceContextBound();
+
+	/**
+	 * 更新 entity 的關鍵字索引 (未設定關鍵字搜尋引擎時不處理)
+	 * 
+	 * @param entities
+	 */
+	public void indexKeywords(Iterable<E> entities);
+
+	/**
+	 * 重建關鍵字索引
+	 * 
+	 * @throws DAOException
+	 */
+	public void rebuildKeywordIndex() throws DAOException;
 }
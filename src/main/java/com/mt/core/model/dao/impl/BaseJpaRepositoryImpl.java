@@ -1,40 +1,99 @@
 package com.mt.core.model.dao.impl;
 
 import java.lang.reflect.Field;
-import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.Column;
 import javax.persistence.EntityManager;
-import javax.persistence.Id;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.JoinColumn;
-import javax.persistence.MappedSuperclass;
+import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
-import javax.persistence.Table;
+import javax.sql.DataSource;
 
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.hibernate.annotations.Subselect;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.query.NativeQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.orm.jpa.EntityManagerFactoryInfo;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import com.mt.core.model.annotation.SearchKeyword;
 import com.mt.core.model.dao.BaseJpaRepository;
+import com.mt.core.model.dao.support.ColumnType;
+import com.mt.core.model.dao.support.CountCache;
+import com.mt.core.model.dao.support.DatabaseDialect;
+import com.mt.core.model.dao.support.FilterSQLCompiler;
+import com.mt.core.model.dao.support.JdbcParams;
+import com.mt.core.model.dao.support.KeysetCursor;
+import com.mt.core.model.dao.support.QueryExecutors;
 import com.mt.core.model.exception.DAOException;
+import com.mt.core.model.exception.DuplicateRecordsException;
 import com.mt.core.model.exception.InvalidColumnNameMappingException;
 import com.mt.core.model.exception.InvalidLogicalOperatorException;
+import com.mt.core.model.metadata.EntityMetadata;
+import com.mt.core.model.search.KeywordSearchEngine;
+import com.mt.core.model.vo.AggregateRequestVO;
+import com.mt.core.model.vo.AggregateRequestVO.AggregateDescriptor;
+import com.mt.core.model.vo.AggregateRequestVO.AggregateFunction;
+import com.mt.core.model.vo.AggregateResponseVO;
+import com.mt.core.model.vo.FacetOptionVO;
+import com.mt.core.model.vo.FacetRequestVO;
 import com.mt.core.model.vo.PageRequestVO;
+import com.mt.core.model.vo.PageRequestVO.CountStrategy;
 import com.mt.core.model.vo.PageResponseVO;
-import com.mt.core.model.vo.PageRequestVO.Filter;
+import com.mt.core.model.vo.UpsertResultVO;
 import com.mt.core.model.vo.PageRequestVO.FilterDescriptor;
 import com.mt.core.model.vo.PageRequestVO.SortDescriptor;
 
@@ -48,6 +107,31 @@ import com.mt.core.model.vo.PageRequestVO.SortDescriptor;
  */
 public class BaseJpaRepositoryImpl<E, K> extends SimpleJpaRepository<E, K> implements BaseJpaRepository<E, K> {
 
+	/**
+	 * 查詢結果數快取有效時間 (毫秒)
+	 */
+	public static final long COUNT_CACHE_TTL = 60_000;
+
+	/**
+	 * 查詢結果數快取筆數上限
+	 */
+	public static final int COUNT_CACHE_SIZE = 500;
+
+	/**
+	 * streamRows 預設 JDBC fetch size
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 500;
+
+	/**
+	 * 批次新增預設每批筆數
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * 單一 facet 查詢同時執行的 SQL 數上限 (超過時各執行緒循序執行多個 facet 屬性的查詢)
+	 */
+	public static final int MAX_FACET_PARALLELISM = 4;
+
 	protected EntityManager entityManager;
 
 	@Qualifier("mainJdbcTemplate")
@@ -64,15 +148,70 @@ public class BaseJpaRepositoryImpl<E, K> extends SimpleJpaRepository<E, K> imple
 	 */
 	private final String persistentTable;
 
+	/**
+	 * Entity 對映資訊 (各 repository, DAO, service 共用)
+	 */
+	private final EntityMetadata metadata;
+
 	/**
 	 * Entity Class 屬性(field)名稱 與 DB Table 欄位(column)名稱對映
 	 */
 	private final Map<String, String> fieldColumnMapping;
 
+	/**
+	 * Entity Class 屬性(field)名稱 與 屬性(Field) 對映
+	 */
+	private final Map<String, Field> entityFields;
+
+	/**
+	 * Entity Class 屬性(field)名稱 與 欄位型別對映
+	 */
+	private final Map<String, ColumnType> columnTypes;
+
+	/**
+	 * Entity 資訊 (id 屬性等)
+	 */
+	private final JpaEntityInformation<E, ?> entityInformation;
+
 	/**
 	 * 搜尋關鍵字的對象欄位
 	 */
-	private String[] keywordColumns = {};
+	private final String[] keywordColumns;
+
+	/**
+	 * 搜尋關鍵字的對象屬性
+	 */
+	private final List<Field> keywordFields;
+
+	/**
+	 * INSERT 的對象屬性 (排除 insertable = false)
+	 */
+	private final List<Field> insertFields;
+
+	/**
+	 * 標註 @CreatedDate, @LastModifiedDate 的屬性 (批次新增時填入)
+	 */
+	private final List<Field> auditTimeFields;
+
+	/**
+	 * 過濾條件 SQL 組合 (含 SQL 快取)
+	 */
+	private final FilterSQLCompiler filterSQLCompiler;
+
+	/**
+	 * 查詢結果數快取 (CountStrategy.CACHED)
+	 */
+	private final CountCache countCache = new CountCache(COUNT_CACHE_TTL, COUNT_CACHE_SIZE);
+
+	/**
+	 * 後端資料庫種類
+	 */
+	private DatabaseDialect databaseDialect;
+
+	/**
+	 * 目前使用者 (updateByFilter 更新 @LastModifiedBy 屬性)
+	 */
+	private AuditorAware<?> auditorAware;
 
 	/**
 	 * Constructor
@@ -83,21 +222,23 @@ public class BaseJpaRepositoryImpl<E, K> extends SimpleJpaRepository<E, K> imple
 	public BaseJpaRepositoryImpl(JpaEntityInformation<E, ?> entityInformation, EntityManager entityManager) {
 		super(entityInformation, entityManager);
 		this.entityManager = entityManager;
+		this.entityInformation = entityInformation;
 
 		// Entity class
 		this.persistentClass = entityInformation.getJavaType();
 
-		// Entity table name
-		Table table = persistentClass.getAnnotation(Table.class);
-		Subselect subselect = persistentClass.getAnnotation(Subselect.class);
-
-		this.persistentTable = table != null
-				? (StringUtils.isBlank(table.catalog()) ? table.name()
-						: (table.catalog().concat(".").concat(table.name())))
-				: subselect != null ? ("(" + subselect.value() + ")" + ")") : null;
-
-		// Entity Class 屬性與 DB Table 欄位對照表
-		this.fieldColumnMapping = this.createEntityColumnMapping();
+		// Entity table name 及 Entity Class 屬性與 DB Table 欄位對照表
+		this.metadata = EntityMetadata.of(this.persistentClass);
+		this.persistentTable = this.metadata.getTable();
+		this.fieldColumnMapping = this.metadata.getColumns();
+		this.entityFields = this.metadata.getFields();
+		this.columnTypes = this.metadata.getColumnTypes();
+		this.keywordColumns = this.metadata.getKeywordColumns();
+		this.keywordFields = this.metadata.getKeywordFields();
+		this.insertFields = this.metadata.getInsertFields();
+		this.auditTimeFields = this.metadata.getAuditTimeFields();
+		this.filterSQLCompiler = new FilterSQLCompiler(this.fieldColumnMapping, this.columnTypes,
+				this.keywordColumns);
 	}
 
 	@Override
@@ -105,302 +246,1869 @@ public class BaseJpaRepositoryImpl<E, K> extends SimpleJpaRepository<E, K> imple
 		return this.persistentTable;
 	}
 
+	@Override
+	public FilterSQLCompiler getFilterSQLCompiler() {
+		return this.filterSQLCompiler;
+	}
+
+	@Override
+	public void setKeywordSearchEngine(KeywordSearchEngine keywordSearchEngine) throws DAOException {
+		if (keywordSearchEngine != null
+				&& (this.entityInformation.hasCompositeId() || this.entityInformation.getIdAttribute() == null)) {
+			throw new DAOException("複合主鍵的實體 " + this.persistentClass.getSimpleName() + " 不支援關鍵字搜尋引擎");
+		}
+
+		this.filterSQLCompiler.setKeywordSearchEngine(keywordSearchEngine,
+				keywordSearchEngine == null ? null : this.entityInformation.getIdAttribute().getName());
+
+		if (keywordSearchEngine != null && !keywordSearchEngine.isReady()) {
+			this.verifyKeywordIndex(keywordSearchEngine);
+		}
+	}
+
 	/**
-	 * 建立 Entity Class 屬性與 DB Table 欄位對照表
+	 * 索引 (如由索引檔載入) 的筆數與資料表筆數一致時, 標記為可使用; 否則維持未就緒, 須重建
 	 * 
-	 * @return
+	 * @param engine
+	 * @throws DAOException
 	 */
-	private Map<String, String> createEntityColumnMapping() {
-		Field[] fields = this.persistentClass.getDeclaredFields();
+	private void verifyKeywordIndex(KeywordSearchEngine engine) throws DAOException {
+		try {
+			Long count = this.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM " + this.persistentTable,
+					Long.class);
 
-		// 如父類別有註解 @MappedSuperclass, 將父類別的 properties 也加入
-		if (this.persistentClass.getSuperclass().isAnnotationPresent(MappedSuperclass.class)) {
-			fields = ArrayUtils.addAll(fields, this.persistentClass.getSuperclass().getDeclaredFields());
+			if (count != null && count == engine.size()) {
+				engine.markReady();
+			}
+		} catch (Exception e) {
+			throw new DAOException("檢查關鍵字索引失敗", e);
 		}
+	}
 
-		Map<String, String> columnsMap = new HashMap<>();
+	@Override
+	public KeywordSearchEngine getKeywordSearchEngine() {
+		return this.filterSQLCompiler.getKeywordSearchEngine();
+	}
 
-		for (Field field : fields) {
-			if (field.isAnnotationPresent(Column.class) || field.isAnnotationPresent(Id.class)
-					|| field.isAnnotationPresent(JoinColumn.class)) {
-				String fieldName = field.getName();
-				String columnName = fieldName;
+	@Override
+	public void setAuditorAware(AuditorAware<?> auditorAware) {
+		this.auditorAware = auditorAware;
+	}
 
-				if (field.isAnnotationPresent(Column.class)) {
-					Column column = field.getAnnotation(Column.class);
-					columnName = StringUtils.defaultIfBlank(column.name(), fieldName);
-				} else if (field.isAnnotationPresent(JoinColumn.class)) {
-					JoinColumn column = field.getAnnotation(JoinColumn.class);
-					columnName = StringUtils.defaultIfBlank(column.name(), fieldName);
-				}
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public boolean isPersistenceContextBound() {
+		return TransactionSynchronizationManager.hasResource(this.entityManager.getEntityManagerFactory());
+	}
 
-				/* 搜集標註 @SearchKeyword 的欄位 */
-				if (field.isAnnotationPresent(SearchKeyword.class)) {
-					this.keywordColumns = ArrayUtils.add(this.keywordColumns, columnName);
-				}
+	@Override
+	public void indexKeywords(Iterable<E> entities) {
+		KeywordSearchEngine engine = this.filterSQLCompiler.getKeywordSearchEngine();
+
+		if (engine == null || this.keywordFields.isEmpty()) {
+			return;
+		}
+
+		Map<Object, List<String>> documents = new LinkedHashMap<>();
 
-				columnsMap.put(fieldName, columnName);
+		for (E entity : entities) {
+			List<String> values = new ArrayList<>(this.keywordFields.size());
+
+			for (Field field : this.keywordFields) {
+				Object value = this.metadata.getValue(entity, field.getName());
+				values.add(value == null ? null : value.toString());
 			}
+
+			documents.put(this.entityInformation.getId(entity), values);
 		}
 
-		return columnsMap;
+		this.updateKeywordIndex(engine, e -> e.indexAll(documents));
 	}
 
 	/**
-	 * 查詢 entity 屬性對映後端資料庫的欄位名稱
+	 * 更新關鍵字索引: 非交易式的引擎於交易 commit 後更新 (rollback 時不更新); 交易式的引擎, 或無交易時立即更新
 	 * 
-	 * @param fieldName entity 屬性
-	 * @return
+	 * @param engine
+	 * @param update
 	 */
-	public String getMappedColumnName(String fieldName) {
-		return this.fieldColumnMapping.get(fieldName);
+	private void updateKeywordIndex(KeywordSearchEngine engine, Consumer<KeywordSearchEngine> update) {
+		if (engine.isTransactional() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			update.accept(engine);
+		} else {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					update.accept(engine);
+				}
+			});
+		}
 	}
 
 	/**
-	 * 查詢資料
+	 * 重建關鍵字索引: 以 JDBC 依 id 順序分段讀取 id 及 @SearchKeyword 欄位 (不經 persistence context, 不在交易中執行, 交易式的引擎逐段
+	 * commit). 重建期間索引未就緒, 關鍵字以 LIKE 查詢
 	 * 
-	 * @param req
-	 * @return
 	 * @throws DAOException
 	 */
 	@Override
-	public PageResponseVO<E> getRows(PageRequestVO req) throws DAOException {
-		return this.getRows(req, this.persistentTable);
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void rebuildKeywordIndex() throws DAOException {
+		KeywordSearchEngine engine = this.filterSQLCompiler.getKeywordSearchEngine();
+
+		if (engine == null) {
+			throw new DAOException("實體 " + this.persistentClass.getSimpleName() + " 未設定關鍵字搜尋引擎");
+		}
+
+		String idField = this.entityInformation.getIdAttribute().getName();
+		String idColumn = this.getMappedColumnName(idField);
+		ColumnType idType = this.columnTypes.get(idField);
+		int pageSize = this.filterSQLCompiler.getInListChunkSize();
+		StringBuilder sql = new StringBuilder("SELECT ").append(idColumn);
+
+		for (String column : this.keywordColumns) {
+			sql.append(", ").append(column);
+		}
+
+		sql.append(" FROM ").append(this.persistentTable);
+
+		StringBuilder firstSQL = new StringBuilder(sql).append(" ORDER BY ").append(idColumn);
+		StringBuilder nextSQL = new StringBuilder(sql).append(" WHERE ").append(idColumn).append(" > :after ORDER BY ")
+				.append(idColumn);
+
+		this.getDatabaseDialect().appendLimit(firstSQL, true, 0, pageSize);
+		this.getDatabaseDialect().appendLimit(nextSQL, true, 0, pageSize);
+
+		engine.clear();
+
+		try {
+			NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(this.getJdbcTemplate());
+			Object[] after = new Object[1];
+
+			while (true) {
+				Map<Object, List<String>> documents = new LinkedHashMap<>();
+
+				template.query(after[0] == null ? firstSQL.toString() : nextSQL.toString(),
+						Collections.singletonMap("after", after[0]), (RowCallbackHandler) rs -> {
+							List<String> values = new ArrayList<>(this.keywordColumns.length);
+
+							for (int i = 0; i < this.keywordColumns.length; i++) {
+								values.add(rs.getString(i + 2));
+							}
+
+							// id 轉換為 entity 的 id 型別, 與儲存時建立的索引一致
+							after[0] = rs.getObject(1);
+							documents.put(idType.convert(after[0]), values);
+						});
+
+				engine.indexAll(documents);
+
+				if (documents.size() < pageSize) {
+					break;
+				}
+			}
+		} catch (Exception e) {
+			throw new DAOException("重建關鍵字索引失敗", e);
+		}
+
+		engine.markReady();
+	}
+
+	@Override
+	public int insertAll(List<E> entities) throws DAOException {
+		return this.insertAll(entities, DEFAULT_BATCH_SIZE);
 	}
 
 	/**
-	 * 查詢資料
+	 * 以 JDBC batch 新增資料列: 不經 persistence context (無 merge 前的 SELECT), 新增的 entity 不會成為 managed 狀態.
+	 * <ul>
+	 * <li>String 型別的 id 為空白時, 於用戶端產生 UUID (同 UUIDGenerator), 並回填至 entity</li>
+	 * <li>@CreatedDate, @LastModifiedDate 屬性為 null 時填入目前時間</li>
+	 * <li>執行前先 flush persistence context, 與同一交易中先前的異動依序寫入</li>
+	 * </ul>
 	 * 
-	 * @param req
-	 * @param fromTableOrSubselect
-	 * @return
+	 * @param entities
+	 * @param batchSize 每批筆數
+	 * @return 新增筆數
 	 * @throws DAOException
 	 */
 	@Override
-	public PageResponseVO<E> getRows(PageRequestVO req, String fromTableOrSubselect) throws DAOException {
+	@Transactional(rollbackFor = DAOException.class)
+	public int insertAll(List<E> entities, int batchSize) throws DAOException {
+		if (entities.isEmpty()) {
+			return 0;
+		}
+
+		Field idField = this.getWritableIdField("批次新增");
+		long now = System.currentTimeMillis();
 
 		try {
-			StringBuilder countSQL = new StringBuilder("SELECT count(*) cnt FROM ").append(fromTableOrSubselect);
+			for (E entity : entities) {
+				this.prepareInsert(entity, idField, now);
+			}
 
-			Map<String, Object> params = new HashMap<>();
-			String whereSQL = "";
+			this.entityManager.flush();
+			this.invalidateCountCache();
 
-			if (req.getFilter() != null) {
-				whereSQL = this.getWhereSQL(req.getFilter(), params);
+			return this.executeBatch(this.getInsertSQL(), entities, batchSize);
+		} catch (DAOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DAOException("批次新增資料失敗", e);
+		}
+	}
+
+	@Override
+	public UpsertResultVO upsertAll(List<E> entities, String... keyFields) throws DAOException {
+		return this.upsertAll(entities, DEFAULT_BATCH_SIZE, keyFields);
+	}
+
+	/**
+	 * 以 JDBC batch 新增或更新資料列 (依資料庫種類以 MERGE, INSERT ... ON CONFLICT 或 ON DUPLICATE KEY UPDATE).
+	 * 資料存在時更新 key 及 id 以外可更新 (updatable) 的欄位. 每批執行前先查詢已存在的 key 及其 id, 回填至 entity, 並以此區分新增與更新筆數
+	 * (同時有其他寫入時為近似值). 其餘同 insertAll.
+	 * 
+	 * @param entities
+	 * @param batchSize 每批筆數
+	 * @param keyFields 判斷資料是否存在的屬性, 未指定時為 id
+	 * @return 新增與更新筆數
+	 * @throws DuplicateRecordsException 同一批中有 key 相同的資料
+	 * @throws DAOException
+	 */
+	@Override
+	@Transactional(rollbackFor = DAOException.class)
+	public UpsertResultVO upsertAll(List<E> entities, int batchSize, String... keyFields) throws DAOException {
+		UpsertResultVO result = new UpsertResultVO();
+
+		if (entities.isEmpty()) {
+			return result;
+		}
+
+		Field idField = this.getWritableIdField("批次新增/更新");
+		List<Field> keys = new ArrayList<>();
+
+		for (String keyField : keyFields.length == 0 ? new String[] { idField.getName() } : keyFields) {
+			if (!this.entityFields.containsKey(keyField)) {
+				throw new DAOException("找不到對映 " + keyField + " 屬性的 table column");
 			}
 
-			Query countQuery = this.entityManager.createNativeQuery(countSQL.append(whereSQL).toString());
+			keys.add(this.entityFields.get(keyField));
+		}
+
+		List<String> columns = new ArrayList<>();
+		List<String> updateColumns = new ArrayList<>();
 
-			for (String key : params.keySet()) {
-				countQuery.setParameter(key, params.get(key));
+		for (Field field : this.insertFields) {
+			String columnName = this.getMappedColumnName(field.getName());
+			columns.add(columnName);
+
+			if (field != idField && !keys.contains(field) && isUpdatable(field)) {
+				updateColumns.add(columnName);
 			}
+		}
 
-			// 查詢結果數
-			Object countResult = countQuery.getSingleResult();
-			int count = countResult instanceof BigInteger ? ((BigInteger) countResult).intValue()
-					: ((Integer) countResult).intValue();
-			List<E> result = Collections.emptyList();
+		List<String> keyColumns = keys.stream().map(field -> this.getMappedColumnName(field.getName()))
+				.collect(Collectors.toList());
+		String sql = this.getDatabaseDialect().getUpsertSQL(this.persistentTable, columns, keyColumns,
+				updateColumns);
+		PersistenceUnitUtil unitUtil = this.entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+		long now = System.currentTimeMillis();
 
-			// 查詢結果列
-			if (count > 0) {
-				StringBuilder resultSQL = new StringBuilder("SELECT * FROM ").append(fromTableOrSubselect);
-				resultSQL.append(whereSQL);
+		try {
+			List<List<List<Object>>> batchKeys = new ArrayList<>();
 
-				// 處理排序
-				List<SortDescriptor> sortProps = req.getSortProps();
+			// 先檢查全部批次, 有重覆 key 時不寫入任何資料
+			for (int from = 0; from < entities.size(); from += batchSize) {
+				Set<List<Object>> keyValues = new LinkedHashSet<>();
 
-				if (sortProps != null && sortProps.size() > 0) {
-					List<String> orderBy = new ArrayList<>();
+				for (E entity : entities.subList(from, Math.min(from + batchSize, entities.size()))) {
+					this.prepareInsert(entity, idField, now);
 
-					for (SortDescriptor sort : sortProps) {
-						String columnName = this.getMappedColumnName(sort.getField());
+					List<Object> keyValue = new ArrayList<>(keys.size());
 
-						if (columnName == null) {
-							throw new InvalidColumnNameMappingException(
-									"找不到對映 " + sort.getField() + " 屬性的 table column");
-						}
+					for (Field key : keys) {
+						keyValue.add(this.getColumnValue(entity, key, this.columnTypes.get(key.getName()), unitUtil));
+					}
 
-						orderBy.add(columnName + " " + Direction.fromString(sort.getDir()));
+					if (!keyValues.add(keyValue)) {
+						throw new DuplicateRecordsException("同一批次中有重覆的資料 " + keys.stream().map(Field::getName)
+								.collect(Collectors.toList()) + " = " + keyValue);
 					}
+				}
 
-					resultSQL.append(" ORDER BY ").append(StringUtils.join(orderBy, ", "));
+				batchKeys.add(new ArrayList<>(keyValues));
+			}
 
-					// String orderBySQL = sortProps.stream().map(sort -> {
-					// String columnName = this.getMappedColumnName(sort.getField());
-					// return columnName + " " + Direction.fromString(sort.getDir());
-					// }).collect(Collectors.joining(", ", " ORDER BY ", ""));
-					//
-					// resultSQL.append(orderBySQL);
-				}
+			this.entityManager.flush();
+			this.invalidateCountCache();
 
-				NativeQuery<E> resultQuery = (NativeQuery<E>) this.entityManager.createNativeQuery(resultSQL.toString(),
-						this.persistentClass);
+			for (int i = 0, from = 0; from < entities.size(); i++, from += batchSize) {
+				List<E> batch = entities.subList(from, Math.min(from + batchSize, entities.size()));
+				List<List<Object>> keyValues = batchKeys.get(i);
+				Map<List<Object>, Object> existingIds = this.findExistingIds(idField, keys, keyValues);
 
-				for (String key : params.keySet()) {
-					resultQuery.setParameter(key, params.get(key));
-				}
+				// 已存在的資料回填 id (UPDATE 不異動 id)
+				for (int j = 0; j < batch.size(); j++) {
+					Object id = existingIds.get(keyValues.get(j));
 
-				// size > 0 時, 做分頁處理
-				if (req.getSize() > 0) {
-					result = resultQuery.setMaxResults(req.getSize()).setFirstResult(req.getSize() * req.getPage())
-							.getResultList();
-				} else { // size 為 0 時, 不做分頁處理 (取全部資料)
-					result = resultQuery.getResultList();
+					if (id != null) {
+						this.metadata.setValue(batch.get(j), idField.getName(), id);
+					}
 				}
+
+				this.executeBatch(sql, batch, batch.size());
+
+				result.setUpdated(result.getUpdated() + existingIds.size());
+				result.setInserted(result.getInserted() + batch.size() - existingIds.size());
 			}
 
-			return new PageResponseVO<E>((int) count, result);
+			return result;
 		} catch (DAOException e) {
 			throw e;
 		} catch (Exception e) {
-			throw new DAOException("查詢資料列失敗", e);
+			throw new DAOException("批次新增/更新資料失敗", e);
+		}
+	}
+
+	@Override
+	@Transactional(rollbackFor = DAOException.class)
+	public int deleteByFilter(FilterDescriptor filter) throws DAOException {
+		Map<String, Object> params = new HashMap<>();
+		String whereSQL = this.getRequiredWhereSQL(filter, params, "刪除");
+
+		try {
+			KeywordSearchEngine engine = this.getKeywordSearchEngine();
+			List<Object> ids = engine != null ? this.selectIds(whereSQL, params) : Collections.emptyList();
+
+			this.invalidateCountCache();
+
+			int count = this.executeUpdate("DELETE FROM " + this.persistentTable + whereSQL, params);
+
+			if (!ids.isEmpty()) {
+				this.updateKeywordIndex(engine, e -> e.removeAll(ids));
+			}
+
+			return count;
+		} catch (Exception e) {
+			throw new DAOException("依過濾條件刪除資料失敗", e);
 		}
 	}
 
 	/**
-	 * 組合 SQL Where 敍述
+	 * 依過濾條件分批刪除資料列: 每次查詢最多 chunkSize 筆的 id 後以 id 刪除, 各批次個別 commit (不在交易中執行),
+	 * 避免長時間鎖定大量資料列. 呼叫端如有交易, 執行期間暫停該交易; 中途失敗時已刪除的批次不會復原
 	 * 
 	 * @param filter
-	 * @param params
-	 * @return
-	 * @throws InvalidLogicalOperatorException
+	 * @param chunkSize 每批筆數, 不超過 IN 清單長度上限
+	 * @return 刪除筆數
 	 * @throws DAOException
-	 * @throws InvalidColumnNameMappingException
 	 */
-	private String getWhereSQL(FilterDescriptor filter, Map<String, Object> params)
-			throws InvalidLogicalOperatorException, DAOException, InvalidColumnNameMappingException {
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public int deleteByFilter(FilterDescriptor filter, int chunkSize) throws DAOException {
+		Field idField = this.getWritableIdField("分批刪除");
+		Map<String, Object> params = new HashMap<>();
+		int limit = Math.min(chunkSize, this.filterSQLCompiler.getInListChunkSize());
+		String idColumn = this.getMappedColumnName(idField.getName());
+		StringBuilder selectSQL = new StringBuilder("SELECT ").append(idColumn).append(" FROM ")
+				.append(this.persistentTable).append(this.getRequiredWhereSQL(filter, params, "刪除")).append(" ORDER BY ")
+				.append(idColumn);
+
+		try {
+			NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(this.getJdbcTemplate());
+			MapSqlParameterSource paramSource = JdbcParams.of(params);
+			String deleteSQL = "DELETE FROM " + this.persistentTable + " WHERE " + idColumn + " IN (:ids)";
+			int count = 0;
+
+			this.getDatabaseDialect().appendLimit(selectSQL, true, 0, limit);
+			this.invalidateCountCache();
+
+			while (true) {
+				List<Object> ids = template.queryForList(selectSQL.toString(), paramSource, Object.class);
+
+				if (ids.isEmpty()) {
+					break;
+				}
+
+				count += template.update(deleteSQL, Collections.singletonMap("ids", ids));
 
-		String paramPrefix = "";
-		StringBuilder whereSQL = new StringBuilder(" WHERE 1=1 AND (")
-				.append(this.getCondSQL(filter, params, paramPrefix)).append(")");
+				if (this.getKeywordSearchEngine() != null) {
+					this.updateKeywordIndex(this.getKeywordSearchEngine(), e -> e.removeAll(this.toIdType(ids)));
+				}
+
+				if (ids.size() < limit) {
+					break;
+				}
+			}
 
-		return whereSQL.toString();
+			// 各批次個別 commit, 刪除期間仍可能有查詢快取了中途的 count
+			this.invalidateCountCache();
+
+			return count;
+		} catch (Exception e) {
+			throw new DAOException("依過濾條件分批刪除資料失敗", e);
+		}
 	}
 
 	/**
-	 * 組合 SQL 查詢條件
+	 * 依過濾條件更新資料列 (單一 UPDATE 敍述). 有 @LastModifiedDate 屬性且未指定時, 一併更新為目前時間; 有 @LastModifiedBy 屬性且未指定時,
+	 * 一併更新為 {@link #setAuditorAware} 設定的目前使用者, 無法取得時拒絕執行. 更新 @SearchKeyword 屬性時, 重新建立受影響資料的關鍵字索引.
+	 * persistence context 中已載入的 entity 不會反映更新結果
 	 * 
 	 * @param filter
-	 * @param params
-	 * @param paramPrefix
-	 * @return
-	 * @throws InvalidLogicalOperatorException
+	 * @param assignments 屬性 與 更新值
+	 * @return 更新筆數
 	 * @throws DAOException
-	 * @throws InvalidColumnNameMappingException
 	 */
-	private String getCondSQL(FilterDescriptor filter, Map<String, Object> params, String paramPrefix)
-			throws InvalidLogicalOperatorException, DAOException, InvalidColumnNameMappingException {
-		StringBuilder sql = new StringBuilder("");
-		Filter subFilter = filter.getFilter();
+	@Override
+	@Transactional(rollbackFor = DAOException.class)
+	public int updateByFilter(FilterDescriptor filter, Map<String, Object> assignments) throws DAOException {
+		Map<String, Object> params = new HashMap<>();
+		String whereSQL = this.getRequiredWhereSQL(filter, params, "更新");
+		Field idField = this.getWritableIdField("依過濾條件更新");
+		Map<String, Object> values = new LinkedHashMap<>(assignments);
+		long now = System.currentTimeMillis();
+
+		for (Field field : this.auditTimeFields) {
+			Object time = getAuditTime(field.getType(), now);
+
+			if (field.isAnnotationPresent(LastModifiedDate.class) && !values.containsKey(field.getName())
+					&& time != null) {
+				values.put(field.getName(), time);
+			}
+		}
+
+		for (Field field : this.metadata.getAuditorFields()) {
+			if (field.isAnnotationPresent(LastModifiedBy.class) && !values.containsKey(field.getName())) {
+				values.put(field.getName(), this.getCurrentAuditor(field));
+			}
+		}
 
-		if (subFilter != null) {
-			List<FilterDescriptor> subFilters = subFilter.getSubFilters();
+		StringBuilder sql = new StringBuilder("UPDATE ").append(this.persistentTable).append(" SET ");
+		boolean keywordUpdated = false;
+		int i = 0;
 
-			if (subFilters.size() == 1) {
-				return this.getCondSQL(subFilters.get(0), params, paramPrefix + "_0");
-			} else {
-				String logic = subFilter.getLogic();
-				String logicSQL = null;
-
-				if ("and".equals(logic)) {
-					sql.append("1=1");
-					logicSQL = " AND ";
-				} else {
-					sql.append("1=0");
-					logicSQL = " OR ";
+		try {
+			for (Map.Entry<String, Object> value : values.entrySet()) {
+				Field field = this.entityFields.get(value.getKey());
+
+				if (field == null) {
+					throw new InvalidColumnNameMappingException("找不到對映 " + value.getKey() + " 屬性的 table column");
+				} else if (field == idField || !isUpdatable(field)) {
+					throw new DAOException("屬性 " + value.getKey() + " 不可更新");
 				}
 
-				for (int i = 0; i < subFilters.size(); i++) {
-					FilterDescriptor f = subFilters.get(i);
+				String param = "set_" + i++;
+				ColumnType type = this.columnTypes.get(field.getName());
 
-					sql.append(logicSQL).append("(").append(this.getCondSQL(f, params, paramPrefix + "_" + i))
-							.append(")");
-				}
+				sql.append(i > 1 ? ", " : "").append(this.getMappedColumnName(field.getName())).append(" = :")
+						.append(param);
+				params.put(param, new SqlParameterValue(type.getSqlType(),
+						this.filterSQLCompiler.convert(field.getName(), value.getValue())));
+
+				keywordUpdated |= this.keywordFields.contains(field);
 			}
-		} else {
-			String field = filter.getField();
-			Object value = filter.getValue();
-			String operator = filter.getOperator();
-			int paramIdx = 0;
 
-			if (value != null) {
-				String param = paramPrefix + "__" + (paramIdx++);
+			sql.append(whereSQL);
 
-				// 搜尋關鍵字
-				if ("keyword".equals(field)) {
-					params.put(param, "%" + value.toString() + "%");
+			// 更新關鍵字屬性時, 先取得受影響的 id (更新後可能不再符合過濾條件)
+			List<Object> ids = keywordUpdated && this.getKeywordSearchEngine() != null
+					? this.selectIds(whereSQL, params)
+					: Collections.emptyList();
 
-					if (this.keywordColumns == null || this.keywordColumns.length == 0) {
-						throw new DAOException("未設定查詢關鍵字所包含的欄位");
-					} else {
-						sql.append("1=0");
+			this.invalidateCountCache();
 
-						for (String column : this.keywordColumns) {
-							sql.append(" OR ").append(column).append(" LIKE :").append(param);
-						}
-					}
-				} else { // 其他過濾條件
-					String columnName = this.getMappedColumnName(filter.getField());
+			int count = this.executeUpdate(sql.toString(), params);
 
-					if (columnName == null) {
-						throw new InvalidColumnNameMappingException("找不到對映 " + filter.getField() + " 屬性的 table column");
-					}
+			this.reindexKeywords(ids);
 
-					switch (operator) {
-
-						case "contains":
-							params.put(param, "%" + value.toString() + "%");
-							sql.append(columnName).append(" LIKE :").append(param);
-							break;
-						case "between":
-							List<?> values = (List<?>) value;
-							Object from = values.get(0);
-							Object to = values.get(1);
-
-							if (from != null && to != null) {
-								String param2 = paramPrefix + "__" + (paramIdx++);
-								params.put(param, from);
-								params.put(param2, to);
-
-								sql.append(columnName).append(" BETWEEN :").append(param).append(" AND :")
-										.append(param2);
-							} else if (from != null) {
-								params.put(param, from);
-								sql.append(columnName).append(" >= :").append(param);
-							} else if (to != null) {
-								params.put(param, to);
-								sql.append(columnName).append(" <= :").append(param);
-							}
-							break;
-						case "gt":
-							params.put(param, value);
-							sql.append(columnName).append(" > :").append(param);
-							break;
-						case "ge":
-							params.put(param, value);
-							sql.append(columnName).append(" >= :").append(param);
-							break;
-						case "lt":
-							params.put(param, value);
-							sql.append(columnName).append(" < :").append(param);
-							break;
-						case "le":
-							params.put(param, value);
-							sql.append(columnName).append(" <= :").append(param);
-							break;
-						case "eq":
-							String sqlOperator = value instanceof List || value.getClass().isArray() ? "IN" : "=";
-							params.put(param, value);
-							sql.append(columnName).append(" ").append(sqlOperator).append(" :").append(param);
-							break;
-						default:
-							throw new InvalidLogicalOperatorException("無效的邏輯運算子 " + operator);
-					}
+			return count;
+		} catch (DAOException e) {
+			throw e;
+		} catch (InvalidColumnNameMappingException e) {
+			throw new DAOException(e.getMessage(), e);
+		} catch (Exception e) {
+			throw new DAOException("依過濾條件更新資料失敗", e);
+		}
+	}
+
+	/**
+	 * 取得 @LastModifiedBy 屬性的目前使用者
+	 * 
+	 * @param field
+	 * @return
+	 * @throws DAOException 未設定 AuditorAware, 無目前使用者, 或型別與屬性不符
+	 */
+	private Object getCurrentAuditor(Field field) throws DAOException {
+		Optional<?> auditor = this.auditorAware == null ? Optional.empty() : this.auditorAware.getCurrentAuditor();
+
+		if (!auditor.isPresent()) {
+			throw new DAOException("無法取得目前使用者, 須指定 " + field.getName() + " 屬性的更新值");
+		} else if (!field.getType().isInstance(auditor.get())) {
+			throw new DAOException("目前使用者型別 " + auditor.get().getClass().getName() + " 與 " + field.getName()
+					+ " 屬性不符");
+		}
+
+		return auditor.get();
+	}
+
+	/**
+	 * 組合 SQL Where 敍述; 無過濾條件時拒絕執行, 以免誤刪/誤改全部資料
+	 * 
+	 * @param filter
+	 * @param params
+	 * @param operation 作業名稱 (錯誤訊息)
+	 * @return
+	 * @throws DAOException
+	 */
+	private String getRequiredWhereSQL(FilterDescriptor filter, Map<String, Object> params, String operation)
+			throws DAOException {
+		String whereSQL;
+
+		try {
+			whereSQL = this.getWhereSQL(filter, params);
+		} catch (InvalidLogicalOperatorException | InvalidColumnNameMappingException e) {
+			throw new DAOException(e.getMessage(), e);
+		}
+
+		if (whereSQL.isEmpty()) {
+			throw new DAOException("未指定過濾條件, 不可" + operation + "全部資料");
+		}
 
+		return whereSQL;
+	}
+
+	/**
+	 * 清除查詢結果數快取 (資料異動時). 於交易中時, 交易結束後再清除一次, 以免 commit 前其他查詢快取了異動前的 count
+	 */
+	private void invalidateCountCache() {
+		this.countCache.clear();
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					countCache.clear();
 				}
-			}
+			});
 		}
+	}
 
-		return sql.toString();
+	/**
+	 * 以目前交易的連線執行 INSERT/UPDATE/DELETE (執行前先 flush persistence context)
+	 * 
+	 * @param sql
+	 * @param params
+	 * @return 異動筆數
+	 */
+	private int executeUpdate(String sql, Map<String, Object> params) {
+		this.entityManager.flush();
+
+		return this.entityManager.unwrap(Session.class).doReturningWork(connection -> new NamedParameterJdbcTemplate(
+				new SingleConnectionDataSource(connection, true)).update(sql, JdbcParams.of(params)));
+	}
+
+	/**
+	 * 查詢符合條件的 id (目前交易的連線)
+	 * 
+	 * @param whereSQL
+	 * @param params
+	 * @return
+	 */
+	private List<Object> selectIds(String whereSQL, Map<String, Object> params) {
+		String sql = "SELECT " + this.getMappedColumnName(this.entityInformation.getIdAttribute().getName())
+				+ " FROM " + this.persistentTable + whereSQL;
+
+		return this.toIdType(this.entityManager.unwrap(Session.class)
+				.doReturningWork(connection -> new NamedParameterJdbcTemplate(
+						new SingleConnectionDataSource(connection, true)).queryForList(sql, JdbcParams.of(params),
+								Object.class)));
+	}
+
+	/**
+	 * 將 JDBC 讀取的 id 轉換為 entity 的 id 型別 (與關鍵字索引的 id 一致)
+	 * 
+	 * @param ids
+	 * @return
+	 */
+	private List<Object> toIdType(List<Object> ids) {
+		ColumnType idType = this.columnTypes.get(this.entityInformation.getIdAttribute().getName());
+		List<Object> result = new ArrayList<>(ids.size());
+
+		for (Object id : ids) {
+			result.add(idType.convert(id));
+		}
+
+		return result;
+	}
+
+	/**
+	 * 重新建立指定資料的關鍵字索引: 以目前交易的連線讀取 (依 inListChunkSize 分段), 依引擎於交易中或 commit 後更新索引
+	 * 
+	 * @param ids
+	 */
+	private void reindexKeywords(List<Object> ids) {
+		KeywordSearchEngine engine = this.getKeywordSearchEngine();
+
+		if (engine == null || ids.isEmpty()) {
+			return;
+		}
+
+		String idField = this.entityInformation.getIdAttribute().getName();
+		ColumnType idType = this.columnTypes.get(idField);
+		StringBuilder sql = new StringBuilder("SELECT ").append(this.getMappedColumnName(idField));
+
+		for (String column : this.keywordColumns) {
+			sql.append(", ").append(column);
+		}
+
+		sql.append(" FROM ").append(this.persistentTable).append(" WHERE ")
+				.append(this.getMappedColumnName(idField)).append(" IN (:ids)");
+
+		int chunkSize = this.filterSQLCompiler.getInListChunkSize();
+		Map<Object, List<String>> documents = new LinkedHashMap<>();
+
+		this.entityManager.unwrap(Session.class).doWork(connection -> {
+			NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(
+					new SingleConnectionDataSource(connection, true));
+
+			for (int from = 0; from < ids.size(); from += chunkSize) {
+				template.query(sql.toString(),
+						Collections.singletonMap("ids", ids.subList(from, Math.min(from + chunkSize, ids.size()))),
+						(RowCallbackHandler) rs -> {
+							List<String> values = new ArrayList<>(this.keywordColumns.length);
+
+							for (int i = 0; i < this.keywordColumns.length; i++) {
+								values.add(rs.getString(i + 2));
+							}
+
+							documents.put(idType.convert(rs.getObject(1)), values);
+						});
+			}
+		});
+
+		this.updateKeywordIndex(engine, e -> e.indexAll(documents));
+	}
+
+	/**
+	 * 查詢已存在的 key 所對應的 id; 分段查詢, 每段參數不超過 inListChunkSize 個
+	 * 
+	 * @param idField
+	 * @param keys
+	 * @param keyValues 已轉換為綁定型別的 key 值
+	 * @return key 值 與 id 對映
+	 */
+	private Map<List<Object>, Object> findExistingIds(Field idField, List<Field> keys, List<List<Object>> keyValues) {
+		int keysPerQuery = Math.max(1, this.filterSQLCompiler.getInListChunkSize() / keys.size());
+		ColumnType idType = this.columnTypes.get(idField.getName());
+		Map<List<Object>, Object> existingIds = new HashMap<>();
+		StringBuilder select = new StringBuilder("SELECT ").append(this.getMappedColumnName(idField.getName()));
+
+		for (Field key : keys) {
+			select.append(", ").append(this.getMappedColumnName(key.getName()));
+		}
+
+		select.append(" FROM ").append(this.persistentTable).append(" WHERE ");
+
+		for (int from = 0; from < keyValues.size(); from += keysPerQuery) {
+			List<List<Object>> chunk = keyValues.subList(from, Math.min(from + keysPerQuery, keyValues.size()));
+			StringBuilder sql = new StringBuilder(select);
+			Map<String, Object> params = new HashMap<>();
+
+			if (keys.size() == 1) {
+				sql.append(this.getMappedColumnName(keys.get(0).getName())).append(" IN (:k)");
+				params.put("k", chunk.stream().map(keyValue -> keyValue.get(0)).collect(Collectors.toList()));
+			} else {
+				for (int i = 0; i < chunk.size(); i++) {
+					sql.append(i > 0 ? " OR (" : "(");
+
+					for (int j = 0; j < keys.size(); j++) {
+						String param = "k" + i + "_" + j;
+						sql.append(j > 0 ? " AND " : "").append(this.getMappedColumnName(keys.get(j).getName()))
+								.append(" = :").append(param);
+						params.put(param, chunk.get(i).get(j));
+					}
+
+					sql.append(")");
+				}
+			}
+
+			this.entityManager.unwrap(Session.class).doWork(connection -> new NamedParameterJdbcTemplate(
+					new SingleConnectionDataSource(connection, true)).query(sql.toString(), params,
+							(RowCallbackHandler) rs -> {
+								List<Object> keyValue = new ArrayList<>(keys.size());
+
+								// 查詢結果轉換為綁定型別, 與 entity 的 key 值比對
+								for (int j = 0; j < keys.size(); j++) {
+									keyValue.add(this.columnTypes.get(keys.get(j).getName()).convert(rs.getObject(j + 2)));
+								}
+
+								existingIds.put(keyValue, idType.convert(rs.getObject(1)));
+							}));
+		}
+
+		return existingIds;
+	}
+
+	/**
+	 * 以 JDBC batch 執行 SQL, 參數依 insertFields 順序綁定 entity 的欄位值; 使用目前交易的連線
+	 * 
+	 * @param sql
+	 * @param entities
+	 * @param batchSize
+	 * @return 異動筆數
+	 */
+	private int executeBatch(String sql, List<E> entities, int batchSize) {
+		PersistenceUnitUtil unitUtil = this.entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+		int[] count = { 0 };
+
+		this.entityManager.unwrap(Session.class).doWork(connection -> {
+			try (PreparedStatement ps = connection.prepareStatement(sql)) {
+				int pending = 0;
+
+				for (E entity : entities) {
+					int idx = 1;
+
+					for (Field field : this.insertFields) {
+						ColumnType type = this.columnTypes.get(field.getName());
+						StatementCreatorUtils.setParameterValue(ps, idx++, type.getSqlType(),
+								this.getColumnValue(entity, field, type, unitUtil));
+					}
+
+					ps.addBatch();
+
+					if (++pending == batchSize) {
+						count[0] += getUpdateCount(ps.executeBatch());
+						pending = 0;
+					}
+				}
+
+				if (pending > 0) {
+					count[0] += getUpdateCount(ps.executeBatch());
+				}
+			}
+		});
+
+		return count[0];
+	}
+
+	/**
+	 * 檢查實體可否以 JDBC 寫入 (對映資料表, 單一主鍵), 並取得 id 屬性
+	 * 
+	 * @param operation 作業名稱 (錯誤訊息)
+	 * @return
+	 * @throws DAOException
+	 */
+	private Field getWritableIdField(String operation) throws DAOException {
+		if (this.persistentTable == null || this.persistentTable.startsWith("(")) {
+			throw new DAOException("實體 " + this.persistentClass.getSimpleName() + " 未對映資料表, 無法" + operation);
+		}
+
+		if (this.entityInformation.hasCompositeId() || this.entityInformation.getIdAttribute() == null) {
+			throw new DAOException("複合主鍵的實體 " + this.persistentClass.getSimpleName() + " 不支援" + operation);
+		}
+
+		return this.entityFields.get(this.entityInformation.getIdAttribute().getName());
+	}
+
+	private static boolean isUpdatable(Field field) {
+		return field.isAnnotationPresent(Column.class) ? field.getAnnotation(Column.class).updatable()
+				: !field.isAnnotationPresent(JoinColumn.class) || field.getAnnotation(JoinColumn.class).updatable();
+	}
+
+	/**
+	 * INSERT SQL
+	 * 
+	 * @return
+	 */
+	private String getInsertSQL() {
+		StringBuilder sql = new StringBuilder("INSERT INTO ").append(this.persistentTable).append(" (");
+		StringBuilder values = new StringBuilder();
+
+		for (Field field : this.insertFields) {
+			sql.append(values.length() > 0 ? ", " : "").append(this.getMappedColumnName(field.getName()));
+			values.append(values.length() > 0 ? ", ?" : "?");
+		}
+
+		return sql.append(") VALUES (").append(values).append(")").toString();
+	}
+
+	/**
+	 * 新增前處理: 產生 id, 填入建立/修改時間
+	 * 
+	 * @param entity
+	 * @param idField
+	 * @param now
+	 * @throws DAOException
+	 */
+	private void prepareInsert(E entity, Field idField, long now) throws DAOException {
+		Object id = this.metadata.getValue(entity, idField.getName());
+
+		if (idField.getType() == String.class && StringUtils.isBlank((String) id)) {
+			this.metadata.setValue(entity, idField.getName(), UUID.randomUUID().toString());
+		} else if (id == null) {
+			throw new DAOException(
+					"實體 " + this.persistentClass.getSimpleName() + " 的 id 須為 String (自動產生 UUID) 或預先指定");
+		}
+
+		for (Field field : this.auditTimeFields) {
+			if (this.metadata.getValue(entity, field.getName()) == null) {
+				Object time = getAuditTime(field.getType(), now);
+
+				if (time != null) {
+					this.metadata.setValue(entity, field.getName(), time);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 建立/修改時間屬性值
+	 * 
+	 * @param type 屬性型別
+	 * @param now
+	 * @return 不支援的型別時為 null
+	 */
+	private static Object getAuditTime(Class<?> type, long now) {
+		if (type == Date.class) {
+			return new Date(now);
+		} else if (type == Timestamp.class) {
+			return new Timestamp(now);
+		} else if (type == LocalDateTime.class) {
+			return new Timestamp(now).toLocalDateTime();
+		} else if (type == Instant.class) {
+			return Instant.ofEpochMilli(now);
+		} else if (type == Long.class || type == long.class) {
+			return now;
+		}
+
+		return null;
+	}
+
+	/**
+	 * 取得屬性對映欄位的值: 關聯 entity 取其 id, 其餘依欄位型別轉換 (如 enum, @Temporal)
+	 * 
+	 * @param entity
+	 * @param field
+	 * @param type
+	 * @param unitUtil
+	 * @return
+	 */
+	private Object getColumnValue(E entity, Field field, ColumnType type, PersistenceUnitUtil unitUtil) {
+		Object value = this.metadata.getValue(entity, field.getName());
+
+		if (value != null && field.isAnnotationPresent(JoinColumn.class)) {
+			value = unitUtil.getIdentifier(value);
+		}
+
+		return type.convert(value);
+	}
+
+	/**
+	 * 加總 executeBatch 的結果; 未回傳筆數 (SUCCESS_NO_INFO) 的視為 1 筆
+	 * 
+	 * @param counts
+	 * @return
+	 */
+	private static int getUpdateCount(int[] counts) {
+		int count = 0;
+
+		for (int c : counts) {
+			count += c == Statement.SUCCESS_NO_INFO ? 1 : Math.max(c, 0);
+		}
+
+		return count;
+	}
+
+	/**
+	 * 查詢 entity 屬性對映後端資料庫的欄位名稱
+	 * 
+	 * @param fieldName entity 屬性
+	 * @return
+	 */
+	public String getMappedColumnName(String fieldName) {
+		return this.fieldColumnMapping.get(fieldName);
+	}
+
+	/**
+	 * 查詢資料
+	 * 
+	 * @param req
+	 * @return
+	 * @throws DAOException
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public PageResponseVO<E> getRows(PageRequestVO req) throws DAOException {
+		return this.getRows(req, this.persistentTable);
+	}
+
+	/**
+	 * 查詢資料
+	 * 
+	 * @param req
+	 * @param fromTableOrSubselect
+	 * @return
+	 * @throws DAOException
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public PageResponseVO<E> getRows(PageRequestVO req, String fromTableOrSubselect) throws DAOException {
+		return this.getRows(req, fromTableOrSubselect, false);
+	}
+
+	/**
+	 * 查詢資料 (唯讀)
+	 * 
+	 * @param req
+	 * @param readOnly
+	 * @return
+	 * @throws DAOException
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public PageResponseVO<E> getRows(PageRequestVO req, boolean readOnly) throws DAOException {
+		return this.getRows(req, this.persistentTable, readOnly);
+	}
+
+	/**
+	 * 查詢資料
+	 * 
+	 * @param req
+	 * @param fromTableOrSubselect
+	 * @param readOnly             是否為唯讀查詢
+	 * @return
+	 * @throws DAOException
+	 */
+	private PageResponseVO<E> getRows(PageRequestVO req, String fromTableOrSubselect, boolean readOnly)
+			throws DAOException {
+		return this.getPage(req, fromTableOrSubselect, readOnly, (whereSQL, params, probeNext) -> this.queryRows(req,
+				fromTableOrSubselect, whereSQL, params, probeNext, readOnly));
+	}
+
+	/**
+	 * 查詢資料並直接對映為 DTO
+	 * 
+	 * @param <T>
+	 * @param req
+	 * @param dtoClass
+	 * @return
+	 * @throws DAOException
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public <T> PageResponseVO<T> getRows(PageRequestVO req, Class<T> dtoClass) throws DAOException {
+		return this.getRows(req, this.persistentTable, dtoClass);
+	}
+
+	/**
+	 * 自指定的資料表或 subselect 查詢資料並直接對映為 DTO
+	 * 
+	 * @param <T>
+	 * @param req
+	 * @param fromTableOrSubselect
+	 * @param dtoClass
+	 * @return
+	 * @throws DAOException
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public <T> PageResponseVO<T> getRows(PageRequestVO req, String fromTableOrSubselect, Class<T> dtoClass)
+			throws DAOException {
+		return this.getPage(req, fromTableOrSubselect, true, (whereSQL, params, probeNext) -> this.queryDTORows(req,
+				fromTableOrSubselect, dtoClass, whereSQL, params, probeNext));
+	}
+
+	/**
+	 * 查詢一頁資料: 依 count 計算方式查詢資料列數, 再以 rowsQuery 查詢資料列
+	 * 
+	 * @param <T>
+	 * @param req
+	 * @param fromTableOrSubselect
+	 * @param readOnly             是否為唯讀查詢 (查詢前不 flush persistence context)
+	 * @param rowsQuery
+	 * @return
+	 * @throws DAOException
+	 */
+	private <T> PageResponseVO<T> getPage(PageRequestVO req, String fromTableOrSubselect, boolean readOnly,
+			RowsQuery<T> rowsQuery) throws DAOException {
+
+		try {
+			String countSQL = "SELECT count(*) cnt FROM " + fromTableOrSubselect;
+
+			Map<String, Object> params = new HashMap<>();
+			String whereSQL = "";
+
+			if (req.getFilter() != null) {
+				whereSQL = this.getWhereSQL(req.getFilter(), params);
+			}
+
+			CountStrategy strategy = req.getCountStrategy() == null ? CountStrategy.EXACT : req.getCountStrategy();
+
+			// 不計算 count: 多查一筆判斷是否有下一頁
+			if (strategy == CountStrategy.NONE) {
+				PageResponseVO<T> response = rowsQuery.query(whereSQL, params, true);
+				response.setTotal(req.getSize() > 0 ? -1 : response.getRows().size());
+				response.setCountStrategy(strategy);
+
+				return response;
+			}
+
+			Integer count = null;
+			String cacheKey = null;
+
+			if (strategy == CountStrategy.ESTIMATED) { // 估計值僅適用於無過濾條件的資料表查詢
+				count = whereSQL.isEmpty() && fromTableOrSubselect.equals(this.persistentTable) ? this.estimateRows()
+						: null;
+				strategy = count == null ? CountStrategy.EXACT : strategy;
+			} else if (strategy == CountStrategy.CACHED) {
+				String key = CountCache.key(countSQL + whereSQL, params);
+				count = this.countCache.get(key);
+				cacheKey = count == null ? key : null; // 未命中時, 查詢後寫入快取
+			}
+
+			PageResponseVO<T> response;
+
+			if (count != null) { // 估計值或快取 count 可能與實際不符, 一律查詢資料列
+				response = rowsQuery.query(whereSQL, params, false);
+			} else if (req.isParallelCount() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+				// 併行查詢: count 交由 executor 以另一條連線查詢, 同時查詢資料列. 該連線不在呼叫端交易中, 看不到交易中未 commit
+				// 的異動, 故呼叫端有交易時改為循序查詢
+				CompletableFuture<Integer> countFuture = this.countRowsAsync(countSQL + whereSQL, params);
+
+				response = rowsQuery.query(whereSQL, params, false);
+
+				try {
+					count = countFuture.join();
+				} catch (CompletionException e) {
+					throw new DAOException("查詢資料列數失敗", e.getCause());
+				}
+
+				if (count == 0) {
+					response.setRows(Collections.emptyList());
+					response.setNextCursor(null);
+				}
+			} else {
+				// 查詢結果數
+				count = this.countRows(countSQL + whereSQL, params, readOnly);
+
+				// 查詢結果列
+				response = count > 0 ? rowsQuery.query(whereSQL, params, false)
+						: new PageResponseVO<T>(0, Collections.emptyList());
+			}
+
+			if (cacheKey != null) {
+				this.countCache.put(cacheKey, count);
+			}
+
+			response.setTotal(count);
+			response.setCountStrategy(strategy);
+			response.setHasMore(req.getSize() > 0 && (req.isSeek() ? response.getNextCursor() != null
+					: (long) req.getSize() * req.getPage() + response.getRows().size() < count));
+
+			return response;
+		} catch (DAOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DAOException("查詢資料列失敗", e);
+		}
+	}
+
+	/**
+	 * 彙總查詢: 以單一 SELECT ... GROUP BY 敍述計算, 僅回傳分組值及彙總值
+	 * 
+	 * @param req
+	 * @return
+	 * @throws DAOException
+	 */
+	@Override
+	public AggregateResponseVO aggregate(AggregateRequestVO req) throws DAOException {
+		try {
+			List<String> columns = new ArrayList<>();
+			Map<String, String> expressions = new HashMap<>(); // 結果欄位名稱 與 SQL 運算式
+			List<String> groupColumns = new ArrayList<>();
+
+			if (req.getGroupBy() != null) {
+				for (String field : req.getGroupBy()) {
+					String columnName = this.getMappedColumnName(field);
+
+					if (columnName == null) {
+						throw new InvalidColumnNameMappingException("找不到對映 " + field + " 屬性的 table column");
+					}
+
+					columns.add(field);
+					groupColumns.add(columnName);
+					expressions.put(field, columnName);
+				}
+			}
+
+			if (req.getAggregates() != null) {
+				for (AggregateDescriptor aggregate : req.getAggregates()) {
+					AggregateFunction function = aggregate.getFunction();
+
+					if (function == null) {
+						throw new InvalidLogicalOperatorException("未指定 " + aggregate.getField() + " 的彙總函數");
+					}
+
+					String columnName = aggregate.getField() == null && function == AggregateFunction.COUNT ? "*"
+							: this.getMappedColumnName(aggregate.getField());
+
+					if (columnName == null) {
+						throw new InvalidColumnNameMappingException(
+								"找不到對映 " + aggregate.getField() + " 屬性的 table column");
+					}
+
+					String alias = StringUtils.defaultIfBlank(aggregate.getAlias(), function.name().toLowerCase()
+							+ (aggregate.getField() == null ? "" : "_" + aggregate.getField()));
+
+					columns.add(alias);
+					expressions.put(alias, function.name() + "(" + columnName + ")");
+				}
+			}
+
+			if (columns.isEmpty()) {
+				throw new DAOException("未指定分組屬性或彙總欄位");
+			}
+
+			Map<String, Object> params = new HashMap<>();
+			StringBuilder sql = new StringBuilder("SELECT ");
+
+			for (int i = 0; i < columns.size(); i++) {
+				sql.append(i > 0 ? ", " : "").append(expressions.get(columns.get(i)));
+			}
+
+			sql.append(" FROM ").append(this.persistentTable).append(this.getWhereSQL(req.getFilter(), params));
+
+			if (!groupColumns.isEmpty()) {
+				sql.append(" GROUP BY ").append(String.join(", ", groupColumns));
+			}
+
+			List<String> orderBy = new ArrayList<>();
+
+			if (req.getSortProps() != null) {
+				for (SortDescriptor sort : req.getSortProps()) {
+					String expression = expressions.get(sort.getField());
+
+					if (expression == null) {
+						throw new InvalidColumnNameMappingException("排序屬性 " + sort.getField() + " 須為分組屬性或彙總欄位");
+					}
+
+					orderBy.add(expression + " " + Direction.fromString(sort.getDir()));
+				}
+			}
+
+			if (!orderBy.isEmpty()) {
+				sql.append(" ORDER BY ").append(String.join(", ", orderBy));
+			}
+
+			if (req.getSize() > 0 && !groupColumns.isEmpty()) {
+				this.getDatabaseDialect().appendLimit(sql, !orderBy.isEmpty(), req.getSize() * req.getPage(),
+						req.getSize());
+			}
+
+			List<Object[]> rows = new NamedParameterJdbcTemplate(this.getJdbcTemplate()).query(sql.toString(),
+					JdbcParams.of(params), (rs, rowNum) -> {
+						Object[] row = new Object[columns.size()];
+
+						for (int i = 0; i < row.length; i++) {
+							row[i] = rs.getObject(i + 1);
+						}
+
+						return row;
+					});
+
+			return new AggregateResponseVO(columns, rows);
+		} catch (DAOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DAOException("彙總查詢失敗", e);
+		}
+	}
+
+	/**
+	 * 多屬性 facet 查詢: 各 facet 屬性以 GROUP BY 查詢值及筆數 (依筆數由多至少, 取前 facetLimit 個). 各查詢分為至多
+	 * MAX_FACET_PARALLELISM 組, 於 QueryExecutors 的 executor 上同時執行, 同一組的查詢循序執行
+	 * 
+	 * @param req
+	 * @return facet 屬性 與 選項對映 (依 facetFields 順序)
+	 * @throws DAOException
+	 */
+	@Override
+	public Map<String, List<FacetOptionVO>> getFacets(FacetRequestVO req) throws DAOException {
+		Map<String, List<FacetOptionVO>> facets = new LinkedHashMap<>();
+
+		if (req.getFacetFields() == null || req.getFacetFields().isEmpty()) {
+			return facets;
+		}
+
+		try {
+			Map<String, Object> params = new HashMap<>();
+			String whereSQL = this.getWhereSQL(req.getFilter(), params);
+			NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(this.getJdbcTemplate());
+			MapSqlParameterSource paramSource = JdbcParams.of(params);
+			Map<String, String> facetSQL = new LinkedHashMap<>();
+
+			for (String field : req.getFacetFields()) {
+				String columnName = this.getMappedColumnName(field);
+
+				if (columnName == null) {
+					throw new InvalidColumnNameMappingException("找不到對映 " + field + " 屬性的 table column");
+				}
+
+				StringBuilder sql = new StringBuilder("SELECT ").append(columnName).append(", COUNT(*) FROM ")
+						.append(this.persistentTable).append(whereSQL).append(" GROUP BY ").append(columnName)
+						.append(" ORDER BY COUNT(*) DESC");
+
+				if (req.getFacetLimit() > 0) {
+					this.getDatabaseDialect().appendLimit(sql, true, 0, req.getFacetLimit());
+				}
+
+				facetSQL.put(field, sql.toString());
+			}
+
+			// 依序分配各 facet 屬性至各組, 限制單一請求佔用的連線數
+			List<String> fields = new ArrayList<>(facetSQL.keySet());
+			int lanes = Math.min(fields.size(), MAX_FACET_PARALLELISM);
+			List<CompletableFuture<Map<String, List<FacetOptionVO>>>> futures = new ArrayList<>(lanes);
+
+			for (int lane = 0; lane < lanes; lane++) {
+				List<String> laneFields = new ArrayList<>();
+
+				for (int i = lane; i < fields.size(); i += lanes) {
+					laneFields.add(fields.get(i));
+				}
+
+				futures.add(CompletableFuture.supplyAsync(() -> {
+					Map<String, List<FacetOptionVO>> options = new HashMap<>();
+
+					for (String field : laneFields) {
+						options.put(field, template.query(facetSQL.get(field), paramSource,
+								(rs, rowNum) -> new FacetOptionVO(rs.getObject(1), rs.getObject(1), rs.getLong(2))));
+					}
+
+					return options;
+				}, QueryExecutors.getPageQueryExecutor()));
+			}
+
+			Map<String, List<FacetOptionVO>> options = new HashMap<>();
+
+			for (CompletableFuture<Map<String, List<FacetOptionVO>>> future : futures) {
+				options.putAll(future.join());
+			}
+
+			for (String field : fields) {
+				facets.put(field, options.get(field));
+			}
+
+			return facets;
+		} catch (CompletionException e) {
+			throw new DAOException("facet 查詢失敗", e.getCause());
+		} catch (DAOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DAOException("facet 查詢失敗", e);
+		}
+	}
+
+	/**
+	 * 組合 SQL Order By 敍述
+	 * 
+	 * @param sortProps
+	 * @return
+	 * @throws InvalidColumnNameMappingException
+	 */
+	private String getOrderBySQL(List<SortDescriptor> sortProps) throws InvalidColumnNameMappingException {
+		if (sortProps == null || sortProps.isEmpty()) {
+			return "";
+		}
+
+		List<String> orderBy = new ArrayList<>();
+
+		for (SortDescriptor sort : sortProps) {
+			String columnName = this.getMappedColumnName(sort.getField());
+
+			if (columnName == null) {
+				throw new InvalidColumnNameMappingException("找不到對映 " + sort.getField() + " 屬性的 table column");
+			}
+
+			orderBy.add(columnName + " " + Direction.fromString(sort.getDir()));
+		}
+
+		return " ORDER BY " + StringUtils.join(orderBy, ", ");
+	}
+
+	/**
+	 * 以資料庫游標逐筆讀取查詢結果
+	 * 
+	 * @param req
+	 * @return
+	 * @throws DAOException
+	 */
+	@Override
+	public Stream<E> streamRows(PageRequestVO req) throws DAOException {
+		return this.streamRows(req, DEFAULT_FETCH_SIZE);
+	}
+
+	/**
+	 * 以資料庫游標逐筆讀取查詢結果
+	 * 
+	 * @param req
+	 * @param fetchSize
+	 * @return
+	 * @throws DAOException
+	 */
+	@Override
+	public Stream<E> streamRows(PageRequestVO req, int fetchSize) throws DAOException {
+		try {
+			Map<String, Object> params = new HashMap<>();
+			StringBuilder sql = new StringBuilder("SELECT * FROM ").append(this.persistentTable);
+
+			if (req.getFilter() != null) {
+				sql.append(this.getWhereSQL(req.getFilter(), params));
+			}
+
+			sql.append(this.getOrderBySQL(req.getSortProps()));
+
+			SessionImplementor session = this.entityManager.unwrap(SessionImplementor.class);
+			NativeQuery<E> query = session.createNativeQuery(sql.toString(), this.persistentClass);
+
+			for (String key : params.keySet()) {
+				query.setParameter(key, params.get(key));
+			}
+
+			if (req.getSize() > 0) {
+				query.setMaxResults(req.getSize()).setFirstResult(req.getSize() * req.getPage());
+			}
+
+			// 讀取前已在 persistence context 中的 entity (呼叫端載入者, 不分離)
+			Set<EntityKey> retainedKeys = new HashSet<>();
+
+			for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal()
+					.reentrantSafeEntityEntries()) {
+				retainedKeys.add(entry.getValue().getEntityKey());
+			}
+
+			int evictInterval = fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE;
+
+			// 唯讀查詢不保留 dirty checking 快照
+			query.setFetchSize(fetchSize).setReadOnly(true).setHibernateFlushMode(FlushMode.MANUAL);
+
+			ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
+			Spliterator<E> spliterator = new Spliterators.AbstractSpliterator<E>(Long.MAX_VALUE,
+					Spliterator.ORDERED | Spliterator.NONNULL) {
+
+				private int count;
+
+				@Override
+				public boolean tryAdvance(Consumer<? super E> action) {
+					// 每 evictInterval 筆 (已處理完畢) 及讀取結束時, 分離讀取期間載入的 entity (含 EAGER 關聯及 lazy loading 載入者)
+					if (this.count > 0 && this.count % evictInterval == 0) {
+						evictLoaded(session, retainedKeys);
+					}
+
+					if (!results.next()) {
+						if (this.count % evictInterval != 0) {
+							evictLoaded(session, retainedKeys);
+						}
+
+						this.count = 0;
+						return false;
+					}
+
+					this.count++;
+					action.accept(persistentClass.cast(results.get(0)));
+
+					return true;
+				}
+			};
+
+			return StreamSupport.stream(spliterator, false).onClose(results::close);
+		} catch (Exception e) {
+			throw new DAOException("查詢資料列失敗", e);
+		}
+	}
+
+	/**
+	 * 將 persistence context 中 retainedKeys 以外的 entity 分離
+	 * 
+	 * @param session
+	 * @param retainedKeys
+	 */
+	private static void evictLoaded(SessionImplementor session, Set<EntityKey> retainedKeys) {
+		for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal()
+				.reentrantSafeEntityEntries()) {
+			// 已隨其他 entity 的 cascade 分離者略過
+			if (!retainedKeys.contains(entry.getValue().getEntityKey()) && session.contains(entry.getKey())) {
+				session.evict(entry.getKey());
+			}
+		}
+	}
+
+	/**
+	 * 查詢符合過濾條件的資料列數 (req.size 大於 0 時, 為該頁的資料列數)
+	 * 
+	 * @param req
+	 * @return
+	 * @throws DAOException
+	 */
+	@Override
+	public long countRows(PageRequestVO req) throws DAOException {
+		try {
+			Map<String, Object> params = new HashMap<>();
+			String whereSQL = req.getFilter() == null ? "" : this.getWhereSQL(req.getFilter(), params);
+			long count = this.countRows("SELECT count(*) cnt FROM " + this.persistentTable + whereSQL, params, true);
+
+			if (req.getSize() > 0) {
+				count = Math.max(0, Math.min(req.getSize(), count - (long) req.getSize() * req.getPage()));
+			}
+
+			return count;
+		} catch (Exception e) {
+			throw new DAOException("查詢資料列數失敗", e);
+		}
+	}
+
+	/**
+	 * 查詢資料列數
+	 * 
+	 * @param countSQL
+	 * @param params
+	 * @param readOnly 唯讀查詢時不 flush persistence context
+	 * @return
+	 */
+	private int countRows(String countSQL, Map<String, Object> params, boolean readOnly) {
+		Query countQuery = this.entityManager.createNativeQuery(countSQL);
+
+		if (readOnly) {
+			countQuery.unwrap(NativeQuery.class).setHibernateFlushMode(FlushMode.MANUAL);
+		}
+
+		for (String key : params.keySet()) {
+			countQuery.setParameter(key, params.get(key));
+		}
+
+		return ((Number) countQuery.getSingleResult()).intValue();
+	}
+
+	/**
+	 * 由資料庫統計資訊讀取資料表的估計資料列數
+	 * 
+	 * @return 無法取得時為 null
+	 */
+	private Integer estimateRows() {
+		try {
+			Long estimate = this.getDatabaseDialect().estimateRowCount(this.getJdbcTemplate(), this.persistentTable);
+			return estimate == null ? null : (int) Math.min(estimate, Integer.MAX_VALUE);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 取得後端資料庫種類
+	 * 
+	 * @return
+	 */
+	protected DatabaseDialect getDatabaseDialect() {
+		if (this.databaseDialect == null) {
+			this.databaseDialect = this.getJdbcTemplate().execute((ConnectionCallback<DatabaseDialect>) connection -> DatabaseDialect
+					.of(connection.getMetaData().getDatabaseProductName()));
+			this.filterSQLCompiler.setDatabaseDialect(this.databaseDialect);
+		}
+
+		return this.databaseDialect;
+	}
+
+	/**
+	 * 查詢資料列 (不含 count)
+	 * 
+	 * @param req
+	 * @param fromTableOrSubselect
+	 * @param whereSQL
+	 * @param params
+	 * @param probeNext            多查一筆以判斷是否有下一頁
+	 * @param readOnly             是否為唯讀查詢
+	 * @return
+	 * @throws DAOException
+	 * @throws InvalidColumnNameMappingException
+	 * @throws IllegalAccessException
+	 */
+	private PageResponseVO<E> queryRows(PageRequestVO req, String fromTableOrSubselect, String whereSQL,
+			Map<String, Object> params, boolean probeNext, boolean readOnly)
+			throws DAOException, InvalidColumnNameMappingException, IllegalAccessException {
+		List<E> result;
+		String nextCursor = null;
+		boolean hasMore = false;
+		Map<String, Object> rowParams = new HashMap<>(params);
+
+		StringBuilder resultSQL = new StringBuilder("SELECT * FROM ").append(fromTableOrSubselect);
+		resultSQL.append(whereSQL);
+
+		// 處理排序
+		List<SortDescriptor> sortProps = req.isSeek() ? this.getSeekSortProps(req) : req.getSortProps();
+
+		// seek 分頁: 自前一頁最後一筆之後開始查詢
+		if (req.isSeek() && req.getAfter() != null) {
+			resultSQL.append(whereSQL.isEmpty() ? " WHERE " : " AND ")
+					.append(this.getSeekCondSQL(sortProps, req.getAfter(), rowParams));
+		}
+
+		resultSQL.append(req.isSeek() ? this.getSeekOrderBySQL(sortProps) : this.getOrderBySQL(sortProps));
+
+		NativeQuery<E> resultQuery = this.entityManager.unwrap(Session.class).createNativeQuery(resultSQL.toString(),
+				this.persistentClass);
+
+		for (String key : rowParams.keySet()) {
+			resultQuery.setParameter(key, rowParams.get(key));
+		}
+
+		// 唯讀查詢: 不保留 dirty checking 快照, 查詢前不 flush
+		if (readOnly) {
+			resultQuery.setReadOnly(true).setHibernateFlushMode(FlushMode.MANUAL);
+		}
+
+		// size > 0 時, 做分頁處理
+		if (req.getSize() > 0) {
+			int firstResult = req.isSeek() ? 0 : req.getSize() * req.getPage();
+			int maxResults = probeNext ? req.getSize() + 1 : req.getSize();
+			result = resultQuery.setMaxResults(maxResults).setFirstResult(firstResult).getResultList();
+
+			if (probeNext) {
+				hasMore = result.size() > req.getSize();
+				result = hasMore ? result.subList(0, req.getSize()) : result;
+			}
+
+			// 取滿一頁時, 以最後一筆產生下一頁游標
+			if (req.isSeek() && (probeNext ? hasMore : result.size() == req.getSize())) {
+				nextCursor = this.getSeekCursor(sortProps, result.get(result.size() - 1));
+			}
+		} else { // size 為 0 時, 不做分頁處理 (取全部資料)
+			result = resultQuery.getResultList();
+		}
+
+		PageResponseVO<E> response = new PageResponseVO<E>(result.size(), result);
+		response.setNextCursor(nextCursor);
+		response.setHasMore(hasMore);
+
+		return response;
+	}
+
+	/**
+	 * 查詢資料列並直接對映為 DTO (不含 count): 僅查詢指定屬性對映的欄位, 以 JDBC row mapper 讀取
+	 * 
+	 * @param <T>
+	 * @param req
+	 * @param fromTableOrSubselect
+	 * @param dtoClass
+	 * @param whereSQL
+	 * @param params
+	 * @param probeNext            多查一筆以判斷是否有下一頁
+	 * @return
+	 * @throws DAOException
+	 * @throws InvalidColumnNameMappingException
+	 */
+	private <T> PageResponseVO<T> queryDTORows(PageRequestVO req, String fromTableOrSubselect, Class<T> dtoClass,
+			String whereSQL, Map<String, Object> params, boolean probeNext)
+			throws DAOException, InvalidColumnNameMappingException {
+		Map<String, Object> rowParams = new HashMap<>(params);
+		List<SortDescriptor> sortProps = req.isSeek() ? this.getSeekSortProps(req) : req.getSortProps();
+
+		// 查詢欄位: 指定的屬性, seek 分頁時再加上排序屬性 (產生游標用)
+		Set<String> fields = new LinkedHashSet<>(
+				req.getFields() == null || req.getFields().isEmpty() ? this.fieldColumnMapping.keySet()
+						: req.getFields());
+
+		if (req.isSeek()) {
+			sortProps.forEach(sort -> fields.add(sort.getField()));
+		}
+
+		List<String> columns = new ArrayList<>();
+
+		for (String field : fields) {
+			String columnName = this.getMappedColumnName(field);
+
+			if (columnName == null) {
+				throw new InvalidColumnNameMappingException("找不到對映 " + field + " 屬性的 table column");
+			}
+
+			columns.add(columnName + " AS " + this.getDatabaseDialect().quoteIdentifier(field));
+		}
+
+		StringBuilder resultSQL = new StringBuilder("SELECT ").append(StringUtils.join(columns, ", ")).append(" FROM ")
+				.append(fromTableOrSubselect).append(whereSQL);
+
+		// seek 分頁: 自前一頁最後一筆之後開始查詢
+		if (req.isSeek() && req.getAfter() != null) {
+			resultSQL.append(whereSQL.isEmpty() ? " WHERE " : " AND ")
+					.append(this.getSeekCondSQL(sortProps, req.getAfter(), rowParams));
+		}
+
+		String orderBySQL = req.isSeek() ? this.getSeekOrderBySQL(sortProps) : this.getOrderBySQL(sortProps);
+		resultSQL.append(orderBySQL);
+
+		// size > 0 時, 做分頁處理
+		if (req.getSize() > 0) {
+			int offset = req.isSeek() ? 0 : req.getSize() * req.getPage();
+			int limit = probeNext ? req.getSize() + 1 : req.getSize();
+			this.getDatabaseDialect().appendLimit(resultSQL, !orderBySQL.isEmpty(), offset, limit);
+		}
+
+		// seek 分頁時記錄每一列的排序欄位值, 以最後一列產生下一頁游標
+		BeanPropertyRowMapper<T> dtoMapper = BeanPropertyRowMapper.newInstance(dtoClass);
+		List<List<Object>> seekValues = new ArrayList<>();
+		RowMapper<T> rowMapper = !req.isSeek() ? dtoMapper : (rs, rowNum) -> {
+			List<Object> values = new ArrayList<>();
+
+			for (SortDescriptor sort : sortProps) {
+				values.add(rs.getObject(sort.getField()));
+			}
+
+			seekValues.add(values);
+
+			return dtoMapper.mapRow(rs, rowNum);
+		};
+
+		List<T> result = new NamedParameterJdbcTemplate(this.getJdbcTemplate()).query(resultSQL.toString(),
+				JdbcParams.of(rowParams), rowMapper);
+		boolean hasMore = false;
+		String nextCursor = null;
+
+		if (req.getSize() > 0) {
+			if (probeNext) {
+				hasMore = result.size() > req.getSize();
+				result = hasMore ? result.subList(0, req.getSize()) : result;
+			}
+
+			// 取滿一頁時, 以最後一筆產生下一頁游標
+			if (req.isSeek() && (probeNext ? hasMore : result.size() == req.getSize())) {
+				nextCursor = KeysetCursor.encode(seekValues.get(result.size() - 1));
+			}
+		}
+
+		PageResponseVO<T> response = new PageResponseVO<T>(result.size(), result);
+		response.setNextCursor(nextCursor);
+		response.setHasMore(hasMore);
+
+		return response;
+	}
+
+	/**
+	 * 於 executor 執行緒以 JDBC 查詢資料列數; 該執行緒未參與呼叫端交易, 故使用 pool 中另一條連線
+	 * 
+	 * @param countSQL
+	 * @param params
+	 * @return
+	 */
+	private CompletableFuture<Integer> countRowsAsync(String countSQL, Map<String, Object> params) {
+		NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(this.getJdbcTemplate());
+		MapSqlParameterSource paramSource = JdbcParams.of(params);
+
+		return CompletableFuture.supplyAsync(() -> template.queryForObject(countSQL, paramSource, Long.class),
+				QueryExecutors.getPageQueryExecutor()).thenApply(Long::intValue);
+	}
+
+	/**
+	 * 取得 Spring JDBC Template; 未經注入時 (Spring Data 建立的 repository 實體), 以 EntityManagerFactory 的
+	 * DataSource 建立
+	 * 
+	 * @return
+	 */
+	protected JdbcTemplate getJdbcTemplate() {
+		if (this.jdbcTemplate == null) {
+			EntityManagerFactory factory = this.entityManager.getEntityManagerFactory();
+			DataSource dataSource = factory instanceof EntityManagerFactoryInfo
+					? ((EntityManagerFactoryInfo) factory).getDataSource()
+					: factory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+							.getService(ConnectionProvider.class).unwrap(DataSource.class);
+
+			this.jdbcTemplate = new JdbcTemplate(dataSource);
+		}
+
+		return this.jdbcTemplate;
+	}
+
+	/**
+	 * seek 分頁的排序屬性: 請求的排序屬性, 最後一個一律為 id, 確保排序唯一 (id 之後的排序屬性不影響順序, 略過)
+	 * 
+	 * @param req
+	 * @return
+	 * @throws DAOException
+	 */
+	private List<SortDescriptor> getSeekSortProps(PageRequestVO req) throws DAOException {
+		if (this.entityInformation.hasCompositeId() || this.entityInformation.getIdAttribute() == null) {
+			throw new DAOException("複合主鍵的實體 " + this.persistentClass.getSimpleName() + " 不支援 seek 分頁");
+		}
+
+		String idField = this.entityInformation.getIdAttribute().getName();
+		List<SortDescriptor> sortProps = new ArrayList<>();
+
+		if (req.getSortProps() != null) {
+			for (SortDescriptor sort : req.getSortProps()) {
+				sortProps.add(sort);
+
+				if (idField.equals(sort.getField())) {
+					return sortProps;
+				}
+			}
+		}
+
+		SortDescriptor idSort = new SortDescriptor();
+		idSort.setField(idField);
+		idSort.setDir(Direction.ASC.name());
+		sortProps.add(idSort);
+
+		return sortProps;
+	}
+
+	/**
+	 * seek 分頁的 Order By 敍述: 可為 NULL 的欄位一律將 NULL 排在最後, 與 getSeekCondSQL 的條件一致
+	 * 
+	 * @param sortProps
+	 * @return
+	 * @throws InvalidColumnNameMappingException
+	 */
+	private String getSeekOrderBySQL(List<SortDescriptor> sortProps) throws InvalidColumnNameMappingException {
+		List<String> orderBy = new ArrayList<>();
+
+		for (SortDescriptor sort : sortProps) {
+			String columnName = this.getMappedColumnName(sort.getField());
+
+			if (columnName == null) {
+				throw new InvalidColumnNameMappingException("找不到對映 " + sort.getField() + " 屬性的 table column");
+			}
+
+			Direction direction = Direction.fromString(sort.getDir());
+
+			orderBy.add(this.metadata.isNullable(sort.getField())
+					? this.getDatabaseDialect().getNullsLastOrderBy(columnName, direction.isDescending())
+					: columnName + " " + direction);
+		}
+
+		return " ORDER BY " + StringUtils.join(orderBy, ", ");
+	}
+
+	/**
+	 * 組合 seek 分頁條件, 即 (sortcols) > (:last) 展開為
+	 * c1 > :v1 OR (c1 = :v1 AND c2 > :v2) OR ..., 以支援各欄位不同排序方向.
+	 * <p>
+	 * 可為 NULL 的欄位依 NULL 排在最後處理: 游標值非 NULL 時, 其後為 c > :v OR c IS NULL; 游標值為 NULL 時, 其後沒有資料,
+	 * 相等條件為 c IS NULL
+	 * 
+	 * @param sortProps
+	 * @param cursor
+	 * @param params
+	 * @return
+	 * @throws DAOException
+	 * @throws InvalidColumnNameMappingException
+	 */
+	private String getSeekCondSQL(List<SortDescriptor> sortProps, String cursor, Map<String, Object> params)
+			throws DAOException, InvalidColumnNameMappingException {
+		List<Object> values;
+
+		try {
+			values = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			throw new DAOException(e.getMessage(), e);
+		}
+
+		if (values.size() != sortProps.size()) {
+			throw new DAOException("分頁游標與排序屬性不符");
+		}
+
+		StringBuilder sql = new StringBuilder("(1=0");
+		StringBuilder equalsSQL = new StringBuilder();
+
+		for (int i = 0; i < sortProps.size(); i++) {
+			SortDescriptor sort = sortProps.get(i);
+			String columnName = this.getMappedColumnName(sort.getField());
+			String param = "seek_" + i;
+
+			if (columnName == null) {
+				throw new InvalidColumnNameMappingException("找不到對映 " + sort.getField() + " 屬性的 table column");
+			}
+
+			boolean nullable = this.metadata.isNullable(sort.getField());
+
+			if (values.get(i) == null) {
+				if (!nullable) {
+					throw new DAOException("分頁游標與排序屬性不符");
+				}
+
+				// NULL 排在最後, 此欄位之後沒有資料
+				equalsSQL.append(columnName).append(" IS NULL AND ");
+				continue;
+			}
+
+			String operator = Direction.fromString(sort.getDir()).isDescending() ? " < :" : " > :";
+
+			try {
+				params.put(param, this.filterSQLCompiler.convert(sort.getField(),
+						KeysetCursor.convert(values.get(i), this.entityFields.get(sort.getField()).getType())));
+			} catch (IllegalArgumentException e) {
+				throw new DAOException("無效的分頁游標 " + cursor, e);
+			}
+
+			sql.append(" OR (").append(equalsSQL);
+
+			if (nullable) {
+				sql.append("(").append(columnName).append(operator).append(param).append(" OR ").append(columnName)
+						.append(" IS NULL))");
+			} else {
+				sql.append(columnName).append(operator).append(param).append(")");
+			}
+
+			equalsSQL.append(columnName).append(" = :").append(param).append(" AND ");
+		}
+
+		return sql.append(")").toString();
+	}
+
+	/**
+	 * 以資料列的排序屬性值產生 seek 分頁游標
+	 * 
+	 * @param sortProps
+	 * @param row
+	 * @return
+	 * @throws IllegalAccessException
+	 */
+	private String getSeekCursor(List<SortDescriptor> sortProps, E row) throws IllegalAccessException {
+		List<Object> values = new ArrayList<>();
+
+		for (SortDescriptor sort : sortProps) {
+			values.add(this.metadata.getValue(row, sort.getField()));
+		}
+
+		return KeysetCursor.encode(values);
+	}
+
+	/**
+	 * 組合 SQL Where 敍述
+	 * 
+	 * @param filter
+	 * @param params
+	 * @return
+	 * @throws InvalidLogicalOperatorException
+	 * @throws DAOException
+	 * @throws InvalidColumnNameMappingException
+	 */
+	private String getWhereSQL(FilterDescriptor filter, Map<String, Object> params)
+			throws InvalidLogicalOperatorException, DAOException, InvalidColumnNameMappingException {
+
+		if (filter != null) {
+			// IN 清單的語法及參數數量上限依資料庫而定
+			this.getDatabaseDialect();
+		}
+
+		String condSQL = this.filterSQLCompiler.compile(filter, params);
+		return condSQL.isEmpty() ? "" : " WHERE (" + condSQL + ")";
+	}
+
+	/**
+	 * 資料列查詢 (count 以外的部份)
+	 *
+	 * @param <T> 資料列型別
+	 */
+	@FunctionalInterface
+	private interface RowsQuery<T> {
+		PageResponseVO<T> query(String whereSQL, Map<String, Object> params, boolean probeNext) throws Exception;
 	}
 }
@@ -0,0 +1,344 @@
+package com.mt.core.model.dao.support;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+
+/**
+ * Entity 屬性對映欄位的型別: 記錄屬性的 Java 型別及綁定 JDBC 參數所用的型別, 並將外部傳入的值 (如 JSON 反序列化的字串, 數值) 轉換為綁定型別,
+ * 避免資料庫為比對型別而轉換欄位值, 導致無法使用索引.
+ * <ul>
+ * <li>java.util.Date, Calendar: 依 @Temporal 綁定為 java.sql.Date, Time 或 Timestamp</li>
+ * <li>enum: 依 @Enumerated 綁定為名稱 (STRING) 或序號 (ORDINAL)</li>
+ * <li>@JoinColumn: 綁定為關聯 entity 的 id 型別</li>
+ * </ul>
+ *
+ * @author Mueller Tsai
+ */
+public final class ColumnType {
+
+	/**
+	 * 屬性型別
+	 */
+	private final Class<?> javaType;
+
+	/**
+	 * 綁定 JDBC 參數的型別
+	 */
+	private final Class<?> bindType;
+
+	/**
+	 * java.sql.Types
+	 */
+	private final int sqlType;
+
+	private ColumnType(Class<?> javaType, Class<?> bindType) {
+		this.javaType = javaType;
+		this.bindType = bindType;
+		this.sqlType = StatementCreatorUtils.javaTypeToSqlParameterType(bindType);
+	}
+
+	/**
+	 * 由 entity 屬性的型別及 JPA 註解決定欄位型別
+	 *
+	 * @param field
+	 * @return
+	 */
+	public static ColumnType of(Field field) {
+		Class<?> type = ClassUtils.primitiveToWrapper(field.getType());
+
+		if (field.isAnnotationPresent(JoinColumn.class)) {
+			Field idField = findIdField(type);
+			return new ColumnType(type, idField == null ? Object.class : ClassUtils.primitiveToWrapper(idField.getType()));
+		} else if (type.isEnum()) {
+			Enumerated enumerated = field.getAnnotation(Enumerated.class);
+			return new ColumnType(type,
+					enumerated != null && enumerated.value() == EnumType.STRING ? String.class : Integer.class);
+		} else if (Date.class.equals(type) || Calendar.class.isAssignableFrom(type)) {
+			Temporal temporal = field.getAnnotation(Temporal.class);
+			TemporalType temporalType = temporal == null ? TemporalType.TIMESTAMP : temporal.value();
+
+			switch (temporalType) {
+				case DATE:
+					return new ColumnType(type, java.sql.Date.class);
+				case TIME:
+					return new ColumnType(type, Time.class);
+				default:
+					return new ColumnType(type, Timestamp.class);
+			}
+		}
+
+		return new ColumnType(type, type);
+	}
+
+	/**
+	 * 以屬性型別及綁定型別建立 (如編譯時期產生的對映資訊)
+	 *
+	 * @param javaType 屬性型別 (primitive 以 wrapper 型別記錄)
+	 * @param bindType 綁定 JDBC 參數的型別
+	 * @return
+	 */
+	public static ColumnType of(Class<?> javaType, Class<?> bindType) {
+		return new ColumnType(ClassUtils.primitiveToWrapper(javaType), ClassUtils.primitiveToWrapper(bindType));
+	}
+
+	private static Field findIdField(Class<?> entityClass) {
+		for (Class<?> c = entityClass; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (field.isAnnotationPresent(Id.class)) {
+					return field;
+				}
+			}
+
+			if (c != entityClass && !c.isAnnotationPresent(MappedSuperclass.class)) {
+				break;
+			}
+		}
+
+		return null;
+	}
+
+	public Class<?> getJavaType() {
+		return this.javaType;
+	}
+
+	public Class<?> getBindType() {
+		return this.bindType;
+	}
+
+	/**
+	 * java.sql.Types; 無對應型別時為 SqlTypeValue.TYPE_UNKNOWN
+	 *
+	 * @return
+	 */
+	public int getSqlType() {
+		return this.sqlType;
+	}
+
+	/**
+	 * 將值轉換為綁定型別
+	 *
+	 * @param value
+	 * @return
+	 * @throws IllegalArgumentException 無法轉換時
+	 */
+	public Object convert(Object value) {
+		if (value == null || this.bindType == Object.class) {
+			return value;
+		}
+
+		try {
+			if (this.javaType.isEnum()) {
+				return this.convertEnum(value);
+			} else if (this.bindType.isInstance(value)) {
+				return value;
+			} else if (this.bindType == String.class) {
+				return value.toString();
+			} else if (Number.class.isAssignableFrom(this.bindType)) {
+				return this.convertNumber(value);
+			} else if (this.bindType == Boolean.class) {
+				return this.convertBoolean(value);
+			} else if (this.bindType == Character.class) {
+				String s = value.toString();
+
+				if (s.length() == 1) {
+					return s.charAt(0);
+				}
+			} else if (this.bindType == UUID.class) {
+				return UUID.fromString(value.toString().trim());
+			} else {
+				Object temporal = this.convertTemporal(value);
+
+				if (temporal != null) {
+					return temporal;
+				}
+			}
+		} catch (RuntimeException e) { // NumberFormatException, ArithmeticException, DateTimeException ...
+			throw new IllegalArgumentException(this.error(value), e);
+		}
+
+		throw new IllegalArgumentException(this.error(value));
+	}
+
+	private String error(Object value) {
+		return "值 " + value + " 無法轉換為 " + this.bindType.getSimpleName();
+	}
+
+	private Object convertEnum(Object value) {
+		Object[] constants = this.javaType.getEnumConstants();
+		Enum<?> constant = null;
+
+		if (this.javaType.isInstance(value)) {
+			constant = (Enum<?>) value;
+		} else if (value instanceof Number) {
+			constant = (Enum<?>) constants[new BigDecimal(value.toString()).intValueExact()];
+		} else {
+			String s = value.toString().trim();
+
+			for (Object c : constants) {
+				if (((Enum<?>) c).name().equals(s)) {
+					constant = (Enum<?>) c;
+					break;
+				}
+			}
+
+			if (constant == null && this.bindType == Integer.class && s.matches("\\d+")) {
+				constant = (Enum<?>) constants[Integer.parseInt(s)];
+			}
+		}
+
+		if (constant == null) {
+			throw new IllegalArgumentException(this.error(value));
+		}
+
+		return this.bindType == String.class ? constant.name() : (Object) constant.ordinal();
+	}
+
+	private Object convertNumber(Object value) {
+		BigDecimal number;
+
+		if (value instanceof Number) {
+			number = new BigDecimal(value.toString());
+		} else if (value instanceof Boolean) {
+			number = (Boolean) value ? BigDecimal.ONE : BigDecimal.ZERO;
+		} else {
+			number = new BigDecimal(value.toString().trim());
+		}
+
+		if (this.bindType == Integer.class) {
+			return number.intValueExact();
+		} else if (this.bindType == Long.class) {
+			return number.longValueExact();
+		} else if (this.bindType == Short.class) {
+			return number.shortValueExact();
+		} else if (this.bindType == Byte.class) {
+			return number.byteValueExact();
+		} else if (this.bindType == Double.class) {
+			return number.doubleValue();
+		} else if (this.bindType == Float.class) {
+			return number.floatValue();
+		} else if (this.bindType == BigInteger.class) {
+			return number.toBigIntegerExact();
+		} else if (this.bindType == BigDecimal.class) {
+			return number;
+		}
+
+		throw new IllegalArgumentException(this.error(value));
+	}
+
+	private Boolean convertBoolean(Object value) {
+		String s = value.toString().trim();
+
+		if ("true".equalsIgnoreCase(s) || "1".equals(s) || "Y".equalsIgnoreCase(s)) {
+			return Boolean.TRUE;
+		} else if ("false".equalsIgnoreCase(s) || "0".equals(s) || "N".equalsIgnoreCase(s)) {
+			return Boolean.FALSE;
+		}
+
+		throw new IllegalArgumentException(this.error(value));
+	}
+
+	/**
+	 * 日期時間型別轉換; 不含時區的值以系統預設時區解讀
+	 *
+	 * @param value
+	 * @return 非日期時間型別時為 null
+	 */
+	private Object convertTemporal(Object value) {
+		if (this.bindType == LocalTime.class || this.bindType == Time.class) {
+			LocalTime time = value instanceof String && ((String) value).trim().length() <= 12
+					? LocalTime.parse(((String) value).trim())
+					: toZonedDateTime(value).toLocalTime();
+			return this.bindType == Time.class ? Time.valueOf(time) : time;
+		}
+
+		if (this.bindType == Timestamp.class) {
+			return Timestamp.valueOf(toZonedDateTime(value).toLocalDateTime());
+		} else if (this.bindType == java.sql.Date.class) {
+			return java.sql.Date.valueOf(toZonedDateTime(value).toLocalDate());
+		} else if (this.bindType == LocalDateTime.class) {
+			return toZonedDateTime(value).toLocalDateTime();
+		} else if (this.bindType == LocalDate.class) {
+			return toZonedDateTime(value).toLocalDate();
+		} else if (this.bindType == Instant.class) {
+			return toZonedDateTime(value).toInstant();
+		} else if (this.bindType == OffsetDateTime.class) {
+			return toZonedDateTime(value).toOffsetDateTime();
+		} else if (this.bindType == ZonedDateTime.class) {
+			return toZonedDateTime(value);
+		}
+
+		return null;
+	}
+
+	private static ZonedDateTime toZonedDateTime(Object value) {
+		ZoneId zone = ZoneId.systemDefault();
+
+		if (value instanceof Number) {
+			return Instant.ofEpochMilli(((Number) value).longValue()).atZone(zone);
+		} else if (value instanceof Date) {
+			// java.sql.Date 不支援 toInstant()
+			return Instant.ofEpochMilli(((Date) value).getTime()).atZone(zone);
+		} else if (value instanceof Calendar) {
+			return Instant.ofEpochMilli(((Calendar) value).getTimeInMillis()).atZone(zone);
+		} else if (value instanceof TemporalAccessor && !(value instanceof LocalTime)) {
+			return fromTemporal((TemporalAccessor) value, zone);
+		}
+
+		String s = value.toString().trim();
+
+		if (s.matches("-?\\d{9,}")) { // epoch millis
+			return Instant.ofEpochMilli(Long.parseLong(s)).atZone(zone);
+		} else if (s.length() <= 10) {
+			return LocalDate.parse(s.replace('/', '-')).atStartOfDay(zone);
+		}
+
+		s = s.replace('/', '-').replace(' ', 'T');
+
+		if (s.endsWith("Z") || s.matches(".*[+-]\\d{2}:?\\d{2}$")) {
+			return OffsetDateTime.parse(s).atZoneSameInstant(zone);
+		}
+
+		return LocalDateTime.parse(s).atZone(zone);
+	}
+
+	private static ZonedDateTime fromTemporal(TemporalAccessor value, ZoneId zone) {
+		if (value instanceof ZonedDateTime) {
+			return ((ZonedDateTime) value).withZoneSameInstant(zone);
+		} else if (value instanceof OffsetDateTime) {
+			return ((OffsetDateTime) value).atZoneSameInstant(zone);
+		} else if (value instanceof Instant) {
+			return ((Instant) value).atZone(zone);
+		} else if (value instanceof LocalDateTime) {
+			return ((LocalDateTime) value).atZone(zone);
+		} else if (value instanceof LocalDate) {
+			return ((LocalDate) value).atStartOfDay(zone);
+		}
+
+		return ZonedDateTime.from(value);
+	}
+}
@@ -0,0 +1,152 @@
+package com.mt.core.model.dao.support;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.SqlParameterValue;
+
+/**
+ * 查詢結果數快取: 相同查詢條件 (正規化後的 SQL 與參數) 於 TTL 內重覆使用上次的 count 結果
+ *
+ * @author Mueller Tsai
+ */
+public class CountCache {
+
+	private final long ttlMillis;
+	private final int maxEntries;
+	private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param ttlMillis  快取有效時間 (毫秒)
+	 * @param maxEntries 快取筆數上限
+	 */
+	public CountCache(long ttlMillis, int maxEntries) {
+		this.ttlMillis = ttlMillis;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * 以查詢 SQL 與參數產生快取 key (參數依名稱排序). 參數值逐一展開 (清單, 陣列, SqlParameterValue), 字串加上引號並附加型別名稱,
+	 * 以免不同的值產生相同的 key
+	 *
+	 * @param sql
+	 * @param params
+	 * @return
+	 */
+	public static String key(String sql, Map<String, Object> params) {
+		StringBuilder key = new StringBuilder(sql).append('|');
+
+		for (Map.Entry<String, Object> param : new TreeMap<>(params).entrySet()) {
+			key.append(param.getKey()).append('=');
+			appendValue(key, param.getValue());
+			key.append(';');
+		}
+
+		return key.toString();
+	}
+
+	private static void appendValue(StringBuilder key, Object value) {
+		if (value == null) {
+			key.append("null");
+		} else if (value instanceof SqlParameterValue) {
+			key.append("sql").append(((SqlParameterValue) value).getSqlType()).append(':');
+			appendValue(key, ((SqlParameterValue) value).getValue());
+		} else if (value instanceof Collection) {
+			key.append('[');
+
+			for (Object element : (Collection<?>) value) {
+				appendValue(key, element);
+				key.append(',');
+			}
+
+			key.append(']');
+		} else if (value.getClass().isArray()) {
+			key.append('[');
+
+			for (int i = 0, length = Array.getLength(value); i < length; i++) {
+				appendValue(key, Array.get(value, i));
+				key.append(',');
+			}
+
+			key.append(']');
+		} else if (value instanceof CharSequence) {
+			key.append('"').append(value.toString().replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+		} else {
+			key.append(value.getClass().getSimpleName()).append(':').append(value);
+		}
+	}
+
+	/**
+	 * 取得未過期的 count
+	 *
+	 * @param key
+	 * @return 無快取或已過期時為 null
+	 */
+	public Integer get(String key) {
+		Entry entry = this.cache.get(key);
+
+		if (entry == null) {
+			return null;
+		} else if (entry.expireAt < System.currentTimeMillis()) {
+			this.cache.remove(key, entry);
+			return null;
+		}
+
+		return entry.count;
+	}
+
+	/**
+	 * 快取 count
+	 *
+	 * @param key
+	 * @param count
+	 */
+	public void put(String key, int count) {
+		long now = System.currentTimeMillis();
+
+		if (this.cache.size() >= this.maxEntries) {
+			this.evict(now);
+		}
+
+		this.cache.put(key, new Entry(count, now + this.ttlMillis));
+	}
+
+	/**
+	 * 清除全部快取 (如資料異動後)
+	 */
+	public void clear() {
+		this.cache.clear();
+	}
+
+	/**
+	 * 清除過期項目; 仍超過上限時清除最早到期的項目
+	 *
+	 * @param now
+	 */
+	private void evict(long now) {
+		this.cache.values().removeIf(entry -> entry.expireAt < now);
+
+		Iterator<Map.Entry<String, Entry>> iterator = this.cache.entrySet().stream()
+				.sorted((a, b) -> Long.compare(a.getValue().expireAt, b.getValue().expireAt)).iterator();
+
+		while (this.cache.size() >= this.maxEntries && iterator.hasNext()) {
+			this.cache.remove(iterator.next().getKey());
+		}
+	}
+
+	private static class Entry {
+		private final int count;
+		private final long expireAt;
+
+		private Entry(int count, long expireAt) {
+			this.count = count;
+			this.expireAt = expireAt;
+		}
+	}
+}
@@ -0,0 +1,362 @@
+package com.mt.core.model.dao.support;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 後端資料庫種類, 提供各資料庫特有的 SQL 語法
+ *
+ * @author Mueller Tsai
+ */
+public enum DatabaseDialect {
+
+	POSTGRESQL, MYSQL, ORACLE, SQLSERVER, H2, OTHER;
+
+	/**
+	 * 綁定型別 與 PostgreSQL 陣列元素型別
+	 */
+	private static final Map<Class<?>, String> POSTGRESQL_TYPES = new HashMap<>();
+
+	/**
+	 * 綁定型別 與 SQL Server OPENJSON 欄位型別
+	 */
+	private static final Map<Class<?>, String> SQLSERVER_TYPES = new HashMap<>();
+
+	static {
+		POSTGRESQL_TYPES.put(String.class, "varchar");
+		POSTGRESQL_TYPES.put(Short.class, "smallint");
+		POSTGRESQL_TYPES.put(Integer.class, "integer");
+		POSTGRESQL_TYPES.put(Long.class, "bigint");
+		POSTGRESQL_TYPES.put(BigDecimal.class, "numeric");
+		POSTGRESQL_TYPES.put(Float.class, "real");
+		POSTGRESQL_TYPES.put(Double.class, "double precision");
+		POSTGRESQL_TYPES.put(Boolean.class, "boolean");
+		POSTGRESQL_TYPES.put(UUID.class, "uuid");
+		POSTGRESQL_TYPES.put(java.sql.Date.class, "date");
+		POSTGRESQL_TYPES.put(Time.class, "time");
+		POSTGRESQL_TYPES.put(Timestamp.class, "timestamp");
+		POSTGRESQL_TYPES.put(LocalDate.class, "date");
+		POSTGRESQL_TYPES.put(LocalDateTime.class, "timestamp");
+
+		SQLSERVER_TYPES.put(String.class, "nvarchar(4000)");
+		SQLSERVER_TYPES.put(Short.class, "smallint");
+		SQLSERVER_TYPES.put(Integer.class, "int");
+		SQLSERVER_TYPES.put(Long.class, "bigint");
+		SQLSERVER_TYPES.put(Boolean.class, "bit");
+		SQLSERVER_TYPES.put(UUID.class, "uniqueidentifier");
+		SQLSERVER_TYPES.put(java.sql.Date.class, "date");
+		SQLSERVER_TYPES.put(Timestamp.class, "datetime2");
+		SQLSERVER_TYPES.put(LocalDate.class, "date");
+		SQLSERVER_TYPES.put(LocalDateTime.class, "datetime2");
+	}
+
+	/**
+	 * 以 JDBC DatabaseMetaData 的 product name 判斷資料庫種類
+	 *
+	 * @param productName
+	 * @return
+	 */
+	public static DatabaseDialect of(String productName) {
+		String name = StringUtils.defaultString(productName).toLowerCase();
+
+		if (name.contains("postgres")) {
+			return POSTGRESQL;
+		} else if (name.contains("mysql") || name.contains("mariadb")) {
+			return MYSQL;
+		} else if (name.contains("oracle")) {
+			return ORACLE;
+		} else if (name.contains("microsoft") || name.contains("sql server")) {
+			return SQLSERVER;
+		} else if (name.equals("h2")) {
+			return H2;
+		}
+
+		return OTHER;
+	}
+
+	/**
+	 * 附加分頁語法
+	 *
+	 * @param sql     已含 ORDER BY (如有) 的查詢 SQL
+	 * @param ordered SQL 是否已含 ORDER BY
+	 * @param offset  略過筆數
+	 * @param limit   查詢筆數
+	 */
+	public void appendLimit(StringBuilder sql, boolean ordered, int offset, int limit) {
+		if (this == SQLSERVER || this == ORACLE) {
+			// SQL Server 的 OFFSET ... FETCH 須搭配 ORDER BY
+			if (this == SQLSERVER && !ordered) {
+				sql.append(" ORDER BY (SELECT NULL)");
+			}
+
+			sql.append(" OFFSET ").append(offset).append(" ROWS FETCH NEXT ").append(limit).append(" ROWS ONLY");
+		} else {
+			sql.append(" LIMIT ").append(limit).append(" OFFSET ").append(offset);
+		}
+	}
+
+	/**
+	 * 單一 SQL 敍述可綁定的參數數量上限 (JDBC driver 或資料庫的限制); 未知的資料庫以 PostgreSQL 舊版 driver 的 32767 為準
+	 *
+	 * @return
+	 */
+	public int getMaxBindParameters() {
+		switch (this) {
+			case SQLSERVER:
+				return 2100;
+			case MYSQL:
+			case ORACLE:
+				return 65535;
+			case H2:
+				return Integer.MAX_VALUE;
+			default:
+				return 32767;
+		}
+	}
+
+	/**
+	 * 以單一參數綁定整個清單的 IN 條件: PostgreSQL 以陣列 (= ANY), SQL Server 以 JSON 陣列 (OPENJSON); 參數值以
+	 * {@link #toArrayParameter(Collection)} 產生
+	 *
+	 * @param column   欄位名稱
+	 * @param param    參數名稱
+	 * @param bindType 清單值的綁定型別
+	 * @return 不支援 (資料庫或型別) 時為 null
+	 */
+	public String getArrayInSQL(String column, String param, Class<?> bindType) {
+		String typeName;
+
+		switch (this) {
+			case POSTGRESQL:
+				typeName = POSTGRESQL_TYPES.get(bindType);
+				return typeName == null ? null : column + " = ANY(CAST(:" + param + " AS " + typeName + "[]))";
+			case SQLSERVER:
+				typeName = SQLSERVER_TYPES.get(bindType);
+				return typeName == null ? null
+						: column + " IN (SELECT v FROM OPENJSON(:" + param + ") WITH (v " + typeName + " '$'))";
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * 清單的單一參數值: PostgreSQL 為陣列字面值 ({"a","b"}), SQL Server 為 JSON 陣列 (["a","b"])
+	 *
+	 * @param values
+	 * @return
+	 */
+	public String toArrayParameter(Collection<?> values) {
+		boolean json = this == SQLSERVER;
+		StringBuilder sb = new StringBuilder(json ? "[" : "{");
+
+		for (Object value : values) {
+			if (sb.length() > 1) {
+				sb.append(',');
+			}
+
+			if (value == null) {
+				sb.append(json ? "null" : "NULL");
+			} else if (value instanceof Number || value instanceof Boolean) {
+				sb.append(value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString());
+			} else {
+				sb.append('"');
+
+				for (char c : value.toString().toCharArray()) {
+					if (c == '"' || c == '\\') {
+						sb.append('\\').append(c);
+					} else if (json && c < 0x20) {
+						sb.append(String.format("\\u%04x", (int) c));
+					} else {
+						sb.append(c);
+					}
+				}
+
+				sb.append('"');
+			}
+		}
+
+		return sb.append(json ? "]" : "}").toString();
+	}
+
+	/**
+	 * 以資料庫的識別字引號括住名稱 (如欄位別名), 使保留字 (order, user, size 等) 可作為識別字, 並保留大小寫
+	 *
+	 * @param identifier
+	 * @return
+	 */
+	public String quoteIdentifier(String identifier) {
+		switch (this) {
+			case MYSQL:
+				return "`" + identifier.replace("`", "``") + "`";
+			case SQLSERVER:
+				return "[" + identifier.replace("]", "]]") + "]";
+			default:
+				return "\"" + identifier.replace("\"", "\"\"") + "\"";
+		}
+	}
+
+	/**
+	 * 排序欄位, NULL 一律排在最後 (不論排序方向), 使 seek 分頁條件與排序一致. 不支援 NULLS LAST 的資料庫以 CASE 運算式先行排序
+	 *
+	 * @param column     欄位名稱
+	 * @param descending 是否為遞減排序
+	 * @return
+	 */
+	public String getNullsLastOrderBy(String column, boolean descending) {
+		String direction = descending ? " DESC" : " ASC";
+
+		switch (this) {
+			case POSTGRESQL:
+			case ORACLE:
+			case H2:
+				return column + direction + " NULLS LAST";
+			default:
+				return "CASE WHEN " + column + " IS NULL THEN 1 ELSE 0 END, " + column + direction;
+		}
+	}
+
+	/**
+	 * 新增或更新 (upsert) 單筆資料的 SQL, 參數依 columns 順序綁定
+	 * <ul>
+	 * <li>PostgreSQL: INSERT ... ON CONFLICT (keys) DO UPDATE, keyColumns 須有唯一索引</li>
+	 * <li>MySQL: INSERT ... ON DUPLICATE KEY UPDATE, 以資料表的主鍵/唯一索引判斷</li>
+	 * <li>其他: MERGE INTO ... USING ... ON (keys)</li>
+	 * </ul>
+	 *
+	 * @param table         資料表名稱
+	 * @param columns       新增的欄位
+	 * @param keyColumns    判斷資料是否存在的欄位
+	 * @param updateColumns 資料存在時更新的欄位
+	 * @return
+	 */
+	public String getUpsertSQL(String table, List<String> columns, List<String> keyColumns,
+			List<String> updateColumns) {
+		StringBuilder sql = new StringBuilder();
+		String columnList = String.join(", ", columns);
+		String params = String.join(", ", Collections.nCopies(columns.size(), "?"));
+
+		switch (this) {
+			case POSTGRESQL:
+				sql.append("INSERT INTO ").append(table).append(" (").append(columnList).append(") VALUES (")
+						.append(params).append(") ON CONFLICT (").append(String.join(", ", keyColumns)).append(")");
+
+				if (updateColumns.isEmpty()) {
+					sql.append(" DO NOTHING");
+				} else {
+					sql.append(" DO UPDATE SET ");
+					appendAssignments(sql, updateColumns, "EXCLUDED.%s");
+				}
+				break;
+			case MYSQL:
+				sql.append("INSERT INTO ").append(table).append(" (").append(columnList).append(") VALUES (")
+						.append(params).append(") ON DUPLICATE KEY UPDATE ");
+				// 無更新欄位時以 key 欄位自我指定, 不異動資料
+				appendAssignments(sql, updateColumns.isEmpty() ? keyColumns.subList(0, 1) : updateColumns,
+						updateColumns.isEmpty() ? "%s" : "VALUES(%s)");
+				break;
+			default:
+				sql.append("MERGE INTO ").append(table).append(" t USING (");
+
+				if (this == ORACLE) {
+					sql.append("SELECT ");
+
+					for (int i = 0; i < columns.size(); i++) {
+						sql.append(i > 0 ? ", " : "").append("? AS ").append(columns.get(i));
+					}
+
+					sql.append(" FROM DUAL) s");
+				} else {
+					sql.append("VALUES (").append(params).append(")) AS s (").append(columnList).append(")");
+				}
+
+				sql.append(" ON (");
+
+				for (int i = 0; i < keyColumns.size(); i++) {
+					sql.append(i > 0 ? " AND " : "").append("t.").append(keyColumns.get(i)).append(" = s.")
+							.append(keyColumns.get(i));
+				}
+
+				sql.append(")");
+
+				if (!updateColumns.isEmpty()) {
+					sql.append(" WHEN MATCHED THEN UPDATE SET ");
+					appendAssignments(sql, updateColumns, "s.%s");
+				}
+
+				sql.append(" WHEN NOT MATCHED THEN INSERT (").append(columnList).append(") VALUES (");
+
+				for (int i = 0; i < columns.size(); i++) {
+					sql.append(i > 0 ? ", " : "").append("s.").append(columns.get(i));
+				}
+
+				sql.append(")");
+
+				// SQL Server 的 MERGE 須以分號結尾
+				if (this == SQLSERVER) {
+					sql.append(";");
+				}
+		}
+
+		return sql.toString();
+	}
+
+	private static void appendAssignments(StringBuilder sql, List<String> columns, String valueFormat) {
+		for (int i = 0; i < columns.size(); i++) {
+			sql.append(i > 0 ? ", " : "").append(columns.get(i)).append(" = ")
+					.append(String.format(valueFormat, columns.get(i)));
+		}
+	}
+
+	/**
+	 * 由資料庫統計資訊讀取資料表的估計資料列數
+	 *
+	 * @param jdbcTemplate
+	 * @param table        資料表名稱 (Catalog.TableName)
+	 * @return 估計資料列數, 無統計資訊時為 null
+	 */
+	public Long estimateRowCount(JdbcTemplate jdbcTemplate, String table) {
+		String catalog = table.contains(".") ? StringUtils.substringBeforeLast(table, ".") : null;
+		String name = table.contains(".") ? StringUtils.substringAfterLast(table, ".") : table;
+		List<Number> result;
+
+		switch (this) {
+			case POSTGRESQL:
+				result = jdbcTemplate.queryForList("SELECT reltuples FROM pg_class WHERE oid = to_regclass(?)",
+						Number.class, table);
+				break;
+			case MYSQL:
+				result = jdbcTemplate.queryForList(
+						"SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = COALESCE(?, DATABASE()) AND TABLE_NAME = ?",
+						Number.class, catalog, name);
+				break;
+			case ORACLE:
+				result = jdbcTemplate.queryForList(
+						"SELECT NUM_ROWS FROM ALL_TABLES WHERE OWNER = COALESCE(UPPER(?), USER) AND TABLE_NAME = UPPER(?)",
+						Number.class, catalog, name);
+				break;
+			case SQLSERVER:
+				result = jdbcTemplate.queryForList(
+						"SELECT SUM(rows) FROM sys.partitions WHERE object_id = OBJECT_ID(?) AND index_id IN (0, 1)",
+						Number.class, table);
+				break;
+			default:
+				return null;
+		}
+
+		// PostgreSQL 未 ANALYZE 的資料表 reltuples 為 -1
+		return result.isEmpty() || result.get(0) == null || result.get(0).longValue() < 0 ? null
+				: result.get(0).longValue();
+	}
+}
@@ -0,0 +1,424 @@
+package com.mt.core.model.dao.support;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.mt.core.model.vo.PageRequestVO.Filter;
+import com.mt.core.model.vo.PageRequestVO.FilterDescriptor;
+
+/**
+ * 過濾條件最佳化: 於組合 SQL 前簡化 FilterDescriptor 結構, 使產生的 SQL 較易被資料庫使用索引
+ * <ul>
+ * <li>移除值為 null 的條件及空的群組</li>
+ * <li>只有一個子條件的群組以該子條件取代, 相同邏輯 (and/or) 的巢狀群組攤平</li>
+ * <li>or 群組中同一屬性的多個 eq 條件合併為一個 IN 條件</li>
+ * <li>and 群組中同一屬性的多個範圍條件 (gt/ge/lt/le/between) 合併為最小範圍</li>
+ * </ul>
+ * 不修改傳入的 FilterDescriptor. 除範圍合併外, 結果僅取決於過濾條件的結構 (屬性, 運算子, 邏輯, 值是否為 null 或清單), 與值無關.
+ *
+ * @author Mueller Tsai
+ */
+public final class FilterOptimizer {
+
+	private FilterOptimizer() {
+	}
+
+	/**
+	 * 最佳化過濾條件
+	 *
+	 * @param filter
+	 * @return 最佳化後的過濾條件; 已無任何條件時為 null
+	 */
+	public static FilterDescriptor optimize(FilterDescriptor filter) {
+		return optimize(filter, new Trace());
+	}
+
+	/**
+	 * 最佳化過濾條件, 並記錄新產生的末端節點來自哪些原末端節點
+	 *
+	 * @param filter
+	 * @param trace
+	 * @return 最佳化後的過濾條件; 已無任何條件時為 null
+	 */
+	static FilterDescriptor optimize(FilterDescriptor filter, Trace trace) {
+		if (filter == null) {
+			return null;
+		}
+
+		return filter.getFilter() == null ? optimizeLeaf(filter, trace) : optimizeGroup(filter.getFilter(), trace);
+	}
+
+	private static FilterDescriptor optimizeLeaf(FilterDescriptor filter, Trace trace) {
+		Object value = filter.getValue();
+
+		if (value == null) {
+			return null;
+		}
+
+		if ("between".equals(filter.getOperator()) && value instanceof List && ((List<?>) value).size() == 2) {
+			Object from = ((List<?>) value).get(0);
+			Object to = ((List<?>) value).get(1);
+
+			if (from == null && to == null) {
+				return null;
+			} else if (from == null) {
+				return trace.derive(leaf(filter.getField(), "le", to), filter, 1);
+			} else if (to == null) {
+				return trace.derive(leaf(filter.getField(), "ge", from), filter, 0);
+			}
+		}
+
+		return filter;
+	}
+
+	private static FilterDescriptor optimizeGroup(Filter group, Trace trace) {
+		String logic = "and".equals(group.getLogic()) ? "and" : "or";
+		List<FilterDescriptor> children = new ArrayList<>();
+
+		if (group.getSubFilters() != null) {
+			for (FilterDescriptor subFilter : group.getSubFilters()) {
+				FilterDescriptor child = optimize(subFilter, trace);
+
+				if (child == null) {
+					continue;
+				}
+
+				// 相同邏輯的子群組攤平
+				if (child.getFilter() != null && logic.equals(child.getFilter().getLogic())) {
+					children.addAll(child.getFilter().getSubFilters());
+				} else {
+					children.add(child);
+				}
+			}
+		}
+
+		children = "or".equals(logic) ? mergeEquals(children, trace) : foldRanges(children, trace);
+
+		if (children.isEmpty()) {
+			return null;
+		} else if (children.size() == 1) {
+			return children.get(0);
+		}
+
+		Filter optimized = new Filter();
+		optimized.setLogic(logic);
+		optimized.setSubFilters(children);
+
+		FilterDescriptor descriptor = new FilterDescriptor();
+		descriptor.setFilter(optimized);
+
+		return descriptor;
+	}
+
+	/**
+	 * or 群組: 同一屬性的 eq 條件合併為 IN
+	 *
+	 * @param children
+	 * @param trace
+	 * @return
+	 */
+	private static List<FilterDescriptor> mergeEquals(List<FilterDescriptor> children, Trace trace) {
+		Map<String, List<FilterDescriptor>> equalsByField = new LinkedHashMap<>();
+
+		for (FilterDescriptor child : children) {
+			if (isLeaf(child, "eq") && !"keyword".equals(child.getField())) {
+				equalsByField.computeIfAbsent(child.getField(), field -> new ArrayList<>()).add(child);
+			}
+		}
+
+		List<FilterDescriptor> merged = new ArrayList<>();
+
+		for (FilterDescriptor child : children) {
+			List<FilterDescriptor> equals = isLeaf(child, "eq") ? equalsByField.get(child.getField()) : null;
+
+			if (equals == null || equals.size() == 1) {
+				merged.add(child);
+			} else if (equals.get(0) == child) { // 於第一個 eq 條件的位置放入合併後的條件
+				Set<Object> values = new LinkedHashSet<>();
+
+				for (FilterDescriptor f : equals) {
+					Object value = f.getValue();
+
+					if (value instanceof List) {
+						values.addAll((List<?>) value);
+					} else if (value.getClass().isArray()) {
+						for (int i = 0, length = Array.getLength(value); i < length; i++) {
+							values.add(Array.get(value, i));
+						}
+					} else {
+						values.add(value);
+					}
+				}
+
+				merged.add(trace.derive(leaf(child.getField(), "eq", new ArrayList<>(values)), equals));
+			}
+		}
+
+		return merged;
+	}
+
+	/**
+	 * and 群組: 同一屬性的範圍條件合併為最小範圍 (僅限數值或同型別可比較的值)
+	 *
+	 * @param children
+	 * @param trace
+	 * @return
+	 */
+	private static List<FilterDescriptor> foldRanges(List<FilterDescriptor> children, Trace trace) {
+		Map<String, Range> ranges = new LinkedHashMap<>();
+
+		for (FilterDescriptor child : children) {
+			if (isRange(child)) {
+				ranges.computeIfAbsent(child.getField(), field -> new Range()).leaves.add(child);
+			}
+		}
+
+		ranges.values().removeIf(range -> range.leaves.size() == 1);
+
+		// 合併結果取決於值的大小
+		if (!ranges.isEmpty()) {
+			trace.valueDependent = true;
+		}
+
+		ranges.values().removeIf(range -> !range.fold());
+
+		List<FilterDescriptor> folded = new ArrayList<>();
+
+		for (FilterDescriptor child : children) {
+			Range range = isRange(child) ? ranges.get(child.getField()) : null;
+
+			if (range == null) {
+				folded.add(child);
+			} else if (range.leaves.get(0) == child) { // 於第一個範圍條件的位置放入合併後的條件
+				folded.addAll(range.toLeaves(child.getField()));
+			}
+		}
+
+		return folded;
+	}
+
+	private static boolean isLeaf(FilterDescriptor filter, String operator) {
+		return filter.getFilter() == null && operator.equals(filter.getOperator());
+	}
+
+	private static boolean isRange(FilterDescriptor filter) {
+		if (filter.getFilter() != null || filter.getOperator() == null || "keyword".equals(filter.getField())) {
+			return false;
+		}
+
+		switch (filter.getOperator()) {
+			case "gt":
+			case "ge":
+			case "lt":
+			case "le":
+				return !(filter.getValue() instanceof List);
+			case "between":
+				return filter.getValue() instanceof List && ((List<?>) filter.getValue()).size() == 2
+						&& ((List<?>) filter.getValue()).get(0) != null && ((List<?>) filter.getValue()).get(1) != null;
+			default:
+				return false;
+		}
+	}
+
+	private static FilterDescriptor leaf(String field, String operator, Object value) {
+		FilterDescriptor descriptor = new FilterDescriptor();
+		descriptor.setField(field);
+		descriptor.setOperator(operator);
+		descriptor.setValue(value);
+
+		return descriptor;
+	}
+
+	/**
+	 * 比較兩個值; 無法比較時 (型別不同, 或為字串) 回傳 null
+	 *
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Integer compare(Object a, Object b) {
+		if (a instanceof Number && b instanceof Number) {
+			try {
+				return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+			} catch (NumberFormatException e) { // NaN, Infinity
+				return null;
+			}
+		} else if (a instanceof Comparable && !(a instanceof String) && a.getClass().equals(b.getClass())) {
+			return ((Comparable) a).compareTo(b);
+		}
+
+		return null;
+	}
+
+	/**
+	 * 最佳化過程記錄: 新產生的末端節點 與 其來源的原末端節點 (FilterSQLCompiler 據以自原過濾條件取值綁定參數)
+	 */
+	static final class Trace {
+
+		private final Map<FilterDescriptor, List<FilterDescriptor>> origins = new IdentityHashMap<>();
+
+		private final Map<FilterDescriptor, Integer> elements = new IdentityHashMap<>();
+
+		private boolean valueDependent;
+
+		private FilterDescriptor derive(FilterDescriptor leaf, List<FilterDescriptor> from) {
+			List<FilterDescriptor> resolved = new ArrayList<>();
+
+			for (FilterDescriptor f : from) {
+				resolved.addAll(this.getOrigins(f));
+			}
+
+			this.origins.put(leaf, resolved);
+
+			return leaf;
+		}
+
+		private FilterDescriptor derive(FilterDescriptor leaf, FilterDescriptor from, int element) {
+			this.elements.put(leaf, element);
+
+			return this.derive(leaf, Collections.singletonList(from));
+		}
+
+		/**
+		 * 末端節點的來源 (未經改寫的末端節點為其本身)
+		 *
+		 * @param leaf
+		 * @return
+		 */
+		List<FilterDescriptor> getOrigins(FilterDescriptor leaf) {
+			return this.origins.getOrDefault(leaf, Collections.singletonList(leaf));
+		}
+
+		/**
+		 * 末端節點的值取自來源 between 範圍的第幾個值
+		 *
+		 * @param leaf
+		 * @return 取來源的整個值時為 -1
+		 */
+		int getElement(FilterDescriptor leaf) {
+			return this.elements.getOrDefault(leaf, -1);
+		}
+
+		/**
+		 * 最佳化結果是否取決於值 (範圍合併), 而非僅取決於結構
+		 *
+		 * @return
+		 */
+		boolean isValueDependent() {
+			return this.valueDependent;
+		}
+	}
+
+	/**
+	 * 同一屬性的範圍條件
+	 */
+	private static class Range {
+		private final List<FilterDescriptor> leaves = new ArrayList<>();
+
+		private Object lower;
+		private boolean lowerInclusive;
+		private Object upper;
+		private boolean upperInclusive;
+
+		/**
+		 * 計算最小範圍
+		 *
+		 * @return 值無法比較時為 false
+		 */
+		private boolean fold() {
+			for (FilterDescriptor leaf : this.leaves) {
+				Object value = leaf.getValue();
+
+				switch (leaf.getOperator()) {
+					case "gt":
+					case "ge":
+						if (!this.tightenLower(value, "ge".equals(leaf.getOperator()))) {
+							return false;
+						}
+						break;
+					case "lt":
+					case "le":
+						if (!this.tightenUpper(value, "le".equals(leaf.getOperator()))) {
+							return false;
+						}
+						break;
+					default: // between
+						List<?> values = (List<?>) value;
+
+						if (!this.tightenLower(values.get(0), true) || !this.tightenUpper(values.get(1), true)) {
+							return false;
+						}
+				}
+			}
+
+			return true;
+		}
+
+		private boolean tightenLower(Object value, boolean inclusive) {
+			if (this.lower == null) {
+				this.lower = value;
+				this.lowerInclusive = inclusive;
+				return true;
+			}
+
+			Integer cmp = compare(value, this.lower);
+
+			if (cmp == null) {
+				return false;
+			} else if (cmp > 0 || (cmp == 0 && !inclusive)) {
+				this.lower = value;
+				this.lowerInclusive = inclusive;
+			}
+
+			return true;
+		}
+
+		private boolean tightenUpper(Object value, boolean inclusive) {
+			if (this.upper == null) {
+				this.upper = value;
+				this.upperInclusive = inclusive;
+				return true;
+			}
+
+			Integer cmp = compare(value, this.upper);
+
+			if (cmp == null) {
+				return false;
+			} else if (cmp < 0 || (cmp == 0 && !inclusive)) {
+				this.upper = value;
+				this.upperInclusive = inclusive;
+			}
+
+			return true;
+		}
+
+		private List<FilterDescriptor> toLeaves(String field) {
+			List<FilterDescriptor> result = new ArrayList<>();
+
+			if (this.lower != null && this.upper != null && this.lowerInclusive && this.upperInclusive) {
+				result.add(leaf(field, "between", Arrays.asList(this.lower, this.upper)));
+				return result;
+			}
+
+			if (this.lower != null) {
+				result.add(leaf(field, this.lowerInclusive ? "ge" : "gt", this.lower));
+			}
+
+			if (this.upper != null) {
+				result.add(leaf(field, this.upperInclusive ? "le" : "lt", this.upper));
+			}
+
+			return result;
+		}
+	}
+}
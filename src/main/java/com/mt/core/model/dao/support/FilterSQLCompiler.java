@@ -0,0 +1,836 @@
+package com.mt.core.model.dao.support;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mt.core.model.exception.InvalidColumnNameMappingException;
+import com.mt.core.model.exception.InvalidFilterValueException;
+import com.mt.core.model.exception.InvalidLogicalOperatorException;
+import com.mt.core.model.search.KeywordSearchEngine;
+import com.mt.core.model.vo.PageRequestVO.Filter;
+import com.mt.core.model.vo.PageRequestVO.FilterDescriptor;
+
+/**
+ * 將 FilterDescriptor 轉換為 SQL 查詢條件
+ * <p>
+ * 參數名稱由過濾條件在樹中的位置決定, 相同結構 (屬性, 運算子, 邏輯, 值是否為 null, IN 清單分段數) 的過濾條件產生相同的 SQL, 故先以傳入的過濾條件結構為
+ * key 查詢快取的 SQL 與參數綁定方式; 命中時僅自各末端節點取值, 依 {@link ColumnType} 轉換為欄位型別後綁定. 未命中時, 過濾條件的值先轉換為欄位型別,
+ * 再經 {@link FilterOptimizer} 簡化後組合 SQL, 並記錄各參數取自哪個原末端節點. 範圍合併的結果取決於值, 不快取.
+ * <p>
+ * 設定 {@link KeywordSearchEngine} 且索引就緒時, 關鍵字條件先以索引取得候選 id, 以 id IN 縮小 LIKE 比對的範圍 (候選 id 隨關鍵字而異, 不快取).
+ * 過長的 IN 清單分段以 OR 組合; 資料庫支援以單一參數綁定清單 (PostgreSQL 陣列, SQL Server JSON) 時改以單一參數綁定, 使 SQL 與清單長度無關.
+ * 綁定的參數總數不得超過資料庫的上限 ({@link DatabaseDialect#getMaxBindParameters()}), 超過時拋出 {@link InvalidFilterValueException}.
+ *
+ * @author Mueller Tsai
+ */
+public class FilterSQLCompiler {
+
+	/**
+	 * 預設快取 SQL 數上限
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 256;
+
+	/**
+	 * 預設單一 IN 清單長度上限
+	 */
+	public static final int DEFAULT_IN_LIST_CHUNK_SIZE = 1000;
+
+	/**
+	 * 保留給過濾條件以外 (分頁, seek 游標, 更新欄位等) 的參數數量
+	 */
+	private static final int RESERVED_BIND_PARAMETERS = 100;
+
+	/**
+	 * IN 清單以單一參數綁定 (Binding 的分段數)
+	 */
+	private static final int ARRAY = -1;
+
+	/**
+	 * Entity Class 屬性(field)名稱 與 DB Table 欄位(column)名稱對映
+	 */
+	private final Map<String, String> fieldColumnMapping;
+
+	/**
+	 * Entity Class 屬性(field)名稱 與 欄位型別對映
+	 */
+	private final Map<String, ColumnType> columnTypes;
+
+	/**
+	 * 搜尋關鍵字的對象欄位
+	 */
+	private final String[] keywordColumns;
+
+	/**
+	 * 關鍵字搜尋引擎, null 時以 LIKE 查詢
+	 */
+	private volatile KeywordSearchEngine keywordSearchEngine;
+
+	/**
+	 * id 屬性名稱 (關鍵字搜尋引擎的候選 id 條件)
+	 */
+	private volatile String idField;
+
+	/**
+	 * 過濾條件結構 與 SQL 對映 (LRU)
+	 */
+	private final Map<String, Template> cache;
+
+	/**
+	 * 單一 IN 清單長度上限, 超過時分段
+	 */
+	private volatile int inListChunkSize = DEFAULT_IN_LIST_CHUNK_SIZE;
+
+	/**
+	 * 後端資料庫種類 (IN 清單的單一參數語法, 參數數量上限)
+	 */
+	private volatile DatabaseDialect databaseDialect = DatabaseDialect.OTHER;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	public FilterSQLCompiler(Map<String, String> fieldColumnMapping, String[] keywordColumns) {
+		this(fieldColumnMapping, Collections.emptyMap(), keywordColumns, DEFAULT_CACHE_SIZE);
+	}
+
+	public FilterSQLCompiler(Map<String, String> fieldColumnMapping, Map<String, ColumnType> columnTypes,
+			String[] keywordColumns) {
+		this(fieldColumnMapping, columnTypes, keywordColumns, DEFAULT_CACHE_SIZE);
+	}
+
+	public FilterSQLCompiler(Map<String, String> fieldColumnMapping, Map<String, ColumnType> columnTypes,
+			String[] keywordColumns, int cacheSize) {
+		this.fieldColumnMapping = fieldColumnMapping;
+		this.columnTypes = columnTypes;
+		this.keywordColumns = keywordColumns;
+		this.cache = Collections.synchronizedMap(new LinkedHashMap<String, Template>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+				return this.size() > cacheSize;
+			}
+		});
+	}
+
+	/**
+	 * 組合 SQL 查詢條件
+	 *
+	 * @param filter
+	 * @param params 查詢參數, 組合時一併放入
+	 * @return SQL 查詢條件; 無任何條件時為空字串
+	 * @throws InvalidLogicalOperatorException
+	 * @throws InvalidColumnNameMappingException 屬性無對映欄位, 或值無法轉換為欄位型別 ({@link InvalidFilterValueException})
+	 */
+	public String compile(FilterDescriptor filter, Map<String, Object> params)
+			throws InvalidLogicalOperatorException, InvalidColumnNameMappingException {
+		if (filter == null) {
+			return "";
+		}
+
+		List<FilterDescriptor> leaves = new ArrayList<>();
+		StringBuilder shape = new StringBuilder();
+		boolean cacheable = this.collect(filter, shape, leaves);
+		String key = shape.toString();
+
+		if (cacheable) {
+			Template template = this.cache.get(key);
+			Map<String, Object> values = template == null ? null : this.bind(template, leaves);
+
+			if (values != null) {
+				this.hitCount.incrementAndGet();
+				params.putAll(values);
+
+				return template.sql;
+			}
+		}
+
+		this.missCount.incrementAndGet();
+
+		// 值轉換為欄位型別後最佳化; sources 記錄轉換後的末端節點 與 原末端節點
+		Map<FilterDescriptor, FilterDescriptor> sources = new IdentityHashMap<>();
+		FilterOptimizer.Trace trace = new FilterOptimizer.Trace();
+		FilterDescriptor optimized = FilterOptimizer.optimize(this.coerce(filter, sources), trace);
+		boolean reusable = cacheable && !trace.isValueDependent();
+		Template template = new Template();
+
+		if (optimized != null) {
+			// 不快取時直接自最佳化後的末端節點取值
+			FilterOptimizer.Trace origin = reusable ? trace : new FilterOptimizer.Trace();
+
+			if (!reusable) {
+				leaves.clear();
+				this.collect(optimized, new StringBuilder(), leaves);
+				sources.clear();
+			}
+
+			Map<FilterDescriptor, Integer> leafIndexes = new IdentityHashMap<>();
+
+			for (int i = 0; i < leaves.size(); i++) {
+				leafIndexes.put(leaves.get(i), i);
+			}
+
+			template.sql = this.getCondSQL(optimized, "", origin, leaf -> {
+				List<FilterDescriptor> from = origin.getOrigins(leaf);
+				int[] indexes = new int[from.size()];
+
+				for (int i = 0; i < indexes.length; i++) {
+					indexes[i] = leafIndexes.get(sources.getOrDefault(from.get(i), from.get(i)));
+				}
+
+				return indexes;
+			}, leaves, template.bindings);
+		}
+
+		Map<String, Object> values = this.bind(template, leaves);
+
+		if (reusable) {
+			this.cache.put(key, template);
+		}
+
+		params.putAll(values);
+
+		return template.sql;
+	}
+
+	/**
+	 * 將屬性值轉換為綁定型別
+	 *
+	 * @param field
+	 * @param value
+	 * @return
+	 * @throws InvalidFilterValueException
+	 */
+	public Object convert(String field, Object value) throws InvalidFilterValueException {
+		ColumnType type = this.columnTypes.get(field);
+
+		try {
+			return type == null ? value : type.convert(value);
+		} catch (IllegalArgumentException e) {
+			throw new InvalidFilterValueException("屬性 " + field + " 的過濾條件" + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 設定關鍵字搜尋引擎
+	 *
+	 * @param keywordSearchEngine null 時以 LIKE 查詢
+	 * @param idField             id 屬性名稱
+	 */
+	public void setKeywordSearchEngine(KeywordSearchEngine keywordSearchEngine, String idField) {
+		this.idField = idField;
+		this.keywordSearchEngine = keywordSearchEngine;
+	}
+
+	public KeywordSearchEngine getKeywordSearchEngine() {
+		return this.keywordSearchEngine;
+	}
+
+	/**
+	 * 單一 IN 清單長度上限
+	 *
+	 * @return
+	 */
+	public int getInListChunkSize() {
+		return this.inListChunkSize;
+	}
+
+	/**
+	 * 設定單一 IN 清單長度上限 (並清除已快取的 SQL)
+	 *
+	 * @param inListChunkSize
+	 */
+	public void setInListChunkSize(int inListChunkSize) {
+		this.inListChunkSize = inListChunkSize;
+		this.cache.clear();
+	}
+
+	public DatabaseDialect getDatabaseDialect() {
+		return this.databaseDialect;
+	}
+
+	/**
+	 * 設定後端資料庫種類 (並清除已快取的 SQL)
+	 *
+	 * @param databaseDialect
+	 */
+	public void setDatabaseDialect(DatabaseDialect databaseDialect) {
+		if (this.databaseDialect != databaseDialect) {
+			this.databaseDialect = databaseDialect;
+			this.cache.clear();
+		}
+	}
+
+	/**
+	 * 快取命中次數
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * 快取未命中次數
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * 目前快取的 SQL 數
+	 *
+	 * @return
+	 */
+	public int getCacheSize() {
+		return this.cache.size();
+	}
+
+	/**
+	 * 複製過濾條件, 並將末端節點的值 (含 between 範圍及 IN 清單) 轉換為欄位型別; LIKE 條件的值維持原樣
+	 *
+	 * @param filter
+	 * @param sources 記錄轉換後的末端節點 與 原末端節點
+	 * @return
+	 * @throws InvalidFilterValueException
+	 */
+	private FilterDescriptor coerce(FilterDescriptor filter, Map<FilterDescriptor, FilterDescriptor> sources)
+			throws InvalidFilterValueException {
+		if (filter == null) {
+			return null;
+		}
+
+		Filter group = filter.getFilter();
+
+		if (group != null) {
+			if (group.getSubFilters() == null) {
+				return filter;
+			}
+
+			List<FilterDescriptor> subFilters = new ArrayList<>(group.getSubFilters().size());
+
+			for (FilterDescriptor subFilter : group.getSubFilters()) {
+				subFilters.add(this.coerce(subFilter, sources));
+			}
+
+			Filter typed = new Filter();
+			typed.setLogic(group.getLogic());
+			typed.setSubFilters(subFilters);
+
+			FilterDescriptor descriptor = new FilterDescriptor();
+			descriptor.setFilter(typed);
+
+			return descriptor;
+		}
+
+		Object value = filter.getValue();
+
+		if ("keyword".equals(filter.getField()) && value != null && this.isKeywordIndexed()) {
+			return this.narrowKeyword(filter, sources);
+		}
+
+		if (value == null || !this.columnTypes.containsKey(filter.getField())
+				|| ("contains".equals(filter.getOperator()) && !isList(value))) {
+			return filter;
+		}
+
+		Object typed;
+
+		if (isList(value)) {
+			int size = size(value);
+			List<Object> values = new ArrayList<>(size);
+
+			for (int i = 0; i < size; i++) {
+				values.add(this.convert(filter.getField(), get(value, i)));
+			}
+
+			typed = values;
+		} else {
+			typed = this.convert(filter.getField(), value);
+		}
+
+		FilterDescriptor descriptor = new FilterDescriptor();
+		descriptor.setField(filter.getField());
+		descriptor.setOperator(filter.getOperator());
+		descriptor.setValue(typed);
+		sources.put(descriptor, filter);
+
+		return descriptor;
+	}
+
+	/**
+	 * 關鍵字搜尋引擎的索引是否可用
+	 *
+	 * @return
+	 */
+	private boolean isKeywordIndexed() {
+		KeywordSearchEngine engine = this.keywordSearchEngine;
+		return engine != null && engine.isReady();
+	}
+
+	/**
+	 * 關鍵字條件: 索引可判斷時改為 (id IN 候選 id) AND (關鍵字 LIKE), 否則維持 LIKE
+	 *
+	 * @param filter
+	 * @param sources
+	 * @return
+	 * @throws InvalidFilterValueException
+	 */
+	private FilterDescriptor narrowKeyword(FilterDescriptor filter, Map<FilterDescriptor, FilterDescriptor> sources)
+			throws InvalidFilterValueException {
+		KeywordSearchEngine engine = this.keywordSearchEngine;
+		Collection<Object> candidates = engine == null || !engine.isReady() ? null
+				: engine.search(filter.getValue().toString());
+
+		if (candidates == null) {
+			return filter;
+		}
+
+		FilterDescriptor idFilter = new FilterDescriptor();
+		idFilter.setField(this.idField);
+		idFilter.setOperator("eq");
+		idFilter.setValue(new ArrayList<>(candidates));
+
+		Filter group = new Filter();
+		group.setLogic("and");
+		group.setSubFilters(Arrays.asList(this.coerce(idFilter, sources), filter));
+
+		FilterDescriptor descriptor = new FilterDescriptor();
+		descriptor.setFilter(group);
+
+		return descriptor;
+	}
+
+	/**
+	 * 依序收集過濾條件的末端節點, 並產生結構 key
+	 *
+	 * @param filter
+	 * @param shape
+	 * @param leaves
+	 * @return 可否以結構 key 快取 (關鍵字條件由索引取得候選 id 時不可)
+	 */
+	private boolean collect(FilterDescriptor filter, StringBuilder shape, List<FilterDescriptor> leaves) {
+		Filter subFilter = filter.getFilter();
+		boolean cacheable = true;
+
+		if (subFilter != null) {
+			shape.append('[').append(subFilter.getLogic()).append('(');
+
+			if (subFilter.getSubFilters() != null) {
+				for (FilterDescriptor f : subFilter.getSubFilters()) {
+					cacheable &= f == null || this.collect(f, shape, leaves);
+					shape.append(',');
+				}
+			}
+
+			shape.append(')');
+		} else {
+			Object value = filter.getValue();
+
+			// 屬性與運算子名稱附加長度, 避免不同結構產生相同的 key
+			String field = String.valueOf(filter.getField());
+			String operator = String.valueOf(filter.getOperator());
+			shape.append(field.length()).append(':').append(field).append(operator.length()).append(':')
+					.append(operator);
+
+			if (value == null) {
+				shape.append('-');
+			} else if ("between".equals(filter.getOperator()) && value instanceof List
+					&& ((List<?>) value).size() == 2) {
+				List<?> values = (List<?>) value;
+				shape.append(values.get(0) == null ? '-' : 'f').append(values.get(1) == null ? '-' : 't');
+			} else if (isList(value)) {
+				shape.append('L').append(this.arrayInSQL(field, "", "") != null ? Math.min(this.chunks(size(value)), 2)
+						: this.chunks(size(value)));
+			} else {
+				shape.append('v');
+				cacheable = !"keyword".equals(filter.getField()) || !this.isKeywordIndexed();
+			}
+
+			leaves.add(filter);
+		}
+
+		return cacheable;
+	}
+
+	/**
+	 * 組合最佳化後過濾條件的 SQL 查詢條件, 並記錄參數綁定方式
+	 *
+	 * @param filter
+	 * @param paramPrefix
+	 * @param trace
+	 * @param origins     最佳化後的末端節點 與 取值的原末端節點序號
+	 * @param leaves      原末端節點
+	 * @param bindings
+	 * @return
+	 * @throws InvalidLogicalOperatorException
+	 * @throws InvalidColumnNameMappingException
+	 */
+	private String getCondSQL(FilterDescriptor filter, String paramPrefix, FilterOptimizer.Trace trace,
+			Origins origins, List<FilterDescriptor> leaves, List<Binding> bindings)
+			throws InvalidLogicalOperatorException, InvalidColumnNameMappingException {
+		StringBuilder sql = new StringBuilder("");
+		Filter subFilter = filter.getFilter();
+
+		if (subFilter != null) {
+			List<FilterDescriptor> subFilters = subFilter.getSubFilters();
+
+			if (subFilters.size() == 1) {
+				return this.getCondSQL(subFilters.get(0), paramPrefix + "_0", trace, origins, leaves, bindings);
+			} else {
+				String logicSQL = "and".equals(subFilter.getLogic()) ? " AND " : " OR ";
+
+				for (int i = 0; i < subFilters.size(); i++) {
+					String condSQL = this.getCondSQL(subFilters.get(i), paramPrefix + "_" + i, trace, origins,
+							leaves, bindings);
+
+					if (!condSQL.isEmpty()) {
+						sql.append(sql.length() > 0 ? logicSQL : "").append("(").append(condSQL).append(")");
+					}
+				}
+			}
+		} else {
+			int[] from = origins.of(filter);
+			int leaf = from[0];
+			int element = trace.getElement(filter);
+			String field = filter.getField();
+			Object value = filter.getValue();
+			String operator = filter.getOperator();
+			int paramIdx = 0;
+
+			if (value != null) {
+				String param = paramPrefix + "__" + (paramIdx++);
+
+				// 搜尋關鍵字
+				if ("keyword".equals(field)) {
+					bindings.add(new Binding(param, field, BindKind.LIKE, leaf, element));
+
+					if (this.keywordColumns == null || this.keywordColumns.length == 0) {
+						throw new InvalidColumnNameMappingException("未設定查詢關鍵字所包含的欄位");
+					} else {
+						for (String column : this.keywordColumns) {
+							sql.append(sql.length() > 0 ? " OR " : "").append(column).append(" LIKE :").append(param);
+						}
+					}
+				} else { // 其他過濾條件
+					String columnName = this.fieldColumnMapping.get(field);
+
+					if (columnName == null) {
+						throw new InvalidColumnNameMappingException("找不到對映 " + field + " 屬性的 table column");
+					}
+
+					switch (operator) {
+
+						case "contains":
+							if (isList(value)) {
+								this.appendIn(sql, columnName, param, field, from, leaves, bindings);
+							} else {
+								bindings.add(new Binding(param, field, BindKind.LIKE, leaf, element));
+								sql.append(columnName).append(" LIKE :").append(param);
+							}
+							break;
+						case "between":
+							List<?> values = (List<?>) value;
+							Object lower = values.get(0);
+							Object upper = values.get(1);
+
+							if (lower != null && upper != null) {
+								String param2 = paramPrefix + "__" + (paramIdx++);
+								bindings.add(new Binding(param, field, BindKind.VALUE, leaf, 0));
+								bindings.add(new Binding(param2, field, BindKind.VALUE, leaf, 1));
+
+								sql.append(columnName).append(" BETWEEN :").append(param).append(" AND :")
+										.append(param2);
+							} else if (lower != null) {
+								bindings.add(new Binding(param, field, BindKind.VALUE, leaf, 0));
+								sql.append(columnName).append(" >= :").append(param);
+							} else if (upper != null) {
+								bindings.add(new Binding(param, field, BindKind.VALUE, leaf, 1));
+								sql.append(columnName).append(" <= :").append(param);
+							}
+							break;
+						case "gt":
+							bindings.add(new Binding(param, field, BindKind.VALUE, leaf, element));
+							sql.append(columnName).append(" > :").append(param);
+							break;
+						case "ge":
+							bindings.add(new Binding(param, field, BindKind.VALUE, leaf, element));
+							sql.append(columnName).append(" >= :").append(param);
+							break;
+						case "lt":
+							bindings.add(new Binding(param, field, BindKind.VALUE, leaf, element));
+							sql.append(columnName).append(" < :").append(param);
+							break;
+						case "le":
+							bindings.add(new Binding(param, field, BindKind.VALUE, leaf, element));
+							sql.append(columnName).append(" <= :").append(param);
+							break;
+						case "eq":
+							if (isList(value)) {
+								this.appendIn(sql, columnName, param, field, from, leaves, bindings);
+							} else {
+								bindings.add(new Binding(param, field, BindKind.VALUE, leaf, element));
+								sql.append(columnName).append(" = :").append(param);
+							}
+							break;
+						default:
+							throw new InvalidLogicalOperatorException("無效的邏輯運算子 " + operator);
+					}
+				}
+			}
+		}
+
+		return sql.toString();
+	}
+
+	/**
+	 * 組合 IN 條件; 清單為空時無符合資料. 清單長度超過 inListChunkSize 時, 資料庫支援時以單一參數綁定整個清單, 否則分為多個 IN 條件以
+	 * OR 連接, 以免超過資料庫單一 IN 清單的長度限制 (如 Oracle 為 1000)
+	 *
+	 * @param sql
+	 * @param columnName
+	 * @param param
+	 * @param field
+	 * @param from       取值的原末端節點序號 (合併的 eq 條件有多個)
+	 * @param leaves
+	 * @param bindings
+	 * @throws InvalidFilterValueException
+	 */
+	private void appendIn(StringBuilder sql, String columnName, String param, String field, int[] from,
+			List<FilterDescriptor> leaves, List<Binding> bindings) throws InvalidFilterValueException {
+		int chunks = this.chunks(this.listValues(field, from, leaves).size());
+		String arrayInSQL = this.arrayInSQL(field, columnName, param);
+
+		if (chunks == 0) {
+			bindings.add(new Binding(param, field, from, 0, 0));
+			sql.append("1=0");
+		} else if (chunks == 1) {
+			bindings.add(new Binding(param, field, from, 0, 1));
+			sql.append(columnName).append(" IN (:").append(param).append(")");
+		} else if (arrayInSQL != null) {
+			bindings.add(new Binding(param, field, from, 0, ARRAY));
+			sql.append(arrayInSQL);
+		} else {
+			for (int i = 0; i < chunks; i++) {
+				String chunkParam = param + "_" + i;
+				bindings.add(new Binding(chunkParam, field, from, i, chunks));
+				sql.append(i == 0 ? "(" : " OR ").append(columnName).append(" IN (:").append(chunkParam).append(")");
+			}
+
+			sql.append(")");
+		}
+	}
+
+	/**
+	 * 以單一參數綁定整個清單的 IN 條件
+	 *
+	 * @param field
+	 * @param columnName
+	 * @param param
+	 * @return 資料庫或欄位型別不支援時為 null
+	 */
+	private String arrayInSQL(String field, String columnName, String param) {
+		ColumnType type = this.columnTypes.get(field);
+		return type == null ? null : this.databaseDialect.getArrayInSQL(columnName, param, type.getBindType());
+	}
+
+	/**
+	 * IN 清單的分段數
+	 *
+	 * @param size
+	 * @return
+	 */
+	private int chunks(int size) {
+		return (size + this.inListChunkSize - 1) / this.inListChunkSize;
+	}
+
+	/**
+	 * 依綁定方式自末端節點取值, 並轉換為欄位型別
+	 *
+	 * @param template
+	 * @param leaves
+	 * @return 參數名稱 與 值; IN 清單 (去除重覆後) 的分段數與 SQL 不符時為 null
+	 * @throws InvalidFilterValueException 值無法轉換, 或參數數量超過資料庫上限
+	 */
+	private Map<String, Object> bind(Template template, List<FilterDescriptor> leaves)
+			throws InvalidFilterValueException {
+		Map<String, Object> params = new LinkedHashMap<>();
+		Map<int[], List<Object>> lists = new IdentityHashMap<>();
+		int count = 0;
+
+		for (Binding binding : template.bindings) {
+			Object value = leaves.get(binding.leaves[0]).getValue();
+
+			switch (binding.kind) {
+				case LIKE:
+					params.put(binding.param, "%" + get(value, binding.element).toString() + "%");
+					break;
+				case LIST:
+					// 同一 IN 清單的各分段共用取值結果
+					List<Object> values = lists.get(binding.leaves);
+
+					if (values == null) {
+						values = this.listValues(binding.field, binding.leaves, leaves);
+						lists.put(binding.leaves, values);
+					}
+
+					int chunks = this.chunks(values.size());
+
+					if (binding.chunks == ARRAY ? chunks <= 1 : chunks != binding.chunks) {
+						return null;
+					} else if (binding.chunks == ARRAY) {
+						params.put(binding.param, this.databaseDialect.toArrayParameter(values));
+						count++;
+					} else if (binding.chunks > 0) {
+						List<Object> chunk = this.chunk(values, binding.chunk);
+						params.put(binding.param, chunk);
+						count += chunk.size();
+					}
+					continue;
+				default:
+					params.put(binding.param, this.convert(binding.field, get(value, binding.element)));
+			}
+
+			count++;
+		}
+
+		int max = this.databaseDialect.getMaxBindParameters() - RESERVED_BIND_PARAMETERS;
+
+		if (count > max) {
+			throw new InvalidFilterValueException("過濾條件的參數數量 " + count + " 超過資料庫上限 " + max);
+		}
+
+		return params;
+	}
+
+	/**
+	 * IN 清單的值: 各末端節點的值 (單一值或清單) 依序合併, 轉換為欄位型別並去除重覆
+	 *
+	 * @param field
+	 * @param from
+	 * @param leaves
+	 * @return
+	 * @throws InvalidFilterValueException
+	 */
+	private List<Object> listValues(String field, int[] from, List<FilterDescriptor> leaves)
+			throws InvalidFilterValueException {
+		Set<Object> values = new LinkedHashSet<>();
+
+		for (int leaf : from) {
+			Object value = leaves.get(leaf).getValue();
+
+			if (isList(value)) {
+				for (int i = 0, size = size(value); i < size; i++) {
+					values.add(this.convert(field, get(value, i)));
+				}
+			} else {
+				values.add(this.convert(field, value));
+			}
+		}
+
+		return new ArrayList<>(values);
+	}
+
+	/**
+	 * 取得清單的第 n 段
+	 *
+	 * @param values
+	 * @param n
+	 * @return
+	 */
+	private List<Object> chunk(List<Object> values, int n) {
+		int from = n * this.inListChunkSize;
+		return new ArrayList<>(values.subList(from, Math.min(from + this.inListChunkSize, values.size())));
+	}
+
+	/**
+	 * 取得清單 (或陣列) 的第 i 個值
+	 *
+	 * @param value
+	 * @param i     小於 0 時為值本身
+	 * @return
+	 */
+	private static Object get(Object value, int i) {
+		if (i < 0) {
+			return value;
+		}
+
+		return value instanceof List ? ((List<?>) value).get(i) : Array.get(value, i);
+	}
+
+	private static boolean isList(Object value) {
+		return value instanceof List || value.getClass().isArray();
+	}
+
+	private static int size(Object value) {
+		return value instanceof List ? ((List<?>) value).size() : Array.getLength(value);
+	}
+
+	/**
+	 * 參數值綁定方式
+	 */
+	private enum BindKind {
+		VALUE, LIKE, LIST
+	}
+
+	/**
+	 * 參數綁定: 參數名稱, 屬性, 綁定方式, 取值的末端節點序號 (合併的 eq 條件有多個), 取 between 範圍的第幾個值, IN 清單分段序號及分段數 (ARRAY
+	 * 為單一參數)
+	 */
+	private static class Binding {
+		private final String param;
+		private final String field;
+		private final BindKind kind;
+		private final int[] leaves;
+		private final int element;
+		private final int chunk;
+		private final int chunks;
+
+		private Binding(String param, String field, BindKind kind, int leaf, int element) {
+			this.param = param;
+			this.field = field;
+			this.kind = kind;
+			this.leaves = new int[] { leaf };
+			this.element = element;
+			this.chunk = 0;
+			this.chunks = 0;
+		}
+
+		private Binding(String param, String field, int[] leaves, int chunk, int chunks) {
+			this.param = param;
+			this.field = field;
+			this.kind = BindKind.LIST;
+			this.leaves = leaves;
+			this.element = -1;
+			this.chunk = chunk;
+			this.chunks = chunks;
+		}
+	}
+
+	/**
+	 * 最佳化後的末端節點 與 取值的末端節點序號
+	 */
+	@FunctionalInterface
+	private interface Origins {
+		int[] of(FilterDescriptor leaf);
+	}
+
+	/**
+	 * 快取的 SQL 與參數綁定方式
+	 */
+	private static class Template {
+		private String sql = "";
+		private final List<Binding> bindings = new ArrayList<>();
+	}
+}
@@ -0,0 +1,41 @@
+package com.mt.core.model.dao.support;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/**
+ * 將 DAO 組合的具名參數轉為 Spring JDBC 參數
+ *
+ * @author Mueller Tsai
+ */
+public final class JdbcParams {
+
+	private JdbcParams() {
+	}
+
+	/**
+	 * 轉換具名參數; 陣列值轉為 List, 以便 NamedParameterJdbcTemplate 展開為 IN 清單
+	 *
+	 * @param params
+	 * @return
+	 */
+	@SafeVarargs
+	public static MapSqlParameterSource of(Map<String, Object>... params) {
+		MapSqlParameterSource source = new MapSqlParameterSource();
+
+		for (Map<String, Object> map : params) {
+			if (map == null) {
+				continue;
+			}
+
+			for (Map.Entry<String, Object> entry : map.entrySet()) {
+				Object value = entry.getValue();
+				source.addValue(entry.getKey(), value instanceof Object[] ? Arrays.asList((Object[]) value) : value);
+			}
+		}
+
+		return source;
+	}
+}
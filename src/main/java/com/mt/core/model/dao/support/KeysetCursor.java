@@ -0,0 +1,141 @@
+package com.mt.core.model.dao.support;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Keyset (seek) 分頁游標編解碼
+ * <p>
+ * 游標內容為前一頁最後一筆資料的排序欄位值 (最後一個值為 id), 以 JSON 陣列表示後再做 Base64 (URL safe) 編碼,
+ * 對前端而言為不透明字串.
+ * <p>
+ * 日期時間值一律以 ISO 格式 (含奈秒) 編碼, 不經 epoch 毫秒轉換, 以免 Timestamp 等的微秒部份遺失導致略過資料列. java.util.Date,
+ * Calendar 及 java.sql 型別以系統預設時區的當地時間表示, 與 ColumnType 解讀不含時區值的方式一致.
+ *
+ * @author Mueller Tsai
+ */
+public final class KeysetCursor {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules()
+			.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+
+	private KeysetCursor() {
+	}
+
+	/**
+	 * 將排序欄位值編碼為游標
+	 *
+	 * @param values
+	 * @return
+	 */
+	public static String encode(List<Object> values) {
+		try {
+			List<Object> encoded = new ArrayList<>(values.size());
+
+			for (Object value : values) {
+				encoded.add(encodeValue(value));
+			}
+
+			byte[] json = MAPPER.writeValueAsBytes(encoded);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+		} catch (Exception e) {
+			throw new IllegalArgumentException("分頁游標編碼失敗", e);
+		}
+	}
+
+	/**
+	 * 將游標解碼為排序欄位值
+	 *
+	 * @param cursor
+	 * @return
+	 */
+	public static List<Object> decode(String cursor) {
+		try {
+			byte[] json = Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII));
+			return MAPPER.readValue(json, new TypeReference<List<Object>>() {
+			});
+		} catch (Exception e) {
+			throw new IllegalArgumentException("無效的分頁游標 " + cursor, e);
+		}
+	}
+
+	/**
+	 * 將游標解出的值轉換為 entity 屬性型別
+	 *
+	 * @param value
+	 * @param type
+	 * @return
+	 */
+	public static Object convert(Object value, Class<?> type) {
+		if (value instanceof String && (Date.class.isAssignableFrom(type) || Calendar.class.isAssignableFrom(type))) {
+			Date date = decodeDate((String) value, type);
+
+			if (Calendar.class.isAssignableFrom(type)) {
+				Calendar calendar = new GregorianCalendar();
+				calendar.setTime(date);
+				return calendar;
+			}
+
+			return date;
+		}
+
+		return value == null ? null : MAPPER.convertValue(value, type);
+	}
+
+	/**
+	 * java.util.Date, Calendar 及 java.sql 日期時間型別轉換為 ISO 格式字串 (Timestamp 含奈秒); java.time 型別由 Jackson 以 ISO
+	 * 格式輸出
+	 *
+	 * @param value
+	 * @return
+	 */
+	private static Object encodeValue(Object value) {
+		if (value instanceof java.sql.Date) {
+			return ((java.sql.Date) value).toLocalDate().toString();
+		} else if (value instanceof Time) {
+			return ((Time) value).toLocalTime().toString();
+		} else if (value instanceof Timestamp) {
+			return ((Timestamp) value).toLocalDateTime().toString();
+		} else if (value instanceof Date) {
+			return new Timestamp(((Date) value).getTime()).toLocalDateTime().toString();
+		} else if (value instanceof Calendar) {
+			return new Timestamp(((Calendar) value).getTimeInMillis()).toLocalDateTime().toString();
+		}
+
+		return value;
+	}
+
+	/**
+	 * 解析 encodeValue 產生的日期時間字串; 含時間者為 Timestamp (保留奈秒)
+	 *
+	 * @param value
+	 * @param type
+	 * @return
+	 */
+	private static Date decodeDate(String value, Class<?> type) {
+		if (type == Time.class) {
+			return Time.valueOf(LocalTime.parse(value));
+		} else if (value.length() <= 10) {
+			return java.sql.Date.valueOf(LocalDate.parse(value));
+		}
+
+		return Timestamp.valueOf(LocalDateTime.parse(value));
+	}
+}
@@ -0,0 +1,73 @@
+package com.mt.core.model.dao.support;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DAO 併行查詢 (如 count 與資料列同時查詢) 所使用的 executor
+ * <p>
+ * Spring Data repository 實體不經 Spring 注入, 故以此類別持有共用 executor; {@code ModuleContext} 建立的
+ * {@code pageQueryExecutor} bean 會註冊於此. 未註冊時使用預設的 bounded thread pool.
+ *
+ * @author Mueller Tsai
+ */
+public final class QueryExecutors {
+
+	private static volatile Executor pageQueryExecutor;
+
+	private QueryExecutors() {
+	}
+
+	/**
+	 * 設定併行查詢所使用的 executor
+	 *
+	 * @param executor
+	 */
+	public static void setPageQueryExecutor(Executor executor) {
+		pageQueryExecutor = executor;
+	}
+
+	/**
+	 * 取得併行查詢所使用的 executor
+	 *
+	 * @return
+	 */
+	public static Executor getPageQueryExecutor() {
+		Executor executor = pageQueryExecutor;
+
+		if (executor == null) {
+			synchronized (QueryExecutors.class) {
+				if (pageQueryExecutor == null) {
+					pageQueryExecutor = createDefaultExecutor();
+				}
+
+				executor = pageQueryExecutor;
+			}
+		}
+
+		return executor;
+	}
+
+	/**
+	 * 預設 executor: 執行緒數同 CPU 核心數, 佇列滿時由呼叫端執行緒執行 (即退回循序查詢)
+	 *
+	 * @return
+	 */
+	private static Executor createDefaultExecutor() {
+		int poolSize = Runtime.getRuntime().availableProcessors();
+		AtomicInteger seq = new AtomicInteger();
+
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(poolSize * 4), runnable -> {
+					Thread thread = new Thread(runnable, "page-query-" + seq.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+
+		return executor;
+	}
+}
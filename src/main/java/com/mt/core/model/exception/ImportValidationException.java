@@ -0,0 +1,29 @@
+package com.mt.core.model.exception;
+
+import com.mt.core.model.vo.ImportResultVO;
+
+/**
+ * 匯入資料有錯誤列 (未設定略過錯誤列) 而回復交易的 Exception, 含讀取列數及各列的驗證錯誤
+ * 
+ * @author Mueller Tsai
+ */
+public class ImportValidationException extends ServiceException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient ImportResultVO result;
+
+	public ImportValidationException(String errorMessage, ImportResultVO result) {
+		super(errorMessage);
+		this.result = result;
+	}
+
+	/**
+	 * 匯入結果 (新增筆數為 0)
+	 * 
+	 * @return
+	 */
+	public ImportResultVO getResult() {
+		return this.result;
+	}
+}
@@ -0,0 +1,18 @@
+package com.mt.core.model.exception;
+
+/**
+ * 過濾條件值無法轉換為欄位型別 Exception
+ *
+ * @author Mueller Tsai
+ */
+public class InvalidFilterValueException extends InvalidColumnNameMappingException {
+	private static final long serialVersionUID = 1L;
+
+	public InvalidFilterValueException(String message) {
+		super(message);
+	}
+
+	public InvalidFilterValueException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
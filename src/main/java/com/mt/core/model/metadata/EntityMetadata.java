@@ -0,0 +1,736 @@
+package com.mt.core.model.metadata;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToMany;
+import javax.persistence.ManyToOne;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.OneToMany;
+import javax.persistence.OneToOne;
+import javax.persistence.Table;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.Subselect;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+
+import com.mt.core.model.annotation.SearchKeyword;
+import com.mt.core.model.dao.support.ColumnType;
+
+/**
+ * Entity 的對映資訊 (資料表, 屬性與欄位對映, 欄位型別, id 屬性, 關鍵字欄位等): 每個 entity class 僅解析一次, 由 repository, DAO 及
+ * service 共用. 解析後內容不可修改.
+ * <p>
+ * 對映的屬性為標註 @Column, @Id 或 @JoinColumn 者, 包含各層 @MappedSuperclass 父類別的屬性 (子類別的同名屬性優先).
+ * <p>
+ * 有編譯時期產生的 {Entity}_Metadata (EntityMetadataProcessor) 時, 對映資訊皆取自產生的類別, 僅以屬性名稱取得 Field, 不以
+ * reflection 解析註解; 產生的類別參照的屬性不存在 (舊版編譯結果) 時, 改以 reflection 解析. 兩者皆以 public getter/setter 存取屬性值,
+ * 無 getter/setter 的屬性直接存取 Field.
+ *
+ * @author Mueller Tsai
+ */
+public final class EntityMetadata {
+
+	/**
+	 * entity class 與 對映資訊
+	 */
+	private static final Map<Class<?>, EntityMetadata> REGISTRY = new ConcurrentHashMap<>();
+
+	private final Class<?> entityClass;
+
+	/**
+	 * 資料表名稱 (Catalog.TableName) 或 (subselect); 皆未標註時為 null
+	 */
+	private final String table;
+
+	/**
+	 * 屬性名稱 與 欄位名稱對映
+	 */
+	private final Map<String, String> columns;
+
+	/**
+	 * 屬性名稱 與 屬性對映 (已設為可存取)
+	 */
+	private final Map<String, Field> fields;
+
+	/**
+	 * 屬性名稱 與 欄位型別對映
+	 */
+	private final Map<String, ColumnType> columnTypes;
+
+	/**
+	 * 標註 @Id 的屬性 (有多個時為第一個)
+	 */
+	private final Field idField;
+
+	/**
+	 * 欄位可為 NULL 的屬性 (非 primitive, 非 @Id, 且未標註 nullable = false)
+	 */
+	private final Set<String> nullableFields;
+
+	/**
+	 * 搜尋關鍵字的對象欄位
+	 */
+	private final String[] keywordColumns;
+
+	/**
+	 * 搜尋關鍵字的對象屬性
+	 */
+	private final List<Field> keywordFields;
+
+	/**
+	 * INSERT 的對象屬性 (排除 insertable = false)
+	 */
+	private final List<Field> insertFields;
+
+	/**
+	 * 標註 @CreatedDate, @LastModifiedDate 的屬性
+	 */
+	private final List<Field> auditTimeFields;
+
+	/**
+	 * 標註 @CreatedBy, @LastModifiedBy 的屬性
+	 */
+	private final List<Field> auditorFields;
+
+	/**
+	 * 關聯屬性 (@ManyToOne, @OneToOne, @OneToMany, @ManyToMany, @ElementCollection; 已設為可存取)
+	 */
+	private final List<Field> associationFields;
+
+	/**
+	 * 屬性名稱 與 getter 對映
+	 */
+	private final Map<String, Function<Object, Object>> getters;
+
+	/**
+	 * 屬性名稱 與 setter 對映
+	 */
+	private final Map<String, BiConsumer<Object, Object>> setters;
+
+	/**
+	 * 是否使用編譯時期產生的對映資訊
+	 */
+	private final boolean generated;
+
+	private EntityMetadata(Class<?> entityClass, Mapping mapping, boolean generated) {
+		this.entityClass = entityClass;
+
+		Table table = entityClass.getAnnotation(Table.class);
+		Subselect subselect = entityClass.getAnnotation(Subselect.class);
+
+		this.table = table != null
+				? (StringUtils.isBlank(table.catalog()) ? table.name() : (table.catalog().concat(".").concat(table.name())))
+				: subselect != null ? ("(" + subselect.value() + ")") : null;
+
+		List<String> keywordColumns = new ArrayList<>();
+
+		for (Field field : mapping.keywordFields) {
+			keywordColumns.add(mapping.columns.get(field.getName()));
+		}
+
+		this.columns = Collections.unmodifiableMap(mapping.columns);
+		this.fields = Collections.unmodifiableMap(mapping.fields);
+		this.columnTypes = Collections.unmodifiableMap(mapping.columnTypes);
+		this.idField = mapping.idField;
+		this.nullableFields = Collections.unmodifiableSet(mapping.nullableFields);
+		this.keywordColumns = keywordColumns.toArray(new String[0]);
+		this.keywordFields = Collections.unmodifiableList(mapping.keywordFields);
+		this.insertFields = Collections.unmodifiableList(mapping.insertFields);
+		this.auditTimeFields = Collections.unmodifiableList(mapping.auditTimeFields);
+		this.auditorFields = Collections.unmodifiableList(mapping.auditorFields);
+		this.associationFields = Collections.unmodifiableList(mapping.associationFields);
+		this.getters = Collections.unmodifiableMap(mapping.getters);
+		this.setters = Collections.unmodifiableMap(mapping.setters);
+		this.generated = generated;
+	}
+
+	/**
+	 * 以 reflection 解析 entity class 的註解
+	 *
+	 * @param entityClass
+	 * @return
+	 */
+	private static Mapping reflect(Class<?> entityClass) {
+		Mapping mapping = new Mapping();
+
+		for (Field field : getMappedFields(entityClass)) {
+			String fieldName = field.getName();
+
+			// 子類別已宣告同名屬性
+			if (mapping.fields.containsKey(fieldName)) {
+				continue;
+			}
+
+			String columnName = fieldName;
+
+			if (field.isAnnotationPresent(Column.class)) {
+				columnName = StringUtils.defaultIfBlank(field.getAnnotation(Column.class).name(), fieldName);
+			} else if (field.isAnnotationPresent(JoinColumn.class)) {
+				columnName = StringUtils.defaultIfBlank(field.getAnnotation(JoinColumn.class).name(), fieldName);
+			}
+
+			field.setAccessible(true);
+			mapping.columns.put(fieldName, columnName);
+			mapping.fields.put(fieldName, field);
+			mapping.columnTypes.put(fieldName, ColumnType.of(field));
+			mapping.getters.put(fieldName, getter(field));
+			mapping.setters.put(fieldName, setter(field));
+
+			if (mapping.idField == null && field.isAnnotationPresent(Id.class)) {
+				mapping.idField = field;
+			}
+
+			if (isNullable(field)) {
+				mapping.nullableFields.add(fieldName);
+			}
+
+			/* 搜集標註 @SearchKeyword 的欄位 */
+			if (field.isAnnotationPresent(SearchKeyword.class)) {
+				mapping.keywordFields.add(field);
+			}
+
+			boolean insertable = field.isAnnotationPresent(Column.class)
+					? field.getAnnotation(Column.class).insertable()
+					: !field.isAnnotationPresent(JoinColumn.class) || field.getAnnotation(JoinColumn.class).insertable();
+
+			if (insertable) {
+				mapping.insertFields.add(field);
+			}
+
+			if (field.isAnnotationPresent(CreatedDate.class) || field.isAnnotationPresent(LastModifiedDate.class)) {
+				mapping.auditTimeFields.add(field);
+			}
+
+			if (field.isAnnotationPresent(CreatedBy.class) || field.isAnnotationPresent(LastModifiedBy.class)) {
+				mapping.auditorFields.add(field);
+			}
+		}
+
+		mapping.associationFields.addAll(getAssociationFields(entityClass));
+
+		return mapping;
+	}
+
+	/**
+	 * 以編譯時期產生的對映資訊建立, 僅以屬性名稱取得 Field
+	 *
+	 * @param entityClass
+	 * @param generated
+	 * @return
+	 * @throws ReflectiveOperationException 產生的類別參照的屬性或型別不存在
+	 */
+	private static Mapping load(Class<?> entityClass, GeneratedEntityMetadata generated)
+			throws ReflectiveOperationException {
+		Mapping mapping = new Mapping();
+
+		for (Map.Entry<String, String> column : generated.getColumns().entrySet()) {
+			String fieldName = column.getKey();
+			Field field = findField(entityClass, fieldName);
+			String bindType = generated.getBindTypes().get(fieldName);
+			Function<Object, Object> getter = generated.getGetters().get(fieldName);
+			BiConsumer<Object, Object> setter = generated.getSetters().get(fieldName);
+
+			mapping.columns.put(fieldName, column.getValue());
+			mapping.fields.put(fieldName, field);
+			mapping.columnTypes.put(fieldName, ColumnType.of(field.getType(), bindType == null ? field.getType()
+					: ClassUtils.getClass(entityClass.getClassLoader(), bindType, false)));
+			mapping.getters.put(fieldName, getter != null ? getter : fieldGetter(field));
+			mapping.setters.put(fieldName, setter != null ? setter : fieldSetter(field));
+		}
+
+		mapping.idField = generated.getIdField() == null ? null : mapping.fields.get(generated.getIdField());
+		mapping.nullableFields.addAll(generated.getNullableFields());
+
+		for (String fieldName : generated.getKeywordFields()) {
+			mapping.keywordFields.add(mapping.fields.get(fieldName));
+		}
+
+		for (String fieldName : generated.getInsertFields()) {
+			mapping.insertFields.add(mapping.fields.get(fieldName));
+		}
+
+		for (String fieldName : generated.getAuditTimeFields()) {
+			mapping.auditTimeFields.add(mapping.fields.get(fieldName));
+		}
+
+		for (String fieldName : generated.getAuditorFields()) {
+			mapping.auditorFields.add(mapping.fields.get(fieldName));
+		}
+
+		for (String fieldName : generated.getAssociationFields()) {
+			mapping.associationFields.add(findField(entityClass, fieldName));
+		}
+
+		return mapping;
+	}
+
+	/**
+	 * entity class 或其父類別宣告的屬性 (已設為可存取)
+	 *
+	 * @param entityClass
+	 * @param fieldName
+	 * @return
+	 * @throws NoSuchFieldException
+	 */
+	private static Field findField(Class<?> entityClass, String fieldName) throws NoSuchFieldException {
+		for (Class<?> c = entityClass; c != null && c != Object.class; c = c.getSuperclass()) {
+			try {
+				Field field = c.getDeclaredField(fieldName);
+				field.setAccessible(true);
+				return field;
+			} catch (NoSuchFieldException e) {
+				// 由父類別宣告
+			}
+		}
+
+		throw new NoSuchFieldException(entityClass.getName() + "." + fieldName);
+	}
+
+	private static boolean isNullable(Field field) {
+		if (field.getType().isPrimitive() || field.isAnnotationPresent(Id.class)) {
+			return false;
+		} else if (field.isAnnotationPresent(Column.class)) {
+			return field.getAnnotation(Column.class).nullable();
+		}
+
+		return !field.isAnnotationPresent(JoinColumn.class) || field.getAnnotation(JoinColumn.class).nullable();
+	}
+
+	/**
+	 * 屬性的 getter: 有 public getter 時呼叫 getter, 否則讀取 Field (同產生的類別)
+	 *
+	 * @param field 已設為可存取
+	 * @return
+	 */
+	private static Function<Object, Object> getter(Field field) {
+		Method method = findAccessor(field, GeneratedEntityMetadata.getGetterName(field.getName(),
+				field.getType() == boolean.class));
+
+		if (method == null) {
+			return fieldGetter(field);
+		}
+
+		MethodHandle handle;
+
+		try {
+			handle = MethodHandles.lookup().unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return entity -> {
+			try {
+				return (Object) handle.invokeExact(entity);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+
+	/**
+	 * 屬性的 setter: 有 public setter 時呼叫 setter, 否則寫入 Field (同產生的類別)
+	 *
+	 * @param field 已設為可存取
+	 * @return
+	 */
+	private static BiConsumer<Object, Object> setter(Field field) {
+		Method method = Modifier.isFinal(field.getModifiers()) ? null
+				: findAccessor(field, GeneratedEntityMetadata.getSetterName(field.getName(),
+						field.getType() == boolean.class), field.getType());
+
+		if (method == null) {
+			return fieldSetter(field);
+		}
+
+		MethodHandle handle;
+
+		try {
+			handle = MethodHandles.lookup().unreflect(method)
+					.asType(MethodType.methodType(void.class, Object.class, Object.class));
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return (entity, value) -> {
+			try {
+				handle.invokeExact(entity, value);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+
+	/**
+	 * 宣告屬性的類別中的 public getter/setter
+	 *
+	 * @param field
+	 * @param name
+	 * @param parameterTypes
+	 * @return 不存在時為 null
+	 */
+	private static Method findAccessor(Field field, String name, Class<?>... parameterTypes) {
+		try {
+			Method method = field.getDeclaringClass().getDeclaredMethod(name, parameterTypes);
+
+			if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+				return null;
+			}
+
+			// 宣告的類別非 public 時 (如 package-private 的 @MappedSuperclass)
+			method.setAccessible(true);
+			return method;
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 以 MethodHandle 讀取屬性值 (無 getter 時使用)
+	 *
+	 * @param field 已設為可存取
+	 * @return
+	 */
+	private static Function<Object, Object> fieldGetter(Field field) {
+		MethodHandle handle;
+
+		try {
+			handle = MethodHandles.lookup().unreflectGetter(field)
+					.asType(MethodType.methodType(Object.class, Object.class));
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return entity -> {
+			try {
+				return (Object) handle.invokeExact(entity);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+
+	/**
+	 * 寫入屬性值 (無 setter 時使用)
+	 *
+	 * @param field 已設為可存取
+	 * @return
+	 */
+	private static BiConsumer<Object, Object> fieldSetter(Field field) {
+		return (entity, value) -> {
+			try {
+				field.set(entity, value);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+
+	/**
+	 * 取得 entity class 的對映資訊 (首次取得時解析)
+	 *
+	 * @param entityClass
+	 * @return
+	 */
+	public static EntityMetadata of(Class<?> entityClass) {
+		return REGISTRY.computeIfAbsent(entityClass, EntityMetadata::create);
+	}
+
+	private static EntityMetadata create(Class<?> entityClass) {
+		GeneratedEntityMetadata generated = loadGenerated(entityClass);
+
+		if (generated != null) {
+			try {
+				return new EntityMetadata(entityClass, load(entityClass, generated), true);
+			} catch (ReflectiveOperationException e) {
+				// 產生的類別與 entity 不一致 (舊版編譯結果), 改以 reflection 解析
+			}
+		}
+
+		return new EntityMetadata(entityClass, reflect(entityClass), false);
+	}
+
+	/**
+	 * 載入編譯時期產生的對映資訊
+	 *
+	 * @param entityClass
+	 * @return 不存在時為 null
+	 */
+	private static GeneratedEntityMetadata loadGenerated(Class<?> entityClass) {
+		try {
+			Class<?> generatedClass = Class.forName(GeneratedEntityMetadata.getClassName(entityClass.getName()), true,
+					entityClass.getClassLoader());
+
+			if (GeneratedEntityMetadata.class.isAssignableFrom(generatedClass)) {
+				return (GeneratedEntityMetadata) generatedClass.getDeclaredConstructor().newInstance();
+			}
+		} catch (ClassNotFoundException e) {
+			// 未使用 annotation processor 編譯
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// 產生的類別無法使用, 改以 reflection 存取
+		}
+
+		return null;
+	}
+
+	/**
+	 * entity class 及各層 @MappedSuperclass 父類別中標註 @Column, @Id 或 @JoinColumn 的屬性 (由子類別至父類別)
+	 *
+	 * @param entityClass
+	 * @return
+	 */
+	private static List<Field> getMappedFields(Class<?> entityClass) {
+		List<Field> fields = new ArrayList<>();
+
+		for (Class<?> c = entityClass; c != null && c != Object.class; c = c.getSuperclass()) {
+			if (c != entityClass && !c.isAnnotationPresent(MappedSuperclass.class)) {
+				break;
+			}
+
+			for (Field field : c.getDeclaredFields()) {
+				if (!Modifier.isStatic(field.getModifiers()) && (field.isAnnotationPresent(Column.class)
+						|| field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(JoinColumn.class))) {
+					fields.add(field);
+				}
+			}
+		}
+
+		return fields;
+	}
+
+	/**
+	 * entity class 及各層 @MappedSuperclass 父類別中的關聯屬性
+	 *
+	 * @param entityClass
+	 * @return
+	 */
+	private static List<Field> getAssociationFields(Class<?> entityClass) {
+		List<Field> fields = new ArrayList<>();
+
+		for (Class<?> c = entityClass; c != null && c != Object.class; c = c.getSuperclass()) {
+			if (c != entityClass && !c.isAnnotationPresent(MappedSuperclass.class)) {
+				break;
+			}
+
+			for (Field field : c.getDeclaredFields()) {
+				if (field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class)
+						|| field.isAnnotationPresent(OneToMany.class) || field.isAnnotationPresent(ManyToMany.class)
+						|| field.isAnnotationPresent(ElementCollection.class)) {
+					field.setAccessible(true);
+					fields.add(field);
+				}
+			}
+		}
+
+		return fields;
+	}
+
+	public Class<?> getEntityClass() {
+		return this.entityClass;
+	}
+
+	public String getTable() {
+		return this.table;
+	}
+
+	/**
+	 * 屬性名稱 與 欄位名稱對映
+	 *
+	 * @return
+	 */
+	public Map<String, String> getColumns() {
+		return this.columns;
+	}
+
+	/**
+	 * 屬性對映的欄位名稱
+	 *
+	 * @param fieldName
+	 * @return 非對映屬性時為 null
+	 */
+	public String getColumnName(String fieldName) {
+		return this.columns.get(fieldName);
+	}
+
+	/**
+	 * 屬性名稱 與 屬性對映 (已設為可存取)
+	 *
+	 * @return
+	 */
+	public Map<String, Field> getFields() {
+		return this.fields;
+	}
+
+	public Field getField(String fieldName) {
+		return this.fields.get(fieldName);
+	}
+
+	public Map<String, ColumnType> getColumnTypes() {
+		return this.columnTypes;
+	}
+
+	public ColumnType getColumnType(String fieldName) {
+		return this.columnTypes.get(fieldName);
+	}
+
+	public Field getIdField() {
+		return this.idField;
+	}
+
+	/**
+	 * 屬性對映的欄位是否可為 NULL
+	 *
+	 * @param fieldName
+	 * @return
+	 */
+	public boolean isNullable(String fieldName) {
+		return this.nullableFields.contains(fieldName);
+	}
+
+	/**
+	 * 搜尋關鍵字的對象欄位 (複本)
+	 *
+	 * @return
+	 */
+	public String[] getKeywordColumns() {
+		return this.keywordColumns.clone();
+	}
+
+	public List<Field> getKeywordFields() {
+		return this.keywordFields;
+	}
+
+	public List<Field> getInsertFields() {
+		return this.insertFields;
+	}
+
+	public List<Field> getAuditTimeFields() {
+		return this.auditTimeFields;
+	}
+
+	public List<Field> getAuditorFields() {
+		return this.auditorFields;
+	}
+
+	/**
+	 * 關聯屬性
+	 *
+	 * @return
+	 */
+	public List<Field> getAssociationFields() {
+		return this.associationFields;
+	}
+
+	/**
+	 * 是否使用編譯時期產生的對映資訊
+	 *
+	 * @return
+	 */
+	public boolean isGenerated() {
+		return this.generated;
+	}
+
+	/**
+	 * 屬性的 getter (匯出等大量讀取時, 預先取得以免每次查詢)
+	 *
+	 * @param fieldName
+	 * @return 非對映屬性時為 null
+	 */
+	public Function<Object, Object> getGetter(String fieldName) {
+		return this.getters.get(fieldName);
+	}
+
+	/**
+	 * 讀取 entity 的屬性值
+	 *
+	 * @param entity
+	 * @param fieldName
+	 * @return
+	 * @throws IllegalArgumentException 非對映屬性時
+	 */
+	public Object getValue(Object entity, String fieldName) {
+		Function<Object, Object> getter = this.getters.get(fieldName);
+
+		if (getter == null) {
+			throw new IllegalArgumentException("實體 " + this.entityClass.getSimpleName() + " 沒有對映屬性 " + fieldName);
+		}
+
+		return getter.apply(entity);
+	}
+
+	/**
+	 * 設定 entity 的屬性值
+	 *
+	 * @param entity
+	 * @param fieldName
+	 * @param value
+	 * @throws IllegalArgumentException 非對映屬性時
+	 */
+	public void setValue(Object entity, String fieldName, Object value) {
+		BiConsumer<Object, Object> setter = this.setters.get(fieldName);
+
+		if (setter == null) {
+			throw new IllegalArgumentException("實體 " + this.entityClass.getSimpleName() + " 沒有對映屬性 " + fieldName);
+		}
+
+		setter.accept(entity, value);
+	}
+
+	/**
+	 * 解析中的對映資訊
+	 */
+	private static final class Mapping {
+
+		private final Map<String, String> columns = new LinkedHashMap<>();
+
+		private final Map<String, Field> fields = new LinkedHashMap<>();
+
+		private final Map<String, ColumnType> columnTypes = new LinkedHashMap<>();
+
+		private final Set<String> nullableFields = new HashSet<>();
+
+		private final List<Field> keywordFields = new ArrayList<>();
+
+		private final List<Field> insertFields = new ArrayList<>();
+
+		private final List<Field> auditTimeFields = new ArrayList<>();
+
+		private final List<Field> auditorFields = new ArrayList<>();
+
+		private final List<Field> associationFields = new ArrayList<>();
+
+		private final Map<String, Function<Object, Object>> getters = new LinkedHashMap<>();
+
+		private final Map<String, BiConsumer<Object, Object>> setters = new LinkedHashMap<>();
+
+		private Field idField;
+	}
+}
@@ -0,0 +1,145 @@
+package com.mt.core.model.metadata;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 編譯時期產生的 entity 對映資訊 (EntityMetadataProcessor 產生的 {Entity}_Metadata 類別實作此介面). EntityMetadata
+ * 優先使用此資訊, 僅以屬性名稱取得 Field, 不以 reflection 解析註解; 不存在或與 entity 不一致時改以 reflection 解析.
+ * <p>
+ * 屬性名稱的順序同 EntityMetadata (由子類別至父類別).
+ *
+ * @author Mueller Tsai
+ */
+public interface GeneratedEntityMetadata {
+
+	/**
+	 * 產生類別名稱的後綴
+	 */
+	public static final String SUFFIX = "_Metadata";
+
+	/**
+	 * 屬性名稱 與 欄位名稱對映
+	 *
+	 * @return
+	 */
+	public Map<String, String> getColumns();
+
+	/**
+	 * 屬性名稱 與 綁定 JDBC 參數的型別名稱 (binary name) 對映; 與屬性型別相同者不含在內
+	 *
+	 * @return
+	 */
+	public Map<String, String> getBindTypes();
+
+	/**
+	 * 標註 @Id 的屬性 (有多個時為第一個)
+	 *
+	 * @return 無 @Id 屬性時為 null
+	 */
+	public String getIdField();
+
+	/**
+	 * 欄位可為 NULL 的屬性
+	 *
+	 * @return
+	 */
+	public Set<String> getNullableFields();
+
+	/**
+	 * 搜尋關鍵字的對象屬性
+	 *
+	 * @return
+	 */
+	public List<String> getKeywordFields();
+
+	/**
+	 * INSERT 的對象屬性 (排除 insertable = false)
+	 *
+	 * @return
+	 */
+	public List<String> getInsertFields();
+
+	/**
+	 * 標註 @CreatedDate, @LastModifiedDate 的屬性
+	 *
+	 * @return
+	 */
+	public List<String> getAuditTimeFields();
+
+	/**
+	 * 標註 @CreatedBy, @LastModifiedBy 的屬性
+	 *
+	 * @return
+	 */
+	public List<String> getAuditorFields();
+
+	/**
+	 * 關聯屬性 (@ManyToOne, @OneToOne, @OneToMany, @ManyToMany, @ElementCollection)
+	 *
+	 * @return
+	 */
+	public List<String> getAssociationFields();
+
+	/**
+	 * 屬性名稱 與 getter 對映 (無可用 getter 的屬性不含在內)
+	 *
+	 * @return
+	 */
+	public Map<String, Function<Object, Object>> getGetters();
+
+	/**
+	 * 屬性名稱 與 setter 對映 (無可用 setter 的屬性不含在內)
+	 *
+	 * @return
+	 */
+	public Map<String, BiConsumer<Object, Object>> getSetters();
+
+	/**
+	 * 屬性的 getter 名稱 (同 Lombok 命名規則); 產生的類別與 reflection 解析皆以此存取屬性
+	 *
+	 * @param fieldName
+	 * @param primitiveBoolean 屬性型別是否為 boolean
+	 * @return
+	 */
+	public static String getGetterName(String fieldName, boolean primitiveBoolean) {
+		if (primitiveBoolean) {
+			return isPrefixed(fieldName) ? fieldName : "is" + capitalize(fieldName);
+		}
+
+		return "get" + capitalize(fieldName);
+	}
+
+	/**
+	 * 屬性的 setter 名稱 (同 Lombok 命名規則)
+	 *
+	 * @param fieldName
+	 * @param primitiveBoolean 屬性型別是否為 boolean
+	 * @return
+	 */
+	public static String getSetterName(String fieldName, boolean primitiveBoolean) {
+		return "set" + capitalize(primitiveBoolean && isPrefixed(fieldName) ? fieldName.substring(2) : fieldName);
+	}
+
+	private static boolean isPrefixed(String fieldName) {
+		return fieldName.length() > 2 && fieldName.startsWith("is") && Character.isUpperCase(fieldName.charAt(2));
+	}
+
+	private static String capitalize(String name) {
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	/**
+	 * entity class 對應的產生類別名稱: 同 package, 巢狀類別以 _ 連接外層類別名稱
+	 *
+	 * @param entityClassName entity class 的 binary name (如 a.b.Outer$Inner)
+	 * @return
+	 */
+	public static String getClassName(String entityClassName) {
+		int index = entityClassName.lastIndexOf('.');
+		return entityClassName.substring(0, index + 1) + entityClassName.substring(index + 1).replace('$', '_') + SUFFIX;
+	}
+}
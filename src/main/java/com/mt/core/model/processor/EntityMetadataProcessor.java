@@ -0,0 +1,532 @@
+package com.mt.core.model.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+import com.mt.core.model.metadata.GeneratedEntityMetadata;
+
+/**
+ * 編譯時期產生 entity 對映資訊的 annotation processor: 為每個 @Entity 類別產生 {Entity}_Metadata 類別 (實作
+ * GeneratedEntityMetadata), 內容為屬性與欄位對映, 綁定型別, id, nullable, insertable, @SearchKeyword, audit 及關聯屬性, 以及屬性的
+ * getter/setter lambda, 執行時期不須以 reflection 解析註解.
+ * <p>
+ * 解析規則同 EntityMetadata: 對映標註 @Column, @Id 或 @JoinColumn 的屬性, 包含各層 @MappedSuperclass 父類別. getter/setter
+ * 須為 public (或由 Lombok @Getter, @Setter, @Data 產生), 否則該屬性於執行時期直接存取 Field.
+ * <p>
+ * 以 META-INF/services 註冊; 專案以 annotationProcessorPaths 指定 processor 時, 須一併加入本 artifact.
+ *
+ * @author Mueller Tsai
+ */
+@SupportedAnnotationTypes(EntityMetadataProcessor.ENTITY)
+public class EntityMetadataProcessor extends AbstractProcessor {
+
+	static final String ENTITY = "javax.persistence.Entity";
+
+	private static final String MAPPED_SUPERCLASS = "javax.persistence.MappedSuperclass";
+
+	private static final String COLUMN = "javax.persistence.Column";
+
+	private static final String JOIN_COLUMN = "javax.persistence.JoinColumn";
+
+	private static final String ID = "javax.persistence.Id";
+
+	private static final String SEARCH_KEYWORD = "com.mt.core.model.annotation.SearchKeyword";
+
+	private static final String ENUMERATED = "javax.persistence.Enumerated";
+
+	private static final String TEMPORAL = "javax.persistence.Temporal";
+
+	private static final String[] AUDIT_TIME = { "org.springframework.data.annotation.CreatedDate",
+			"org.springframework.data.annotation.LastModifiedDate" };
+
+	private static final String[] AUDITOR = { "org.springframework.data.annotation.CreatedBy",
+			"org.springframework.data.annotation.LastModifiedBy" };
+
+	private static final String[] ASSOCIATIONS = { "javax.persistence.ManyToOne", "javax.persistence.OneToOne",
+			"javax.persistence.OneToMany", "javax.persistence.ManyToMany", "javax.persistence.ElementCollection" };
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		TypeElement entity = this.processingEnv.getElementUtils().getTypeElement(ENTITY);
+
+		if (entity == null) {
+			return false;
+		}
+
+		for (Element element : roundEnv.getElementsAnnotatedWith(entity)) {
+			if (element.getKind() == ElementKind.CLASS) {
+				try {
+					this.generate((TypeElement) element);
+				} catch (IOException e) {
+					this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+							"無法產生 " + element + " 的對映資訊: " + e.getMessage(), element);
+				}
+			}
+		}
+
+		// 不獨佔 @Entity, 其他 processor (如 JPA metamodel) 仍可處理
+		return false;
+	}
+
+	private void generate(TypeElement entity) throws IOException {
+		String packageName = this.processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+		String binaryName = this.processingEnv.getElementUtils().getBinaryName(entity).toString();
+		String className = GeneratedEntityMetadata.getClassName(binaryName);
+		String simpleName = className.substring(className.lastIndexOf('.') + 1);
+		String entityName = entity.getQualifiedName().toString();
+
+		Map<String, String> columns = new LinkedHashMap<>();
+		Map<String, String> bindTypes = new LinkedHashMap<>();
+		String idField = null;
+		List<String> nullableFields = new ArrayList<>();
+		List<String> keywordFields = new ArrayList<>();
+		List<String> insertFields = new ArrayList<>();
+		List<String> auditTimeFields = new ArrayList<>();
+		List<String> auditorFields = new ArrayList<>();
+		List<String> associationFields = new ArrayList<>();
+		Map<String, String> getters = new LinkedHashMap<>();
+		Map<String, String> setters = new LinkedHashMap<>();
+
+		for (TypeElement type = entity; type != null; type = this.getSuperclass(type)) {
+			if (type != entity && !hasAnnotation(type, MAPPED_SUPERCLASS)) {
+				break;
+			}
+
+			for (Element member : type.getEnclosedElements()) {
+				if (member.getKind() == ElementKind.FIELD && hasAnyAnnotation(member, ASSOCIATIONS)) {
+					associationFields.add(member.getSimpleName().toString());
+				}
+
+				if (member.getKind() != ElementKind.FIELD || member.getModifiers().contains(Modifier.STATIC)
+						|| !(hasAnnotation(member, COLUMN) || hasAnnotation(member, ID)
+								|| hasAnnotation(member, JOIN_COLUMN))) {
+					continue;
+				}
+
+				VariableElement field = (VariableElement) member;
+				String fieldName = field.getSimpleName().toString();
+
+				// 子類別已宣告同名屬性
+				if (columns.containsKey(fieldName)) {
+					continue;
+				}
+
+				Object name = hasAnnotation(field, COLUMN) ? getAnnotationValue(field, COLUMN, "name")
+						: getAnnotationValue(field, JOIN_COLUMN, "name");
+				String columnName = name == null || name.toString().trim().isEmpty() ? fieldName : name.toString();
+
+				columns.put(fieldName, columnName);
+
+				String bindType = this.getBindType(field);
+
+				if (bindType != null) {
+					bindTypes.put(fieldName, bindType);
+				}
+
+				if (idField == null && hasAnnotation(field, ID)) {
+					idField = fieldName;
+				}
+
+				if (this.isNullable(field)) {
+					nullableFields.add(fieldName);
+				}
+
+				if (hasAnnotation(field, SEARCH_KEYWORD)) {
+					keywordFields.add(fieldName);
+				}
+
+				Object insertable = hasAnnotation(field, COLUMN) ? getAnnotationValue(field, COLUMN, "insertable")
+						: getAnnotationValue(field, JOIN_COLUMN, "insertable");
+
+				if (!Boolean.FALSE.equals(insertable)) {
+					insertFields.add(fieldName);
+				}
+
+				if (hasAnyAnnotation(field, AUDIT_TIME)) {
+					auditTimeFields.add(fieldName);
+				}
+
+				if (hasAnyAnnotation(field, AUDITOR)) {
+					auditorFields.add(fieldName);
+				}
+
+				String getter = this.getGetterName(type, field);
+
+				if (getter != null) {
+					getters.put(fieldName, getter);
+				}
+
+				String setter = this.getSetterName(type, field);
+
+				if (setter != null) {
+					setters.put(fieldName, setter);
+				}
+			}
+		}
+
+		try (Writer writer = this.processingEnv.getFiler().createSourceFile(className, entity).openWriter()) {
+			StringBuilder source = new StringBuilder();
+
+			if (!packageName.isEmpty()) {
+				source.append("package ").append(packageName).append(";\n\n");
+			}
+
+			source.append("import java.util.Arrays;\n");
+			source.append("import java.util.Collections;\n");
+			source.append("import java.util.HashMap;\n");
+			source.append("import java.util.HashSet;\n");
+			source.append("import java.util.LinkedHashMap;\n");
+			source.append("import java.util.List;\n");
+			source.append("import java.util.Map;\n");
+			source.append("import java.util.Set;\n");
+			source.append("import java.util.function.BiConsumer;\n");
+			source.append("import java.util.function.Function;\n\n");
+			source.append("import com.mt.core.model.metadata.GeneratedEntityMetadata;\n\n");
+			source.append("@javax.annotation.processing.Generated(\"").append(this.getClass().getName()).append("\")\n");
+			source.append("public final class ").append(simpleName).append(" implements GeneratedEntityMetadata {\n\n");
+			source.append("\tprivate static final Map<String, String> COLUMNS;\n\n");
+			source.append("\tprivate static final Map<String, String> BIND_TYPES;\n\n");
+			source.append("\tprivate static final String ID_FIELD = ").append(idField == null ? "null" : literal(idField))
+					.append(";\n\n");
+			source.append("\tprivate static final Set<String> NULLABLE_FIELDS = Collections.unmodifiableSet(new HashSet<>(")
+					.append(listOf(nullableFields)).append("));\n\n");
+			appendList(source, "KEYWORD_FIELDS", keywordFields);
+			appendList(source, "INSERT_FIELDS", insertFields);
+			appendList(source, "AUDIT_TIME_FIELDS", auditTimeFields);
+			appendList(source, "AUDITOR_FIELDS", auditorFields);
+			appendList(source, "ASSOCIATION_FIELDS", associationFields);
+			source.append("\tprivate static final Map<String, Function<Object, Object>> GETTERS;\n\n");
+			source.append("\tprivate static final Map<String, BiConsumer<Object, Object>> SETTERS;\n\n");
+			source.append("\tstatic {\n");
+			appendMap(source, "columns", "COLUMNS", columns);
+			appendMap(source, "bindTypes", "BIND_TYPES", bindTypes);
+			source.append("\t\tMap<String, Function<Object, Object>> getters = new HashMap<>();\n");
+
+			for (Map.Entry<String, String> getter : getters.entrySet()) {
+				source.append("\t\tgetters.put(").append(literal(getter.getKey())).append(", e -> ((").append(entityName)
+						.append(") e).").append(getter.getValue()).append("());\n");
+			}
+
+			source.append("\t\tGETTERS = Collections.unmodifiableMap(getters);\n\n");
+			source.append("\t\tMap<String, BiConsumer<Object, Object>> setters = new HashMap<>();\n");
+
+			for (Map.Entry<String, String> setter : setters.entrySet()) {
+				source.append("\t\tsetters.put(").append(literal(setter.getKey())).append(", (e, v) -> ((")
+						.append(entityName).append(") e).").append(setter.getValue()).append(");\n");
+			}
+
+			source.append("\t\tSETTERS = Collections.unmodifiableMap(setters);\n");
+			source.append("\t}\n\n");
+			appendMethod(source, "Map<String, String>", "getColumns", "COLUMNS");
+			appendMethod(source, "Map<String, String>", "getBindTypes", "BIND_TYPES");
+			appendMethod(source, "String", "getIdField", "ID_FIELD");
+			appendMethod(source, "Set<String>", "getNullableFields", "NULLABLE_FIELDS");
+			appendMethod(source, "List<String>", "getKeywordFields", "KEYWORD_FIELDS");
+			appendMethod(source, "List<String>", "getInsertFields", "INSERT_FIELDS");
+			appendMethod(source, "List<String>", "getAuditTimeFields", "AUDIT_TIME_FIELDS");
+			appendMethod(source, "List<String>", "getAuditorFields", "AUDITOR_FIELDS");
+			appendMethod(source, "List<String>", "getAssociationFields", "ASSOCIATION_FIELDS");
+			appendMethod(source, "Map<String, Function<Object, Object>>", "getGetters", "GETTERS");
+			appendMethod(source, "Map<String, BiConsumer<Object, Object>>", "getSetters", "SETTERS");
+			source.setLength(source.length() - 1);
+			source.append("}\n");
+
+			writer.write(source.toString());
+		}
+	}
+
+	private static void appendList(StringBuilder source, String constant, List<String> values) {
+		source.append("\tprivate static final List<String> ").append(constant)
+				.append(" = Collections.unmodifiableList(").append(listOf(values)).append(");\n\n");
+	}
+
+	private static void appendMap(StringBuilder source, String variable, String constant, Map<String, String> values) {
+		source.append("\t\tMap<String, String> ").append(variable).append(" = new LinkedHashMap<>();\n");
+
+		for (Map.Entry<String, String> value : values.entrySet()) {
+			source.append("\t\t").append(variable).append(".put(").append(literal(value.getKey())).append(", ")
+					.append(literal(value.getValue())).append(");\n");
+		}
+
+		source.append("\t\t").append(constant).append(" = Collections.unmodifiableMap(").append(variable)
+				.append(");\n\n");
+	}
+
+	private static void appendMethod(StringBuilder source, String returnType, String name, String constant) {
+		source.append("\t@Override\n\tpublic ").append(returnType).append(" ").append(name).append("() {\n\t\treturn ")
+				.append(constant).append(";\n\t}\n\n");
+	}
+
+	private static String listOf(List<String> values) {
+		StringBuilder list = new StringBuilder("Arrays.asList(");
+
+		for (int i = 0; i < values.size(); i++) {
+			list.append(i == 0 ? "" : ", ").append(literal(values.get(i)));
+		}
+
+		return list.append(")").toString();
+	}
+
+	/**
+	 * 綁定 JDBC 參數的型別 (規則同 ColumnType.of(Field))
+	 *
+	 * @param field
+	 * @return 與屬性型別相同時為 null
+	 */
+	private String getBindType(VariableElement field) {
+		TypeMirror type = field.asType();
+
+		if (hasAnnotation(field, JOIN_COLUMN)) {
+			VariableElement idField = type.getKind() == TypeKind.DECLARED
+					? this.findIdField((TypeElement) ((DeclaredType) type).asElement())
+					: null;
+			return idField == null ? Object.class.getName() : this.getBinaryName(idField.asType());
+		} else if (type.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+
+		TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+
+		if (element.getKind() == ElementKind.ENUM) {
+			Object enumType = getAnnotationValue(field, ENUMERATED, "value");
+			return enumType != null && "STRING".equals(enumType.toString()) ? String.class.getName()
+					: Integer.class.getName();
+		}
+
+		TypeMirror calendar = this.processingEnv.getElementUtils().getTypeElement("java.util.Calendar").asType();
+
+		if (element.getQualifiedName().contentEquals("java.util.Date")
+				|| this.processingEnv.getTypeUtils().isAssignable(type, calendar)) {
+			Object temporalType = getAnnotationValue(field, TEMPORAL, "value");
+			String temporal = temporalType == null ? "TIMESTAMP" : temporalType.toString();
+
+			return "DATE".equals(temporal) ? "java.sql.Date"
+					: "TIME".equals(temporal) ? "java.sql.Time" : "java.sql.Timestamp";
+		}
+
+		return null;
+	}
+
+	/**
+	 * 關聯 entity 的 @Id 屬性 (規則同 ColumnType)
+	 *
+	 * @param entity
+	 * @return 無 @Id 屬性時為 null
+	 */
+	private VariableElement findIdField(TypeElement entity) {
+		for (TypeElement type = entity; type != null; type = this.getSuperclass(type)) {
+			for (Element member : type.getEnclosedElements()) {
+				if (member.getKind() == ElementKind.FIELD && hasAnnotation(member, ID)) {
+					return (VariableElement) member;
+				}
+			}
+
+			if (type != entity && !hasAnnotation(type, MAPPED_SUPERCLASS)) {
+				break;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * 型別的 binary name (primitive 以 wrapper 型別表示)
+	 *
+	 * @param type
+	 * @return
+	 */
+	private String getBinaryName(TypeMirror type) {
+		TypeElement element = type.getKind().isPrimitive()
+				? this.processingEnv.getTypeUtils().boxedClass((PrimitiveType) type)
+				: (TypeElement) this.processingEnv.getTypeUtils().asElement(this.processingEnv.getTypeUtils().erasure(type));
+		return this.processingEnv.getElementUtils().getBinaryName(element).toString();
+	}
+
+	/**
+	 * 欄位是否可為 NULL (規則同 EntityMetadata)
+	 *
+	 * @param field
+	 * @return
+	 */
+	private boolean isNullable(VariableElement field) {
+		if (field.asType().getKind().isPrimitive() || hasAnnotation(field, ID)) {
+			return false;
+		}
+
+		Object nullable = hasAnnotation(field, COLUMN) ? getAnnotationValue(field, COLUMN, "nullable")
+				: getAnnotationValue(field, JOIN_COLUMN, "nullable");
+		return !Boolean.FALSE.equals(nullable);
+	}
+
+	/**
+	 * getter 名稱 (同 Lombok 命名規則)
+	 *
+	 * @param type  宣告屬性的類別
+	 * @param field
+	 * @return 無可用的 getter 時為 null
+	 */
+	private String getGetterName(TypeElement type, VariableElement field) {
+		String name = GeneratedEntityMetadata.getGetterName(field.getSimpleName().toString(),
+				field.asType().getKind() == TypeKind.BOOLEAN);
+
+		return this.hasPublicMethod(type, name, 0) || isLombokGenerated(type, field, "lombok.Getter", true) ? name
+				: null;
+	}
+
+	/**
+	 * setter 呼叫敍述 (含參數轉型)
+	 *
+	 * @param type  宣告屬性的類別
+	 * @param field
+	 * @return 無可用的 setter 時為 null
+	 */
+	private String getSetterName(TypeElement type, VariableElement field) {
+		if (field.getModifiers().contains(Modifier.FINAL)) {
+			return null;
+		}
+
+		String name = GeneratedEntityMetadata.getSetterName(field.getSimpleName().toString(),
+				field.asType().getKind() == TypeKind.BOOLEAN);
+
+		if (!this.hasPublicMethod(type, name, 1) && !isLombokGenerated(type, field, "lombok.Setter", false)) {
+			return null;
+		}
+
+		TypeMirror fieldType = field.asType();
+		String castType = fieldType.getKind().isPrimitive()
+				? this.processingEnv.getTypeUtils().boxedClass((PrimitiveType) fieldType)
+						.getQualifiedName().toString()
+				: this.processingEnv.getTypeUtils().erasure(fieldType).toString();
+
+		return name + "((" + castType + ") v)";
+	}
+
+	private boolean hasPublicMethod(TypeElement type, String name, int parameterCount) {
+		for (Element member : type.getEnclosedElements()) {
+			if (member.getKind() == ElementKind.METHOD && member.getSimpleName().contentEquals(name)
+					&& member.getModifiers().contains(Modifier.PUBLIC)
+					&& ((ExecutableElement) member).getParameters().size() == parameterCount) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * 屬性或類別標註 Lombok @Getter/@Setter (public) 或 @Data 等
+	 *
+	 * @param type
+	 * @param field
+	 * @param annotation lombok.Getter 或 lombok.Setter
+	 * @param getter
+	 * @return
+	 */
+	private static boolean isLombokGenerated(TypeElement type, VariableElement field, String annotation,
+			boolean getter) {
+		if (hasAnnotation(field, annotation)) {
+			return isPublicAccess(getAnnotationValue(field, annotation, "value"));
+		}
+
+		if (hasAnnotation(type, annotation)) {
+			return isPublicAccess(getAnnotationValue(type, annotation, "value"));
+		}
+
+		return hasAnnotation(type, "lombok.Data") || (getter && hasAnnotation(type, "lombok.Value"));
+	}
+
+	private static boolean isPublicAccess(Object accessLevel) {
+		// 未指定時為 AccessLevel.PUBLIC
+		return accessLevel == null || "PUBLIC".equals(accessLevel.toString());
+	}
+
+	private TypeElement getSuperclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+
+		if (superclass.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+
+		TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+		return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+	}
+
+	private static boolean hasAnnotation(Element element, String annotation) {
+		return getAnnotationMirror(element, annotation) != null;
+	}
+
+	private static boolean hasAnyAnnotation(Element element, String... annotations) {
+		for (String annotation : annotations) {
+			if (hasAnnotation(element, annotation)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static AnnotationMirror getAnnotationMirror(Element element, String annotation) {
+		for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+				return mirror;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * 明確指定的註解屬性值
+	 *
+	 * @param element
+	 * @param annotation
+	 * @param member
+	 * @return 未指定時為 null
+	 */
+	private static Object getAnnotationValue(Element element, String annotation, String member) {
+		AnnotationMirror mirror = getAnnotationMirror(element, annotation);
+
+		if (mirror != null) {
+			for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues()
+					.entrySet()) {
+				if (value.getKey().getSimpleName().contentEquals(member)) {
+					return value.getValue().getValue();
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private static String literal(String value) {
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+}
@@ -0,0 +1,203 @@
+package com.mt.core.model.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * 以資料庫 n-gram 資料表實作的關鍵字搜尋引擎 (索引存於磁碟, 適用大型資料表)
+ * <p>
+ * 片段規則同 {@link NGramKeywordSearchEngine}. 索引與資料存於同一資料庫, 經 Spring 交易管理的連線更新, 與資料一併 commit 或
+ * rollback. 多個 entity 可共用同一索引資料表, 以 entity 名稱區分. 每筆資料另有一列片段為 {@code *} 的記錄, 供計算已索引筆數.
+ * <p>
+ * 索引資料表須預先建立, 例如:
+ *
+ * <pre>
+ * CREATE TABLE KEYWORD_NGRAM (
+ *     ENTITY VARCHAR(100) NOT NULL,
+ *     GRAM VARCHAR(10) NOT NULL,
+ *     DOC_ID VARCHAR(100) NOT NULL,
+ *     PRIMARY KEY (ENTITY, GRAM, DOC_ID)
+ * );
+ * CREATE INDEX KEYWORD_NGRAM_DOC ON KEYWORD_NGRAM (ENTITY, DOC_ID);
+ * </pre>
+ *
+ * @author Mueller Tsai
+ */
+public class JdbcNGramKeywordSearchEngine implements KeywordSearchEngine {
+
+	/**
+	 * 預設索引資料表名稱
+	 */
+	public static final String DEFAULT_TABLE = "KEYWORD_NGRAM";
+
+	/**
+	 * 計算已索引筆數的片段 (長度與一般片段不同, 不會與關鍵字的片段相符)
+	 */
+	private static final String DOCUMENT_GRAM = "*";
+
+	/**
+	 * 單一 SQL 敍述的 id 數上限
+	 */
+	private static final int CHUNK_SIZE = 1000;
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	private final String table;
+
+	private final String entity;
+
+	private final int gramSize;
+
+	private final int maxCandidates;
+
+	private volatile boolean ready;
+
+	public JdbcNGramKeywordSearchEngine(DataSource dataSource, String entity) {
+		this(dataSource, DEFAULT_TABLE, entity, NGramKeywordSearchEngine.DEFAULT_GRAM_SIZE,
+				NGramKeywordSearchEngine.DEFAULT_MAX_CANDIDATES);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param dataSource
+	 * @param table         索引資料表名稱
+	 * @param entity        entity 名稱
+	 * @param gramSize      片段長度, 短於此長度的關鍵字以 LIKE 查詢
+	 * @param maxCandidates 候選 id 數上限
+	 */
+	public JdbcNGramKeywordSearchEngine(DataSource dataSource, String table, String entity, int gramSize,
+			int maxCandidates) {
+		if (gramSize == DOCUMENT_GRAM.length()) {
+			throw new IllegalArgumentException("片段長度須大於 " + DOCUMENT_GRAM.length());
+		}
+
+		this.jdbcTemplate = new NamedParameterJdbcTemplate(new JdbcTemplate(dataSource));
+		this.table = table;
+		this.entity = entity;
+		this.gramSize = gramSize;
+		this.maxCandidates = maxCandidates;
+	}
+
+	@Override
+	public boolean isReady() {
+		return this.ready;
+	}
+
+	@Override
+	public void index(Object id, List<String> values) {
+		this.indexAll(Collections.singletonMap(id, values));
+	}
+
+	@Override
+	public void indexAll(Map<Object, List<String>> documents) {
+		this.removeAll(documents.keySet());
+
+		List<MapSqlParameterSource> rows = new ArrayList<>();
+
+		for (Map.Entry<Object, List<String>> document : documents.entrySet()) {
+			String id = document.getKey().toString();
+			rows.add(this.row(DOCUMENT_GRAM, id));
+
+			for (String gram : NGramKeywordSearchEngine.grams(document.getValue(), this.gramSize)) {
+				rows.add(this.row(gram, id));
+			}
+		}
+
+		this.jdbcTemplate.batchUpdate(
+				"INSERT INTO " + this.table + " (ENTITY, GRAM, DOC_ID) VALUES (:entity, :gram, :id)",
+				rows.toArray(new MapSqlParameterSource[0]));
+	}
+
+	@Override
+	public void remove(Object id) {
+		this.removeAll(Collections.singletonList(id));
+	}
+
+	@Override
+	public void removeAll(Collection<?> ids) {
+		List<String> docIds = new ArrayList<>(ids.size());
+
+		for (Object id : ids) {
+			docIds.add(id.toString());
+		}
+
+		for (int from = 0; from < docIds.size(); from += CHUNK_SIZE) {
+			this.jdbcTemplate.update("DELETE FROM " + this.table + " WHERE ENTITY = :entity AND DOC_ID IN (:ids)",
+					new MapSqlParameterSource("entity", this.entity).addValue("ids",
+							docIds.subList(from, Math.min(from + CHUNK_SIZE, docIds.size()))));
+		}
+	}
+
+	/**
+	 * 查詢包含關鍵字所有片段的 id (以 String 回傳, 由 FilterSQLCompiler 轉換為 id 型別)
+	 */
+	@Override
+	public Collection<Object> search(String keyword) {
+		// 關鍵字含 LIKE 萬用字元時, LIKE 的比對結果不限於子字串
+		if (!this.ready || keyword == null || keyword.length() < this.gramSize || keyword.indexOf('%') >= 0
+				|| keyword.indexOf('_') >= 0) {
+			return null;
+		}
+
+		Set<String> grams = NGramKeywordSearchEngine.grams(Collections.singletonList(keyword), this.gramSize);
+		String sql = "SELECT DOC_ID FROM " + this.table
+				+ " WHERE ENTITY = :entity AND GRAM IN (:grams) GROUP BY DOC_ID HAVING COUNT(*) = :count";
+
+		return this.jdbcTemplate.query(sql,
+				new MapSqlParameterSource("entity", this.entity).addValue("grams", grams).addValue("count",
+						grams.size()),
+				rs -> {
+					List<Object> candidates = new ArrayList<>();
+
+					while (rs.next()) {
+						if (candidates.size() == this.maxCandidates) {
+							return null;
+						}
+
+						candidates.add(rs.getString(1));
+					}
+
+					return candidates;
+				});
+	}
+
+	@Override
+	public void clear() {
+		this.ready = false;
+		this.jdbcTemplate.update("DELETE FROM " + this.table + " WHERE ENTITY = :entity",
+				new MapSqlParameterSource("entity", this.entity));
+	}
+
+	@Override
+	public void markReady() {
+		this.ready = true;
+	}
+
+	@Override
+	public long size() {
+		Long size = this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM " + this.table + " WHERE ENTITY = :entity AND GRAM = :gram",
+				this.row(DOCUMENT_GRAM, null), Long.class);
+		return size == null ? 0 : size;
+	}
+
+	@Override
+	public boolean isTransactional() {
+		return true;
+	}
+
+	private MapSqlParameterSource row(String gram, String id) {
+		return new MapSqlParameterSource("entity", this.entity).addValue("gram", gram).addValue("id", id);
+	}
+}
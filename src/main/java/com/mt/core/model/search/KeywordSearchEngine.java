@@ -0,0 +1,95 @@
+package com.mt.core.model.search;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 關鍵字搜尋引擎: 以 entity 中標註 @SearchKeyword 的屬性值建立索引, 查詢時先以索引取得可能符合關鍵字的 id, 縮小 LIKE 比對的範圍
+ * <p>
+ * search 回傳的 id 須包含所有以 LIKE 比對會符合的資料 (可多不可少); 無法以索引判斷時回傳 null, 改以 LIKE 查詢.
+ * <p>
+ * 非交易式的引擎 (如記憶體索引) 於交易 commit 後才更新索引; 交易式的引擎 (索引存於同一資料庫) 於交易中更新, 與資料一併 commit 或 rollback.
+ *
+ * @author Mueller Tsai
+ */
+public interface KeywordSearchEngine {
+
+	/**
+	 * 索引是否可使用 (重建中或尚未建立時為 false)
+	 *
+	 * @return
+	 */
+	public boolean isReady();
+
+	/**
+	 * 建立或更新資料的索引
+	 *
+	 * @param id
+	 * @param values @SearchKeyword 屬性值
+	 */
+	public void index(Object id, List<String> values);
+
+	/**
+	 * 建立或更新多筆資料的索引
+	 *
+	 * @param documents id 與 @SearchKeyword 屬性值
+	 */
+	public default void indexAll(Map<Object, List<String>> documents) {
+		for (Map.Entry<Object, List<String>> document : documents.entrySet()) {
+			this.index(document.getKey(), document.getValue());
+		}
+	}
+
+	/**
+	 * 移除資料的索引
+	 *
+	 * @param id
+	 */
+	public void remove(Object id);
+
+	/**
+	 * 移除多筆資料的索引
+	 *
+	 * @param ids
+	 */
+	public default void removeAll(Collection<?> ids) {
+		for (Object id : ids) {
+			this.remove(id);
+		}
+	}
+
+	/**
+	 * 查詢可能符合關鍵字的 id
+	 *
+	 * @param keyword
+	 * @return 可能符合的 id; 無法以索引判斷 (索引未就緒, 關鍵字過短, 符合的 id 過多) 時為 null
+	 */
+	public Collection<Object> search(String keyword);
+
+	/**
+	 * 清除全部索引 (開始重建), 清除後索引未就緒
+	 */
+	public void clear();
+
+	/**
+	 * 索引重建完成, 或已確認與資料一致時, 標記為可使用
+	 */
+	public void markReady();
+
+	/**
+	 * 已索引的資料筆數 (與資料表筆數比對, 判斷載入的索引是否與資料一致)
+	 *
+	 * @return
+	 */
+	public long size();
+
+	/**
+	 * 索引是否於呼叫端的資料庫交易中更新
+	 *
+	 * @return false 時於交易 commit 後更新
+	 */
+	public default boolean isTransactional() {
+		return false;
+	}
+}
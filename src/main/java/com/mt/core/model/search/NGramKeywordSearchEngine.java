@@ -0,0 +1,324 @@
+package com.mt.core.model.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 以 n-gram 反向索引實作的關鍵字搜尋引擎 (記憶體索引, 可存檔於本機磁碟)
+ * <p>
+ * 屬性值轉為小寫後切為長度 gramSize 的片段; 關鍵字的所有片段皆出現於某筆資料時, 該筆資料即為候選. 候選 id 為 LIKE 比對結果的超集合,
+ * 查詢時仍須以 LIKE 確認. 預設 gramSize 為 2, 適用中文等無空白分詞的文字.
+ * <p>
+ * 索引存放於 heap, 適用資料量不大 (數十萬筆以內) 的資料表; 大型資料表請使用 {@link JdbcNGramKeywordSearchEngine}. 由索引檔載入的索引
+ * 須經 repository 比對資料表筆數一致後才可使用, 否則須重建. 索引檔僅反映經由 AbstractService 儲存的異動; 有其他寫入來源時,
+ * 應於啟動時重建索引.
+ *
+ * @author Mueller Tsai
+ */
+public class NGramKeywordSearchEngine implements KeywordSearchEngine, Closeable {
+
+	/**
+	 * 預設片段長度
+	 */
+	public static final int DEFAULT_GRAM_SIZE = 2;
+
+	/**
+	 * 預設候選 id 數上限, 超過時改以 LIKE 查詢
+	 */
+	public static final int DEFAULT_MAX_CANDIDATES = 1000;
+
+	private final int gramSize;
+
+	private final int maxCandidates;
+
+	/**
+	 * 索引檔, null 時不存檔
+	 */
+	private final Path indexFile;
+
+	/**
+	 * 片段 與 包含該片段的 id 對映
+	 */
+	private final Map<String, Set<Object>> postings = new HashMap<>();
+
+	/**
+	 * id 與 該筆資料的片段對映 (更新/移除時使用)
+	 */
+	private final Map<Object, Set<String>> documents = new HashMap<>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private volatile boolean ready;
+
+	private volatile boolean dirty;
+
+	public NGramKeywordSearchEngine() {
+		this(null);
+	}
+
+	public NGramKeywordSearchEngine(Path indexFile) {
+		this(indexFile, DEFAULT_GRAM_SIZE, DEFAULT_MAX_CANDIDATES);
+	}
+
+	/**
+	 * Constructor; 索引檔存在時載入索引 (尚未就緒)
+	 *
+	 * @param indexFile     索引檔, null 時不存檔
+	 * @param gramSize      片段長度, 短於此長度的關鍵字以 LIKE 查詢
+	 * @param maxCandidates 候選 id 數上限
+	 */
+	public NGramKeywordSearchEngine(Path indexFile, int gramSize, int maxCandidates) {
+		this.indexFile = indexFile;
+		this.gramSize = gramSize;
+		this.maxCandidates = maxCandidates;
+
+		if (indexFile != null && Files.exists(indexFile)) {
+			try {
+				this.load();
+			} catch (IOException | ClassNotFoundException e) {
+				// 索引檔無法讀取時視為未建立, 等待重建
+				this.clear();
+			}
+		}
+	}
+
+	@Override
+	public boolean isReady() {
+		return this.ready;
+	}
+
+	@Override
+	public void index(Object id, List<String> values) {
+		Set<String> grams = grams(values, this.gramSize);
+
+		this.lock.writeLock().lock();
+
+		try {
+			this.removeDocument(id);
+			this.documents.put(id, grams);
+
+			for (String gram : grams) {
+				this.postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+			}
+
+			this.dirty = true;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Object id) {
+		this.lock.writeLock().lock();
+
+		try {
+			this.removeDocument(id);
+			this.dirty = true;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public Collection<Object> search(String keyword) {
+		// 關鍵字含 LIKE 萬用字元時, LIKE 的比對結果不限於子字串
+		if (!this.ready || keyword == null || keyword.length() < this.gramSize || keyword.indexOf('%') >= 0
+				|| keyword.indexOf('_') >= 0) {
+			return null;
+		}
+
+		Set<String> grams = grams(Collections.singletonList(keyword), this.gramSize);
+
+		this.lock.readLock().lock();
+
+		try {
+			List<Set<Object>> sets = new ArrayList<>(grams.size());
+
+			for (String gram : grams) {
+				Set<Object> ids = this.postings.get(gram);
+
+				if (ids == null) {
+					return new ArrayList<>();
+				}
+
+				sets.add(ids);
+			}
+
+			// 由最小的集合開始取交集
+			sets.sort(Comparator.comparingInt(Set::size));
+			List<Object> candidates = new ArrayList<>();
+
+			for (Object id : sets.get(0)) {
+				boolean matched = true;
+
+				for (int i = 1; i < sets.size() && matched; i++) {
+					matched = sets.get(i).contains(id);
+				}
+
+				if (matched) {
+					if (candidates.size() == this.maxCandidates) {
+						return null;
+					}
+
+					candidates.add(id);
+				}
+			}
+
+			return candidates;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.lock.writeLock().lock();
+
+		try {
+			this.ready = false;
+			this.postings.clear();
+			this.documents.clear();
+			this.dirty = true;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void markReady() {
+		this.ready = true;
+	}
+
+	@Override
+	public long size() {
+		this.lock.readLock().lock();
+
+		try {
+			return this.documents.size();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 將索引存檔 (先寫入暫存檔再取代索引檔); 未設定索引檔或索引未就緒時不處理
+	 *
+	 * @throws IOException
+	 */
+	public void save() throws IOException {
+		if (this.indexFile == null || !this.ready) {
+			return;
+		}
+
+		Path tempFile = this.indexFile.resolveSibling(this.indexFile.getFileName() + ".tmp");
+
+		this.lock.readLock().lock();
+
+		try (ObjectOutputStream out = new ObjectOutputStream(
+				new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile))))) {
+			out.writeInt(this.gramSize);
+			out.writeObject(new HashMap<>(this.documents));
+			this.dirty = false;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+
+		Files.move(tempFile, this.indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * 有異動時存檔 (以 Spring bean 宣告時, 於 context 關閉時呼叫)
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.dirty) {
+			this.save();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void load() throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(
+				new GZIPInputStream(new BufferedInputStream(Files.newInputStream(this.indexFile))))) {
+			// 片段長度不同的索引檔無法使用
+			if (in.readInt() != this.gramSize) {
+				return;
+			}
+
+			Map<Object, Set<String>> documents = (Map<Object, Set<String>>) in.readObject();
+
+			this.lock.writeLock().lock();
+
+			try {
+				for (Map.Entry<Object, Set<String>> document : documents.entrySet()) {
+					this.documents.put(document.getKey(), document.getValue());
+
+					for (String gram : document.getValue()) {
+						this.postings.computeIfAbsent(gram, g -> new HashSet<>()).add(document.getKey());
+					}
+				}
+
+			} finally {
+				this.lock.writeLock().unlock();
+			}
+		}
+	}
+
+	private void removeDocument(Object id) {
+		Set<String> grams = this.documents.remove(id);
+
+		if (grams != null) {
+			for (String gram : grams) {
+				Set<Object> ids = this.postings.get(gram);
+
+				if (ids != null && ids.remove(id) && ids.isEmpty()) {
+					this.postings.remove(gram);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 屬性值轉為小寫後切為長度 gramSize 的片段
+	 *
+	 * @param values
+	 * @param gramSize
+	 * @return
+	 */
+	static Set<String> grams(List<String> values, int gramSize) {
+		Set<String> grams = new HashSet<>();
+
+		for (String value : values) {
+			if (value != null) {
+				String s = value.toLowerCase(Locale.ROOT);
+
+				for (int i = 0; i + gramSize <= s.length(); i++) {
+					grams.add(s.substring(i, i + gramSize));
+				}
+			}
+		}
+
+		return grams;
+	}
+}
@@ -2,42 +2,89 @@ package com.mt.core.model.service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
-import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 import javax.persistence.Column;
-import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.MappedSuperclass;
+import javax.persistence.Lob;
 
-import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.IndexedColorMap;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mt.core.model.dao.BaseJpaRepository;
+import com.mt.core.model.dao.support.ColumnType;
 import com.mt.core.model.exception.DAOException;
+import com.mt.core.model.exception.ImportValidationException;
 import com.mt.core.model.exception.ServiceException;
+import com.mt.core.model.metadata.EntityMetadata;
+import com.mt.core.model.search.KeywordSearchEngine;
+import com.mt.core.model.service.support.DelimitedTextReader;
+import com.mt.core.model.service.support.DelimitedTextWriter;
+import com.mt.core.model.service.support.ExcelColumnWriter;
+import com.mt.core.model.service.support.ExcelColumnWriters;
+import com.mt.core.model.service.support.ImportPipeline;
+import com.mt.core.model.service.support.MappingStrategy;
+import com.mt.core.model.service.support.XlsxSheetReader;
+import com.mt.core.model.vo.AggregateRequestVO;
+import com.mt.core.model.vo.AggregateResponseVO;
 import com.mt.core.model.vo.ExportColumnVO;
 import com.mt.core.model.vo.ExportRequestVO;
+import com.mt.core.model.vo.ExportRequestVO.ExportFormat;
+import com.mt.core.model.vo.FacetOptionVO;
+import com.mt.core.model.vo.FacetRequestVO;
+import com.mt.core.model.vo.FieldValidationErrorVO;
+import com.mt.core.model.vo.ImportColumnVO;
+import com.mt.core.model.vo.ImportRequestVO;
+import com.mt.core.model.vo.ImportResultVO;
 import com.mt.core.model.vo.PageRequestVO;
 import com.mt.core.model.vo.PageResponseVO;
+import com.mt.core.model.vo.PageRequestVO.FilterDescriptor;
+import com.mt.core.model.vo.UpsertResultVO;
 
 /**
  * Abstract Data Access Service Class
@@ -50,17 +97,102 @@ import com.mt.core.model.vo.PageResponseVO;
  */
 public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 
+	/**
+	 * 預設併行轉換 DTO 的資料列數門檻
+	 */
+	public static final int DEFAULT_PARALLEL_MAPPING_THRESHOLD = 5000;
+
+	/**
+	 * 預設串流匯出 Excel 的記憶體保留列數
+	 */
+	public static final int DEFAULT_EXPORT_ROW_WINDOW = 100;
+
+	/**
+	 * gzip 壓縮的緩衝區大小
+	 */
+	private static final int DELIMITED_EXPORT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * 預設匯入每批寫入筆數
+	 */
+	public static final int DEFAULT_IMPORT_BATCH_SIZE = 1000;
+
+	/**
+	 * 預設匯入錯誤列數上限 (達上限時停止讀取)
+	 */
+	public static final int DEFAULT_IMPORT_MAX_ERROR_ROWS = 1000;
+
+	/**
+	 * 匯入解析與驗證之間的佇列容量 (列數)
+	 */
+	private static final int IMPORT_QUEUE_CAPACITY = 1000;
+
 	protected final Class<E> persistentClass;
 	protected final Class<DTO> dtoClass;
 
 	protected final Map<String, Field> fieldsMapping;
 
+	/**
+	 * Entity 對映資訊 (屬性存取優先使用編譯時期產生的 getter/setter)
+	 */
+	protected final EntityMetadata entityMetadata;
+
 	@Autowired
 	protected DAO dao;
 
 	@Autowired
 	protected ModelMapper modelMapper;
 
+	/**
+	 * Entity 與 DTO 的對映策略; 未設定時以 ModelMapper 對映
+	 */
+	@Autowired(required = false)
+	protected MappingStrategy mappingStrategy;
+
+	/**
+	 * 目前使用者 (批次新增等不經 JPA auditing 的作業, 以此填入 @CreatedBy/@LastModifiedBy 屬性)
+	 */
+	protected AuditorAware<?> auditorAware;
+
+	/**
+	 * 子類別覆寫 map (無法由 mappingStrategy 確定對映會讀取的屬性)
+	 */
+	private final boolean mapOverridden;
+
+	/**
+	 * 併行轉換為 DTO 所使用的 ForkJoinPool
+	 */
+	@Qualifier("dtoMappingPool")
+	@Autowired(required = false)
+	protected ForkJoinPool dtoMappingPool;
+
+	/**
+	 * 資料列數達此值時併行轉換為 DTO (依原順序); 0 為不併行. 呼叫端執行緒綁定 persistence context 時 (交易中或 open-in-view), 須由
+	 * mappingStrategy 先於呼叫端執行緒載入對映會讀取的 lazy 關聯 (MethodHandleMappingStrategy 可對映的型別), 否則循序轉換
+	 */
+	protected int parallelMappingThreshold = DEFAULT_PARALLEL_MAPPING_THRESHOLD;
+
+	/**
+	 * 串流匯出 Excel 時記憶體中保留的列數, 超過的列寫入暫存檔
+	 */
+	protected int exportRowWindow = DEFAULT_EXPORT_ROW_WINDOW;
+
+	/**
+	 * 匯入每批寫入筆數
+	 */
+	protected int importBatchSize = DEFAULT_IMPORT_BATCH_SIZE;
+
+	/**
+	 * 匯入錯誤列數上限
+	 */
+	protected int importMaxErrorRows = DEFAULT_IMPORT_MAX_ERROR_ROWS;
+
+	/**
+	 * getData/getDataAsDTO 是否以唯讀方式查詢, 預設為 false. 設為 true 時查詢結果的異動不會寫回資料庫, 且查詢前不 flush, 同一交易中尚未
+	 * flush 的異動不會反映於查詢結果; 僅供查詢結果不再修改的列表 service 使用
+	 */
+	protected boolean readOnlyQuery = false;
+
 	public AbstractService() {
 		// Entity class
 		this.persistentClass = (Class<E>) ((ParameterizedType) getClass().getGenericSuperclass())
@@ -68,33 +200,21 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 		this.dtoClass = (Class<DTO>) ((ParameterizedType) getClass().getGenericSuperclass())
 				.getActualTypeArguments()[2];
 
-		this.fieldsMapping = this.createFieldsMapping();
-	}
-
-	/**
-	 * 建立 Entity Class 屬性與 DB Table 欄位對照表
-	 * 
-	 * @return
-	 */
-	private Map<String, Field> createFieldsMapping() {
-		Field[] fields = this.persistentClass.getDeclaredFields();
-
-		// 如父類別有註解 @MappedSuperclass, 將父類別的 properties 也加入
-		if (this.persistentClass.getSuperclass().isAnnotationPresent(MappedSuperclass.class)) {
-			fields = ArrayUtils.addAll(fields, this.persistentClass.getSuperclass().getDeclaredFields());
-		}
-
-		Map<String, Field> map = new HashMap<>();
+		this.entityMetadata = EntityMetadata.of(this.persistentClass);
+		this.fieldsMapping = this.entityMetadata.getFields();
 
-		for (Field field : fields) {
-			if (field.isAnnotationPresent(Column.class) || field.isAnnotationPresent(Id.class)
-					|| field.isAnnotationPresent(JoinColumn.class)) {
+		boolean overridden = false;
 
-				map.put(field.getName(), field);
+		for (Class<?> type = getClass(); type != AbstractService.class && !overridden; type = type.getSuperclass()) {
+			try {
+				type.getDeclaredMethod("map", Object.class, Class.class);
+				overridden = true;
+			} catch (NoSuchMethodException e) {
+				// 未於此類別覆寫
 			}
 		}
 
-		return map;
+		this.mapOverridden = overridden;
 	}
 
 	/**
@@ -106,8 +226,9 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 	 */
 	public E save(DTO dto) throws ServiceException {
 		try {
-			E entity = this.mapDTOToEntity(dto);
-			return this.dao.save(entity);
+			E entity = this.dao.save(this.mapDTOToEntity(dto));
+			this.dao.indexKeywords(Collections.singletonList(entity));
+			return entity;
 		} catch (Exception e) {
 			throw new ServiceException("實體 " + this.persistentClass.getSimpleName() + " 資料 INSERT 失敗", e);
 		}
@@ -141,7 +262,186 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 	 * @throws ServiceException
 	 */
 	public List<E> saveAll(List<E> entityList) {
-		return this.dao.saveAll(entityList);
+		List<E> entities = this.dao.saveAll(entityList);
+		this.dao.indexKeywords(entities);
+		return entities;
+	}
+
+	/**
+	 * 批次新增多筆資料列 (DTO), 以 JDBC batch 寫入
+	 * 
+	 * @param dtoList
+	 * @param batchSize 每批筆數
+	 * @return 新增的 entity (id 已產生)
+	 * @throws ServiceException
+	 */
+	public List<E> insert(List<DTO> dtoList, int batchSize) throws ServiceException {
+		List<E> entities = this.mapDTOsToEntities(dtoList);
+		this.insertAll(entities, batchSize);
+		return entities;
+	}
+
+	/**
+	 * 批次新增多筆資料列, 以 JDBC batch 寫入 (不經 persistence context, 無逐筆 merge 前的 SELECT)
+	 * 
+	 * @param entityList
+	 * @param batchSize  每批筆數
+	 * @return 新增筆數
+	 * @throws ServiceException
+	 */
+	public int insertAll(List<E> entityList, int batchSize) throws ServiceException {
+		try {
+			this.stampAuditor(entityList);
+
+			int count = this.dao.insertAll(entityList, batchSize);
+			this.dao.indexKeywords(entityList);
+
+			return count;
+		} catch (Exception e) {
+			throw new ServiceException("實體 " + this.persistentClass.getSimpleName() + " 資料 (批次) INSERT 失敗", e);
+		}
+	}
+
+	/**
+	 * 批次新增或更新多筆資料列 (DTO): 依 keyFields 判斷資料是否存在, 以資料庫的 MERGE / UPSERT 語法寫入
+	 * 
+	 * @param dtoList
+	 * @param keyFields 判斷資料是否存在的屬性, 未指定時為 id
+	 * @return 新增與更新筆數
+	 * @throws ServiceException
+	 */
+	public UpsertResultVO upsert(List<DTO> dtoList, String... keyFields) throws ServiceException {
+		return this.upsertAll(this.mapDTOsToEntities(dtoList), keyFields);
+	}
+
+	/**
+	 * 批次新增或更新多筆資料列
+	 * 
+	 * @param entityList
+	 * @param keyFields  判斷資料是否存在的屬性, 未指定時為 id
+	 * @return 新增與更新筆數
+	 * @throws ServiceException
+	 */
+	public UpsertResultVO upsertAll(List<E> entityList, String... keyFields) throws ServiceException {
+		try {
+			this.stampAuditor(entityList);
+
+			UpsertResultVO result = this.dao.upsertAll(entityList, keyFields);
+			this.dao.indexKeywords(entityList);
+
+			return result;
+		} catch (Exception e) {
+			throw new ServiceException("實體 " + this.persistentClass.getSimpleName() + " 資料 (批次) UPSERT 失敗", e);
+		}
+	}
+
+	/**
+	 * 依過濾條件刪除資料列
+	 * 
+	 * @param filter
+	 * @return 刪除筆數
+	 * @throws ServiceException
+	 */
+	public int deleteByFilter(FilterDescriptor filter) throws ServiceException {
+		try {
+			return this.dao.deleteByFilter(filter);
+		} catch (DAOException e) {
+			throw new ServiceException("實體 " + this.persistentClass.getSimpleName() + " 資料 DELETE 失敗", e);
+		}
+	}
+
+	/**
+	 * 依過濾條件分批刪除資料列 (每批個別 commit)
+	 * 
+	 * @param filter
+	 * @param chunkSize 每批筆數
+	 * @return 刪除筆數
+	 * @throws ServiceException
+	 */
+	public int deleteByFilter(FilterDescriptor filter, int chunkSize) throws ServiceException {
+		try {
+			return this.dao.deleteByFilter(filter, chunkSize);
+		} catch (DAOException e) {
+			throw new ServiceException("實體 " + this.persistentClass.getSimpleName() + " 資料 (分批) DELETE 失敗", e);
+		}
+	}
+
+	/**
+	 * 依過濾條件更新資料列; 未指定 @LastModifiedBy 屬性時, 以目前使用者更新, 無法取得目前使用者時拒絕執行
+	 * 
+	 * @param filter
+	 * @param assignments 屬性 與 更新值
+	 * @return 更新筆數
+	 * @throws ServiceException
+	 */
+	public int updateByFilter(FilterDescriptor filter, Map<String, Object> assignments) throws ServiceException {
+		try {
+			return this.dao.updateByFilter(filter, assignments);
+		} catch (DAOException e) {
+			throw new ServiceException("實體 " + this.persistentClass.getSimpleName() + " 資料 UPDATE 失敗", e);
+		}
+	}
+
+	/**
+	 * 設定目前使用者 (於 dao 注入後執行), 並交由 dao 更新 @LastModifiedBy 屬性
+	 * 
+	 * @param auditorAware
+	 */
+	@Autowired(required = false)
+	public void setAuditorAware(AuditorAware<?> auditorAware) {
+		this.auditorAware = auditorAware;
+		this.dao.setAuditorAware(auditorAware);
+	}
+
+	/**
+	 * 以目前使用者填入值為 null 的 @CreatedBy/@LastModifiedBy 屬性
+	 * 
+	 * @param entities
+	 */
+	protected void stampAuditor(List<E> entities) {
+		Optional<?> auditor = this.auditorAware == null ? Optional.empty() : this.auditorAware.getCurrentAuditor();
+
+		if (!auditor.isPresent()) {
+			return;
+		}
+
+		for (Field field : this.entityMetadata.getAuditorFields()) {
+			if (field.getType().isInstance(auditor.get())) {
+				for (E entity : entities) {
+					if (this.entityMetadata.getValue(entity, field.getName()) == null) {
+						this.entityMetadata.setValue(entity, field.getName(), auditor.get());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 設定關鍵字搜尋引擎 (如於 @PostConstruct 設定); 經由本 service 儲存, 刪除的資料會同時更新索引. 索引未就緒時 (如無索引檔,
+	 * 或索引筆數與資料表筆數不符), 須呼叫 rebuildKeywordIndex 建立
+	 * 
+	 * @param keywordSearchEngine
+	 * @throws ServiceException
+	 */
+	public void setKeywordSearchEngine(KeywordSearchEngine keywordSearchEngine) throws ServiceException {
+		try {
+			this.dao.setKeywordSearchEngine(keywordSearchEngine);
+		} catch (DAOException e) {
+			throw new ServiceException("設定關鍵字搜尋引擎失敗", e);
+		}
+	}
+
+	/**
+	 * 重建關鍵字索引
+	 * 
+	 * @throws ServiceException
+	 */
+	public void rebuildKeywordIndex() throws ServiceException {
+		try {
+			this.dao.rebuildKeywordIndex();
+		} catch (DAOException e) {
+			throw new ServiceException("重建關鍵字索引失敗", e);
+		}
 	}
 
 	/**
@@ -170,12 +470,27 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 	 */
 	public PageResponseVO<E> getData(PageRequestVO requestVO) throws ServiceException {
 		try {
-			return dao.getRows(requestVO);
+			return dao.getRows(requestVO, this.readOnlyQuery);
 		} catch (Throwable e) {
 			throw new ServiceException("查詢列表資料發生錯誤", e);
 		}
 	}
 
+	/**
+	 * 查詢符合過濾條件的資料列數 (如匯出前計算總列數)
+	 * 
+	 * @param requestVO
+	 * @return
+	 * @throws ServiceException
+	 */
+	public long countRows(PageRequestVO requestVO) throws ServiceException {
+		try {
+			return dao.countRows(requestVO);
+		} catch (Throwable e) {
+			throw new ServiceException("查詢資料列數發生錯誤", e);
+		}
+	}
+
 	/**
 	 * 查詢資料 (回傳 DTO)
 	 * 
@@ -186,13 +501,48 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 	 */
 	public PageResponseVO<DTO> getDataAsDTO(PageRequestVO requestVO) throws ServiceException {
 		try {
-			PageResponseVO<E> response = dao.getRows(requestVO);
+			// 有指定查詢屬性時, 僅查詢對映欄位並直接對映為 DTO
+			if (requestVO.getFields() != null && !requestVO.getFields().isEmpty()) {
+				return dao.getRows(requestVO, dtoClass);
+			}
+
+			PageResponseVO<E> response = dao.getRows(requestVO, this.readOnlyQuery);
 			return mapEntityToDTO(response);
 		} catch (Throwable e) {
 			throw new ServiceException("查詢列表資料發生錯誤", e);
 		}
 	}
 
+	/**
+	 * 彙總查詢 (分組計算 COUNT/SUM/AVG/MIN/MAX)
+	 * 
+	 * @param requestVO
+	 * @return
+	 * @throws ServiceException
+	 */
+	public AggregateResponseVO aggregate(AggregateRequestVO requestVO) throws ServiceException {
+		try {
+			return this.dao.aggregate(requestVO);
+		} catch (DAOException e) {
+			throw new ServiceException("彙總查詢發生錯誤", e);
+		}
+	}
+
+	/**
+	 * 多屬性 facet 查詢 (各屬性的值及筆數)
+	 * 
+	 * @param requestVO
+	 * @return
+	 * @throws ServiceException
+	 */
+	public Map<String, List<FacetOptionVO>> getFacets(FacetRequestVO requestVO) throws ServiceException {
+		try {
+			return this.dao.getFacets(requestVO);
+		} catch (DAOException e) {
+			throw new ServiceException("facet 查詢發生錯誤", e);
+		}
+	}
+
 	/**
 	 * Collection of Entity mapped to collection of DTO
 	 * 
@@ -200,16 +550,100 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 	 * @return
 	 */
 	public PageResponseVO<DTO> mapEntityToDTO(PageResponseVO<E> vo) {
-		List<DTO> rows = vo.getRows() == null ? null
-				: vo.getRows().stream().map(entity -> modelMapper.map(entity, dtoClass)).collect(Collectors.toList());
+		List<DTO> rows = vo.getRows() == null ? null : this.mapRows(vo.getRows());
 
 		PageResponseVO<DTO> mappedVO = new PageResponseVO<DTO>();
 		mappedVO.setTotal(vo.getTotal());
 		mappedVO.setRows(rows);
+		mappedVO.setNextCursor(vo.getNextCursor());
+		mappedVO.setHasMore(vo.isHasMore());
+		mappedVO.setCountStrategy(vo.getCountStrategy());
 
 		return mappedVO;
 	}
 
+	/**
+	 * 資料列轉換為 DTO: 筆數達 parallelMappingThreshold 時, 分段於 dtoMappingPool 併行轉換 (依原順序合併). 呼叫端執行緒綁定
+	 * persistence context 時, 對映可經由關聯觸發 lazy loading, 不可於其他執行緒使用該 session: 先於呼叫端執行緒 preload 各資料列,
+	 * 無法 preload 時循序轉換. 未綁定時資料列皆已 detached, 未載入的關聯於任何執行緒皆無法載入
+	 * 
+	 * @param entities
+	 * @return
+	 */
+	protected List<DTO> mapRows(List<E> entities) {
+		if (this.dtoMappingPool == null || this.parallelMappingThreshold <= 0
+				|| entities.size() < this.parallelMappingThreshold
+				|| (this.dao.isPersistenceContextBound() && !this.preload(entities))) {
+			return entities.stream().map(entity -> this.map(entity, this.dtoClass)).collect(Collectors.toList());
+		}
+
+		int chunks = this.dtoMappingPool.getParallelism() * 4;
+		int chunkSize = (entities.size() + chunks - 1) / chunks;
+		List<Callable<List<DTO>>> tasks = new ArrayList<>();
+
+		for (int from = 0; from < entities.size(); from += chunkSize) {
+			List<E> chunk = entities.subList(from, Math.min(from + chunkSize, entities.size()));
+			tasks.add(() -> {
+				List<DTO> dtos = new ArrayList<>(chunk.size());
+
+				for (E entity : chunk) {
+					dtos.add(this.map(entity, this.dtoClass));
+				}
+
+				return dtos;
+			});
+		}
+
+		List<DTO> rows = new ArrayList<>(entities.size());
+
+		try {
+			for (Future<List<DTO>> future : this.dtoMappingPool.invokeAll(tasks)) {
+				rows.addAll(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Entity 物件轉換為 DTO 物件中斷", e);
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+					: new IllegalStateException("Entity 物件轉換為 DTO 物件失敗", e.getCause());
+		}
+
+		return rows;
+	}
+
+	/**
+	 * 於呼叫端執行緒讀取各資料列對映為 DTO 時會讀取的屬性 (載入 lazy 關聯)
+	 * 
+	 * @param entities
+	 * @return 無法確定對映會讀取的屬性 (未設定 mappingStrategy, 策略不支援該型別, 或子類別覆寫 map) 時為 false
+	 */
+	private boolean preload(List<E> entities) {
+		if (this.mappingStrategy == null || this.mapOverridden) {
+			return false;
+		}
+
+		for (E entity : entities) {
+			if (!this.mappingStrategy.preload(entity, this.dtoClass)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * 物件對映 (Entity 與 DTO)
+	 * 
+	 * @param <T>
+	 * @param source
+	 * @param destinationType
+	 * @return
+	 */
+	protected <T> T map(Object source, Class<T> destinationType) {
+		return this.mappingStrategy != null ? this.mappingStrategy.map(source, destinationType)
+				: this.modelMapper.map(source, destinationType);
+	}
+
 	/**
 	 * Entity object mapped to DTO object
 	 * 
@@ -219,7 +653,7 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 	 */
 	public DTO mapEntityToDTO(E entity) throws ServiceException {
 		try {
-			return this.modelMapper.map(entity, this.dtoClass);
+			return this.map(entity, this.dtoClass);
 		} catch (Exception e) {
 			throw new ServiceException("Entity 物件轉換為 DTO 物件失敗", e);
 		}
@@ -234,7 +668,7 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 	 */
 	public E mapDTOToEntity(DTO dto) throws ServiceException {
 		try {
-			E entity = this.modelMapper.map(dto, this.persistentClass);
+			E entity = this.map(dto, this.persistentClass);
 			return entity;
 		} catch (Exception e) {
 			throw new ServiceException("DTO 物件轉換為 Entity 物件失敗", e);
@@ -250,8 +684,7 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 	 */
 	public List<DTO> mapEntitiesToDTOs(List<E> entities) throws ServiceException {
 		try {
-			return entities == null ? null
-					: entities.stream().map(entity -> modelMapper.map(entity, dtoClass)).collect(Collectors.toList());
+			return entities == null ? null : this.mapRows(entities);
 		} catch (Exception e) {
 			throw new ServiceException("Entity 物件轉換為 DTO 物件失敗", e);
 		}
@@ -267,7 +700,7 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 	public List<E> mapDTOsToEntities(List<DTO> dtos) throws ServiceException {
 		try {
 			return dtos == null ? null
-					: dtos.stream().map(dto -> modelMapper.map(dto, persistentClass)).collect(Collectors.toList());
+					: dtos.stream().map(dto -> this.map(dto, this.persistentClass)).collect(Collectors.toList());
 		} catch (Exception e) {
 			throw new ServiceException("DTO 物件轉換為 Entity 物件失敗", e);
 		}
@@ -291,6 +724,170 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 		}
 	}
 
+	/**
+	 * 串流匯出 Excel: 以資料庫游標逐筆讀取資料列 (不經 getData 全部載入), 以 SXSSF 寫入 (記憶體中僅保留 exportRowWindow
+	 * 列, 其餘寫入壓縮暫存檔), 直接輸出至 out (如 HttpServletResponse 的 OutputStream). out 由呼叫端關閉
+	 * 
+	 * @param requestVO
+	 * @param sheetTitle
+	 * @param out
+	 * @throws ServiceException
+	 */
+	@Transactional(readOnly = true)
+	public void excelExport(ExportRequestVO requestVO, String sheetTitle, OutputStream out) throws ServiceException {
+		this.excelExport(requestVO, sheetTitle, out, null);
+	}
+
+	/**
+	 * 串流匯出 Excel, 每寫入一列以已寫入的列數呼叫 progress (如背景匯出工作回報進度). out 由呼叫端關閉
+	 * 
+	 * @param requestVO
+	 * @param sheetTitle
+	 * @param out
+	 * @param progress   可為 null
+	 * @throws ServiceException
+	 */
+	@Transactional(readOnly = true)
+	public void excelExport(ExportRequestVO requestVO, String sheetTitle, OutputStream out, LongConsumer progress)
+			throws ServiceException {
+		try (Stream<E> rows = this.dao.streamRows(requestVO)) {
+			AtomicLong written = new AtomicLong();
+			Stream<E> counted = progress == null ? rows : rows.peek(row -> progress.accept(written.incrementAndGet()));
+			this.export(counted.iterator(), requestVO.getExportColumns(), sheetTitle, out);
+		} catch (DAOException | IOException | RuntimeException e) {
+			throw new ServiceException("Excel 內容創建發生錯誤", e);
+		}
+	}
+
+	/**
+	 * 串流匯出 CSV 或 TSV (依 requestVO.format, 未指定時為 CSV; requestVO.gzip 時以 gzip 壓縮): 以資料庫游標逐筆讀取資料列,
+	 * 直接寫入 out. out 由呼叫端關閉
+	 * 
+	 * @param requestVO
+	 * @param out
+	 * @throws ServiceException
+	 */
+	@Transactional(readOnly = true)
+	public void delimitedExport(ExportRequestVO requestVO, OutputStream out) throws ServiceException {
+		this.delimitedExport(requestVO, out, null);
+	}
+
+	/**
+	 * 串流匯出 CSV 或 TSV, 每寫入一列以已寫入的列數呼叫 progress. out 由呼叫端關閉
+	 * 
+	 * @param requestVO
+	 * @param out
+	 * @param progress  可為 null
+	 * @throws ServiceException
+	 */
+	@Transactional(readOnly = true)
+	public void delimitedExport(ExportRequestVO requestVO, OutputStream out, LongConsumer progress)
+			throws ServiceException {
+		if (requestVO.getFormat() == ExportFormat.XLSX) {
+			throw new ServiceException("匯出格式須為 CSV 或 TSV");
+		}
+
+		char delimiter = requestVO.getFormat() == ExportFormat.TSV ? DelimitedTextWriter.TSV_DELIMITER
+				: DelimitedTextWriter.CSV_DELIMITER;
+
+		try (Stream<E> rows = this.dao.streamRows(requestVO)) {
+			AtomicLong written = new AtomicLong();
+			Stream<E> counted = progress == null ? rows : rows.peek(row -> progress.accept(written.incrementAndGet()));
+			this.export(counted.iterator(), requestVO.getExportColumns(), delimiter, requestVO.isGzip(), out);
+		} catch (DAOException | IOException | RuntimeException e) {
+			throw new ServiceException("匯出檔內容創建發生錯誤", e);
+		}
+	}
+
+	/**
+	 * 匯入 xlsx (第一個工作表), CSV 或 TSV 檔 (依 requestVO.format, 第一列為標題列): 以管線逐列解析 (xlsx 以 SAX 事件 API),
+	 * 轉換為 entity 並驗證, 每 importBatchSize 筆以 insertAll 寫入 (JDBC batch). 寫入於呼叫端執行緒及其交易中執行; 未設定
+	 * skipInvalidRows 時, 有任一錯誤列即拋出 ImportValidationException 回復交易, 不新增任何資料列. in 由呼叫端關閉 (CSV, TSV
+	 * 於錯誤列數達上限或寫入失敗而停止讀取時關閉 in)
+	 * <p>
+	 * 驗證項目: 值無法轉換為屬性型別, 必填欄位 (@Column 或 @JoinColumn nullable = false, id 及稽核屬性除外) 為空白, 字串超過
+	 * @Column length, 及 validateImportRow
+	 * 
+	 * @param in
+	 * @param requestVO
+	 * @return 讀取列數, 新增筆數 及 各列的驗證錯誤
+	 * @throws ImportValidationException 有錯誤列且未設定 skipInvalidRows (含讀取列數及各列的驗證錯誤)
+	 * @throws ServiceException 匯入檔格式錯誤, 缺少匯入欄位, 或寫入失敗
+	 */
+	@Transactional(rollbackFor = ServiceException.class)
+	public ImportResultVO importFile(InputStream in, ImportRequestVO requestVO) throws ServiceException {
+		Path file = null;
+
+		try {
+			ImportPipeline.RowSource source;
+
+			if (requestVO.getFormat() == null || requestVO.getFormat() == ExportFormat.XLSX) {
+				// XSSFReader 須隨機讀取 zip 內容, 先寫入暫存檔 (以 InputStream 開啟時整個檔案載入記憶體)
+				file = Files.createTempFile("import-", ".xlsx");
+				Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+				Path xlsx = file;
+				source = handler -> XlsxSheetReader.read(xlsx, handler);
+			} else {
+				char delimiter = requestVO.getFormat() == ExportFormat.TSV ? DelimitedTextWriter.TSV_DELIMITER
+						: DelimitedTextWriter.CSV_DELIMITER;
+				source = new ImportPipeline.RowSource() {
+
+					@Override
+					public void read(ImportPipeline.RowHandler handler) throws Exception {
+						DelimitedTextReader reader = new DelimitedTextReader(
+								new InputStreamReader(in, StandardCharsets.UTF_8), delimiter);
+						int rowNumber = 0;
+
+						for (List<String> row = reader.readRow(); row != null; row = reader.readRow()) {
+							handler.row(++rowNumber, row);
+						}
+					}
+
+					@Override
+					public void close() throws IOException {
+						// 中止阻塞於 read 的解析執行緒 (interrupt 無法中止)
+						in.close();
+					}
+				};
+			}
+
+			ImportPipeline<E> pipeline = new ImportPipeline<>(this.importBatchSize, IMPORT_QUEUE_CAPACITY,
+					this.importMaxErrorRows, requestVO.isSkipInvalidRows());
+			ImportResultVO result = pipeline.run(source,
+					header -> this.createImportMapper(header, requestVO.getImportColumns()),
+					batch -> this.insertAll(batch, this.importBatchSize));
+
+			if (!result.getErrors().isEmpty() && !requestVO.isSkipInvalidRows()) {
+				result.setInserted(0);
+				throw new ImportValidationException("匯入檔有 " + result.getErrors().size() + " 列資料錯誤, 未新增任何資料",
+						result);
+			}
+
+			return result;
+		} catch (ServiceException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new ServiceException("匯入檔案發生錯誤", e);
+		} finally {
+			if (file != null) {
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException e) {
+					file.toFile().deleteOnExit();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 匯入資料列的其他驗證 (如業務規則), 錯誤加入 errors. 於驗證執行緒執行, 不可存取資料庫或 persistence context
+	 * 
+	 * @param entity
+	 * @param errors
+	 */
+	protected void validateImportRow(E entity, List<FieldValidationErrorVO> errors) {
+	}
+
 	/**
 	 * 匯出 Excel
 	 * 
@@ -309,6 +906,109 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 			IOException {
 		XSSFWorkbook wb = new XSSFWorkbook();
 		Sheet sheet = wb.createSheet(sheetTitle);
+		List<ExcelColumnWriter> writers = this.writeHeader(wb, sheet, columns);
+		this.writeRows(sheet, rows.iterator(), writers);
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		wb.write(bos);
+		bos.flush();
+		wb.close();
+		return bos;
+	}
+
+	/**
+	 * 串流匯出 Excel (SXSSF): 記憶體中僅保留 exportRowWindow 列, 寫出後刪除暫存檔. out 由呼叫端關閉
+	 * 
+	 * @param rows
+	 * @param columns
+	 * @param sheetTitle
+	 * @param out
+	 * @throws IOException
+	 */
+	public void export(Iterator<E> rows, List<ExportColumnVO> columns, String sheetTitle, OutputStream out)
+			throws IOException {
+		SXSSFWorkbook wb = new SXSSFWorkbook(null, this.exportRowWindow, true);
+
+		try {
+			Sheet sheet = wb.createSheet(sheetTitle);
+			List<ExcelColumnWriter> writers = this.writeHeader(wb.getXSSFWorkbook(), sheet, columns);
+			this.writeRows(sheet, rows, writers);
+			wb.write(out);
+			out.flush();
+		} finally {
+			wb.dispose();
+			wb.close();
+		}
+	}
+
+	/**
+	 * 串流匯出 CSV 或 TSV (UTF-8 含 BOM, 第一列為欄位名稱). out 由呼叫端關閉
+	 * 
+	 * @param rows
+	 * @param columns
+	 * @param delimiter 分隔字元
+	 * @param gzip      是否以 gzip 壓縮
+	 * @param out
+	 * @throws IOException
+	 */
+	public void export(Iterator<E> rows, List<ExportColumnVO> columns, char delimiter, boolean gzip, OutputStream out)
+			throws IOException {
+		DelimitedTextWriter.Column[] writers = new DelimitedTextWriter.Column[columns.size()];
+
+		for (int i = 0; i < writers.length; i++) {
+			String prop = columns.get(i).getProp();
+			writers[i] = DelimitedTextWriter.column(this.getExportGetter(prop), this.getExportType(prop));
+		}
+
+		GZIPOutputStream gzipOut = null;
+
+		if (gzip) {
+			// 壓縮速度優先於壓縮率, 避免壓縮成為匯出的瓶頸
+			gzipOut = new GZIPOutputStream(out, DELIMITED_EXPORT_BUFFER_SIZE) {
+				{
+					this.def.setLevel(Deflater.BEST_SPEED);
+				}
+			};
+		}
+
+		DelimitedTextWriter writer = new DelimitedTextWriter(
+				new OutputStreamWriter(gzip ? gzipOut : out, StandardCharsets.UTF_8), delimiter);
+
+		for (ExportColumnVO column : columns) {
+			writer.writeField(column.getName());
+		}
+
+		writer.endRow();
+
+		while (rows.hasNext()) {
+			E row = rows.next();
+
+			for (DelimitedTextWriter.Column column : writers) {
+				column.write(writer, row);
+			}
+
+			writer.endRow();
+		}
+
+		// out 由呼叫端關閉, 僅寫出緩衝區
+		writer.flush();
+
+		if (gzipOut != null) {
+			gzipOut.finish();
+		}
+
+		out.flush();
+	}
+
+	/**
+	 * 寫入標題列, 並建立各匯出欄位的寫入方式 (每次匯出建立一次)
+	 * 
+	 * @param wb    樣式所屬的 workbook (SXSSF 為其 XSSFWorkbook)
+	 * @param sheet
+	 * @param columns
+	 * @return 匯出欄位的寫入方式
+	 */
+	private List<ExcelColumnWriter> writeHeader(XSSFWorkbook wb, Sheet sheet, List<ExportColumnVO> columns) {
 		sheet.setDefaultColumnWidth(15);
 		IndexedColorMap colorMap = wb.getStylesSource().getIndexedColors();
 		XSSFColor color = new XSSFColor(colorMap);
@@ -316,59 +1016,283 @@ public class AbstractService<E, K, DTO, DAO extends BaseJpaRepository<E, K>> {
 		XSSFCellStyle headerStyle = wb.createCellStyle();
 		headerStyle.setFillForegroundColor(color);
 		headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+		ExcelColumnWriters columnWriters = new ExcelColumnWriters(wb);
 		int colPos = 0;
-		List<Field> fields = new ArrayList<>();
+		List<ExcelColumnWriter> writers = new ArrayList<>();
 		Row header = sheet.createRow(0);
-		Iterator<ExportColumnVO> iterator = columns.iterator();
 
-		while (iterator.hasNext()) {
-			ExportColumnVO column = (ExportColumnVO) iterator.next();
+		for (ExportColumnVO column : columns) {
 			Cell cell = header.createCell(colPos++);
 			cell.setCellValue(column.getName());
 			cell.setCellStyle(headerStyle);
-			Field field = this.fieldsMapping.get(column.getProp());
-			field.setAccessible(true);
-			fields.add(field);
+			writers.add(this.createColumnWriter(columnWriters, column.getProp()));
 		}
 
-		SimpleDateFormat sdfDate = new SimpleDateFormat("yyyy-MM-dd");
-		SimpleDateFormat sdfDatetime = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		return writers;
+	}
+
+	/**
+	 * 建立匯出欄位的寫入方式
+	 * 
+	 * @param columnWriters
+	 * @param prop
+	 * @return
+	 */
+	private ExcelColumnWriter createColumnWriter(ExcelColumnWriters columnWriters, String prop) {
+		return columnWriters.create(this.getExportGetter(prop), this.getExportType(prop));
+	}
+
+	/**
+	 * 匯出欄位的 getter
+	 * 
+	 * @param prop
+	 * @return
+	 */
+	private Function<Object, Object> getExportGetter(String prop) {
+		Function<Object, Object> getter = this.entityMetadata.getGetter(prop);
+
+		if (getter == null) {
+			throw new IllegalArgumentException("匯出欄位 " + prop + " 不是 " + this.persistentClass.getName() + " 的屬性");
+		}
+
+		return getter;
+	}
+
+	/**
+	 * 匯出欄位的寫入型別: java.util.Date, Calendar 屬性為 @Temporal 對映的型別, 其他為屬性型別
+	 * 
+	 * @param prop
+	 * @return
+	 */
+	private Class<?> getExportType(String prop) {
+		ColumnType columnType = this.entityMetadata.getColumnType(prop);
+
+		if (columnType == null) {
+			return Object.class;
+		}
+
+		return Date.class.isAssignableFrom(columnType.getJavaType())
+				|| Calendar.class.isAssignableFrom(columnType.getJavaType()) ? columnType.getBindType()
+						: columnType.getJavaType();
+	}
+
+	/**
+	 * 寫入資料列 (自第 2 列開始)
+	 * 
+	 * @param sheet
+	 * @param rows
+	 * @param writers
+	 */
+	private void writeRows(Sheet sheet, Iterator<E> rows, List<ExcelColumnWriter> writers) {
+		ExcelColumnWriter[] columnWriters = writers.toArray(new ExcelColumnWriter[0]);
 		int rowPos = 1;
 
-		for (E row : rows) {
+		while (rows.hasNext()) {
+			E row = rows.next();
 			Row xlsRow = sheet.createRow(rowPos++);
-			colPos = 0;
-
-			for (Field field : fields) {
-				Object value = field.get(row);
-				Date d;
-				Cell cell;
-				if (value instanceof java.sql.Date) {
-					d = new Date(((java.sql.Date) value).getTime());
-					cell = xlsRow.createCell(colPos++);
-					cell.setCellValue(sdfDate.format(d));
-				} else if (value instanceof Timestamp) {
-					d = new Date(((Timestamp) value).getTime());
-					cell = xlsRow.createCell(colPos++);
-					cell.setCellValue(sdfDatetime.format(d));
-				} else if (value instanceof Integer) {
-					xlsRow.createCell(colPos++).setCellValue((double) (Integer) value);
-				} else if (value instanceof Float) {
-					xlsRow.createCell(colPos++).setCellValue((Double) value);
-				} else if (value instanceof List) {
-					xlsRow.createCell(colPos++).setCellValue((String) ((List) value).stream().map((e) -> {
-						return e.toString();
-					}).collect(Collectors.joining(", ")));
-				} else {
-					xlsRow.createCell(colPos++).setCellValue(value == null ? "" : String.valueOf(value));
+
+			for (int i = 0; i < columnWriters.length; i++) {
+				columnWriters[i].write(xlsRow, i, row);
+			}
+		}
+	}
+
+	/**
+	 * 依標題列建立匯入資料列的轉換方式
+	 * 
+	 * @param header
+	 * @param columns 未指定時, 標題與屬性名稱或欄位名稱 (不分大小寫) 相同的欄位皆匯入
+	 * @return
+	 * @throws ServiceException 缺少匯入欄位, 或匯入欄位不是 entity 屬性
+	 */
+	private ImportPipeline.RowMapper<E> createImportMapper(List<String> header, List<ImportColumnVO> columns)
+			throws ServiceException {
+		List<String> titles = header.stream().map(title -> title == null ? "" : title.trim())
+				.collect(Collectors.toList());
+		List<ImportField> fields = new ArrayList<>();
+
+		if (columns == null || columns.isEmpty()) {
+			Map<String, String> props = new HashMap<>();
+
+			for (String prop : this.fieldsMapping.keySet()) {
+				props.put(prop.toLowerCase(), prop);
+				props.putIfAbsent(this.entityMetadata.getColumnName(prop).toLowerCase(), prop);
+			}
+
+			for (int i = 0; i < titles.size(); i++) {
+				String prop = props.get(titles.get(i).toLowerCase());
+
+				if (prop != null) {
+					fields.add(this.createImportField(i, prop));
 				}
 			}
+		} else {
+			for (ImportColumnVO column : columns) {
+				String title = StringUtils.defaultIfBlank(column.getName(), column.getProp());
+				int index = titles.indexOf(title.trim());
+
+				if (index < 0) {
+					throw new ServiceException("匯入檔缺少欄位 " + title);
+				}
+
+				fields.add(this.createImportField(index, column.getProp()));
+			}
 		}
 
-		ByteArrayOutputStream bos = new ByteArrayOutputStream();
-		wb.write(bos);
-		bos.flush();
-		wb.close();
-		return bos;
+		if (fields.isEmpty()) {
+			throw new ServiceException("匯入檔標題列沒有對映 " + this.persistentClass.getSimpleName() + " 屬性的欄位");
+		}
+
+		Constructor<E> constructor;
+
+		try {
+			constructor = this.persistentClass.getDeclaredConstructor();
+		} catch (NoSuchMethodException e) {
+			throw new ServiceException("實體 " + this.persistentClass.getSimpleName() + " 沒有無參數建構子", e);
+		}
+
+		ImportField[] importFields = fields.toArray(new ImportField[0]);
+
+		return (values, errors) -> this.mapImportRow(constructor, importFields, values, errors);
+	}
+
+	/**
+	 * 建立匯入欄位: 依屬性型別轉換值 (enum 依名稱或序號, 關聯 entity 依 id 建立僅含 id 的 entity)
+	 * 
+	 * @param index 匯入檔欄位位置
+	 * @param prop
+	 * @return
+	 * @throws ServiceException
+	 */
+	private ImportField createImportField(int index, String prop) throws ServiceException {
+		Field field = this.fieldsMapping.get(prop);
+		ColumnType type = this.entityMetadata.getColumnType(prop);
+
+		if (field == null || type == null) {
+			throw new ServiceException("匯入欄位 " + prop + " 不是 " + this.persistentClass.getSimpleName() + " 的屬性");
+		}
+
+		Class<?> javaType = type.getJavaType();
+		Function<String, Object> converter;
+
+		if (field.isAnnotationPresent(JoinColumn.class)) {
+			EntityMetadata association = EntityMetadata.of(javaType);
+			Field idField = association.getIdField();
+
+			if (idField == null) {
+				throw new ServiceException("匯入欄位 " + prop + " 的關聯實體沒有 id 屬性");
+			}
+
+			converter = text -> {
+				Object reference = BeanUtils.instantiateClass(javaType);
+				association.setValue(reference, idField.getName(), type.convert(text));
+				return reference;
+			};
+		} else if (javaType.isEnum()) {
+			Object[] constants = javaType.getEnumConstants();
+			converter = text -> {
+				Object value = type.convert(text);
+
+				if (value instanceof Integer) {
+					return constants[(Integer) value];
+				}
+
+				return Arrays.stream(constants).filter(c -> ((Enum<?>) c).name().equals(value)).findFirst()
+						.orElseThrow();
+			};
+		} else if (Calendar.class.isAssignableFrom(javaType)) {
+			converter = text -> {
+				Calendar calendar = Calendar.getInstance();
+				calendar.setTime((Date) type.convert(text));
+				return calendar;
+			};
+		} else {
+			converter = type::convert;
+		}
+
+		Column column = field.getAnnotation(Column.class);
+		JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+		boolean required = (column != null && !column.nullable() || joinColumn != null && !joinColumn.nullable())
+				&& !field.equals(this.entityMetadata.getIdField())
+				&& !this.entityMetadata.getAuditTimeFields().contains(field)
+				&& !this.entityMetadata.getAuditorFields().contains(field);
+		int maxLength = javaType == String.class && column != null && column.columnDefinition().isEmpty()
+				&& !field.isAnnotationPresent(Lob.class) ? column.length() : 0;
+
+		return new ImportField(index, prop, converter, required, maxLength);
+	}
+
+	/**
+	 * 將匯入資料列轉換為 entity 並驗證
+	 * 
+	 * @param constructor
+	 * @param fields
+	 * @param values
+	 * @param errors
+	 * @return 空白列為 null
+	 */
+	private E mapImportRow(Constructor<E> constructor, ImportField[] fields, List<String> values,
+			List<FieldValidationErrorVO> errors) {
+		if (values.stream().allMatch(StringUtils::isBlank)) {
+			return null;
+		}
+
+		E entity = BeanUtils.instantiateClass(constructor);
+
+		for (ImportField field : fields) {
+			String text = field.index < values.size() ? values.get(field.index) : null;
+
+			if (StringUtils.isBlank(text)) {
+				if (field.required) {
+					errors.add(new FieldValidationErrorVO(field.prop, "必填"));
+				}
+
+				continue;
+			}
+
+			Object value;
+
+			try {
+				value = field.converter.apply(text);
+			} catch (RuntimeException e) {
+				errors.add(new FieldValidationErrorVO(field.prop, "值 " + text + " 格式錯誤"));
+				continue;
+			}
+
+			if (field.maxLength > 0 && ((String) value).length() > field.maxLength) {
+				errors.add(new FieldValidationErrorVO(field.prop, "長度超過 " + field.maxLength));
+				continue;
+			}
+
+			this.entityMetadata.setValue(entity, field.prop, value);
+		}
+
+		this.validateImportRow(entity, errors);
+
+		return entity;
+	}
+
+	/**
+	 * 匯入欄位
+	 */
+	private static final class ImportField {
+
+		private final int index; // 匯入檔欄位位置
+
+		private final String prop;
+
+		private final Function<String, Object> converter;
+
+		private final boolean required;
+
+		private final int maxLength; // 字串長度上限, 0 為不限
+
+		ImportField(int index, String prop, Function<String, Object> converter, boolean required, int maxLength) {
+			this.index = index;
+			this.prop = prop;
+			this.converter = converter;
+			this.required = required;
+			this.maxLength = maxLength;
+		}
 	}
 }
@@ -0,0 +1,170 @@
+package com.mt.core.model.service.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分隔字元文字檔 (CSV, TSV) 讀取: 以可重複使用的 char 緩衝區逐列解析, 記憶體用量不隨檔案大小增加. 依 RFC 4180 解析以雙引號括住的欄位值
+ * (可含分隔字元及換行, 連續兩個雙引號為一個雙引號); 列可以 CRLF 或 LF 結尾, 檔首的 UTF-8 BOM 略過. {@link DelimitedTextWriter}
+ * 為避免公式而加上的單引號前綴 (單引號之後為 =, +, -, @) 讀取時移除.
+ *
+ * @author Mueller Tsai
+ */
+public class DelimitedTextReader implements Closeable {
+
+	private static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+	private final Reader in;
+
+	private final char delimiter;
+
+	private final char[] buffer;
+
+	private int position;
+
+	private int limit;
+
+	private boolean started;
+
+	/**
+	 * 目前欄位值 (重複使用)
+	 */
+	private final StringBuilder value = new StringBuilder();
+
+	public DelimitedTextReader(Reader in, char delimiter) {
+		this(in, delimiter, DEFAULT_BUFFER_SIZE);
+	}
+
+	public DelimitedTextReader(Reader in, char delimiter, int bufferSize) {
+		this.in = in;
+		this.delimiter = delimiter;
+		this.buffer = new char[bufferSize];
+	}
+
+	/**
+	 * 讀取一列
+	 *
+	 * @return 各欄位值 (空白欄位為空字串); 已無資料時為 null
+	 * @throws IOException 讀取失敗, 或以雙引號括住的欄位值未結束
+	 */
+	public List<String> readRow() throws IOException {
+		int c = this.read();
+
+		if (!this.started) {
+			this.started = true;
+
+			if (c == DelimitedTextWriter.BOM) {
+				c = this.read();
+			}
+		}
+
+		if (c == -1) {
+			return null;
+		}
+
+		List<String> row = new ArrayList<>();
+		this.value.setLength(0);
+
+		while (true) {
+			if (c == '"' && this.value.length() == 0) {
+				c = this.readQuoted();
+			}
+
+			if (c == this.delimiter) {
+				row.add(this.field());
+				this.value.setLength(0);
+			} else if (c == '\n' || c == -1) {
+				break;
+			} else if (c == '\r') {
+				if (this.peek() == '\n') {
+					this.read();
+				}
+
+				break;
+			} else {
+				this.value.append((char) c);
+			}
+
+			c = this.read();
+		}
+
+		row.add(this.field());
+
+		return row;
+	}
+
+	/**
+	 * 目前欄位值, 移除避免公式的單引號前綴
+	 *
+	 * @return
+	 */
+	private String field() {
+		if (this.value.length() > 1 && this.value.charAt(0) == DelimitedTextWriter.FORMULA_ESCAPE
+				&& DelimitedTextWriter.isFormulaLike(this.value)) {
+			return this.value.substring(1);
+		}
+
+		return this.value.toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.in.close();
+	}
+
+	/**
+	 * 讀取以雙引號括住的欄位值 (開頭的雙引號已讀取)
+	 *
+	 * @return 結尾雙引號之後的字元
+	 * @throws IOException
+	 */
+	private int readQuoted() throws IOException {
+		while (true) {
+			int c = this.read();
+
+			if (c == -1) {
+				throw new IOException("以雙引號括住的欄位值未結束");
+			} else if (c == '"') {
+				c = this.read();
+
+				if (c != '"') {
+					return c;
+				}
+			}
+
+			this.value.append((char) c);
+		}
+	}
+
+	private int read() throws IOException {
+		if (this.position == this.limit && !this.fill()) {
+			return -1;
+		}
+
+		return this.buffer[this.position++];
+	}
+
+	private int peek() throws IOException {
+		if (this.position == this.limit && !this.fill()) {
+			return -1;
+		}
+
+		return this.buffer[this.position];
+	}
+
+	private boolean fill() throws IOException {
+		int n = this.in.read(this.buffer, 0, this.buffer.length);
+
+		if (n <= 0) {
+			return false;
+		}
+
+		this.position = 0;
+		this.limit = n;
+
+		return true;
+	}
+}
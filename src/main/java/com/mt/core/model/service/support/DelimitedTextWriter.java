@@ -0,0 +1,340 @@
+package com.mt.core.model.service.support;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 分隔字元文字檔 (CSV, TSV) 寫入: 欄位值先寫入可重複使用的 char 緩衝區, 緩衝區滿時才寫出. 欄位值含分隔字元, 雙引號或換行時, 依 RFC
+ * 4180 以雙引號括住 (值中的雙引號重複一次), 各列以 CRLF 結尾. 檔首寫入 BOM (以 UTF-8 編碼時, Excel 依此辨識編碼).
+ * <p>
+ * 為免試算表將欄位值當作公式執行 (formula injection), 以 =, +, -, @ 開頭的文字值前加上單引號 (已以單引號開頭者再加一個);
+ * {@link DelimitedTextReader} 讀取時移除. 數值及日期不受影響.
+ * <p>
+ * 欄位的格式化方式依屬性型別於匯出前建立一次 (column):
+ * <ul>
+ * <li>數值: BigDecimal 不使用科學記號, 其他依 toString</li>
+ * <li>java.sql.Date, LocalDate: yyyy-MM-dd</li>
+ * <li>java.sql.Time, LocalTime: HH:mm:ss</li>
+ * <li>其他日期時間: yyyy-MM-dd HH:mm:ss (以系統時區表示)</li>
+ * <li>集合: 各元素以 ", " 連接</li>
+ * <li>null: 空白欄位</li>
+ * </ul>
+ *
+ * @author Mueller Tsai
+ */
+public class DelimitedTextWriter implements Closeable, Flushable {
+
+	public static final char CSV_DELIMITER = ',';
+
+	public static final char TSV_DELIMITER = '\t';
+
+	/**
+	 * Byte order mark (UTF-8 編碼為 EF BB BF)
+	 */
+	public static final char BOM = '\uFEFF';
+
+	/**
+	 * 避免文字值被當作公式的前綴
+	 */
+	static final char FORMULA_ESCAPE = '\'';
+
+	private static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+	private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+	private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+	/**
+	 * 欄位的寫入方式
+	 */
+	@FunctionalInterface
+	public interface Column {
+
+		/**
+		 * 讀取 entity 的屬性值, 寫入一個欄位
+		 *
+		 * @param writer
+		 * @param entity
+		 * @throws IOException
+		 */
+		public void write(DelimitedTextWriter writer, Object entity) throws IOException;
+	}
+
+	private final Writer out;
+
+	private final char delimiter;
+
+	private final char[] buffer;
+
+	private int position;
+
+	/**
+	 * 下一個欄位為該列第一個欄位
+	 */
+	private boolean rowStart = true;
+
+	public DelimitedTextWriter(Writer out, char delimiter) {
+		this(out, delimiter, DEFAULT_BUFFER_SIZE);
+	}
+
+	public DelimitedTextWriter(Writer out, char delimiter, int bufferSize) {
+		this.out = out;
+		this.delimiter = delimiter;
+		this.buffer = new char[Math.max(bufferSize, 2)];
+		this.buffer[this.position++] = BOM;
+	}
+
+	/**
+	 * 建立欄位的寫入方式
+	 *
+	 * @param getter 讀取屬性值
+	 * @param type   屬性型別 (java.util.Date 屬性為 @Temporal 對映的 java.sql 型別)
+	 * @return
+	 */
+	public static Column column(Function<Object, Object> getter, Class<?> type) {
+		if (BigDecimal.class == type) {
+			return (writer, entity) -> {
+				Object value = getter.apply(entity);
+
+				if (value instanceof BigDecimal) {
+					writer.writeUnquoted(((BigDecimal) value).toPlainString());
+				} else {
+					writer.writeValue(value);
+				}
+			};
+		} else if (Number.class.isAssignableFrom(type) || Boolean.class == type) {
+			// 數值及布林值不含須括住的字元
+			return (writer, entity) -> {
+				Object value = getter.apply(entity);
+
+				if (value instanceof Number || value instanceof Boolean) {
+					writer.writeUnquoted(value.toString());
+				} else {
+					writer.writeValue(value);
+				}
+			};
+		} else if (String.class == type) {
+			return (writer, entity) -> {
+				Object value = getter.apply(entity);
+				writer.writeField(value == null ? null : value.toString());
+			};
+		}
+
+		return (writer, entity) -> writer.writeValue(getter.apply(entity));
+	}
+
+	/**
+	 * 依值的實際型別寫入一個欄位
+	 *
+	 * @param value
+	 * @throws IOException
+	 */
+	public void writeValue(Object value) throws IOException {
+		if (value == null) {
+			this.writeUnquoted("");
+		} else if (value instanceof BigDecimal) {
+			this.writeUnquoted(((BigDecimal) value).toPlainString());
+		} else if (value instanceof Number || value instanceof Boolean) {
+			this.writeUnquoted(value.toString());
+		} else if (value instanceof java.sql.Date) {
+			this.writeUnquoted(DATE_FORMATTER.format(((java.sql.Date) value).toLocalDate()));
+		} else if (value instanceof Time) {
+			this.writeUnquoted(TIME_FORMATTER.format(((Time) value).toLocalTime()));
+		} else if (value instanceof Date) {
+			this.writeUnquoted(DATETIME_FORMATTER.format(toLocalDateTime(((Date) value).toInstant())));
+		} else if (value instanceof Calendar) {
+			this.writeUnquoted(DATETIME_FORMATTER.format(toLocalDateTime(((Calendar) value).toInstant())));
+		} else if (value instanceof LocalDate) {
+			this.writeUnquoted(DATE_FORMATTER.format((TemporalAccessor) value));
+		} else if (value instanceof LocalTime) {
+			this.writeUnquoted(TIME_FORMATTER.format((TemporalAccessor) value));
+		} else if (value instanceof LocalDateTime) {
+			this.writeUnquoted(DATETIME_FORMATTER.format((TemporalAccessor) value));
+		} else if (value instanceof Instant) {
+			this.writeUnquoted(DATETIME_FORMATTER.format(toLocalDateTime((Instant) value)));
+		} else if (value instanceof OffsetDateTime) {
+			this.writeUnquoted(DATETIME_FORMATTER.format(toLocalDateTime(((OffsetDateTime) value).toInstant())));
+		} else if (value instanceof ZonedDateTime) {
+			this.writeUnquoted(DATETIME_FORMATTER.format(toLocalDateTime(((ZonedDateTime) value).toInstant())));
+		} else if (value instanceof Collection) {
+			this.writeField(((Collection<?>) value).stream().map(String::valueOf).collect(Collectors.joining(", ")));
+		} else {
+			this.writeField(String.valueOf(value));
+		}
+	}
+
+	/**
+	 * 寫入一個欄位; 可能被當作公式的值前加上單引號, 含分隔字元, 雙引號或換行時以雙引號括住
+	 *
+	 * @param value null 時為空白欄位
+	 * @throws IOException
+	 */
+	public void writeField(String value) throws IOException {
+		if (value == null) {
+			this.writeUnquoted("");
+			return;
+		}
+
+		if (isFormulaLike(value)) {
+			value = FORMULA_ESCAPE + value;
+		}
+
+		for (int i = 0, length = value.length(); i < length; i++) {
+			char c = value.charAt(i);
+
+			if (c == this.delimiter || c == '"' || c == '\r' || c == '\n') {
+				this.writeQuoted(value);
+				return;
+			}
+		}
+
+		this.writeUnquoted(value);
+	}
+
+	/**
+	 * 結束目前的資料列 (CRLF)
+	 *
+	 * @throws IOException
+	 */
+	public void endRow() throws IOException {
+		this.ensureCapacity(2);
+		this.buffer[this.position++] = '\r';
+		this.buffer[this.position++] = '\n';
+		this.rowStart = true;
+	}
+
+	/**
+	 * 寫出緩衝區內容
+	 */
+	@Override
+	public void flush() throws IOException {
+		this.flushBuffer();
+		this.out.flush();
+	}
+
+	/**
+	 * 寫出緩衝區內容並關閉 out
+	 */
+	@Override
+	public void close() throws IOException {
+		this.flushBuffer();
+		this.out.close();
+	}
+
+	/**
+	 * 寫入不須括住的欄位值 (如數值)
+	 *
+	 * @param value
+	 * @throws IOException
+	 */
+	private void writeUnquoted(String value) throws IOException {
+		this.startField();
+		this.append(value);
+	}
+
+	private void writeQuoted(String value) throws IOException {
+		this.startField();
+		this.append('"');
+		int start = 0;
+
+		for (int i = 0, length = value.length(); i < length; i++) {
+			if (value.charAt(i) == '"') {
+				this.append(value, start, i + 1);
+				this.append('"');
+				start = i + 1;
+			}
+		}
+
+		this.append(value, start, value.length());
+		this.append('"');
+	}
+
+	private void startField() throws IOException {
+		if (this.rowStart) {
+			this.rowStart = false;
+		} else {
+			this.append(this.delimiter);
+		}
+	}
+
+	private void append(char c) throws IOException {
+		this.ensureCapacity(1);
+		this.buffer[this.position++] = c;
+	}
+
+	private void append(String value) throws IOException {
+		this.append(value, 0, value.length());
+	}
+
+	private void append(String value, int start, int end) throws IOException {
+		int length = end - start;
+
+		if (length > this.buffer.length) { // 超過緩衝區大小的值直接寫出
+			this.flushBuffer();
+			this.out.write(value, start, length);
+			return;
+		}
+
+		this.ensureCapacity(length);
+		value.getChars(start, end, this.buffer, this.position);
+		this.position += length;
+	}
+
+	private void ensureCapacity(int length) throws IOException {
+		if (this.position + length > this.buffer.length) {
+			this.flushBuffer();
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (this.position > 0) {
+			this.out.write(this.buffer, 0, this.position);
+			this.position = 0;
+		}
+	}
+
+	/**
+	 * 是否為 =, +, -, @ 開頭 (或以單引號跳脫後) 的值
+	 *
+	 * @param value
+	 * @return
+	 */
+	static boolean isFormulaLike(CharSequence value) {
+		int i = 0;
+
+		while (i < value.length() && value.charAt(i) == FORMULA_ESCAPE) {
+			i++;
+		}
+
+		if (i == value.length()) {
+			return false;
+		}
+
+		char c = value.charAt(i);
+		return c == '=' || c == '+' || c == '-' || c == '@';
+	}
+
+	private static LocalDateTime toLocalDateTime(Instant instant) {
+		return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+	}
+}
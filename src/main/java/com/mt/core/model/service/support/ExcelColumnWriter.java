@@ -0,0 +1,21 @@
+package com.mt.core.model.service.support;
+
+import org.apache.poi.ss.usermodel.Row;
+
+/**
+ * Excel 匯出欄位的寫入方式 (每次匯出依欄位型別預先建立, 見 ExcelColumnWriters)
+ *
+ * @author Mueller Tsai
+ */
+@FunctionalInterface
+public interface ExcelColumnWriter {
+
+	/**
+	 * 讀取 entity 的屬性值, 寫入資料列的儲存格
+	 *
+	 * @param row
+	 * @param column 欄位位置
+	 * @param entity
+	 */
+	public void write(Row row, int column, Object entity);
+}
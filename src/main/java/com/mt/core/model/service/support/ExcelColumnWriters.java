@@ -0,0 +1,191 @@
+package com.mt.core.model.service.support;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * 建立 Excel 匯出欄位的寫入方式: 依屬性型別選擇對應的儲存格型別, 數值及布林寫入原生儲存格, 日期時間寫入日期儲存格並套用共用的
+ * CellStyle (每個 workbook 各建立一次), 不逐格格式化字串. 屬性值的實際型別與宣告型別不同時, 依實際型別寫入.
+ * <ul>
+ * <li>數值: 絕對值達 10^15 的 Long, BigInteger, BigDecimal 超過 Excel 數值精確度, 寫為字串; Float 依其十進位表示轉換</li>
+ * <li>java.sql.Date, LocalDate: yyyy-mm-dd</li>
+ * <li>java.sql.Time, LocalTime: hh:mm:ss</li>
+ * <li>其他日期時間: yyyy-mm-dd hh:mm:ss (以系統時區表示)</li>
+ * <li>集合: 各元素以 ", " 連接</li>
+ * <li>其他: 字串</li>
+ * </ul>
+ *
+ * @author Mueller Tsai
+ */
+public class ExcelColumnWriters {
+
+	public static final String DATE_FORMAT = "yyyy-mm-dd";
+
+	public static final String DATETIME_FORMAT = "yyyy-mm-dd hh:mm:ss";
+
+	public static final String TIME_FORMAT = "hh:mm:ss";
+
+	/**
+	 * 可精確以 double 表示的整數上限 (Excel 數值有效位數為 15 位)
+	 */
+	private static final double MAX_EXACT_NUMBER = 1e15;
+
+	private static final double SECONDS_PER_DAY = 86400;
+
+	private final CellStyle dateStyle;
+
+	private final CellStyle dateTimeStyle;
+
+	private final CellStyle timeStyle;
+
+	public ExcelColumnWriters(Workbook workbook) {
+		this.dateStyle = createStyle(workbook, DATE_FORMAT);
+		this.dateTimeStyle = createStyle(workbook, DATETIME_FORMAT);
+		this.timeStyle = createStyle(workbook, TIME_FORMAT);
+	}
+
+	private static CellStyle createStyle(Workbook workbook, String format) {
+		CellStyle style = workbook.createCellStyle();
+		style.setDataFormat(workbook.createDataFormat().getFormat(format));
+		return style;
+	}
+
+	/**
+	 * 建立欄位的寫入方式
+	 *
+	 * @param getter 讀取屬性值
+	 * @param type   屬性型別 (java.util.Date 屬性為 @Temporal 對映的 java.sql 型別)
+	 * @return
+	 */
+	public ExcelColumnWriter create(Function<Object, Object> getter, Class<?> type) {
+		if (Number.class.isAssignableFrom(type)) {
+			return (row, column, entity) -> {
+				Object value = getter.apply(entity);
+
+				if (value instanceof Number) {
+					writeNumber(row.createCell(column), (Number) value);
+				} else {
+					this.writeValue(row.createCell(column), value);
+				}
+			};
+		} else if (type == Boolean.class) {
+			return (row, column, entity) -> {
+				Object value = getter.apply(entity);
+
+				if (value instanceof Boolean) {
+					row.createCell(column).setCellValue((Boolean) value);
+				} else {
+					this.writeValue(row.createCell(column), value);
+				}
+			};
+		} else if (type == java.sql.Date.class || type == LocalDate.class) {
+			return (row, column, entity) -> this.writeTemporal(row.createCell(column), getter.apply(entity),
+					this.dateStyle);
+		} else if (type == Time.class || type == LocalTime.class) {
+			return (row, column, entity) -> this.writeTemporal(row.createCell(column), getter.apply(entity),
+					this.timeStyle);
+		} else if (Date.class.isAssignableFrom(type) || Calendar.class.isAssignableFrom(type)
+				|| type == LocalDateTime.class || type == Instant.class || type == OffsetDateTime.class
+				|| type == ZonedDateTime.class) {
+			return (row, column, entity) -> this.writeTemporal(row.createCell(column), getter.apply(entity),
+					this.dateTimeStyle);
+		}
+
+		return (row, column, entity) -> this.writeValue(row.createCell(column), getter.apply(entity));
+	}
+
+	/**
+	 * 依值的實際型別寫入儲存格 (宣告型別無法決定寫入方式時使用); null 時為空白儲存格
+	 *
+	 * @param cell
+	 * @param value
+	 */
+	public void writeValue(Cell cell, Object value) {
+		if (value == null) {
+			return;
+		} else if (value instanceof Number) {
+			writeNumber(cell, (Number) value);
+		} else if (value instanceof Boolean) {
+			cell.setCellValue((Boolean) value);
+		} else if (value instanceof java.sql.Date || value instanceof LocalDate) {
+			this.writeTemporal(cell, value, this.dateStyle);
+		} else if (value instanceof Time || value instanceof LocalTime) {
+			this.writeTemporal(cell, value, this.timeStyle);
+		} else if (value instanceof Date || value instanceof Calendar || value instanceof LocalDateTime
+				|| value instanceof Instant || value instanceof OffsetDateTime || value instanceof ZonedDateTime) {
+			this.writeTemporal(cell, value, this.dateTimeStyle);
+		} else if (value instanceof Collection) {
+			cell.setCellValue(
+					((Collection<?>) value).stream().map(String::valueOf).collect(Collectors.joining(", ")));
+		} else {
+			cell.setCellValue(String.valueOf(value));
+		}
+	}
+
+	private static void writeNumber(Cell cell, Number value) {
+		if (value instanceof Float) {
+			// 以十進位表示轉換, 避免 0.1f 寫為 0.10000000149011612
+			cell.setCellValue(Double.parseDouble(value.toString()));
+		} else if ((value instanceof Long || value instanceof BigInteger || value instanceof BigDecimal)
+				&& Math.abs(value.doubleValue()) >= MAX_EXACT_NUMBER) {
+			cell.setCellValue(value.toString());
+		} else {
+			cell.setCellValue(value.doubleValue());
+		}
+	}
+
+	private void writeTemporal(Cell cell, Object value, CellStyle style) {
+		if (value == null) {
+			return;
+		}
+
+		if (style == this.timeStyle) {
+			LocalTime time = value instanceof LocalTime ? (LocalTime) value
+					: value instanceof Date ? new Time(((Date) value).getTime()).toLocalTime() : null;
+
+			if (time == null) {
+				this.writeValue(cell, value);
+				return;
+			}
+
+			cell.setCellValue(time.toNanoOfDay() / 1e9 / SECONDS_PER_DAY);
+		} else if (value instanceof Date) {
+			cell.setCellValue((Date) value);
+		} else if (value instanceof LocalDateTime) {
+			cell.setCellValue((LocalDateTime) value);
+		} else if (value instanceof LocalDate) {
+			cell.setCellValue((LocalDate) value);
+		} else if (value instanceof Calendar) {
+			cell.setCellValue((Calendar) value);
+		} else if (value instanceof Instant) {
+			cell.setCellValue(LocalDateTime.ofInstant((Instant) value, ZoneId.systemDefault()));
+		} else if (value instanceof OffsetDateTime) {
+			cell.setCellValue(((OffsetDateTime) value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime());
+		} else if (value instanceof ZonedDateTime) {
+			cell.setCellValue(((ZonedDateTime) value).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime());
+		} else {
+			this.writeValue(cell, value);
+			return;
+		}
+
+		cell.setCellStyle(style);
+	}
+}
@@ -0,0 +1,476 @@
+package com.mt.core.model.service.support;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mt.core.model.exception.ServiceException;
+import com.mt.core.model.vo.ExportJobVO;
+import com.mt.core.model.vo.ExportJobVO.Status;
+
+/**
+ * 背景匯出工作: 提交後立即回傳工作代號, 由固定大小的 thread pool 執行 (佇列容量有限), 匯出內容寫入本機暫存檔, 執行中回報已寫入列數,
+ * 完成後由 transferTo 以 FileChannel.transferTo 輸出檔案內容.
+ * <ul>
+ * <li>每位使用者同時等待或執行中的工作數有上限; 已刪除 (含逾時取消) 但執行緒尚未結束的工作仍計入</li>
+ * <li>完成或失敗的工作保留 retention 時間後刪除 (含暫存檔); 等待或執行超過 timeout 的工作取消並視為失敗</li>
+ * <li>暫存檔寫入暫存目錄下本實體專屬的子目錄 (以檔案鎖標示使用中), 多個實體 (或應用程式) 可共用同一暫存目錄</li>
+ * <li>工作資訊僅保存於記憶體, 啟動時刪除未鎖定 (實體已結束) 的子目錄中先前遺留的暫存檔</li>
+ * </ul>
+ *
+ * @author Mueller Tsai
+ */
+public class ExportJobManager {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExportJobManager.class);
+
+	private static final String FILE_PREFIX = "export-";
+
+	private static final String FILE_SUFFIX = ".tmp";
+
+	private static final String INSTANCE_PREFIX = "instance-";
+
+	private static final String LOCK_FILE = ".lock";
+
+	/**
+	 * 匯出內容的寫入方式
+	 */
+	@FunctionalInterface
+	public interface ExportTask {
+
+		/**
+		 * 將匯出內容寫入 out, 並以 job 回報進度 (out 由 ExportJobManager 關閉)
+		 *
+		 * @param job
+		 * @param out
+		 * @throws Exception
+		 */
+		public void export(ExportJob job, OutputStream out) throws Exception;
+	}
+
+	/**
+	 * 本實體的暫存檔目錄
+	 */
+	private final Path directory;
+
+	/**
+	 * 本實體使用中的檔案鎖 (關閉時釋放)
+	 */
+	private final FileChannel lockChannel;
+
+	private final int maxJobsPerUser;
+
+	private final long retentionMillis;
+
+	private final long timeoutMillis;
+
+	private final ThreadPoolExecutor executor;
+
+	private final ScheduledExecutorService cleaner;
+
+	/**
+	 * 工作代號 與 工作
+	 */
+	private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+	/**
+	 * @param directory       暫存檔目錄 (於其下建立本實體的子目錄)
+	 * @param poolSize        同時執行的工作數
+	 * @param queueCapacity   等待執行的工作數上限
+	 * @param maxJobsPerUser  每位使用者同時等待或執行中的工作數上限
+	 * @param retentionMillis 完成或失敗的工作保留時間
+	 * @param timeoutMillis   工作等待及執行時間上限
+	 * @throws IOException 無法建立暫存檔目錄
+	 */
+	public ExportJobManager(Path directory, int poolSize, int queueCapacity, int maxJobsPerUser, long retentionMillis,
+			long timeoutMillis) throws IOException {
+		Files.createDirectories(directory);
+		deleteOrphanFiles(directory);
+
+		this.directory = Files.createTempDirectory(directory, INSTANCE_PREFIX);
+		this.lockChannel = FileChannel.open(this.directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE);
+		this.lockChannel.lock();
+		this.maxJobsPerUser = maxJobsPerUser;
+		this.retentionMillis = retentionMillis;
+		this.timeoutMillis = timeoutMillis;
+
+		AtomicInteger seq = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "export-job-" + seq.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+
+		this.cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "export-job-cleaner");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		long interval = Math.max(1000, Math.min(retentionMillis, timeoutMillis) / 2);
+		this.cleaner.scheduleWithFixedDelay(this::cleanup, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 提交匯出工作
+	 *
+	 * @param owner    提交的使用者
+	 * @param fileName 下載檔名
+	 * @param task
+	 * @return 工作狀態 (含工作代號)
+	 * @throws ServiceException 使用者的工作數已達上限, 或等待執行的工作已滿
+	 */
+	public synchronized ExportJobVO submit(String owner, String fileName, ExportTask task) throws ServiceException {
+		long active = this.jobs.values().stream().filter(job -> job.owner.equals(owner) && !job.isFinished()).count();
+
+		if (active >= this.maxJobsPerUser) {
+			throw new ServiceException("匯出工作數已達上限 (" + this.maxJobsPerUser + "), 請待執行中的工作完成");
+		}
+
+		ExportJob job = new ExportJob(UUID.randomUUID().toString(), owner, fileName);
+		this.jobs.put(job.jobId, job);
+
+		try {
+			job.future = this.executor.submit(() -> this.run(job, task));
+		} catch (RejectedExecutionException e) {
+			this.jobs.remove(job.jobId);
+			throw new ServiceException("等待執行的匯出工作已滿, 請稍後再試");
+		}
+
+		return job.toVO();
+	}
+
+	/**
+	 * 查詢工作狀態
+	 *
+	 * @param owner
+	 * @param jobId
+	 * @return
+	 * @throws ServiceException 工作不存在或不屬於 owner
+	 */
+	public ExportJobVO getJob(String owner, String jobId) throws ServiceException {
+		return this.findJob(owner, jobId).toVO();
+	}
+
+	/**
+	 * 將完成的匯出檔內容寫入 target (以 FileChannel.transferTo 傳輸, 由作業系統直接複製檔案內容時不經應用程式緩衝區)
+	 *
+	 * @param owner
+	 * @param jobId
+	 * @param target
+	 * @return 寫入的位元組數
+	 * @throws ServiceException 工作不存在或尚未完成
+	 * @throws IOException
+	 */
+	public long transferTo(String owner, String jobId, WritableByteChannel target) throws ServiceException, IOException {
+		ExportJob job = this.findJob(owner, jobId);
+
+		if (job.status != Status.COMPLETED) {
+			throw new ServiceException("匯出工作尚未完成");
+		}
+
+		try (FileChannel channel = FileChannel.open(job.file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+
+			while (position < size) {
+				position += channel.transferTo(position, size - position, target);
+			}
+
+			return size;
+		}
+	}
+
+	/**
+	 * 刪除工作 (及暫存檔); 等待或執行中的工作取消執行 (執行緒結束前仍計入使用者的工作數)
+	 *
+	 * @param owner
+	 * @param jobId
+	 * @throws ServiceException 工作不存在或不屬於 owner
+	 */
+	public void remove(String owner, String jobId) throws ServiceException {
+		this.remove(this.findJob(owner, jobId));
+	}
+
+	/**
+	 * 刪除逾期的工作: 完成或失敗超過 retention 時間的工作刪除, 等待或執行超過 timeout 的工作取消
+	 */
+	public void cleanup() {
+		long now = System.currentTimeMillis();
+
+		for (Iterator<ExportJob> iterator = this.jobs.values().iterator(); iterator.hasNext();) {
+			ExportJob job = iterator.next();
+
+			if (job.removed) {
+				continue;
+			}
+
+			if (job.isFinished() ? now - job.finishTime.getTime() > this.retentionMillis
+					: now - job.submitTime.getTime() > this.timeoutMillis) {
+				if (!job.isFinished()) {
+					logger.warn("匯出工作 {} 逾時, 取消執行", job.jobId);
+				}
+
+				this.remove(job);
+			}
+		}
+	}
+
+	/**
+	 * 停止執行所有工作, 並刪除暫存檔及本實體的子目錄
+	 */
+	public void shutdown() {
+		this.cleaner.shutdownNow();
+		this.executor.shutdownNow();
+		this.jobs.values().forEach(this::remove);
+
+		try {
+			this.executor.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		try {
+			this.lockChannel.close();
+			deleteDirectory(this.directory);
+		} catch (IOException e) {
+			logger.warn("無法刪除匯出暫存目錄 {}", this.directory, e);
+		}
+	}
+
+	private ExportJob findJob(String owner, String jobId) throws ServiceException {
+		ExportJob job = jobId == null ? null : this.jobs.get(jobId);
+
+		if (job == null || job.removed || !job.owner.equals(owner)) {
+			throw new ServiceException("匯出工作不存在或已逾期刪除");
+		}
+
+		return job;
+	}
+
+	private void run(ExportJob job, ExportTask task) {
+		synchronized (job) {
+			if (job.removed) {
+				this.jobs.remove(job.jobId);
+				return;
+			}
+
+			job.status = Status.RUNNING;
+		}
+
+		try {
+			job.file = Files.createTempFile(this.directory, FILE_PREFIX, FILE_SUFFIX);
+
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(job.file))) {
+				task.export(job, out);
+			}
+
+			job.size = Files.size(job.file);
+			job.finish(Status.COMPLETED, null);
+		} catch (Exception e) {
+			if (!job.removed) {
+				logger.error("匯出工作 {} 失敗", job.jobId, e);
+			}
+
+			job.finish(Status.FAILED, e.getCause() == null ? e.getMessage()
+					: String.format("%s (%s)", e.getMessage(), e.getCause().getMessage()));
+			deleteFile(job);
+		}
+
+		// 執行期間已刪除的工作: 執行緒結束後才不再計入使用者的工作數
+		synchronized (job) {
+			if (job.removed) {
+				this.jobs.remove(job.jobId);
+				deleteFile(job);
+			}
+		}
+	}
+
+	private void remove(ExportJob job) {
+		boolean running;
+
+		synchronized (job) {
+			job.removed = true;
+			running = job.status == Status.RUNNING;
+		}
+
+		// 執行中的工作由執行緒結束時移除
+		if (!running) {
+			this.jobs.remove(job.jobId);
+		}
+
+		if (job.future != null && !job.isFinished()) {
+			job.future.cancel(true);
+		}
+
+		if (job.isFinished()) {
+			deleteFile(job);
+		}
+	}
+
+	private static void deleteFile(ExportJob job) {
+		Path file = job.file;
+
+		if (file == null) {
+			return;
+		}
+
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			logger.warn("無法刪除匯出暫存檔 {}", file, e);
+		}
+	}
+
+	/**
+	 * 刪除已結束的實體遺留的子目錄 (檔案鎖可取得者); 其他實體使用中的子目錄不刪除
+	 *
+	 * @param directory
+	 * @throws IOException
+	 */
+	private static void deleteOrphanFiles(Path directory) throws IOException {
+		try (DirectoryStream<Path> instances = Files.newDirectoryStream(directory, INSTANCE_PREFIX + "*")) {
+			for (Path instance : instances) {
+				// 無檔案鎖的子目錄為建立中的實體
+				if (!Files.isDirectory(instance) || !Files.exists(instance.resolve(LOCK_FILE))) {
+					continue;
+				}
+
+				try (FileChannel channel = FileChannel.open(instance.resolve(LOCK_FILE), StandardOpenOption.WRITE);
+						FileLock lock = channel.tryLock()) {
+					if (lock == null) {
+						continue;
+					}
+				} catch (OverlappingFileLockException e) {
+					// 同一 JVM 中的其他實體使用中
+					continue;
+				} catch (IOException e) {
+					logger.warn("無法檢查匯出暫存目錄 {}", instance, e);
+					continue;
+				}
+
+				deleteDirectory(instance);
+			}
+		}
+	}
+
+	private static void deleteDirectory(Path directory) throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		}
+
+		Files.deleteIfExists(directory);
+	}
+
+	/**
+	 * 匯出工作: ExportTask 以 setTotalRows, setRowsWritten 回報進度
+	 */
+	public static final class ExportJob {
+
+		private final String jobId;
+
+		private final String owner;
+
+		private final String fileName;
+
+		private final Date submitTime = new Date();
+
+		private volatile Status status = Status.QUEUED;
+
+		private volatile long totalRows = -1;
+
+		private volatile long rowsWritten;
+
+		private volatile Date finishTime;
+
+		private volatile String message;
+
+		private volatile Path file;
+
+		private volatile long size;
+
+		private volatile boolean removed;
+
+		private volatile Future<?> future;
+
+		private ExportJob(String jobId, String owner, String fileName) {
+			this.jobId = jobId;
+			this.owner = owner;
+			this.fileName = fileName;
+		}
+
+		public String getJobId() {
+			return this.jobId;
+		}
+
+		/**
+		 * 設定總列數
+		 *
+		 * @param totalRows
+		 */
+		public void setTotalRows(long totalRows) {
+			this.totalRows = totalRows;
+		}
+
+		/**
+		 * 設定已寫入列數
+		 *
+		 * @param rowsWritten
+		 */
+		public void setRowsWritten(long rowsWritten) {
+			this.rowsWritten = rowsWritten;
+		}
+
+		private boolean isFinished() {
+			return this.status == Status.COMPLETED || this.status == Status.FAILED;
+		}
+
+		private void finish(Status status, String message) {
+			this.finishTime = new Date();
+			this.message = message;
+			this.status = status;
+		}
+
+		private ExportJobVO toVO() {
+			ExportJobVO vo = new ExportJobVO();
+			vo.setJobId(this.jobId);
+			vo.setFileName(this.fileName);
+			vo.setStatus(this.status);
+			vo.setRowsWritten(this.rowsWritten);
+			vo.setTotalRows(this.totalRows);
+			vo.setSize(this.size);
+			vo.setSubmitTime(this.submitTime);
+			vo.setFinishTime(this.finishTime);
+			vo.setMessage(this.message);
+			return vo;
+		}
+	}
+}
@@ -0,0 +1,354 @@
+package com.mt.core.model.service.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.mt.core.model.vo.FieldValidationErrorVO;
+import com.mt.core.model.vo.ImportResultVO;
+
+/**
+ * 匯入管線: 解析, 驗證, 寫入三個階段同時執行, 以容量有限的佇列連接 (記憶體用量不隨檔案大小增加).
+ * <ul>
+ * <li>解析 (執行緒 import-parse-N): 逐列讀取匯入檔, 第一列為標題列</li>
+ * <li>驗證 (執行緒 import-validate-N): 依標題列建立 RowMapper, 將資料列轉換為 entity 並驗證, 每 batchSize 筆送出一批</li>
+ * <li>寫入 (呼叫端執行緒, 可於交易內): 依序寫入各批</li>
+ * </ul>
+ * 有錯誤的資料列不寫入; 未設定 skipInvalidRows 時, 發生錯誤後不再送出後續的批次 (仍繼續驗證以回報錯誤). 錯誤列數達 maxErrorRows
+ * 時停止讀取. 任一階段失敗時, 停止其他階段並拋出該例外. 停止讀取時以 {@link RowSource#close()} 中止阻塞於讀取的解析階段, 待解析及驗證
+ * 執行緒結束後才返回, 返回後不再讀取匯入檔.
+ *
+ * @param <E> entity 型別
+ * @author Mueller Tsai
+ */
+public class ImportPipeline<E> {
+
+	private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+	/**
+	 * 佇列結束標記
+	 */
+	private static final Object END = new Object();
+
+	/**
+	 * 逐列讀取匯入檔
+	 */
+	@FunctionalInterface
+	public interface RowSource {
+
+		/**
+		 * 依序以各列呼叫 handler
+		 *
+		 * @param handler
+		 * @throws Exception
+		 */
+		public void read(RowHandler handler) throws Exception;
+
+		/**
+		 * 停止讀取時呼叫 (於寫入階段的執行緒), 使阻塞於讀取 (interrupt 無法中止) 的 read 結束, 如關閉輸入串流
+		 *
+		 * @throws Exception
+		 */
+		public default void close() throws Exception {
+		}
+	}
+
+	/**
+	 * 處理讀取的一列
+	 */
+	@FunctionalInterface
+	public interface RowHandler {
+
+		/**
+		 * @param rowNumber 列號 (自 1 起)
+		 * @param values    各欄位值 (空白儲存格為 null 或空字串)
+		 * @throws Exception
+		 */
+		public void row(int rowNumber, List<String> values) throws Exception;
+	}
+
+	/**
+	 * 依標題列建立資料列的轉換方式
+	 */
+	@FunctionalInterface
+	public interface HeaderMapper<E> {
+
+		/**
+		 * @param header 標題列各欄位值
+		 * @return
+		 * @throws Exception 標題列缺少必要欄位等
+		 */
+		public RowMapper<E> map(List<String> header) throws Exception;
+	}
+
+	/**
+	 * 將資料列轉換為 entity 並驗證
+	 */
+	@FunctionalInterface
+	public interface RowMapper<E> {
+
+		/**
+		 * @param values 各欄位值
+		 * @param errors 驗證錯誤 (加入此 list)
+		 * @return 略過的資料列 (如空白列) 為 null
+		 */
+		public E map(List<String> values, List<FieldValidationErrorVO> errors);
+	}
+
+	/**
+	 * 寫入一批 entity
+	 */
+	@FunctionalInterface
+	public interface BatchWriter<E> {
+
+		/**
+		 * @param batch
+		 * @return 寫入筆數
+		 * @throws Exception
+		 */
+		public int write(List<E> batch) throws Exception;
+	}
+
+	private final int batchSize;
+
+	private final int queueCapacity;
+
+	private final int maxErrorRows;
+
+	private final boolean skipInvalidRows;
+
+	/**
+	 * @param batchSize       每批筆數
+	 * @param queueCapacity   解析與驗證之間的佇列容量 (列數); 驗證與寫入之間的佇列容量為 2 批
+	 * @param maxErrorRows    錯誤列數上限
+	 * @param skipInvalidRows 有錯誤的資料列略過, 仍寫入其他資料列
+	 */
+	public ImportPipeline(int batchSize, int queueCapacity, int maxErrorRows, boolean skipInvalidRows) {
+		this.batchSize = batchSize;
+		this.queueCapacity = queueCapacity;
+		this.maxErrorRows = maxErrorRows;
+		this.skipInvalidRows = skipInvalidRows;
+	}
+
+	/**
+	 * 執行匯入
+	 *
+	 * @param source
+	 * @param headerMapper
+	 * @param writer
+	 * @return 讀取列數, 寫入筆數 及 各列的驗證錯誤
+	 * @throws Exception 任一階段失敗
+	 */
+	public ImportResultVO run(RowSource source, HeaderMapper<E> headerMapper, BatchWriter<E> writer)
+			throws Exception {
+		Run run = new Run();
+		int seq = SEQUENCE.incrementAndGet();
+		Thread parser = new Thread(() -> run.parse(source), "import-parse-" + seq);
+		Thread validator = new Thread(() -> run.validate(headerMapper), "import-validate-" + seq);
+		run.parser = parser;
+		run.validator = validator;
+		parser.setDaemon(true);
+		validator.setDaemon(true);
+		parser.start();
+		validator.start();
+
+		try {
+			run.write(writer);
+		} catch (Exception | Error e) {
+			run.fail(e);
+		} finally {
+			parser.interrupt();
+			validator.interrupt();
+			run.await(source);
+		}
+
+		Throwable failure = run.failure.get();
+
+		if (failure instanceof Exception) {
+			throw (Exception) failure;
+		} else if (failure != null) {
+			throw (Error) failure;
+		}
+
+		ImportResultVO result = new ImportResultVO();
+		result.setRows(run.rows);
+		result.setInserted(run.inserted);
+		result.setErrors(run.errors);
+		result.setErrorLimitReached(run.errorLimitReached);
+
+		return result;
+	}
+
+	/**
+	 * 一次匯入的狀態
+	 */
+	private final class Run {
+
+		private final BlockingQueue<Object> parsedRows = new ArrayBlockingQueue<>(ImportPipeline.this.queueCapacity);
+
+		private final BlockingQueue<Object> batches = new ArrayBlockingQueue<>(2);
+
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		private Thread parser;
+
+		private Thread validator;
+
+		/**
+		 * 以下由驗證階段寫入, 寫入階段於收到結束標記後讀取
+		 */
+		private volatile int rows;
+
+		private volatile boolean errorLimitReached;
+
+		/**
+		 * 已停止讀取 (錯誤列數達上限或任一階段失敗)
+		 */
+		private volatile boolean stopped;
+
+		private final Map<Integer, List<FieldValidationErrorVO>> errors = Collections.synchronizedMap(new TreeMap<>());
+
+		private int inserted;
+
+		void parse(RowSource source) {
+			try {
+				source.read((rowNumber, values) -> this.parsedRows.put(new ParsedRow(rowNumber, values)));
+				this.parsedRows.put(END);
+			} catch (Exception | Error e) {
+				// 驗證階段已停止讀取時, 中斷造成的例外不視為失敗
+				if (!this.stopped) {
+					this.fail(e);
+				}
+			}
+		}
+
+		void validate(HeaderMapper<E> headerMapper) {
+			try {
+				RowMapper<E> mapper = null;
+				List<E> batch = new ArrayList<>(ImportPipeline.this.batchSize);
+				boolean writing = true;
+
+				for (Object item = this.parsedRows.take(); item != END; item = this.parsedRows.take()) {
+					ParsedRow row = (ParsedRow) item;
+
+					if (mapper == null) {
+						mapper = headerMapper.map(row.values);
+						continue;
+					}
+
+					List<FieldValidationErrorVO> rowErrors = new ArrayList<>();
+					E entity = mapper.map(row.values, rowErrors);
+
+					if (entity == null && rowErrors.isEmpty()) {
+						continue;
+					}
+
+					this.rows++;
+
+					if (!rowErrors.isEmpty()) {
+						this.errors.put(row.rowNumber, rowErrors);
+						writing = writing && ImportPipeline.this.skipInvalidRows;
+
+						if (this.errors.size() >= ImportPipeline.this.maxErrorRows) {
+							this.errorLimitReached = true;
+							this.stopped = true;
+							this.parser.interrupt();
+							break;
+						}
+					} else if (writing) {
+						batch.add(entity);
+
+						if (batch.size() == ImportPipeline.this.batchSize) {
+							this.batches.put(batch);
+							batch = new ArrayList<>(ImportPipeline.this.batchSize);
+						}
+					}
+				}
+
+				if (writing && !batch.isEmpty()) {
+					this.batches.put(batch);
+				}
+
+				this.batches.put(END);
+			} catch (InterruptedException e) {
+				// 寫入階段已失敗
+			} catch (Exception | Error e) {
+				this.fail(e);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		void write(BatchWriter<E> writer) throws Exception {
+			while (this.failure.get() == null) {
+				Object item = this.batches.poll(100, TimeUnit.MILLISECONDS);
+
+				if (item == END) {
+					return;
+				} else if (item != null) {
+					this.inserted += writer.write((List<E>) item);
+				}
+			}
+		}
+
+		/**
+		 * 等待解析及驗證執行緒結束; 已停止讀取時先關閉 source
+		 *
+		 * @param source
+		 */
+		void await(RowSource source) {
+			boolean interrupted = false;
+
+			if (this.stopped && this.parser.isAlive()) {
+				try {
+					source.close();
+				} catch (Exception e) {
+					// 解析階段以 stopped 忽略讀取失敗, 關閉失敗時仍等待其結束
+				}
+			}
+
+			for (Thread thread : new Thread[] { this.parser, this.validator }) {
+				while (thread.isAlive()) {
+					try {
+						thread.join();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+			}
+
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		void fail(Throwable e) {
+			if (this.failure.compareAndSet(null, e)) {
+				this.stopped = true;
+				this.parser.interrupt();
+				this.validator.interrupt();
+			}
+		}
+	}
+
+	/**
+	 * 解析的一列
+	 */
+	private static final class ParsedRow {
+
+		private final int rowNumber;
+
+		private final List<String> values;
+
+		ParsedRow(int rowNumber, List<String> values) {
+			this.rowNumber = rowNumber;
+			this.values = values;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.mt.core.model.service.support;
+
+/**
+ * Entity 與 DTO 之間的物件對映策略 (AbstractService 的 mapEntityToDTO/mapDTOToEntity 使用)
+ *
+ * @author Mueller Tsai
+ */
+public interface MappingStrategy {
+
+	/**
+	 * 將來源物件對映為目的型別的新物件
+	 *
+	 * @param <D>
+	 * @param source          來源物件 (非 null)
+	 * @param destinationType 目的型別
+	 * @return
+	 */
+	public <D> D map(Object source, Class<D> destinationType);
+
+	/**
+	 * 於呼叫端執行緒讀取對映 source 時會讀取的屬性 (載入其中未載入的 lazy 關聯), 之後於其他執行緒對映 source 不會存取
+	 * persistence context
+	 *
+	 * @param source          來源物件 (非 null)
+	 * @param destinationType 目的型別
+	 * @return 無法確定對映會讀取的屬性時為 false, 須於呼叫端執行緒對映
+	 */
+	public default boolean preload(Object source, Class<?> destinationType) {
+		return false;
+	}
+}
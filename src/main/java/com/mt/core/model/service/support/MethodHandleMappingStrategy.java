@@ -0,0 +1,347 @@
+package com.mt.core.model.service.support;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.hibernate.proxy.HibernateProxy;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeMap;
+import org.modelmapper.config.Configuration;
+import org.modelmapper.spi.Mapping;
+import org.modelmapper.spi.PropertyInfo;
+import org.modelmapper.spi.PropertyMapping;
+
+/**
+ * 以 MethodHandle 對映物件: 每組 (來源型別, 目的型別) 首次對映時, 取 ModelMapper 的 TypeMap (屬性比對結果, 含 ambiguity
+ * 設定), 建立 getter/setter MethodHandle 的對映計畫, 之後直接以計畫複製屬性值, 不再經 ModelMapper 比對及轉換.
+ * <p>
+ * 計畫僅包含 ModelMapper 會原值指定的屬性 (目的型別可由來源型別指定, 且非陣列, 集合, Map 或 Optional); 來源可為多層屬性 (如
+ * cat.name 對映 catName), 中間屬性為 null 時視同值為 null. 值為 null 時依 skip-null 設定略過或指定 null.
+ * <p>
+ * 有下列情形時, 該組型別改以 ModelMapper 對映:
+ * <ul>
+ * <li>須轉換型別或巢狀對映 (如 Cat 對映 CatDTO) 的屬性</li>
+ * <li>TypeMap 或屬性設定了 converter, condition 或 provider</li>
+ * <li>ModelMapper 設定了自訂 converter, provider, property condition 或 deep copy</li>
+ * <li>來源為 Hibernate proxy</li>
+ * </ul>
+ * 以計畫對映的型別可 preload: 依計畫讀取各屬性 (多層屬性的中間屬性為 lazy 關聯時於此載入), 對映僅讀取已載入的值.
+ *
+ * @author Mueller Tsai
+ */
+public class MethodHandleMappingStrategy extends ModelMapperMappingStrategy {
+
+	/**
+	 * 無法以 MethodHandle 對映 (改以 ModelMapper 對映) 的計畫
+	 */
+	private static final Plan UNSUPPORTED = new Plan(null, null, false);
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	/**
+	 * 來源型別 與 (目的型別 與 對映計畫)
+	 */
+	private final Map<Class<?>, Map<Class<?>, Plan>> plans = new ConcurrentHashMap<>();
+
+	/**
+	 * ModelMapper 預設的 converter 類別 (判斷是否有自訂 converter)
+	 */
+	private final List<Class<?>> defaultConverters;
+
+	public MethodHandleMappingStrategy(ModelMapper modelMapper) {
+		super(modelMapper);
+		this.defaultConverters = converterClasses(new ModelMapper().getConfiguration());
+	}
+
+	@Override
+	public <D> D map(Object source, Class<D> destinationType) {
+		if (source instanceof HibernateProxy) {
+			return super.map(source, destinationType);
+		}
+
+		Plan plan = this.getPlan(source.getClass(), destinationType);
+
+		return plan == UNSUPPORTED ? super.map(source, destinationType) : destinationType.cast(plan.map(source));
+	}
+
+	@Override
+	public boolean preload(Object source, Class<?> destinationType) {
+		if (source instanceof HibernateProxy) {
+			return false;
+		}
+
+		Plan plan = this.getPlan(source.getClass(), destinationType);
+
+		if (plan == UNSUPPORTED) {
+			return false;
+		}
+
+		plan.read(source);
+		return true;
+	}
+
+	/**
+	 * 是否以 MethodHandle 對映 (測試及診斷用; 尚未建立計畫時建立)
+	 *
+	 * @param sourceType
+	 * @param destinationType
+	 * @return
+	 */
+	public boolean isSupported(Class<?> sourceType, Class<?> destinationType) {
+		return this.getPlan(sourceType, destinationType) != UNSUPPORTED;
+	}
+
+	private Plan getPlan(Class<?> sourceType, Class<?> destinationType) {
+		return this.plans.computeIfAbsent(sourceType, type -> new ConcurrentHashMap<>())
+				.computeIfAbsent(destinationType, type -> this.createPlan(sourceType, type));
+	}
+
+	private Plan createPlan(Class<?> sourceType, Class<?> destinationType) {
+		Configuration configuration = this.modelMapper.getConfiguration();
+
+		if (configuration.getProvider() != null || configuration.getPropertyCondition() != null
+				|| configuration.isDeepCopyEnabled() || !this.defaultConverters.equals(converterClasses(configuration))) {
+			return UNSUPPORTED;
+		}
+
+		try {
+			TypeMap<?, ?> typeMap = this.getTypeMap(sourceType, destinationType);
+
+			if (typeMap.getConverter() != null || typeMap.getPreConverter() != null
+					|| typeMap.getPostConverter() != null || typeMap.getCondition() != null
+					|| typeMap.getProvider() != null || typeMap.getPropertyCondition() != null
+					|| typeMap.getPropertyConverter() != null || typeMap.getPropertyProvider() != null) {
+				return UNSUPPORTED;
+			}
+
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			Constructor<?> constructor = destinationType.getDeclaredConstructor();
+			constructor.setAccessible(true);
+
+			List<PropertyCopy> properties = new ArrayList<>();
+
+			for (Mapping mapping : typeMap.getMappings()) {
+				if (mapping.isSkipped()) {
+					continue;
+				}
+
+				PropertyCopy property = createPropertyCopy(lookup, mapping);
+
+				if (property == null) {
+					return UNSUPPORTED;
+				}
+
+				properties.add(property);
+			}
+
+			return new Plan(lookup.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class)),
+					properties.toArray(new PropertyCopy[0]), configuration.isSkipNullEnabled());
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// 無 no-arg constructor, 無法存取的屬性, ModelMapper 無法建立 TypeMap 等
+			return UNSUPPORTED;
+		}
+	}
+
+	/**
+	 * 取得 (或建立) ModelMapper 的 TypeMap; ModelMapper 對映時同樣會建立
+	 *
+	 * @param sourceType
+	 * @param destinationType
+	 * @return
+	 */
+	private TypeMap<?, ?> getTypeMap(Class<?> sourceType, Class<?> destinationType) {
+		TypeMap<?, ?> typeMap = this.modelMapper.getTypeMap(sourceType, destinationType);
+
+		if (typeMap == null) {
+			try {
+				typeMap = this.modelMapper.createTypeMap(sourceType, destinationType);
+			} catch (RuntimeException e) {
+				// 其他執行緒已建立
+				typeMap = this.modelMapper.getTypeMap(sourceType, destinationType);
+
+				if (typeMap == null) {
+					throw e;
+				}
+			}
+		}
+
+		return typeMap;
+	}
+
+	/**
+	 * 建立屬性的複製方式
+	 *
+	 * @param lookup
+	 * @param mapping
+	 * @return 無法原值複製時為 null
+	 * @throws IllegalAccessException
+	 */
+	private static PropertyCopy createPropertyCopy(MethodHandles.Lookup lookup, Mapping mapping)
+			throws IllegalAccessException {
+		if (!(mapping instanceof PropertyMapping) || mapping.getConverter() != null || mapping.getCondition() != null
+				|| mapping.getProvider() != null || mapping.getDestinationProperties().size() != 1) {
+			return null;
+		}
+
+		List<? extends PropertyInfo> sourceProperties = ((PropertyMapping) mapping).getSourceProperties();
+		PropertyInfo destinationProperty = mapping.getLastDestinationProperty();
+		Class<?> sourceType = ClassUtils.primitiveToWrapper(sourceProperties.get(sourceProperties.size() - 1).getType());
+		Class<?> destinationType = destinationProperty.getType();
+
+		// 同 ModelMapper AssignableConverter: 可指定的型別原值指定
+		if (!ClassUtils.primitiveToWrapper(destinationType).isAssignableFrom(sourceType) || sourceType.isArray()
+				|| Collection.class.isAssignableFrom(sourceType) || Map.class.isAssignableFrom(sourceType)
+				|| Optional.class.isAssignableFrom(sourceType)) {
+			return null;
+		}
+
+		MethodHandle[] getters = new MethodHandle[sourceProperties.size()];
+
+		for (int i = 0; i < getters.length; i++) {
+			MethodHandle getter = unreflect(lookup, sourceProperties.get(i).getMember(), true);
+
+			if (getter == null) {
+				return null;
+			}
+
+			getters[i] = getter.asType(GETTER_TYPE);
+		}
+
+		MethodHandle setter = unreflect(lookup, destinationProperty.getMember(), false);
+
+		return setter == null ? null
+				: new PropertyCopy(destinationProperty.getName(), getters, setter.asType(SETTER_TYPE),
+						destinationType.isPrimitive());
+	}
+
+	private static MethodHandle unreflect(MethodHandles.Lookup lookup, Member member, boolean getter)
+			throws IllegalAccessException {
+		if (member instanceof Method) {
+			Method method = (Method) member;
+			method.setAccessible(true);
+			return lookup.unreflect(method);
+		} else if (member instanceof Field) {
+			Field field = (Field) member;
+			field.setAccessible(true);
+			return getter ? lookup.unreflectGetter(field) : lookup.unreflectSetter(field);
+		}
+
+		return null;
+	}
+
+	private static List<Class<?>> converterClasses(Configuration configuration) {
+		return configuration.getConverters().stream().map(Object::getClass).collect(Collectors.toList());
+	}
+
+	/**
+	 * 一組型別的對映計畫
+	 */
+	private static final class Plan {
+
+		private final MethodHandle constructor;
+
+		private final PropertyCopy[] properties;
+
+		private final boolean skipNull;
+
+		Plan(MethodHandle constructor, PropertyCopy[] properties, boolean skipNull) {
+			this.constructor = constructor;
+			this.properties = properties;
+			this.skipNull = skipNull;
+		}
+
+		Object map(Object source) {
+			try {
+				Object destination = (Object) this.constructor.invokeExact();
+
+				for (PropertyCopy property : this.properties) {
+					property.copy(source, destination, this.skipNull);
+				}
+
+				return destination;
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		void read(Object source) {
+			try {
+				for (PropertyCopy property : this.properties) {
+					property.read(source);
+				}
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * 屬性複製: 依序呼叫來源的 getter (多層屬性), 再呼叫目的的 setter
+	 */
+	private static final class PropertyCopy {
+
+		private final String name;
+
+		private final MethodHandle[] getters;
+
+		private final MethodHandle setter;
+
+		/**
+		 * 目的屬性為 primitive (null 值不指定)
+		 */
+		private final boolean primitive;
+
+		PropertyCopy(String name, MethodHandle[] getters, MethodHandle setter, boolean primitive) {
+			this.name = name;
+			this.getters = getters;
+			this.setter = setter;
+			this.primitive = primitive;
+		}
+
+		void copy(Object source, Object destination, boolean skipNull) throws Throwable {
+			Object value = this.read(source);
+
+			if (value == null && (skipNull || this.primitive)) {
+				return;
+			}
+
+			try {
+				this.setter.invokeExact(destination, value);
+			} catch (ClassCastException e) {
+				throw new IllegalStateException("屬性 " + this.name + " 對映失敗", e);
+			}
+		}
+
+		/**
+		 * 依序呼叫來源的 getter, 中間屬性為 null 時為 null
+		 */
+		Object read(Object source) throws Throwable {
+			Object value = source;
+
+			for (int i = 0; i < this.getters.length && value != null; i++) {
+				value = (Object) this.getters[i].invokeExact(value);
+			}
+
+			return value;
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.mt.core.model.service.support;
+
+import org.modelmapper.ModelMapper;
+
+/**
+ * 以 ModelMapper 對映物件
+ *
+ * @author Mueller Tsai
+ */
+public class ModelMapperMappingStrategy implements MappingStrategy {
+
+	protected final ModelMapper modelMapper;
+
+	public ModelMapperMappingStrategy(ModelMapper modelMapper) {
+		this.modelMapper = modelMapper;
+	}
+
+	@Override
+	public <D> D map(Object source, Class<D> destinationType) {
+		return this.modelMapper.map(source, destinationType);
+	}
+}
@@ -0,0 +1,158 @@
+package com.mt.core.model.service.support;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import com.mt.core.model.service.support.ImportPipeline.RowHandler;
+
+/**
+ * 以 POI 的 SAX 事件 API (XSSFReader) 逐列讀取 xlsx 第一個工作表, 不建立 workbook 物件模型 (共用字串表仍載入記憶體). 儲存格值不依顯示格式:
+ * 數值為原始值 (不使用科學記號), 日期格式的數值轉換為 yyyy-MM-dd, yyyy-MM-dd HH:mm:ss 或 HH:mm:ss (僅時間).
+ *
+ * @author Mueller Tsai
+ */
+public final class XlsxSheetReader {
+
+	private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+	private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+	private XlsxSheetReader() {
+	}
+
+	/**
+	 * 讀取 xlsx 檔第一個工作表的各列 (無資料的列不呼叫 handler)
+	 *
+	 * @param file
+	 * @param handler
+	 * @throws Exception 檔案格式錯誤, 或 handler 拋出的例外
+	 */
+	public static void read(Path file, RowHandler handler) throws Exception {
+		OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+
+		try {
+			XSSFReader reader = new XSSFReader(pkg);
+			Iterator<InputStream> sheets = reader.getSheetsData();
+
+			if (!sheets.hasNext()) {
+				return;
+			}
+
+			try (InputStream sheet = sheets.next()) {
+				XMLReader parser = XMLHelper.newXMLReader();
+				parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(),
+						new ReadOnlySharedStringsTable(pkg, false), new RowCollector(handler), new RawValueFormatter(),
+						false));
+				parser.parse(new InputSource(sheet));
+			} catch (HandlerException e) {
+				throw e.getCause();
+			}
+		} finally {
+			// 唯讀開啟, 不寫回檔案
+			pkg.revert();
+		}
+	}
+
+	/**
+	 * 收集一列的儲存格值, 列結束時交由 handler 處理
+	 */
+	private static final class RowCollector implements SheetContentsHandler {
+
+		private final RowHandler handler;
+
+		private List<String> values;
+
+		RowCollector(RowHandler handler) {
+			this.handler = handler;
+		}
+
+		@Override
+		public void startRow(int rowNum) {
+			this.values = new ArrayList<>();
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			try {
+				this.handler.row(rowNum + 1, this.values);
+			} catch (Exception e) {
+				throw new HandlerException(e);
+			}
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+			int column = cellReference == null ? this.values.size() : new CellReference(cellReference).getCol();
+
+			// 略過的空白儲存格
+			while (this.values.size() < column) {
+				this.values.add(null);
+			}
+
+			this.values.add(formattedValue);
+		}
+	}
+
+	/**
+	 * 數值儲存格依原始值轉換為字串
+	 */
+	private static final class RawValueFormatter extends DataFormatter {
+
+		@Override
+		public String formatRawCellContents(double value, int formatIndex, String formatString,
+				boolean use1904Windowing) {
+			if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+				LocalDateTime dateTime = DateUtil.getLocalDateTime(value, use1904Windowing, true);
+
+				if (value < 1) {
+					return TIME_FORMATTER.format(dateTime);
+				}
+
+				return dateTime.toLocalTime().equals(LocalTime.MIDNIGHT) ? DATE_FORMATTER.format(dateTime)
+						: DATETIME_FORMATTER.format(dateTime);
+			}
+
+			return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+		}
+	}
+
+	/**
+	 * 包裝 handler 拋出的例外, 以穿過 SAX 解析
+	 */
+	private static final class HandlerException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		HandlerException(Exception cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized Exception getCause() {
+			return (Exception) super.getCause();
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.mt.core.model.vo;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 彙總查詢: 以 filter 過濾後, 依 groupBy 屬性分組計算 aggregates. sortProps 可指定 groupBy 屬性或 aggregate 的 alias,
+ * size 大於 0 時僅回傳第 page 頁的分組
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class AggregateRequestVO extends PageRequestVO {
+
+	private List<String> groupBy; // 分組屬性 (多個), 未指定時彙總全部資料為一列
+
+	private List<AggregateDescriptor> aggregates; // 彙總欄位
+
+	/**
+	 * 彙總函數
+	 */
+	public enum AggregateFunction {
+		COUNT, SUM, AVG, MIN, MAX
+	}
+
+	@Data
+	public static class AggregateDescriptor {
+		private String field; // COUNT 未指定時為 count(*)
+		private AggregateFunction function;
+		private String alias; // 結果欄位名稱, 未指定時為 function_field (如 sum_qty)
+	}
+}
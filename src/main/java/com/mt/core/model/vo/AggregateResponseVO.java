@@ -0,0 +1,20 @@
+package com.mt.core.model.vo;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 彙總查詢結果: rows 的每一列依 columns 順序為 groupBy 屬性值及彙總值
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AggregateResponseVO {
+
+	private List<String> columns;
+
+	private List<Object[]> rows;
+}
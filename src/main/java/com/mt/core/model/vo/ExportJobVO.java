@@ -0,0 +1,40 @@
+package com.mt.core.model.vo;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * 背景匯出工作狀態
+ */
+@Data
+public class ExportJobVO {
+
+	private String jobId;
+
+	private String fileName; // 下載檔名
+
+	private Status status;
+
+	private long rowsWritten; // 已寫入列數
+
+	private long totalRows; // 總列數, 尚未計算時為 -1
+
+	private long size; // 匯出檔位元組數 (完成後)
+
+	private Date submitTime;
+
+	private Date finishTime; // 完成或失敗時間
+
+	private String message; // 失敗原因
+
+	/**
+	 * 匯出工作狀態
+	 */
+	public enum Status {
+		QUEUED, // 等待執行
+		RUNNING, // 執行中
+		COMPLETED, // 完成, 可下載
+		FAILED // 失敗
+	}
+}
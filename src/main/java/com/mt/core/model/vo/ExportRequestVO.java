@@ -10,4 +10,19 @@ import lombok.EqualsAndHashCode;
 public class ExportRequestVO extends PageRequestVO {
 
 	private List<ExportColumnVO> exportColumns; // 匯出欄位
+
+	// 匯出格式, 未指定時為 XLSX
+	private ExportFormat format;
+
+	// CSV, TSV 以 gzip 壓縮
+	private boolean gzip;
+
+	/**
+	 * 匯出格式
+	 */
+	public enum ExportFormat {
+		XLSX, // Excel
+		CSV, // 逗號分隔 (RFC 4180)
+		TSV // Tab 分隔
+	}
 }
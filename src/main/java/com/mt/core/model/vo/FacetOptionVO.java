@@ -0,0 +1,23 @@
+package com.mt.core.model.vo;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * facet 選項: 屬性值 (code, name) 及符合的資料筆數
+ */
+@NoArgsConstructor
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class FacetOptionVO extends OptionVO {
+
+	private long count;
+
+	public FacetOptionVO(Object code, Object name, long count) {
+		super(code, name);
+		this.count = count;
+	}
+}
@@ -0,0 +1,18 @@
+package com.mt.core.model.vo;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 多屬性 facet 查詢: 以 filter 過濾後, 分別統計各 facet 屬性的值及筆數
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class FacetRequestVO extends PageRequestVO {
+
+	private List<String> facetFields; // facet 屬性 (多個)
+
+	private int facetLimit = 10; // 每個 facet 回傳筆數最多的前 N 個值, 0 為不限
+}
@@ -0,0 +1,18 @@
+package com.mt.core.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.Data;
+
+/**
+ * 匯入欄位 VO
+ * 
+ * @author Mueller Tsai
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImportColumnVO {
+
+	private String prop; // 後端 entity 屬性
+	private String name; // 匯入檔 header title, 未指定時同 prop
+}
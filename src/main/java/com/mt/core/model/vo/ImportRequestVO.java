@@ -0,0 +1,22 @@
+package com.mt.core.model.vo;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.mt.core.model.vo.ExportRequestVO.ExportFormat;
+
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImportRequestVO {
+
+	// 匯入欄位; 未指定時, 標題與 entity 屬性名稱或欄位名稱 (不分大小寫) 相同的欄位皆匯入
+	private List<ImportColumnVO> importColumns;
+
+	// 匯入檔格式 (同匯出格式), 未指定時為 XLSX
+	private ExportFormat format;
+
+	// 有錯誤的資料列略過, 仍寫入其他資料列; 未設定時有任一錯誤即不寫入任何資料列
+	private boolean skipInvalidRows;
+}
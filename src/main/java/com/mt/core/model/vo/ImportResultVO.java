@@ -0,0 +1,22 @@
+package com.mt.core.model.vo;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * 匯入結果
+ */
+@Data
+public class ImportResultVO {
+
+	private int rows; // 讀取的資料列數 (不含標題列及空白列)
+
+	private int inserted; // 新增筆數
+
+	// 列號 (自 1 起, 標題列為第 1 列) 與 該列的驗證錯誤
+	private Map<Integer, List<FieldValidationErrorVO>> errors;
+
+	private boolean errorLimitReached; // 錯誤列數達上限, 已停止讀取
+}
@@ -18,6 +18,31 @@ public class PageRequestVO {
 
 	private FilterDescriptor filter;
 
+	// 欲查詢的屬性 (多個), 指定時僅查詢對映的欄位; 未指定時查詢全部欄位
+	private List<String> fields;
+
+	// keyset (seek) 分頁: 以前一頁最後一筆資料為起點查詢, 取代 page 位移 (OFFSET)
+	private boolean seek;
+
+	// seek 分頁游標, 即前一頁回傳的 nextCursor (第一頁為 null)
+	private String after;
+
+	// count 與資料列查詢同時送出 (各自使用 connection pool 中的連線); 呼叫端有交易時仍循序查詢, 僅 BaseJpaRepository 適用
+	private boolean parallelCount;
+
+	// 查詢結果數的計算方式, 未指定時為 EXACT
+	private CountStrategy countStrategy;
+
+	/**
+	 * 查詢結果數計算方式
+	 */
+	public enum CountStrategy {
+		EXACT, // 每次執行 SELECT count(*)
+		CACHED, // 相同查詢條件於 TTL 內重覆使用上次的 count 結果 (經 repository 批次寫入時清除)
+		ESTIMATED, // 無過濾條件時讀取資料庫統計資訊的估計值, 否則同 EXACT
+		NONE // 不計算 count, 多查一筆判斷是否有下一頁 (total 為 -1)
+	}
+
 	@Data
 	public static class SortDescriptor {
 		private String field;
@@ -11,6 +11,15 @@ public class PageResponseVO<T> {
 	private int total;
 	private List<T> rows;
 
+	// seek 分頁時, 下一頁的游標 (已無下一頁時為 null)
+	private String nextCursor;
+
+	// 是否還有下一頁
+	private boolean hasMore;
+
+	// 實際使用的查詢結果數計算方式
+	private PageRequestVO.CountStrategy countStrategy;
+
 	public PageResponseVO() {
 	}
 
@@ -0,0 +1,18 @@
+package com.mt.core.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批次新增或更新 (upsert) 結果
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class UpsertResultVO {
+
+	private int inserted; // 新增筆數
+
+	private int updated; // 更新筆數 (資料已存在)
+}
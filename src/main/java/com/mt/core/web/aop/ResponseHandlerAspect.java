@@ -1,5 +1,7 @@
 package com.mt.core.web.aop;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -8,6 +10,9 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.mt.core.model.exception.UntraceableException;
@@ -65,7 +70,8 @@ public class ResponseHandlerAspect {
 			Class<?> rtn = methodSignature.getReturnType();
 
 			if (rtn.equals(Void.TYPE)) { // void type 的 method
-				return ServiceResponseVO.succeed();
+				// 已直接寫出回應內容 (如下載檔案) 時不再回傳
+				return isResponseCommitted() ? null : ServiceResponseVO.succeed();
 			} else { // 有回傳值的 method
 				return result instanceof byte[] ? result : ServiceResponseVO.succeed(result);
 			}
@@ -82,7 +88,21 @@ public class ResponseHandlerAspect {
 				logger.error("服務發生錯誤 [{}]", path, e);
 			}
 
-			return ServiceResponseVO.fail(e);
+			return isResponseCommitted() ? null : ServiceResponseVO.fail(e);
 		}
 	}
+
+	/**
+	 * 回應是否已送出 (method 直接寫入 HttpServletResponse)
+	 * 
+	 * @return
+	 */
+	private static boolean isResponseCommitted() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		HttpServletResponse response = attributes instanceof ServletRequestAttributes
+				? ((ServletRequestAttributes) attributes).getResponse()
+				: null;
+
+		return response != null && response.isCommitted();
+	}
 }
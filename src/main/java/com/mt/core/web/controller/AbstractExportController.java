@@ -0,0 +1,173 @@
+package com.mt.core.web.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import com.mt.core.model.exception.ServiceException;
+import com.mt.core.model.service.AbstractService;
+import com.mt.core.model.service.support.ExportJobManager;
+import com.mt.core.model.vo.ExportJobVO;
+import com.mt.core.model.vo.ExportRequestVO;
+import com.mt.core.model.vo.ExportRequestVO.ExportFormat;
+
+/**
+ * 背景匯出 (Excel, CSV 或 TSV) 的 controller: 提交匯出工作後以工作代號查詢進度, 完成後下載. 工作僅限提交的使用者存取, 使用者取自
+ * request 的已驗證 principal; 未經驗證的 request 一律拒絕.
+ * <ul>
+ * <li>POST {baseUri}/export-jobs: 提交匯出工作</li>
+ * <li>GET {baseUri}/export-jobs/{jobId}: 查詢工作狀態及進度</li>
+ * <li>GET {baseUri}/export-jobs/{jobId}/file: 下載匯出檔</li>
+ * <li>DELETE {baseUri}/export-jobs/{jobId}: 刪除 (或取消) 工作</li>
+ * </ul>
+ *
+ * @author Mueller Tsai
+ */
+public abstract class AbstractExportController extends AbstractServiceController {
+
+	@Autowired
+	protected ExportJobManager exportJobManager;
+
+	/**
+	 * 匯出資料的 service
+	 *
+	 * @return
+	 */
+	protected abstract AbstractService<?, ?, ?, ?> getExportService();
+
+	/**
+	 * 工作表名稱
+	 *
+	 * @return
+	 */
+	protected String getSheetTitle() {
+		return "Sheet1";
+	}
+
+	/**
+	 * 下載檔名 (不含副檔名, 依匯出格式加上 .xlsx, .csv 或 .tsv, gzip 壓縮時再加上 .gz)
+	 *
+	 * @return
+	 */
+	protected String getExportFileName() {
+		return "export";
+	}
+
+	/**
+	 * 提交匯出工作: 先計算總列數, 再以資料庫游標逐筆寫入暫存檔 (依 requestVO.format 匯出 Excel, CSV 或 TSV)
+	 *
+	 * @param requestVO
+	 * @param request
+	 * @return
+	 * @throws ServiceException
+	 */
+	@PostMapping("/export-jobs")
+	public ExportJobVO submitExportJob(@RequestBody ExportRequestVO requestVO, HttpServletRequest request)
+			throws ServiceException {
+		AbstractService<?, ?, ?, ?> service = this.getExportService();
+		String sheetTitle = this.getSheetTitle();
+
+		ExportFormat format = requestVO.getFormat() == null ? ExportFormat.XLSX : requestVO.getFormat();
+		String fileName = this.getExportFileName() + "." + format.name().toLowerCase();
+
+		if (format != ExportFormat.XLSX && requestVO.isGzip()) {
+			fileName += ".gz";
+		}
+
+		return this.exportJobManager.submit(this.getCurrentUser(request), fileName, (job, out) -> {
+			job.setTotalRows(service.countRows(requestVO));
+
+			if (format == ExportFormat.XLSX) {
+				service.excelExport(requestVO, sheetTitle, out, job::setRowsWritten);
+			} else {
+				service.delimitedExport(requestVO, out, job::setRowsWritten);
+			}
+		});
+	}
+
+	/**
+	 * 查詢匯出工作狀態
+	 *
+	 * @param jobId
+	 * @param request
+	 * @return
+	 * @throws ServiceException
+	 */
+	@GetMapping("/export-jobs/{jobId}")
+	public ExportJobVO getExportJob(@PathVariable String jobId, HttpServletRequest request) throws ServiceException {
+		return this.exportJobManager.getJob(this.getCurrentUser(request), jobId);
+	}
+
+	/**
+	 * 下載匯出檔: 以 FileChannel.transferTo 寫入 response
+	 *
+	 * @param jobId
+	 * @param request
+	 * @param response
+	 * @throws ServiceException
+	 * @throws IOException
+	 */
+	@GetMapping("/export-jobs/{jobId}/file")
+	public void downloadExportFile(@PathVariable String jobId, HttpServletRequest request,
+			HttpServletResponse response) throws ServiceException, IOException {
+		String user = this.getCurrentUser(request);
+		ExportJobVO job = this.exportJobManager.getJob(user, jobId);
+
+		if (job.getStatus() != ExportJobVO.Status.COMPLETED) {
+			throw new ServiceException("匯出工作尚未完成");
+		}
+
+		response.setContentType(
+				MediaTypeFactory.getMediaType(job.getFileName()).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+		response.setContentLengthLong(job.getSize());
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				ContentDisposition.attachment().filename(job.getFileName(), StandardCharsets.UTF_8).build().toString());
+
+		this.exportJobManager.transferTo(user, jobId, Channels.newChannel(response.getOutputStream()));
+		response.flushBuffer();
+	}
+
+	/**
+	 * 刪除匯出工作; 等待或執行中的工作取消執行
+	 *
+	 * @param jobId
+	 * @param request
+	 * @throws ServiceException
+	 */
+	@DeleteMapping("/export-jobs/{jobId}")
+	public void removeExportJob(@PathVariable String jobId, HttpServletRequest request) throws ServiceException {
+		this.exportJobManager.remove(this.getCurrentUser(request), jobId);
+	}
+
+	/**
+	 * 目前的使用者 (已驗證的 principal 名稱)
+	 *
+	 * @param request
+	 * @return
+	 * @throws ServiceException 未經驗證的 request
+	 */
+	protected String getCurrentUser(HttpServletRequest request) throws ServiceException {
+		Principal principal = request.getUserPrincipal();
+
+		if (principal == null || principal.getName() == null || principal.getName().isEmpty()) {
+			throw new ServiceException("未登入的使用者不可使用匯出工作");
+		}
+
+		return principal.getName();
+	}
+}
@@ -0,0 +1,171 @@
+package com.mt.core.model.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.engine.spi.SessionImplementor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mt.core.model.dao.support.QueryExecutors;
+import com.mt.core.model.fixture.TestApplication;
+import com.mt.core.model.fixture.TestItem;
+import com.mt.core.model.fixture.TestItemRepository;
+import com.mt.core.model.fixture.TestSupplier;
+import com.mt.core.model.vo.PageRequestVO;
+import com.mt.core.model.vo.PageResponseVO;
+
+/**
+ * BaseJpaRepositoryImpl 的分頁查詢 (H2)
+ *
+ * @author Mueller Tsai
+ */
+@SpringBootTest(classes = TestApplication.class)
+public class BaseJpaRepositoryImplTest {
+
+	@Autowired
+	private TestItemRepository repository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Executor pageQueryExecutor;
+
+	/**
+	 * 交由 page query executor 執行的查詢數
+	 */
+	private final AtomicInteger asyncQueries = new AtomicInteger();
+
+	@BeforeEach
+	public void setUp() {
+		this.pageQueryExecutor = QueryExecutors.getPageQueryExecutor();
+		QueryExecutors.setPageQueryExecutor(task -> {
+			this.asyncQueries.incrementAndGet();
+			this.pageQueryExecutor.execute(task);
+		});
+
+		List<TestItem> items = new ArrayList<>();
+
+		for (long id = 1; id <= 12; id++) {
+			items.add(item(id));
+		}
+
+		this.repository.saveAll(items);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		QueryExecutors.setPageQueryExecutor(this.pageQueryExecutor);
+		this.repository.deleteAllInBatch();
+		this.transactionTemplate.execute(
+				status -> this.entityManager.createQuery("DELETE FROM TestSupplier").executeUpdate());
+	}
+
+	@Test
+	public void countsConcurrentlyWithoutTransaction() throws Exception {
+		PageResponseVO<TestItem> response = this.repository.getRows(pageRequest());
+
+		assertEquals(1, this.asyncQueries.get());
+		assertEquals(12, response.getTotal());
+		assertEquals(5, response.getRows().size());
+	}
+
+	@Test
+	public void countsSequentiallyInTransaction() {
+		PageResponseVO<TestItem> response = this.transactionTemplate.execute(status -> {
+			this.repository.save(item(13));
+
+			try {
+				return this.repository.getRows(pageRequest());
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		// 交易中未 commit 的資料列須計入
+		assertEquals(0, this.asyncQueries.get());
+		assertEquals(13, response.getTotal());
+		assertFalse(response.getRows().isEmpty());
+	}
+
+	@Test
+	public void streamEvictsAssociatedEntities() {
+		this.transactionTemplate.execute(status -> {
+			for (long id = 1; id <= 12; id++) {
+				TestSupplier supplier = new TestSupplier();
+				supplier.setId(id);
+				supplier.setName("S" + id);
+				this.entityManager.persist(supplier);
+				this.entityManager.find(TestItem.class, id).setSupplier(supplier);
+			}
+
+			return null;
+		});
+
+		int[] maxManaged = new int[1];
+		int[] rows = new int[1];
+		this.transactionTemplate.execute(status -> {
+			SessionImplementor current = this.entityManager.unwrap(SessionImplementor.class);
+			TestSupplier retained = new TestSupplier();
+			retained.setId(100L);
+			retained.setName("retained");
+			this.entityManager.persist(retained);
+
+			try (Stream<TestItem> stream = this.repository.streamRows(new PageRequestVO(), 5)) {
+				stream.forEach(item -> {
+					// 每列另載入 EAGER 關聯的 supplier
+					assertEquals("S" + item.getId(), item.getSupplier().getName());
+					maxManaged[0] = Math.max(maxManaged[0],
+							current.getPersistenceContextInternal().getNumberOfManagedEntities());
+					rows[0]++;
+				});
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+
+			// 讀取前已在 persistence context 中的 entity 不分離
+			assertTrue(current.contains(retained));
+			assertEquals(1, current.getPersistenceContextInternal().getNumberOfManagedEntities());
+
+			return null;
+		});
+
+		assertEquals(12, rows[0]);
+		// 讀取前的 1 筆, 加上至多 5 列的 item 及 supplier
+		assertTrue(maxManaged[0] <= 11, "managed entities: " + maxManaged[0]);
+	}
+
+	private static PageRequestVO pageRequest() {
+		PageRequestVO req = new PageRequestVO();
+		req.setParallelCount(true);
+		req.setSize(5);
+
+		return req;
+	}
+
+	private static TestItem item(long id) {
+		TestItem item = new TestItem();
+		item.setId(id);
+		item.setCode("C" + id);
+		item.setQty((int) id);
+
+		return item;
+	}
+}
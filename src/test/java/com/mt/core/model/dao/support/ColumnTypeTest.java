@@ -0,0 +1,123 @@
+package com.mt.core.model.dao.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ColumnType 值轉換
+ *
+ * @author Mueller Tsai
+ */
+public class ColumnTypeTest {
+
+	private enum Status {
+		OPEN, CLOSED
+	}
+
+	@SuppressWarnings("unused")
+	private static class Parent {
+		@Id
+		private Long id;
+	}
+
+	@SuppressWarnings("unused")
+	private static class Sample {
+		private int qty;
+		private BigDecimal price;
+		private Boolean active;
+		@Enumerated(EnumType.STRING)
+		private Status status;
+		private Status ordinal;
+		@Temporal(TemporalType.DATE)
+		private Date day;
+		private Date time;
+		private LocalDateTime local;
+		private UUID uuid;
+		@JoinColumn(name = "PARENT_ID")
+		private Parent parent;
+	}
+
+	private static ColumnType type(String field) throws Exception {
+		return ColumnType.of(Sample.class.getDeclaredField(field));
+	}
+
+	@Test
+	public void convertsNumbers() throws Exception {
+		ColumnType qty = type("qty");
+
+		assertEquals(Integer.class, qty.getBindType());
+		assertEquals(12, qty.convert(" 12 "));
+		assertEquals(12, qty.convert(12L));
+		assertEquals(1, qty.convert(true));
+		assertEquals(new BigDecimal("1.50"), type("price").convert("1.50"));
+		assertEquals(3L, type("parent").convert("3"));
+		assertNull(qty.convert(null));
+	}
+
+	@Test
+	public void rejectsLossyNumbers() throws Exception {
+		ColumnType qty = type("qty");
+
+		assertThrows(IllegalArgumentException.class, () -> qty.convert("1.5"));
+		assertThrows(IllegalArgumentException.class, () -> qty.convert("12345678901"));
+		assertThrows(IllegalArgumentException.class, () -> qty.convert("x"));
+	}
+
+	@Test
+	public void convertsEnumsAndBooleans() throws Exception {
+		assertEquals("CLOSED", type("status").convert(Status.CLOSED));
+		assertEquals("OPEN", type("status").convert(" OPEN "));
+		assertEquals(1, type("ordinal").convert("CLOSED"));
+		assertEquals(1, type("ordinal").convert("1"));
+		assertEquals(Boolean.TRUE, type("active").convert("Y"));
+		assertEquals(Boolean.FALSE, type("active").convert(0));
+		assertThrows(IllegalArgumentException.class, () -> type("status").convert("DONE"));
+		assertThrows(IllegalArgumentException.class, () -> type("active").convert("maybe"));
+	}
+
+	@Test
+	public void convertsTemporals() throws Exception {
+		ColumnType day = type("day");
+		ColumnType time = type("time");
+		LocalDateTime local = LocalDateTime.of(2024, 3, 1, 10, 15, 30);
+
+		assertEquals(java.sql.Date.class, day.getBindType());
+		assertEquals(java.sql.Date.valueOf("2024-03-01"), day.convert("2024/03/01"));
+		assertEquals(java.sql.Date.valueOf("2024-03-01"), day.convert("2024-03-01 10:15:30"));
+		assertEquals(Timestamp.valueOf(local), time.convert("2024-03-01T10:15:30"));
+		assertEquals(Timestamp.valueOf(local),
+				time.convert(local.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+		assertEquals(local, type("local").convert(Timestamp.valueOf(local)));
+
+		OffsetDateTime offset = OffsetDateTime.parse("2024-03-01T10:15:30+08:00");
+		assertEquals(offset.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime(),
+				type("local").convert("2024-03-01T10:15:30+08:00"));
+		assertThrows(IllegalArgumentException.class, () -> time.convert("yesterday"));
+	}
+
+	@Test
+	public void convertsUuid() throws Exception {
+		UUID uuid = UUID.randomUUID();
+
+		assertEquals(uuid, type("uuid").convert(" " + uuid + " "));
+		assertThrows(IllegalArgumentException.class, () -> type("uuid").convert("x"));
+	}
+}
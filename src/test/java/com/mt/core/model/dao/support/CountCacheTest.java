@@ -0,0 +1,90 @@
+package com.mt.core.model.dao.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+/**
+ * CountCache 的 key 及快取
+ *
+ * @author Mueller Tsai
+ */
+public class CountCacheTest {
+
+	private static final String SQL = "SELECT count(*) cnt FROM T WHERE (C IN :_0__0)";
+
+	@Test
+	public void keyRendersArraysByValue() {
+		assertEquals(CountCache.key(SQL, params(new Object[] { "a", "b" })),
+				CountCache.key(SQL, params(new Object[] { "a", "b" })));
+		assertEquals(CountCache.key(SQL, params(new long[] { 1, 2 })), CountCache.key(SQL, params(new long[] { 1, 2 })));
+		assertEquals(CountCache.key(SQL, params(Arrays.asList(1, 2))), CountCache.key(SQL, params(new Integer[] { 1, 2 })));
+		assertNotEquals(CountCache.key(SQL, params(new Object[] { "a", "b" })),
+				CountCache.key(SQL, params(new Object[] { "a", "c" })));
+	}
+
+	@Test
+	public void keyDistinguishesTypesAndSeparators() {
+		assertNotEquals(CountCache.key(SQL, params("1")), CountCache.key(SQL, params(1)));
+		assertNotEquals(CountCache.key(SQL, params(1)), CountCache.key(SQL, params(1L)));
+		assertNotEquals(CountCache.key(SQL, params(Arrays.asList("a,b"))),
+				CountCache.key(SQL, params(Arrays.asList("a", "b"))));
+		assertNotEquals(CountCache.key(SQL, params(new SqlParameterValue(Types.VARCHAR, "a"))),
+				CountCache.key(SQL, params(new SqlParameterValue(Types.CHAR, "a"))));
+	}
+
+	@Test
+	public void keyIgnoresParamOrder() {
+		Map<String, Object> a = new LinkedHashMap<>();
+		a.put("p1", 1);
+		a.put("p2", 2);
+
+		Map<String, Object> b = new LinkedHashMap<>();
+		b.put("p2", 2);
+		b.put("p1", 1);
+
+		assertEquals(CountCache.key(SQL, a), CountCache.key(SQL, b));
+	}
+
+	@Test
+	public void clearAndExpire() throws InterruptedException {
+		CountCache cache = new CountCache(50, 10);
+		cache.put("a", 1);
+		cache.put("b", 2);
+
+		assertEquals(1, cache.get("a"));
+
+		cache.clear();
+		assertNull(cache.get("a"));
+
+		cache.put("b", 2);
+		Thread.sleep(100);
+		assertNull(cache.get("b"));
+	}
+
+	@Test
+	public void evictsWhenFull() {
+		CountCache cache = new CountCache(60_000, 2);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.put("c", 3);
+
+		assertEquals(3, cache.get("c"));
+		assertTrue(cache.get("a") == null || cache.get("b") == null);
+	}
+
+	private static Map<String, Object> params(Object value) {
+		return new HashMap<>(Collections.singletonMap("_0__0", value));
+	}
+}
@@ -0,0 +1,97 @@
+package com.mt.core.model.dao.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mt.core.model.vo.PageRequestVO.Filter;
+import com.mt.core.model.vo.PageRequestVO.FilterDescriptor;
+
+/**
+ * FilterOptimizer 簡化過濾條件
+ *
+ * @author Mueller Tsai
+ */
+public class FilterOptimizerTest {
+
+	static FilterDescriptor leaf(String field, String operator, Object value) {
+		FilterDescriptor descriptor = new FilterDescriptor();
+		descriptor.setField(field);
+		descriptor.setOperator(operator);
+		descriptor.setValue(value);
+		return descriptor;
+	}
+
+	static FilterDescriptor group(String logic, FilterDescriptor... subFilters) {
+		Filter filter = new Filter();
+		filter.setLogic(logic);
+		filter.setSubFilters(Arrays.asList(subFilters));
+
+		FilterDescriptor descriptor = new FilterDescriptor();
+		descriptor.setFilter(filter);
+		return descriptor;
+	}
+
+	@Test
+	public void mergesEqualsIntoIn() {
+		FilterDescriptor a = leaf("status", "eq", "A");
+		FilterDescriptor b = leaf("status", "eq", new String[] { "B", "A" });
+		FilterOptimizer.Trace trace = new FilterOptimizer.Trace();
+
+		FilterDescriptor optimized = FilterOptimizer.optimize(group("or", a, b), trace);
+
+		assertNull(optimized.getFilter());
+		assertEquals(Arrays.asList("A", "B"), optimized.getValue());
+		assertEquals(Arrays.asList(a, b), trace.getOrigins(optimized));
+		assertFalse(trace.isValueDependent());
+	}
+
+	@Test
+	public void dropsEmptyConditions() {
+		FilterDescriptor name = leaf("name", "contains", "x");
+		FilterDescriptor filter = group("and", leaf("qty", "eq", null), group("or"), name,
+				leaf("qty", "between", Arrays.asList(null, null)));
+
+		assertSame(name, FilterOptimizer.optimize(filter));
+		assertNull(FilterOptimizer.optimize(group("and", leaf("qty", "eq", null))));
+	}
+
+	@Test
+	public void tracesOpenBetween() {
+		FilterDescriptor between = leaf("qty", "between", Arrays.asList(null, 5));
+		FilterOptimizer.Trace trace = new FilterOptimizer.Trace();
+
+		FilterDescriptor optimized = FilterOptimizer.optimize(between, trace);
+
+		assertEquals("le", optimized.getOperator());
+		assertEquals(5, optimized.getValue());
+		assertEquals(Arrays.asList(between), trace.getOrigins(optimized));
+		assertEquals(1, trace.getElement(optimized));
+	}
+
+	@Test
+	public void foldsRanges() {
+		FilterOptimizer.Trace trace = new FilterOptimizer.Trace();
+		FilterDescriptor optimized = FilterOptimizer.optimize(group("and", leaf("qty", "gt", 1), leaf("qty", "ge", 3),
+				leaf("qty", "le", 10), leaf("qty", "lt", 20)), trace);
+
+		assertEquals("between", optimized.getOperator());
+		assertEquals(Arrays.asList(3, 10), optimized.getValue());
+		assertTrue(trace.isValueDependent());
+	}
+
+	@Test
+	public void keepsIncomparableRanges() {
+		FilterDescriptor filter = group("and", leaf("qty", "gt", 1), leaf("qty", "lt", "x"));
+		List<FilterDescriptor> subFilters = FilterOptimizer.optimize(filter).getFilter().getSubFilters();
+
+		assertEquals(2, subFilters.size());
+	}
+}
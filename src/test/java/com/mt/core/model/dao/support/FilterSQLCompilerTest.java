@@ -0,0 +1,181 @@
+package com.mt.core.model.dao.support;
+
+import static com.mt.core.model.dao.support.FilterOptimizerTest.group;
+import static com.mt.core.model.dao.support.FilterOptimizerTest.leaf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mt.core.model.exception.InvalidFilterValueException;
+import com.mt.core.model.vo.PageRequestVO.FilterDescriptor;
+
+/**
+ * FilterSQLCompiler 組合 SQL 及快取
+ *
+ * @author Mueller Tsai
+ */
+public class FilterSQLCompilerTest {
+
+	@SuppressWarnings("unused")
+	private static class Sample {
+		private String code;
+		private Integer qty;
+	}
+
+	private FilterSQLCompiler compiler;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		Map<String, String> columns = new HashMap<>();
+		columns.put("code", "CODE");
+		columns.put("qty", "QTY");
+
+		Map<String, ColumnType> types = new HashMap<>();
+		types.put("code", ColumnType.of(Sample.class.getDeclaredField("code")));
+		types.put("qty", ColumnType.of(Sample.class.getDeclaredField("qty")));
+
+		this.compiler = new FilterSQLCompiler(columns, types, new String[] { "CODE" });
+	}
+
+	private String compile(FilterDescriptor filter, Map<String, Object> params) throws Exception {
+		return this.compiler.compile(filter, params);
+	}
+
+	@Test
+	public void reusesSqlForSameShape() throws Exception {
+		Map<String, Object> params1 = new LinkedHashMap<>();
+		Map<String, Object> params2 = new LinkedHashMap<>();
+
+		String sql1 = this.compile(group("and", leaf("qty", "gt", "1"), leaf("code", "eq", "A")), params1);
+		String sql2 = this.compile(group("and", leaf("qty", "gt", 7L), leaf("code", "eq", "B")), params2);
+
+		assertEquals(sql1, sql2);
+		assertEquals("(QTY > :_0__0) AND (CODE = :_1__0)", sql1);
+		assertEquals(1, this.compiler.getMissCount());
+		assertEquals(1, this.compiler.getHitCount());
+		assertEquals(Arrays.asList(1, "A"), Arrays.asList(params1.values().toArray()));
+		assertEquals(Arrays.asList(7, "B"), Arrays.asList(params2.values().toArray()));
+	}
+
+	@Test
+	public void bindsMergedAndDerivedLeavesFromRawValues() throws Exception {
+		Map<String, Object> params = new HashMap<>();
+		FilterDescriptor filter = group("and", group("or", leaf("code", "eq", "A"), leaf("code", "eq", "B")),
+				leaf("qty", "between", Arrays.asList(null, "5")));
+
+		this.compile(filter, params);
+		params.clear();
+
+		filter = group("and", group("or", leaf("code", "eq", "C"), leaf("code", "eq", "D")),
+				leaf("qty", "between", Arrays.asList(null, "9")));
+		String sql = this.compile(filter, params);
+
+		assertEquals(1, this.compiler.getHitCount());
+		assertEquals("(CODE IN (:_0__0)) AND (QTY <= :_1__0)", sql);
+		assertEquals(Arrays.asList("C", "D"), params.get("_0__0"));
+		assertEquals(9, params.get("_1__0"));
+	}
+
+	@Test
+	public void recompilesWhenMergedListChangesChunks() throws Exception {
+		this.compiler.setInListChunkSize(2);
+		Map<String, Object> params = new HashMap<>();
+
+		this.compile(group("or", leaf("code", "eq", "A"), leaf("code", "eq", new String[] { "A", "B" })), params);
+		params.clear();
+		String sql = this.compile(group("or", leaf("code", "eq", "A"), leaf("code", "eq", new String[] { "B", "C" })),
+				params);
+
+		assertEquals(0, this.compiler.getHitCount());
+		assertEquals("(CODE IN (:__0_0) OR CODE IN (:__0_1))", sql);
+		assertEquals(Arrays.asList("A", "B"), params.get("__0_0"));
+	}
+
+	@Test
+	public void doesNotCacheFoldedRanges() throws Exception {
+		Map<String, Object> params = new HashMap<>();
+
+		this.compile(group("and", leaf("qty", "gt", 1), leaf("qty", "gt", 3)), params);
+		String sql = this.compile(group("and", leaf("qty", "gt", 5), leaf("qty", "gt", 2)), params);
+
+		assertEquals("QTY > :__0", sql);
+		assertEquals(5, params.get("__0"));
+		assertEquals(0, this.compiler.getHitCount());
+		assertEquals(0, this.compiler.getCacheSize());
+	}
+
+	@Test
+	public void distinguishesNullValues() throws Exception {
+		Map<String, Object> params = new HashMap<>();
+
+		assertEquals("QTY = :__0", this.compile(group("and", leaf("qty", "eq", 1), leaf("code", "eq", null)), params));
+		assertEquals("CODE = :__0", this.compile(group("and", leaf("qty", "eq", null), leaf("code", "eq", "A")),
+				params));
+		assertEquals("", this.compile(group("and", leaf("qty", "eq", null)), params));
+	}
+
+	@Test
+	public void rejectsInvalidValueOnCacheHit() throws Exception {
+		this.compile(leaf("qty", "eq", "1"), new HashMap<>());
+
+		assertThrows(InvalidFilterValueException.class, () -> this.compile(leaf("qty", "eq", "x"), new HashMap<>()));
+	}
+
+	@Test
+	public void splitsLongListsWithoutPadding() throws Exception {
+		this.compiler.setInListChunkSize(2);
+		Map<String, Object> params = new HashMap<>();
+
+		String sql = this.compile(leaf("qty", "eq", Arrays.asList("1", "2", "3", "2")), params);
+
+		assertEquals("(QTY IN (:__0_0) OR QTY IN (:__0_1))", sql);
+		assertEquals(Arrays.asList(1, 2), params.get("__0_0"));
+		assertEquals(Arrays.asList(3), params.get("__0_1"));
+		assertEquals("1=0", this.compile(leaf("qty", "eq", new Object[0]), params));
+	}
+
+	@Test
+	public void bindsLongListsAsSingleArrayParameter() throws Exception {
+		this.compiler.setInListChunkSize(2);
+		this.compiler.setDatabaseDialect(DatabaseDialect.POSTGRESQL);
+		Map<String, Object> params = new HashMap<>();
+
+		String sql = this.compile(leaf("code", "eq", Arrays.asList("a", "b\"c", "d")), params);
+		this.compile(leaf("code", "eq", Arrays.asList("x", "y", "z", "w", "v")), new HashMap<>());
+
+		assertEquals("CODE = ANY(CAST(:__0 AS varchar[]))", sql);
+		assertEquals("{\"a\",\"b\\\"c\",\"d\"}", params.get("__0"));
+		assertEquals(1, this.compiler.getHitCount());
+		assertEquals("QTY IN (:__0)", this.compile(leaf("qty", "eq", Arrays.asList(1, 2)), params));
+	}
+
+	@Test
+	public void rejectsTooManyParameters() throws Exception {
+		this.compiler.setDatabaseDialect(DatabaseDialect.SQLSERVER);
+		Map<String, Object> params = new HashMap<>();
+		Object[] values = new Object[2500];
+
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i;
+		}
+
+		// SQL Server 以 OPENJSON 綁定單一參數
+		assertEquals("QTY IN (SELECT v FROM OPENJSON(:__0) WITH (v int '$'))",
+				this.compile(leaf("qty", "eq", values), params));
+
+		FilterDescriptor[] chunks = new FilterDescriptor[3];
+
+		for (int i = 0; i < chunks.length; i++) {
+			chunks[i] = leaf("qty", "eq", Arrays.copyOfRange(values, i * 800, (i + 1) * 800));
+		}
+
+		assertThrows(InvalidFilterValueException.class, () -> this.compile(group("and", chunks), new HashMap<>()));
+	}
+}
@@ -0,0 +1,56 @@
+package com.mt.core.model.dao.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * KeysetCursor 編解碼
+ *
+ * @author Mueller Tsai
+ */
+public class KeysetCursorTest {
+
+	@Test
+	public void roundTripKeepsNanos() {
+		Timestamp timestamp = Timestamp.valueOf("2024-03-01 10:15:30.123456789");
+		LocalDateTime localDateTime = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 987654321);
+		OffsetDateTime offsetDateTime = OffsetDateTime.parse("2024-03-01T10:15:30.000001+08:00");
+
+		List<Object> values = KeysetCursor.decode(KeysetCursor.encode(Arrays.asList(timestamp, localDateTime,
+				offsetDateTime)));
+
+		assertEquals(timestamp, KeysetCursor.convert(values.get(0), Timestamp.class));
+		assertEquals(timestamp, KeysetCursor.convert(values.get(0), Date.class));
+		assertEquals(localDateTime, KeysetCursor.convert(values.get(1), LocalDateTime.class));
+		assertEquals(offsetDateTime, KeysetCursor.convert(values.get(2), OffsetDateTime.class));
+	}
+
+	@Test
+	public void roundTripKeepsValues() {
+		java.sql.Date date = java.sql.Date.valueOf("2024-03-01");
+		List<Object> values = KeysetCursor
+				.decode(KeysetCursor.encode(Arrays.asList("a,b", 12345678901L, new BigDecimal("0.10"), date, null)));
+
+		assertEquals("a,b", KeysetCursor.convert(values.get(0), String.class));
+		assertEquals(12345678901L, KeysetCursor.convert(values.get(1), Long.class));
+		assertEquals(new BigDecimal("0.10"), KeysetCursor.convert(values.get(2), BigDecimal.class));
+		assertEquals(date, KeysetCursor.convert(values.get(3), java.sql.Date.class));
+		assertNull(KeysetCursor.convert(values.get(4), Timestamp.class));
+	}
+
+	@Test
+	public void rejectsInvalidCursor() {
+		assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+	}
+}
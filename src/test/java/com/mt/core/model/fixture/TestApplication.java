@@ -0,0 +1,22 @@
+package com.mt.core.model.fixture;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.mt.core.model.dao.impl.BaseJpaRepositoryImpl;
+
+/**
+ * 以 H2 記憶體資料庫執行 repository 及 service 的測試設定
+ *
+ * @author Mueller Tsai
+ */
+@SpringBootApplication(scanBasePackages = "com.mt.core.model.conf")
+@EnableJpaRepositories(basePackageClasses = TestApplication.class, repositoryBaseClass = BaseJpaRepositoryImpl.class)
+public class TestApplication {
+
+	@Bean
+	TestItemService testItemService() {
+		return new TestItemService();
+	}
+}
@@ -0,0 +1,28 @@
+package com.mt.core.model.fixture;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 測試用分類 (TestItem 的 lazy 關聯)
+ *
+ * @author Mueller Tsai
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "TEST_CATEGORY")
+public class TestCategory {
+
+	@Id
+	@Column(name = "ID")
+	private Long id;
+
+	@Column(name = "LABEL")
+	private String label;
+}
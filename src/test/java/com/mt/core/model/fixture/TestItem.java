@@ -0,0 +1,42 @@
+package com.mt.core.model.fixture;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 測試用 entity
+ *
+ * @author Mueller Tsai
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "TEST_ITEM")
+public class TestItem {
+
+	@Id
+	@Column(name = "ID")
+	private Long id;
+
+	@Column(name = "CODE", nullable = false)
+	private String code;
+
+	@Column(name = "QTY")
+	private Integer qty;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "CATEGORY_ID")
+	private TestCategory category;
+
+	@ManyToOne
+	@JoinColumn(name = "SUPPLIER_ID")
+	private TestSupplier supplier;
+}
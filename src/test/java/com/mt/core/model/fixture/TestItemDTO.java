@@ -0,0 +1,20 @@
+package com.mt.core.model.fixture;
+
+import lombok.Data;
+
+/**
+ * 測試用 DTO (categoryLabel 對映 category.label)
+ *
+ * @author Mueller Tsai
+ */
+@Data
+public class TestItemDTO {
+
+	private Long id;
+
+	private String code;
+
+	private Integer qty;
+
+	private String categoryLabel;
+}
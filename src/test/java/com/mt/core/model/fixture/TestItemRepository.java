@@ -0,0 +1,9 @@
+package com.mt.core.model.fixture;
+
+import com.mt.core.model.dao.BaseJpaRepository;
+
+/**
+ * @author Mueller Tsai
+ */
+public interface TestItemRepository extends BaseJpaRepository<TestItem, Long> {
+}
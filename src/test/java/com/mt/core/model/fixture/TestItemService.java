@@ -0,0 +1,9 @@
+package com.mt.core.model.fixture;
+
+import com.mt.core.model.service.AbstractService;
+
+/**
+ * @author Mueller Tsai
+ */
+public class TestItemService extends AbstractService<TestItem, Long, TestItemDTO, TestItemRepository> {
+}
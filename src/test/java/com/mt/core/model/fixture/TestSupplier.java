@@ -0,0 +1,28 @@
+package com.mt.core.model.fixture;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 測試用供應商 (TestItem 的 EAGER 關聯)
+ *
+ * @author Mueller Tsai
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "TEST_SUPPLIER")
+public class TestSupplier {
+
+	@Id
+	@Column(name = "ID")
+	private Long id;
+
+	@Column(name = "NAME")
+	private String name;
+}
@@ -0,0 +1,169 @@
+package com.mt.core.model.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mt.core.model.fixture.TestApplication;
+import com.mt.core.model.fixture.TestCategory;
+import com.mt.core.model.fixture.TestItem;
+import com.mt.core.model.fixture.TestItemDTO;
+import com.mt.core.model.fixture.TestItemService;
+import com.mt.core.model.service.support.MappingStrategy;
+import com.mt.core.model.service.support.MethodHandleMappingStrategy;
+import com.mt.core.model.service.support.ModelMapperMappingStrategy;
+import com.mt.core.model.vo.PageRequestVO;
+import com.mt.core.model.vo.PageResponseVO;
+
+/**
+ * AbstractService 於綁定 persistence context 時 (如 open-in-view) 併行轉換 DTO (H2)
+ *
+ * @author Mueller Tsai
+ */
+@SpringBootTest(classes = TestApplication.class)
+public class AbstractServiceMappingTest {
+
+	private static final int ROWS = 40;
+
+	@Autowired
+	private TestItemService proxy;
+
+	/**
+	 * 設定欄位的對象 (非交易 proxy)
+	 */
+	private TestItemService service;
+
+	@Autowired
+	private ModelMapper modelMapper;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private MappingStrategy mappingStrategy;
+
+	/**
+	 * 執行對映的執行緒名稱 (去除序號)
+	 */
+	private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+	@BeforeEach
+	public void setUp() {
+		this.service = AopTestUtils.getTargetObject(this.proxy);
+		this.mappingStrategy = this.service.mappingStrategy;
+		this.service.parallelMappingThreshold = 10;
+
+		this.transactionTemplate.execute(status -> {
+			for (long id = 1; id <= 3; id++) {
+				TestCategory category = new TestCategory();
+				category.setId(id);
+				category.setLabel("L" + id);
+				this.entityManager.persist(category);
+			}
+
+			for (long id = 1; id <= ROWS; id++) {
+				TestItem item = new TestItem();
+				item.setId(id);
+				item.setCode("C" + id);
+				item.setCategory(this.entityManager.getReference(TestCategory.class, id % 3 + 1));
+				this.entityManager.persist(item);
+			}
+
+			return null;
+		});
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.service.mappingStrategy = this.mappingStrategy;
+		this.service.parallelMappingThreshold = AbstractService.DEFAULT_PARALLEL_MAPPING_THRESHOLD;
+
+		this.transactionTemplate.execute(status -> {
+			this.entityManager.createQuery("DELETE FROM TestItem").executeUpdate();
+			this.entityManager.createQuery("DELETE FROM TestCategory").executeUpdate();
+			return null;
+		});
+	}
+
+	@Test
+	public void mapsInParallelWithBoundPersistenceContext() throws Exception {
+		this.service.mappingStrategy = new MethodHandleMappingStrategy(this.modelMapper) {
+
+			@Override
+			public <D> D map(Object source, Class<D> destinationType) {
+				threads.add(Thread.currentThread().getName().replaceAll("\\d+$", ""));
+				return super.map(source, destinationType);
+			}
+		};
+
+		PageResponseVO<TestItemDTO> response = this.getDataInView();
+
+		assertLabels(response);
+		assertTrue(this.threads.contains("dto-mapping-"), this.threads.toString());
+	}
+
+	@Test
+	public void mapsSequentiallyWithoutPreload() throws Exception {
+		this.service.mappingStrategy = new ModelMapperMappingStrategy(this.modelMapper) {
+
+			@Override
+			public <D> D map(Object source, Class<D> destinationType) {
+				threads.add(Thread.currentThread().getName().replaceAll("\\d+$", ""));
+				return super.map(source, destinationType);
+			}
+		};
+
+		PageResponseVO<TestItemDTO> response = this.getDataInView();
+
+		assertLabels(response);
+		assertEquals(Collections.singleton(Thread.currentThread().getName().replaceAll("\\d+$", "")), this.threads);
+	}
+
+	/**
+	 * 同 open-in-view: 交易外綁定 EntityManager, 查詢的 entity 為 managed, category 為未載入的 proxy
+	 *
+	 * @return
+	 * @throws Exception
+	 */
+	private PageResponseVO<TestItemDTO> getDataInView() throws Exception {
+		EntityManager bound = this.entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(this.entityManagerFactory, new EntityManagerHolder(bound));
+
+		try {
+			return this.proxy.getDataAsDTO(new PageRequestVO());
+		} finally {
+			TransactionSynchronizationManager.unbindResource(this.entityManagerFactory);
+			bound.close();
+		}
+	}
+
+	private static void assertLabels(PageResponseVO<TestItemDTO> response) {
+		assertEquals(ROWS, response.getRows().size());
+
+		for (TestItemDTO dto : response.getRows()) {
+			assertEquals("L" + (dto.getId() % 3 + 1), dto.getCategoryLabel());
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.mt.core.model.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import com.mt.core.model.fixture.TestCategory;
+import com.mt.core.model.fixture.TestItem;
+import com.mt.core.model.fixture.TestItemDTO;
+import com.mt.core.model.fixture.TestItemService;
+import com.mt.core.model.vo.PageRequestVO.CountStrategy;
+import com.mt.core.model.vo.PageResponseVO;
+
+/**
+ * AbstractService 的 DTO 對映
+ *
+ * @author Mueller Tsai
+ */
+public class AbstractServiceTest {
+
+	@Test
+	public void mapsPageWithoutCount() {
+		TestItemService service = new TestItemService();
+		service.modelMapper = new ModelMapper();
+
+		PageResponseVO<TestItem> page = new PageResponseVO<>(-1, Arrays.asList(item(1L, "a"), item(2L, "b")));
+		page.setNextCursor("cursor");
+		page.setHasMore(true);
+		page.setCountStrategy(CountStrategy.NONE);
+
+		PageResponseVO<TestItemDTO> mapped = service.mapEntityToDTO(page);
+
+		assertEquals(-1, mapped.getTotal());
+		assertEquals("cursor", mapped.getNextCursor());
+		assertTrue(mapped.isHasMore());
+		assertEquals(CountStrategy.NONE, mapped.getCountStrategy());
+		assertEquals(2, mapped.getRows().size());
+		assertEquals("b", mapped.getRows().get(1).getCode());
+		assertEquals("label-2", mapped.getRows().get(1).getCategoryLabel());
+	}
+
+	private static TestItem item(Long id, String code) {
+		TestCategory category = new TestCategory();
+		category.setId(id);
+		category.setLabel("label-" + id);
+
+		TestItem item = new TestItem();
+		item.setId(id);
+		item.setCode(code);
+		item.setCategory(category);
+
+		return item;
+	}
+}
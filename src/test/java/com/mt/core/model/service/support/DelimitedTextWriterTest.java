@@ -0,0 +1,127 @@
+package com.mt.core.model.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * DelimitedTextWriter 與 DelimitedTextReader 的寫入讀取
+ *
+ * @author Mueller Tsai
+ */
+public class DelimitedTextWriterTest {
+
+	@Test
+	public void roundTripQuotedValues() throws IOException {
+		List<List<String>> rows = Arrays.asList(Arrays.asList("a,b", "say \"hi\"", "line1\r\nline2", "lf\nonly"),
+				Arrays.asList("", "中文", "\"", "plain"), Arrays.asList("tab\there", " ", ",", "\r"));
+
+		assertEquals(rows, read(write(rows, DelimitedTextWriter.CSV_DELIMITER, 4), DelimitedTextWriter.CSV_DELIMITER));
+		assertEquals(rows, read(write(rows, DelimitedTextWriter.TSV_DELIMITER, 1024),
+				DelimitedTextWriter.TSV_DELIMITER));
+	}
+
+	@Test
+	public void quotesOnlyWhenNeeded() throws IOException {
+		String text = write(Arrays.asList(Arrays.asList("a", "b,c", "d\"e", null)), DelimitedTextWriter.CSV_DELIMITER,
+				1024);
+
+		assertEquals(DelimitedTextWriter.BOM + "a,\"b,c\",\"d\"\"e\",\r\n", text);
+		assertEquals(Arrays.asList(Arrays.asList("a", "b,c", "d\"e", "")),
+				read(text, DelimitedTextWriter.CSV_DELIMITER));
+	}
+
+	@Test
+	public void writesUtf8Bom() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (DelimitedTextWriter writer = new DelimitedTextWriter(
+				new OutputStreamWriter(out, StandardCharsets.UTF_8), DelimitedTextWriter.CSV_DELIMITER)) {
+			writer.writeField("x");
+			writer.endRow();
+		}
+
+		assertArrayEquals(new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'x', '\r', '\n' }, out.toByteArray());
+	}
+
+	@Test
+	public void escapesFormulaValues() throws IOException {
+		List<List<String>> rows = Arrays.asList(Arrays.asList("=SUM(A1:A2)", "+1", "-2", "@cmd", "'=quoted", "'", "a=b"));
+		String text = write(rows, DelimitedTextWriter.CSV_DELIMITER, 1024);
+
+		assertEquals(DelimitedTextWriter.BOM + "'=SUM(A1:A2),'+1,'-2,'@cmd,''=quoted,',a=b\r\n", text);
+		assertEquals(rows, read(text, DelimitedTextWriter.CSV_DELIMITER));
+	}
+
+	@Test
+	public void keepsNumbersUnescaped() throws IOException {
+		StringWriter out = new StringWriter();
+
+		try (DelimitedTextWriter writer = new DelimitedTextWriter(out, DelimitedTextWriter.CSV_DELIMITER)) {
+			writer.writeValue(-5);
+			writer.writeValue(new BigDecimal("-1E+3"));
+			writer.writeValue("-5");
+			writer.endRow();
+		}
+
+		assertEquals(DelimitedTextWriter.BOM + "-5,-1000,'-5\r\n", out.toString());
+	}
+
+	@Test
+	public void rejectsUnterminatedQuote() throws IOException {
+		try (DelimitedTextReader reader = new DelimitedTextReader(new StringReader("a,\"b\r\n"),
+				DelimitedTextWriter.CSV_DELIMITER)) {
+			assertThrows(IOException.class, reader::readRow);
+		}
+	}
+
+	@Test
+	public void readsEmptyInput() throws IOException {
+		try (DelimitedTextReader reader = new DelimitedTextReader(new StringReader(String.valueOf(DelimitedTextWriter.BOM)),
+				DelimitedTextWriter.CSV_DELIMITER)) {
+			assertNull(reader.readRow());
+		}
+	}
+
+	private static String write(List<List<String>> rows, char delimiter, int bufferSize) throws IOException {
+		StringWriter out = new StringWriter();
+
+		try (DelimitedTextWriter writer = new DelimitedTextWriter(out, delimiter, bufferSize)) {
+			for (List<String> row : rows) {
+				for (String value : row) {
+					writer.writeField(value);
+				}
+
+				writer.endRow();
+			}
+		}
+
+		return out.toString();
+	}
+
+	private static List<List<String>> read(String text, char delimiter) throws IOException {
+		List<List<String>> rows = new ArrayList<>();
+
+		try (DelimitedTextReader reader = new DelimitedTextReader(new StringReader(text), delimiter, 3)) {
+			for (List<String> row = reader.readRow(); row != null; row = reader.readRow()) {
+				rows.add(row);
+			}
+		}
+
+		return rows;
+	}
+}
@@ -0,0 +1,206 @@
+package com.mt.core.model.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mt.core.model.exception.ServiceException;
+import com.mt.core.model.service.support.ExportJobManager.ExportTask;
+import com.mt.core.model.vo.ExportJobVO;
+import com.mt.core.model.vo.ExportJobVO.Status;
+
+/**
+ * ExportJobManager 工作數上限, 逾期清除及暫存目錄
+ *
+ * @author Mueller Tsai
+ */
+public class ExportJobManagerTest {
+
+	@TempDir
+	Path directory;
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private ExportJobManager manager;
+
+	@AfterEach
+	public void shutdown() {
+		this.release.countDown();
+
+		if (this.manager != null) {
+			this.manager.shutdown();
+		}
+	}
+
+	@Test
+	public void limitsJobsPerUser() throws Exception {
+		this.manager = new ExportJobManager(this.directory, 2, 10, 1, 60_000, 60_000);
+		ExportJobVO job = this.manager.submit("alice", "a.csv", this.blockingTask(false));
+
+		assertThrows(ServiceException.class, () -> this.manager.submit("alice", "b.csv", this.blockingTask(false)));
+		this.manager.submit("bob", "b.csv", this.blockingTask(false));
+
+		this.release.countDown();
+		this.await(() -> this.getStatus("alice", job.getJobId()) == Status.COMPLETED);
+		this.manager.submit("alice", "c.csv", this.blockingTask(false));
+	}
+
+	@Test
+	public void removedJobCountsUntilThreadExits() throws Exception {
+		this.manager = new ExportJobManager(this.directory, 2, 10, 1, 60_000, 60_000);
+		CountDownLatch started = new CountDownLatch(1);
+		ExportJobVO job = this.manager.submit("alice", "a.csv", (exportJob, out) -> {
+			started.countDown();
+			this.blockingTask(true).export(exportJob, out);
+		});
+
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		this.manager.remove("alice", job.getJobId());
+
+		// 工作忽略 interrupt 仍在執行, 不可再提交
+		assertThrows(ServiceException.class, () -> this.manager.getJob("alice", job.getJobId()));
+		assertThrows(ServiceException.class, () -> this.manager.submit("alice", "b.csv", this.blockingTask(false)));
+
+		this.release.countDown();
+		this.await(() -> {
+			try {
+				this.manager.submit("alice", "b.csv", (exportJob, out) -> {
+				});
+				return true;
+			} catch (ServiceException e) {
+				return false;
+			}
+		});
+	}
+
+	@Test
+	public void timedOutJobCountsUntilThreadExits() throws Exception {
+		this.manager = new ExportJobManager(this.directory, 2, 10, 1, 60_000, 50);
+		ExportJobVO job = this.manager.submit("alice", "a.csv", this.blockingTask(true));
+
+		Thread.sleep(100);
+		this.manager.cleanup();
+
+		assertThrows(ServiceException.class, () -> this.manager.getJob("alice", job.getJobId()));
+		assertThrows(ServiceException.class, () -> this.manager.submit("alice", "b.csv", this.blockingTask(false)));
+	}
+
+	@Test
+	public void cleanupDeletesExpiredFiles() throws Exception {
+		this.manager = new ExportJobManager(this.directory, 2, 10, 2, 50, 60_000);
+		ExportJobVO job = this.manager.submit("alice", "a.csv",
+				(exportJob, out) -> out.write("a,b\n".getBytes(StandardCharsets.UTF_8)));
+
+		this.await(() -> this.getStatus("alice", job.getJobId()) == Status.COMPLETED);
+
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		assertEquals(4, this.manager.transferTo("alice", job.getJobId(), Channels.newChannel(content)));
+		assertEquals("a,b\n", content.toString("UTF-8"));
+		assertEquals(1, this.exportFiles().size());
+		assertThrows(ServiceException.class, () -> this.manager.getJob("bob", job.getJobId()));
+
+		Thread.sleep(100);
+		this.manager.cleanup();
+
+		assertThrows(ServiceException.class, () -> this.manager.getJob("alice", job.getJobId()));
+		assertTrue(this.exportFiles().isEmpty());
+	}
+
+	@Test
+	public void instancesKeepSeparateDirectories() throws Exception {
+		this.manager = new ExportJobManager(this.directory, 2, 10, 2, 60_000, 60_000);
+		ExportJobVO job = this.manager.submit("alice", "a.csv",
+				(exportJob, out) -> out.write("a".getBytes(StandardCharsets.UTF_8)));
+
+		this.await(() -> this.getStatus("alice", job.getJobId()) == Status.COMPLETED);
+
+		// 已結束實體遺留的子目錄
+		Path orphan = Files.createDirectories(this.directory.resolve("instance-orphan"));
+		Files.createFile(orphan.resolve(".lock"));
+		Files.createFile(orphan.resolve("export-1.tmp"));
+
+		ExportJobManager other = new ExportJobManager(this.directory, 1, 1, 1, 60_000, 60_000);
+
+		try {
+			assertFalse(Files.exists(orphan));
+			assertEquals(1, this.exportFiles().size());
+			assertEquals(2, this.instanceDirectories().size());
+		} finally {
+			other.shutdown();
+		}
+
+		assertEquals(1, this.instanceDirectories().size());
+		assertEquals(1, this.manager.transferTo("alice", job.getJobId(), Channels.newChannel(new ByteArrayOutputStream())));
+		assertNotEquals(orphan, this.instanceDirectories().get(0));
+	}
+
+	/**
+	 * 等待 release 的工作
+	 *
+	 * @param ignoreInterrupt 是否忽略取消的 interrupt
+	 * @return
+	 */
+	private ExportTask blockingTask(boolean ignoreInterrupt) {
+		return (job, out) -> {
+			while (true) {
+				try {
+					this.release.await();
+					return;
+				} catch (InterruptedException e) {
+					if (!ignoreInterrupt) {
+						throw e;
+					}
+				}
+			}
+		};
+	}
+
+	private Status getStatus(String owner, String jobId) {
+		try {
+			return this.manager.getJob(owner, jobId).getStatus();
+		} catch (ServiceException e) {
+			return null;
+		}
+	}
+
+	private void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "等待逾時");
+			Thread.sleep(10);
+		}
+	}
+
+	private List<Path> instanceDirectories() throws IOException {
+		try (Stream<Path> paths = Files.list(this.directory)) {
+			return paths.filter(Files::isDirectory).collect(Collectors.toList());
+		}
+	}
+
+	private List<Path> exportFiles() throws IOException {
+		try (Stream<Path> paths = Files.walk(this.directory)) {
+			return paths.filter(path -> path.getFileName().toString().startsWith("export-"))
+					.collect(Collectors.toList());
+		}
+	}
+}
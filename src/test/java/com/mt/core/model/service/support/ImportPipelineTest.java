@@ -0,0 +1,194 @@
+package com.mt.core.model.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.mt.core.model.service.support.ImportPipeline.HeaderMapper;
+import com.mt.core.model.service.support.ImportPipeline.RowHandler;
+import com.mt.core.model.service.support.ImportPipeline.RowSource;
+import com.mt.core.model.vo.FieldValidationErrorVO;
+import com.mt.core.model.vo.ImportResultVO;
+
+/**
+ * ImportPipeline 批次寫入, 錯誤列及中止
+ *
+ * @author Mueller Tsai
+ */
+public class ImportPipelineTest {
+
+	/**
+	 * 值為 x 的資料列驗證失敗
+	 */
+	private static final HeaderMapper<String> MAPPER = header -> (values, errors) -> {
+		if ("x".equals(values.get(0))) {
+			errors.add(new FieldValidationErrorVO());
+			return null;
+		}
+
+		return values.get(0).isEmpty() ? null : values.get(0);
+	};
+
+	@Test
+	public void writesBatches() throws Exception {
+		List<List<String>> batches = new CopyOnWriteArrayList<>();
+		ImportResultVO result = new ImportPipeline<String>(2, 1, 10, false).run(rows("a", "b", "", "c", "d", "e"),
+				MAPPER, batch -> {
+					batches.add(batch);
+					return batch.size();
+				});
+
+		assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d"), Arrays.asList("e")), batches);
+		assertEquals(5, result.getRows());
+		assertEquals(5, result.getInserted());
+		assertTrue(result.getErrors().isEmpty());
+		assertFalse(result.isErrorLimitReached());
+	}
+
+	@Test
+	public void stopsWritingAfterError() throws Exception {
+		List<String> written = new CopyOnWriteArrayList<>();
+		ImportResultVO result = new ImportPipeline<String>(1, 1, 10, false).run(rows("a", "x", "b", "x", "c"), MAPPER,
+				batch -> {
+					written.addAll(batch);
+					return batch.size();
+				});
+
+		assertFalse(written.contains("b"));
+		assertFalse(written.contains("c"));
+		assertEquals(5, result.getRows());
+		assertEquals(Arrays.asList(3, 5), new ArrayList<>(result.getErrors().keySet()));
+	}
+
+	@Test
+	public void skipsInvalidRows() throws Exception {
+		List<String> written = new CopyOnWriteArrayList<>();
+		ImportResultVO result = new ImportPipeline<String>(2, 1, 10, true).run(rows("a", "x", "b", "c"), MAPPER,
+				batch -> {
+					written.addAll(batch);
+					return batch.size();
+				});
+
+		assertEquals(Arrays.asList("a", "b", "c"), written);
+		assertEquals(3, result.getInserted());
+		assertEquals(Collections.singleton(3), result.getErrors().keySet());
+	}
+
+	@Test
+	public void closesBlockedSourceOnErrorLimit() throws Exception {
+		BlockingSource source = new BlockingSource("x", "x");
+		ImportResultVO result = new ImportPipeline<String>(10, 1, 2, false).run(source, MAPPER, List::size);
+
+		assertTrue(result.isErrorLimitReached());
+		assertEquals(2, result.getErrors().size());
+		assertTrue(source.closed.get());
+		assertTrue(source.exited.get());
+	}
+
+	@Test
+	public void propagatesWriterFailure() throws Exception {
+		BlockingSource source = new BlockingSource("a", "b");
+		IOException failure = new IOException("write");
+
+		assertSame(failure, assertThrows(IOException.class,
+				() -> new ImportPipeline<String>(1, 1, 10, false).run(source, MAPPER, batch -> {
+					throw failure;
+				})));
+		assertTrue(source.closed.get());
+		assertTrue(source.exited.get());
+	}
+
+	@Test
+	public void propagatesHeaderFailure() throws Exception {
+		BlockingSource source = new BlockingSource();
+		IllegalArgumentException failure = new IllegalArgumentException("header");
+
+		assertSame(failure, assertThrows(IllegalArgumentException.class,
+				() -> new ImportPipeline<String>(1, 1, 10, false).run(source, header -> {
+					throw failure;
+				}, List::size)));
+		assertTrue(source.exited.get());
+	}
+
+	@Test
+	public void propagatesSourceFailure() {
+		IOException failure = new IOException("read");
+
+		assertSame(failure, assertThrows(IOException.class,
+				() -> new ImportPipeline<String>(1, 1, 10, false).run(handler -> {
+					handler.row(1, Arrays.asList("header"));
+					throw failure;
+				}, MAPPER, List::size)));
+	}
+
+	/**
+	 * 標題列及各值一欄的資料列
+	 *
+	 * @param values
+	 * @return
+	 */
+	private static RowSource rows(String... values) {
+		return handler -> {
+			handler.row(1, Arrays.asList("header"));
+
+			for (int i = 0; i < values.length; i++) {
+				handler.row(i + 2, Arrays.asList(values[i]));
+			}
+		};
+	}
+
+	/**
+	 * 讀取各列後阻塞 (忽略 interrupt, 如讀取網路串流), 關閉後以 IOException 結束
+	 */
+	private static final class BlockingSource implements RowSource {
+
+		private final List<String> values;
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		private final AtomicBoolean exited = new AtomicBoolean();
+
+		BlockingSource(String... values) {
+			this.values = Arrays.asList(values);
+		}
+
+		@Override
+		public void read(RowHandler handler) throws Exception {
+			try {
+				rows(this.values.toArray(new String[0])).read(handler);
+
+				while (true) {
+					try {
+						this.release.await();
+						throw new IOException("Stream closed");
+					} catch (InterruptedException e) {
+						// 同阻塞於 I/O 的 read, 不因 interrupt 結束
+					}
+				}
+			} finally {
+				this.exited.set(true);
+			}
+		}
+
+		@Override
+		public void close() {
+			this.closed.set(true);
+			this.release.countDown();
+		}
+	}
+}